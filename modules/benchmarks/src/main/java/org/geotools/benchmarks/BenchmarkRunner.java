@@ -0,0 +1,63 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.benchmarks;
+
+import java.io.File;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the GeoTools benchmarks and writes the results as JSON, so that they can be compared
+ * between releases. Accepts the usual JMH command line options (e.g. a regular expression to
+ * select the benchmarks, or {@code -rff} to choose the output file), the result file defaults to
+ * {@code gt-benchmarks-<version>.json} in the current directory.
+ *
+ * <pre>
+ * mvn install -Pbenchmarks -DskipTests
+ * java -jar modules/benchmarks/target/benchmarks.jar [jmh options] [benchmark regexp]
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(BenchmarkRunner.class.getPackage().getName() + ".*Benchmark");
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            builder.result(new File(getDefaultResultName()).getAbsolutePath());
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+
+    static String getDefaultResultName() {
+        String version = BenchmarkRunner.class.getPackage().getImplementationVersion();
+        if (version == null) {
+            version = "dev";
+        }
+        return "gt-benchmarks-" + version + ".json";
+    }
+}
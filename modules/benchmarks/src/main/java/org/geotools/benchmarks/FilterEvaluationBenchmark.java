@@ -0,0 +1,137 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.benchmarks;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluates filters built by the default {@link FilterFactory2} against a batch of {@code
+ * SimpleFeatureImpl} instances. Each benchmark method returns the number of matches, the score is
+ * the time needed to evaluate the whole batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class FilterEvaluationBenchmark {
+
+    static final int FEATURES = 10000;
+
+    SimpleFeature[] features;
+
+    Filter equalTo;
+
+    Filter between;
+
+    Filter like;
+
+    Filter bbox;
+
+    Filter and;
+
+    @Setup
+    public void setup() {
+        SimpleFeatureTypeBuilder tb = new SimpleFeatureTypeBuilder();
+        tb.setName("bench");
+        tb.add("geom", Point.class, "EPSG:4326");
+        tb.add("name", String.class);
+        tb.add("population", Integer.class);
+        tb.add("area", Double.class);
+        SimpleFeatureType type = tb.buildFeatureType();
+
+        GeometryFactory gf = new GeometryFactory();
+        SimpleFeatureBuilder fb = new SimpleFeatureBuilder(type);
+        // fixed seed, so that every run evaluates the same data
+        Random random = new Random(42);
+        features = new SimpleFeature[FEATURES];
+        for (int i = 0; i < FEATURES; i++) {
+            double x = random.nextDouble() * 360 - 180;
+            double y = random.nextDouble() * 180 - 90;
+            fb.add(gf.createPoint(new Coordinate(x, y)));
+            fb.add("name" + random.nextInt(100));
+            fb.add(random.nextInt(1000000));
+            fb.add(random.nextDouble() * 1000);
+            features[i] = fb.buildFeature("bench." + i);
+        }
+
+        FilterFactory2 ff = CommonFactoryFinder.getFilterFactory2();
+        equalTo = ff.equals(ff.property("name"), ff.literal("name42"));
+        between =
+                ff.between(ff.property("population"), ff.literal(100000), ff.literal(500000));
+        like = ff.like(ff.property("name"), "name4*");
+        bbox = ff.bbox(ff.property("geom"), -10, -10, 10, 10, "EPSG:4326");
+        and = ff.and(between, ff.greater(ff.property("area"), ff.literal(500)));
+    }
+
+    @Benchmark
+    public int equalTo() {
+        return count(equalTo);
+    }
+
+    @Benchmark
+    public int between() {
+        return count(between);
+    }
+
+    @Benchmark
+    public int like() {
+        return count(like);
+    }
+
+    @Benchmark
+    public int bbox() {
+        return count(bbox);
+    }
+
+    @Benchmark
+    public int and() {
+        return count(and);
+    }
+
+    private int count(Filter filter) {
+        int matches = 0;
+        for (SimpleFeature feature : features) {
+            if (filter.evaluate(feature)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
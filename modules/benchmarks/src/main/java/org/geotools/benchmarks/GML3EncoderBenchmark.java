@@ -0,0 +1,88 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.benchmarks;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.xml.namespace.QName;
+import org.geotools.gml3.GML;
+import org.geotools.gml3.GMLConfiguration;
+import org.geotools.xml.Encoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Encodes the geometries of a sample shapefile as GML 3.1 with the {@link Encoder}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class GML3EncoderBenchmark {
+
+    @Param({"statepop", "roads"})
+    String shapefile;
+
+    List<Geometry> geometries;
+
+    QName element;
+
+    Encoder encoder;
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream(1024 * 1024);
+
+    @Setup
+    public void setup() throws Exception {
+        geometries = SampleGeometries.load(shapefile);
+        Geometry first = geometries.get(0);
+        if (first instanceof MultiPolygon) {
+            element = GML.MultiPolygon;
+        } else if (first instanceof MultiLineString) {
+            element = GML.MultiLineString;
+        } else if (first instanceof MultiPoint) {
+            element = GML.MultiPoint;
+        } else {
+            element = GML._Geometry;
+        }
+        // the configuration setup is expensive and shared in real life, keep it out of the loop
+        encoder = new Encoder(new GMLConfiguration());
+        encoder.setIndenting(false);
+    }
+
+    @Benchmark
+    public int encode() throws Exception {
+        out.reset();
+        for (Geometry geometry : geometries) {
+            encoder.encode(geometry, element, out);
+        }
+        return out.size();
+    }
+}
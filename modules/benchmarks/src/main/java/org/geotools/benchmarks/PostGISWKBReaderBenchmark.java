@@ -0,0 +1,87 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.benchmarks;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.WKBWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.geotools.data.postgis.WKBReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parses the geometries of a sample shapefile with the PostGIS {@link WKBReader}, both from raw
+ * bytes and from the hex encoded form returned by the non binary PostGIS path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PostGISWKBReaderBenchmark {
+
+    @Param({"statepop", "roads", "bugsites"})
+    String shapefile;
+
+    byte[][] wkb;
+
+    String[] hex;
+
+    WKBReader reader;
+
+    @Setup
+    public void setup() throws Exception {
+        List<Geometry> geometries = SampleGeometries.load(shapefile);
+        // extended WKB with SRID, as returned by PostGIS
+        WKBWriter writer = new WKBWriter(2, true);
+        wkb = new byte[geometries.size()][];
+        hex = new String[geometries.size()];
+        for (int i = 0; i < wkb.length; i++) {
+            Geometry g = geometries.get(i);
+            g.setSRID(4326);
+            wkb[i] = writer.write(g);
+            hex[i] = WKBWriter.toHex(wkb[i]);
+        }
+        reader = new WKBReader();
+    }
+
+    @Benchmark
+    public void readBinary(Blackhole bh) throws Exception {
+        for (byte[] bytes : wkb) {
+            bh.consume(reader.read(bytes));
+        }
+    }
+
+    @Benchmark
+    public void readHex(Blackhole bh) throws Exception {
+        for (String h : hex) {
+            bh.consume(reader.read(WKBReader.hexToBytes(h)));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import org.geotools.TestData;
+import org.geotools.data.shapefile.ShapefileDataStore;
+
+/**
+ * Extracts the shapefiles shipped in {@code gt-sample-data} to a temporary directory, so that the
+ * benchmarks can open them as plain files (the shapefile store cannot read from inside a jar).
+ */
+class SampleData {
+
+    static final String[] EXTENSIONS = {"shp", "shx", "dbf", "prj"};
+
+    private SampleData() {}
+
+    /**
+     * Copies the named shapefile (without extension, e.g. "statepop") and its sidecar files to a
+     * new temporary directory, and returns the {@code .shp} file
+     */
+    static File extractShapefile(String name) throws IOException {
+        File directory = Files.createTempDirectory("gt-benchmarks").toFile();
+        directory.deleteOnExit();
+        for (String extension : EXTENSIONS) {
+            String resource = "shapes/" + name + "." + extension;
+            File target = new File(directory, name + "." + extension);
+            try (InputStream in = TestData.openStream(resource);
+                    OutputStream out = new FileOutputStream(target)) {
+                byte[] buffer = new byte[8192];
+                int count;
+                while ((count = in.read(buffer)) >= 0) {
+                    out.write(buffer, 0, count);
+                }
+            } catch (IOException e) {
+                // the .prj is optional
+                if (!"prj".equals(extension)) {
+                    throw e;
+                }
+            }
+            target.deleteOnExit();
+        }
+        return new File(directory, name + ".shp");
+    }
+
+    /** Opens a shapefile store on the extracted copy of the named sample shapefile */
+    static ShapefileDataStore openShapefile(String name) throws IOException {
+        File shp = extractShapefile(name);
+        return new ShapefileDataStore(shp.toURI().toURL());
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.benchmarks;
+
+import com.vividsolutions.jts.geom.Geometry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.geotools.data.shapefile.ShapefileDataStore;
+import org.geotools.data.simple.SimpleFeatureIterator;
+
+/** Loads the geometries of a sample shapefile in memory */
+class SampleGeometries {
+
+    private SampleGeometries() {}
+
+    static List<Geometry> load(String shapefile) throws IOException {
+        ShapefileDataStore store = SampleData.openShapefile(shapefile);
+        List<Geometry> result = new ArrayList<>();
+        try (SimpleFeatureIterator it = store.getFeatureSource().getFeatures().features()) {
+            while (it.hasNext()) {
+                result.add((Geometry) it.next().getDefaultGeometry());
+            }
+        } finally {
+            store.dispose();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.geotools.data.FeatureReader;
+import org.geotools.data.Query;
+import org.geotools.data.Transaction;
+import org.geotools.data.shapefile.ShapefileDataStore;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures a full scan of a sample shapefile through {@code ShapefileFeatureReader}, with and
+ * without attribute decoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ShapefileReadBenchmark {
+
+    @Param({"statepop", "roads", "bugsites"})
+    String shapefile;
+
+    ShapefileDataStore store;
+
+    SimpleFeatureSource source;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        store = SampleData.openShapefile(shapefile);
+        source = store.getFeatureSource();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.dispose();
+    }
+
+    @Benchmark
+    public int readAll(Blackhole bh) throws IOException {
+        return scan(Query.ALL, bh);
+    }
+
+    @Benchmark
+    public int readGeometryOnly(Blackhole bh) throws IOException {
+        String geometryName = source.getSchema().getGeometryDescriptor().getLocalName();
+        Query query = new Query(source.getSchema().getTypeName());
+        query.setPropertyNames(new String[] {geometryName});
+        return scan(query, bh);
+    }
+
+    private int scan(Query query, Blackhole bh) throws IOException {
+        int count = 0;
+        try (FeatureReader<SimpleFeatureType, SimpleFeature> reader =
+                store.getFeatureReader(query, Transaction.AUTO_COMMIT)) {
+            while (reader.hasNext()) {
+                SimpleFeature feature = reader.next();
+                bh.consume(feature.getDefaultGeometry());
+                bh.consume(feature.getAttributes());
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.geotools.data.shapefile.ShapefileDataStore;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.map.FeatureLayer;
+import org.geotools.map.MapContent;
+import org.geotools.renderer.lite.StreamingRenderer;
+import org.geotools.styling.SLD;
+import org.geotools.styling.Style;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Renders a sample shapefile with a simple style through {@link StreamingRenderer#paint(Graphics2D,
+ * Rectangle, ReferencedEnvelope)} on an in memory image.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class StreamingRendererBenchmark {
+
+    @Param({"statepop", "roads"})
+    String shapefile;
+
+    @Param({"false", "true"})
+    boolean antialiasing;
+
+    ShapefileDataStore store;
+
+    MapContent content;
+
+    ReferencedEnvelope bounds;
+
+    BufferedImage image;
+
+    Rectangle paintArea;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        store = SampleData.openShapefile(shapefile);
+        SimpleFeatureSource source = store.getFeatureSource();
+        Style style = SLD.createSimpleStyle(source.getSchema());
+
+        content = new MapContent();
+        content.addLayer(new FeatureLayer(source, style));
+        bounds = source.getBounds();
+
+        image = new BufferedImage(768, 512, BufferedImage.TYPE_4BYTE_ABGR);
+        paintArea = new Rectangle(image.getWidth(), image.getHeight());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        content.dispose();
+        store.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        StreamingRenderer renderer = new StreamingRenderer();
+        renderer.setMapContent(content);
+        if (antialiasing) {
+            renderer.setJava2DHints(
+                    new RenderingHints(
+                            RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON));
+        }
+        Graphics2D graphics = image.createGraphics();
+        try {
+            renderer.paint(graphics, paintArea, bounds);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+}
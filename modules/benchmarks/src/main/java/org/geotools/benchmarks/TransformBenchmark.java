@@ -0,0 +1,91 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.geotools.referencing.CRS;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link CRS#findMathTransform} lookups (served from the referencing caches after the
+ * first call) and bulk {@link MathTransform#transform(double[], int, double[], int, int)} calls on
+ * packed coordinate arrays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TransformBenchmark {
+
+    @Param({"EPSG:3857", "EPSG:32632", "EPSG:3035"})
+    String target;
+
+    @Param({"1000", "100000"})
+    int points;
+
+    CoordinateReferenceSystem sourceCRS;
+
+    CoordinateReferenceSystem targetCRS;
+
+    MathTransform transform;
+
+    double[] source;
+
+    double[] destination;
+
+    @Setup
+    public void setup() throws Exception {
+        sourceCRS = CRS.decode("EPSG:4326", true);
+        targetCRS = CRS.decode(target, true);
+        transform = CRS.findMathTransform(sourceCRS, targetCRS, true);
+
+        // points around central Europe, valid in all the target projections
+        Random random = new Random(42);
+        source = new double[points * 2];
+        for (int i = 0; i < points; i++) {
+            source[i * 2] = 5 + random.nextDouble() * 10;
+            source[i * 2 + 1] = 40 + random.nextDouble() * 15;
+        }
+        destination = new double[points * 2];
+    }
+
+    @Benchmark
+    public MathTransform findMathTransform() throws Exception {
+        return CRS.findMathTransform(sourceCRS, targetCRS, true);
+    }
+
+    @Benchmark
+    public double[] transform() throws Exception {
+        transform.transform(source, 0, destination, 0, points);
+        return destination;
+    }
+}
@@ -69,7 +69,8 @@ import org.opengis.filter.spatial.Within;
  * @since 2.6
  * @source $URL$
  * @version $Id$
- * @deprecated This class is not tested enough to be considered production ready
+ * @deprecated This class is not tested enough to be considered production ready, use {@link
+ *     org.geotools.data.cache.TileCachingFeatureSource} instead
  */
 public class CachingFeatureSource implements SimpleFeatureSource {
     private SimpleFeatureSource wrapped;
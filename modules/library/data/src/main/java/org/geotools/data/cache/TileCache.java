@@ -0,0 +1,228 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.cache;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.opengis.feature.simple.SimpleFeature;
+
+/**
+ * A memory bounded, least recently used cache of features, organized in tiles of a regular grid.
+ *
+ * <p>The grid covers the given domain, the tiles on its border extend to infinity so that every
+ * feature falls in some tile, even if the domain gets outdated. The tiles are evicted in least
+ * recently used order when their estimated size exceeds the memory budget.
+ */
+class TileCache {
+
+    /** The features of a tile, along with their estimated size */
+    static final class Tile {
+        final long key;
+
+        final List<SimpleFeature> features;
+
+        final long bytes;
+
+        Tile(long key, List<SimpleFeature> features, long bytes) {
+            this.key = key;
+            this.features = features;
+            this.bytes = bytes;
+        }
+    }
+
+    final Envelope domain;
+
+    final int tilesPerSide;
+
+    final double tileWidth;
+
+    final double tileHeight;
+
+    final long maxBytes;
+
+    /** The cached tiles, in access order */
+    private final LinkedHashMap<Long, Tile> tiles = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes;
+
+    /** Incremented at each invalidation, so that tiles loaded meanwhile are not cached */
+    private long generation;
+
+    final AtomicLong hits = new AtomicLong();
+
+    final AtomicLong misses = new AtomicLong();
+
+    final AtomicLong evictions = new AtomicLong();
+
+    TileCache(Envelope domain, int tilesPerSide, long maxBytes) {
+        this.domain = new Envelope(domain);
+        this.tilesPerSide = tilesPerSide;
+        this.tileWidth = domain.getWidth() > 0 ? domain.getWidth() / tilesPerSide : 1;
+        this.tileHeight = domain.getHeight() > 0 ? domain.getHeight() / tilesPerSide : 1;
+        this.maxBytes = maxBytes;
+    }
+
+    int getColumn(double x) {
+        return clamp((int) Math.floor((x - domain.getMinX()) / tileWidth));
+    }
+
+    int getRow(double y) {
+        return clamp((int) Math.floor((y - domain.getMinY()) / tileHeight));
+    }
+
+    private int clamp(int index) {
+        return Math.max(0, Math.min(tilesPerSide - 1, index));
+    }
+
+    static long getKey(int column, int row) {
+        return ((long) column << 32) | row;
+    }
+
+    static int getColumn(long key) {
+        return (int) (key >>> 32);
+    }
+
+    static int getRow(long key) {
+        return (int) key;
+    }
+
+    /** Returns the envelope of a tile, open ended for the tiles on the border of the grid */
+    Envelope getEnvelope(long key) {
+        int column = getColumn(key);
+        int row = getRow(key);
+        double minX =
+                column == 0 ? -Double.MAX_VALUE : domain.getMinX() + column * tileWidth;
+        double maxX =
+                column == tilesPerSide - 1
+                        ? Double.MAX_VALUE
+                        : domain.getMinX() + (column + 1) * tileWidth;
+        double minY = row == 0 ? -Double.MAX_VALUE : domain.getMinY() + row * tileHeight;
+        double maxY =
+                row == tilesPerSide - 1
+                        ? Double.MAX_VALUE
+                        : domain.getMinY() + (row + 1) * tileHeight;
+        return new Envelope(minX, maxX, minY, maxY);
+    }
+
+    /** Returns the tile with the given key, or null if not cached */
+    synchronized Tile get(long key) {
+        Tile tile = tiles.get(key);
+        if (tile != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return tile;
+    }
+
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Caches a tile loaded when the cache was at the given generation, evicting the least recently
+     * used tiles to stay within the memory budget. The tile is discarded if the cache has been
+     * invalidated since, or if it's larger than the whole budget.
+     */
+    synchronized void put(Tile tile, long loadGeneration) {
+        if (loadGeneration != generation || tile.bytes > maxBytes) {
+            return;
+        }
+        Tile previous = tiles.put(tile.key, tile);
+        if (previous != null) {
+            bytes -= previous.bytes;
+        }
+        bytes += tile.bytes;
+        Iterator<Tile> it = tiles.values().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Tile eldest = it.next();
+            it.remove();
+            bytes -= eldest.bytes;
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops the tiles intersecting the given envelope, or all of them if the envelope is null or
+     * empty
+     */
+    synchronized void invalidate(Envelope envelope) {
+        generation++;
+        if (envelope == null || envelope.isNull()) {
+            tiles.clear();
+            bytes = 0;
+            return;
+        }
+        Iterator<Map.Entry<Long, Tile>> it = tiles.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Tile> entry = it.next();
+            if (getEnvelope(entry.getKey()).intersects(envelope)) {
+                bytes -= entry.getValue().bytes;
+                it.remove();
+            }
+        }
+    }
+
+    synchronized long getBytes() {
+        return bytes;
+    }
+
+    synchronized int getTileCount() {
+        return tiles.size();
+    }
+
+    /** Estimates the memory used by a feature, in bytes */
+    static long estimateSize(SimpleFeature feature) {
+        // object header, attribute array, identifier
+        long size = 64 + feature.getAttributeCount() * 8;
+        String id = feature.getID();
+        if (id != null) {
+            size += 40 + 2 * id.length();
+        }
+        for (Object value : feature.getAttributes()) {
+            size += estimateSize(value);
+        }
+        return size;
+    }
+
+    private static long estimateSize(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof Geometry) {
+            // coordinate objects plus the geometry wrappers around them
+            Geometry geometry = (Geometry) value;
+            return 40L * geometry.getNumPoints() + 80L * geometry.getNumGeometries();
+        } else if (value instanceof CharSequence) {
+            return 40 + 2 * ((CharSequence) value).length();
+        } else if (value instanceof Collection) {
+            long size = 40;
+            for (Object item : (Collection<?>) value) {
+                size += 8 + estimateSize(item);
+            }
+            return size;
+        } else {
+            // boxed primitives, dates and the like
+            return 24;
+        }
+    }
+}
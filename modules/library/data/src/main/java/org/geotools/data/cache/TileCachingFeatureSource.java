@@ -0,0 +1,444 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.cache;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import java.awt.RenderingHints;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.geotools.data.DataAccess;
+import org.geotools.data.DataSourceException;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.FeatureEvent;
+import org.geotools.data.FeatureListener;
+import org.geotools.data.Query;
+import org.geotools.data.QueryCapabilities;
+import org.geotools.data.ResourceInfo;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.data.store.ReTypingFeatureCollection;
+import org.geotools.data.store.ReprojectingFeatureCollection;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.factory.Hints;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.filter.FilterCompiler;
+import org.geotools.filter.spatial.ReprojectingFilterVisitor;
+import org.geotools.filter.visitor.ExtractBoundsFilterVisitor;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.referencing.CRS;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.feature.type.Name;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.TransformException;
+
+/**
+ * A caching wrapper for any {@link SimpleFeatureSource}, keeping the features of the most recently
+ * queried areas in memory, within a memory budget.
+ *
+ * <p>The source data extent is split in a regular grid of tiles. Queries with a bounded spatial
+ * extent on the default geometry are answered from the tiles they touch, loading from the wrapped
+ * source only the tiles that are not cached yet, and then filtering in memory. Tiles are evicted
+ * in least recently used order once their estimated size exceeds the budget. Any other query,
+ * including the ones with paging, sorting or a forced coordinate reference system, is delegated
+ * to the wrapped source.
+ *
+ * <p>The cache listens to the wrapped source {@link FeatureEvent}s, dropping the tiles touched by
+ * the modified features, or all of them when the event does not report the modified area.
+ *
+ * <p>The features returned are shared among queries, and should not be modified. Call {@link
+ * #dispose()} when done with the source to stop listening to the wrapped one.
+ *
+ * @since 20
+ */
+public class TileCachingFeatureSource implements SimpleFeatureSource {
+
+    /** The default number of tiles per side of the grid */
+    public static final int DEFAULT_TILES_PER_SIDE = 16;
+
+    static final FilterFactory2 FF = CommonFactoryFinder.getFilterFactory2();
+
+    /** Hints that cannot be honored when returning the cached features */
+    static final Set<Hints.Key> UNSUPPORTED_HINTS =
+            new HashSet<>(
+                    Arrays.asList(
+                            Hints.FEATURE_DETACHED,
+                            Hints.GEOMETRY_DISTANCE,
+                            Hints.GEOMETRY_GENERALIZATION,
+                            Hints.GEOMETRY_SIMPLIFICATION));
+
+    final SimpleFeatureSource wrapped;
+
+    final long maxBytes;
+
+    final int tilesPerSide;
+
+    /** The tiles, built on the first cacheable query */
+    private volatile TileCache tiles;
+
+    private final FeatureListener listener = this::invalidate;
+
+    /**
+     * Wraps the source, caching up to the given amount of memory
+     *
+     * @param wrapped the source to be cached
+     * @param maxBytes the memory budget, in bytes, for the cached features
+     */
+    public TileCachingFeatureSource(SimpleFeatureSource wrapped, long maxBytes) {
+        this(wrapped, maxBytes, DEFAULT_TILES_PER_SIDE);
+    }
+
+    /**
+     * Wraps the source, caching up to the given amount of memory
+     *
+     * @param wrapped the source to be cached
+     * @param maxBytes the memory budget, in bytes, for the cached features
+     * @param tilesPerSide the number of tiles per side of the cache grid
+     */
+    public TileCachingFeatureSource(SimpleFeatureSource wrapped, long maxBytes, int tilesPerSide) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("The memory budget must be positive");
+        }
+        if (tilesPerSide <= 0) {
+            throw new IllegalArgumentException("The number of tiles per side must be positive");
+        }
+        this.wrapped = wrapped;
+        this.maxBytes = maxBytes;
+        this.tilesPerSide = tilesPerSide;
+        wrapped.addFeatureListener(listener);
+    }
+
+    /** Stops listening to the wrapped source events and drops the cached features */
+    public void dispose() {
+        wrapped.removeFeatureListener(listener);
+        invalidate((Envelope) null);
+    }
+
+    /** Drops all the cached features */
+    public void clear() {
+        invalidate((Envelope) null);
+    }
+
+    /** The number of tiles found in the cache */
+    public long getHits() {
+        TileCache cache = tiles;
+        return cache == null ? 0 : cache.hits.get();
+    }
+
+    /** The number of tiles that had to be loaded from the wrapped source */
+    public long getMisses() {
+        TileCache cache = tiles;
+        return cache == null ? 0 : cache.misses.get();
+    }
+
+    /** The number of tiles evicted to stay within the memory budget */
+    public long getEvictions() {
+        TileCache cache = tiles;
+        return cache == null ? 0 : cache.evictions.get();
+    }
+
+    /** The estimated size of the cached features, in bytes */
+    public long getCachedBytes() {
+        TileCache cache = tiles;
+        return cache == null ? 0 : cache.getBytes();
+    }
+
+    /** The memory budget, in bytes */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    void invalidate(FeatureEvent event) {
+        invalidate(event.getBounds());
+    }
+
+    void invalidate(Envelope envelope) {
+        TileCache cache = tiles;
+        if (cache != null) {
+            cache.invalidate(envelope);
+        }
+    }
+
+    public SimpleFeatureCollection getFeatures() throws IOException {
+        return getFeatures(Filter.INCLUDE);
+    }
+
+    public SimpleFeatureCollection getFeatures(Filter filter) throws IOException {
+        return getFeatures(new Query(getSchema().getName().getLocalPart(), filter));
+    }
+
+    public SimpleFeatureCollection getFeatures(Query query) throws IOException {
+        SimpleFeatureType schema = getSchema();
+        String typeName = schema.getName().getLocalPart();
+        if (query.getTypeName() != null && !typeName.equals(query.getTypeName())) {
+            throw new DataSourceException(
+                    "Typename mismatch, query asks for '"
+                            + query.getTypeName()
+                            + " but this feature source provides '"
+                            + typeName
+                            + "'");
+        }
+        Envelope extent = getCacheableExtent(query, schema);
+        TileCache cache = extent != null ? getTileCache() : null;
+        if (cache == null) {
+            return wrapped.getFeatures(query);
+        }
+
+        query = DataUtilities.resolvePropertyNames(query, schema);
+        Filter filter = query.getFilter() == null ? Filter.INCLUDE : query.getFilter();
+        // the cached features are in the native CRS, so must be the filter evaluated on them
+        filter = (Filter) filter.accept(new ReprojectingFilterVisitor(FF, schema), null);
+        filter = FilterCompiler.compile(filter, schema);
+        List<SimpleFeature> features = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (TileCache.Tile tile : getTiles(cache, extent)) {
+            for (SimpleFeature feature : tile.features) {
+                // features crossing tile borders are found in each of them
+                if (ids.add(feature.getID()) && filter.evaluate(feature)) {
+                    features.add(feature);
+                }
+            }
+        }
+
+        SimpleFeatureCollection collection = new ListFeatureCollection(schema, features);
+        if (query.getCoordinateSystemReproject() != null) {
+            collection =
+                    new ReprojectingFeatureCollection(
+                            collection, query.getCoordinateSystemReproject());
+        }
+        if (query.getPropertyNames() != Query.ALL_NAMES) {
+            SimpleFeatureType target =
+                    SimpleFeatureTypeBuilder.retype(
+                            collection.getSchema(), query.getPropertyNames());
+            if (!target.equals(collection.getSchema())) {
+                collection = new ReTypingFeatureCollection(collection, target);
+            }
+        }
+        return collection;
+    }
+
+    /**
+     * Returns the extent of the query on the default geometry, or null if the query cannot be
+     * answered from the cache
+     */
+    Envelope getCacheableExtent(Query query, SimpleFeatureType schema) {
+        GeometryDescriptor geometry = schema.getGeometryDescriptor();
+        SortBy[] sortBy = query.getSortBy();
+        if (geometry == null
+                || query.getStartIndex() != null
+                || !query.isMaxFeaturesUnlimited()
+                || (sortBy != null && sortBy.length > 0)
+                || query.getVersion() != null
+                || query.getCoordinateSystem() != null
+                || (query.getJoins() != null && !query.getJoins().isEmpty())) {
+            return null;
+        }
+        Filter filter = query.getFilter();
+        if (filter == null || filter == Filter.INCLUDE || filter == Filter.EXCLUDE) {
+            return null;
+        }
+        // the tiles are built on the default geometry, filters on other ones cannot use them
+        for (String name : DataUtilities.attributeNames(filter, schema)) {
+            AttributeDescriptor descriptor = schema.getDescriptor(name);
+            if (descriptor instanceof GeometryDescriptor && descriptor != geometry) {
+                return null;
+            }
+        }
+        Envelope extent =
+                (Envelope) filter.accept(ExtractBoundsFilterVisitor.BOUNDS_VISITOR, null);
+        if (extent == null
+                || extent.isNull()
+                || Double.isInfinite(extent.getWidth())
+                || Double.isInfinite(extent.getHeight())) {
+            return null;
+        }
+        // the tiles are built in the native CRS, the query one might be different
+        CoordinateReferenceSystem nativeCRS = schema.getCoordinateReferenceSystem();
+        if (extent instanceof ReferencedEnvelope && nativeCRS != null) {
+            ReferencedEnvelope referenced = (ReferencedEnvelope) extent;
+            CoordinateReferenceSystem crs = referenced.getCoordinateReferenceSystem();
+            if (crs != null && !CRS.equalsIgnoreMetadata(crs, nativeCRS)) {
+                try {
+                    extent = referenced.transform(nativeCRS, true);
+                } catch (TransformException | FactoryException e) {
+                    return null;
+                }
+            }
+        }
+        return extent;
+    }
+
+    /** Returns the tile cache, building it if the source bounds are available */
+    TileCache getTileCache() throws IOException {
+        TileCache cache = tiles;
+        if (cache == null) {
+            synchronized (this) {
+                cache = tiles;
+                if (cache == null) {
+                    ReferencedEnvelope bounds = wrapped.getBounds();
+                    if (bounds == null || bounds.isNull()) {
+                        return null;
+                    }
+                    cache = new TileCache(bounds, tilesPerSide, maxBytes);
+                    tiles = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /** Returns the tiles covering the extent, loading the missing ones from the wrapped source */
+    List<TileCache.Tile> getTiles(TileCache cache, Envelope extent) throws IOException {
+        List<TileCache.Tile> result = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        for (int col = cache.getColumn(extent.getMinX());
+                col <= cache.getColumn(extent.getMaxX());
+                col++) {
+            for (int row = cache.getRow(extent.getMinY());
+                    row <= cache.getRow(extent.getMaxY());
+                    row++) {
+                long key = TileCache.getKey(col, row);
+                TileCache.Tile tile = cache.get(key);
+                if (tile != null) {
+                    result.add(tile);
+                } else {
+                    missing.add(key);
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            result.addAll(loadTiles(cache, missing));
+        }
+        return result;
+    }
+
+    /** Loads the given tiles with a single query, and caches them */
+    List<TileCache.Tile> loadTiles(TileCache cache, List<Long> keys) throws IOException {
+        long generation = cache.getGeneration();
+        Map<Long, List<SimpleFeature>> features = new HashMap<>();
+        Map<Long, long[]> sizes = new HashMap<>();
+        Envelope envelope = new Envelope();
+        for (Long key : keys) {
+            features.put(key, new ArrayList<>());
+            sizes.put(key, new long[1]);
+            envelope.expandToInclude(cache.getEnvelope(key));
+        }
+
+        SimpleFeatureType schema = getSchema();
+        ReferencedEnvelope bbox =
+                new ReferencedEnvelope(envelope, schema.getCoordinateReferenceSystem());
+        String geometryName = schema.getGeometryDescriptor().getLocalName();
+        Query query =
+                new Query(
+                        schema.getName().getLocalPart(),
+                        FF.bbox(FF.property(geometryName), bbox));
+        try (SimpleFeatureIterator it = wrapped.getFeatures(query).features()) {
+            while (it.hasNext()) {
+                SimpleFeature feature = it.next();
+                Geometry geometry = (Geometry) feature.getDefaultGeometry();
+                if (geometry == null || geometry.isEmpty()) {
+                    continue;
+                }
+                Envelope bounds = geometry.getEnvelopeInternal();
+                long size = TileCache.estimateSize(feature);
+                for (int col = cache.getColumn(bounds.getMinX());
+                        col <= cache.getColumn(bounds.getMaxX());
+                        col++) {
+                    for (int row = cache.getRow(bounds.getMinY());
+                            row <= cache.getRow(bounds.getMaxY());
+                            row++) {
+                        long key = TileCache.getKey(col, row);
+                        List<SimpleFeature> tileFeatures = features.get(key);
+                        if (tileFeatures != null) {
+                            tileFeatures.add(feature);
+                            sizes.get(key)[0] += size;
+                        }
+                    }
+                }
+            }
+        }
+
+        List<TileCache.Tile> result = new ArrayList<>();
+        for (Long key : keys) {
+            TileCache.Tile tile = new TileCache.Tile(key, features.get(key), sizes.get(key)[0]);
+            cache.put(tile, generation);
+            result.add(tile);
+        }
+        return result;
+    }
+
+    public void addFeatureListener(FeatureListener listener) {
+        wrapped.addFeatureListener(listener);
+    }
+
+    public void removeFeatureListener(FeatureListener listener) {
+        wrapped.removeFeatureListener(listener);
+    }
+
+    public DataAccess<SimpleFeatureType, SimpleFeature> getDataStore() {
+        return wrapped.getDataStore();
+    }
+
+    public ReferencedEnvelope getBounds() throws IOException {
+        return wrapped.getBounds();
+    }
+
+    public ReferencedEnvelope getBounds(Query query) throws IOException {
+        return wrapped.getBounds(query);
+    }
+
+    public int getCount(Query query) throws IOException {
+        return wrapped.getCount(query);
+    }
+
+    public SimpleFeatureType getSchema() {
+        return wrapped.getSchema();
+    }
+
+    public ResourceInfo getInfo() {
+        return wrapped.getInfo();
+    }
+
+    public Name getName() {
+        return wrapped.getName();
+    }
+
+    public QueryCapabilities getQueryCapabilities() {
+        return wrapped.getQueryCapabilities();
+    }
+
+    public Set<RenderingHints.Key> getSupportedHints() {
+        Set<RenderingHints.Key> hints = new HashSet<>(wrapped.getSupportedHints());
+        hints.removeAll(UNSUPPORTED_HINTS);
+        return hints;
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.columnar;
+
+import java.util.Arrays;
+
+/**
+ * Storage for the values of a single attribute, one slot per row.
+ *
+ * <p>Rows are only ever appended, the owning {@link ColumnarTable} takes care of synchronizing
+ * appends and of publishing the new row count to readers. Readers run concurrently with appends,
+ * which never modify the published rows: the storage arrays are only replaced by larger copies, and
+ * their fields are volatile so that a reader picking up a new array also sees its content.
+ */
+abstract class Column {
+
+    static final int INITIAL_CAPACITY = 16;
+
+    /** The attribute binding, values returned by {@link #get(int)} are of this class */
+    final Class<?> binding;
+
+    /** Bits flagging the rows holding a null value */
+    private volatile long[] nulls = new long[1];
+
+    /** Number of rows stored */
+    int size;
+
+    Column(Class<?> binding) {
+        this.binding = binding;
+    }
+
+    /** Appends a value, already converted to the column binding (or null) */
+    abstract void append(Object value);
+
+    /** Returns the value at the specified row, or null */
+    abstract Object get(int row);
+
+    /**
+     * Compares two non null rows with the same semantic as {@link Comparable#compareTo(Object)} on
+     * the values returned by {@link #get(int)}
+     */
+    abstract int compare(int row1, int row2);
+
+    boolean isNull(int row) {
+        long[] words = nulls;
+        int word = row >> 6;
+        return word < words.length && (words[word] & (1L << row)) != 0;
+    }
+
+    /** Flags a row that has not been published yet as null */
+    void setNull(int row) {
+        long[] words = nulls;
+        int word = row >> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        }
+        // the other bits of the word are left untouched, readers see them either way
+        words[word] |= 1L << row;
+        nulls = words;
+    }
+
+    /** Returns the capacity needed to store one more row, or -1 if the current one is enough */
+    static int grow(int capacity, int size) {
+        if (size < capacity) {
+            return -1;
+        }
+        return Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1));
+    }
+
+    /** Primitive double storage, for {@link Double} and {@link Float} attributes */
+    static class DoubleColumn extends Column {
+        volatile double[] values = new double[INITIAL_CAPACITY];
+
+        DoubleColumn(Class<?> binding) {
+            super(binding);
+        }
+
+        @Override
+        void append(Object value) {
+            int capacity = grow(values.length, size);
+            if (capacity > 0) {
+                values = Arrays.copyOf(values, capacity);
+            }
+            if (value == null) {
+                setNull(size);
+            } else {
+                values[size] = ((Number) value).doubleValue();
+            }
+            size++;
+        }
+
+        @Override
+        Object get(int row) {
+            if (isNull(row)) {
+                return null;
+            }
+            if (binding == Float.class) {
+                return Float.valueOf((float) values[row]);
+            }
+            return Double.valueOf(values[row]);
+        }
+
+        double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        int compare(int row1, int row2) {
+            if (binding == Float.class) {
+                return Float.compare((float) values[row1], (float) values[row2]);
+            }
+            return Double.compare(values[row1], values[row2]);
+        }
+
+        /** True if the value is a {@link Double} NaN or infinite (skipped by the max visitor) */
+        boolean isNaNOrInfinite(int row) {
+            double value = values[row];
+            return binding == Double.class && (Double.isNaN(value) || Double.isInfinite(value));
+        }
+    }
+
+    /** Primitive int storage, for {@link Integer}, {@link Short} and {@link Byte} attributes */
+    static class IntColumn extends Column {
+        volatile int[] values = new int[INITIAL_CAPACITY];
+
+        IntColumn(Class<?> binding) {
+            super(binding);
+        }
+
+        @Override
+        void append(Object value) {
+            int capacity = grow(values.length, size);
+            if (capacity > 0) {
+                values = Arrays.copyOf(values, capacity);
+            }
+            if (value == null) {
+                setNull(size);
+            } else {
+                values[size] = ((Number) value).intValue();
+            }
+            size++;
+        }
+
+        @Override
+        Object get(int row) {
+            if (isNull(row)) {
+                return null;
+            }
+            int value = values[row];
+            if (binding == Short.class) {
+                return Short.valueOf((short) value);
+            } else if (binding == Byte.class) {
+                return Byte.valueOf((byte) value);
+            }
+            return Integer.valueOf(value);
+        }
+
+        int getInt(int row) {
+            return values[row];
+        }
+
+        @Override
+        int compare(int row1, int row2) {
+            return Integer.compare(values[row1], values[row2]);
+        }
+    }
+
+    /**
+     * Primitive long storage, for {@link Long} attributes and for the {@link java.util.Date},
+     * {@link java.sql.Date} and {@link java.sql.Time} ones (stored as milliseconds since the epoch)
+     */
+    static class LongColumn extends Column {
+        volatile long[] values = new long[INITIAL_CAPACITY];
+
+        LongColumn(Class<?> binding) {
+            super(binding);
+        }
+
+        @Override
+        void append(Object value) {
+            int capacity = grow(values.length, size);
+            if (capacity > 0) {
+                values = Arrays.copyOf(values, capacity);
+            }
+            if (value == null) {
+                setNull(size);
+            } else if (value instanceof java.util.Date) {
+                values[size] = ((java.util.Date) value).getTime();
+            } else {
+                values[size] = ((Number) value).longValue();
+            }
+            size++;
+        }
+
+        @Override
+        Object get(int row) {
+            if (isNull(row)) {
+                return null;
+            }
+            long value = values[row];
+            if (binding == java.util.Date.class) {
+                return new java.util.Date(value);
+            } else if (binding == java.sql.Date.class) {
+                return new java.sql.Date(value);
+            } else if (binding == java.sql.Time.class) {
+                return new java.sql.Time(value);
+            }
+            return Long.valueOf(value);
+        }
+
+        long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        int compare(int row1, int row2) {
+            return Long.compare(values[row1], values[row2]);
+        }
+    }
+
+    /** Generic storage for the attributes that do not have a primitive representation */
+    static class ObjectColumn extends Column {
+        volatile Object[] values = new Object[INITIAL_CAPACITY];
+
+        ObjectColumn(Class<?> binding) {
+            super(binding);
+        }
+
+        @Override
+        void append(Object value) {
+            int capacity = grow(values.length, size);
+            if (capacity > 0) {
+                values = Arrays.copyOf(values, capacity);
+            }
+            if (value == null) {
+                setNull(size);
+            } else {
+                values[size] = value;
+            }
+            size++;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        int compare(int row1, int row2) {
+            return ((Comparable<Object>) values[row1]).compareTo(values[row2]);
+        }
+    }
+}
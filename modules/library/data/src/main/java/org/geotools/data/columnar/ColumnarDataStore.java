@@ -0,0 +1,213 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.columnar;
+
+import com.vividsolutions.jts.geom.GeometryFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import org.geotools.data.FeatureReader;
+import org.geotools.data.Query;
+import org.geotools.data.store.ContentDataStore;
+import org.geotools.data.store.ContentEntry;
+import org.geotools.data.store.ContentFeatureSource;
+import org.geotools.feature.FeatureCollection;
+import org.geotools.feature.FeatureIterator;
+import org.geotools.feature.FeatureTypes;
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.Name;
+
+/**
+ * A read only, in memory data store keeping the features in column oriented form.
+ *
+ * <p>Compared to {@link org.geotools.data.memory.MemoryDataStore}, which keeps a full feature
+ * object per row, numeric attributes are stored in primitive arrays, strings are dictionary
+ * encoded and geometries are packed into coordinate buffers, which makes it suitable to hold
+ * millions of features. Features are materialized only when read, and lazily decode their
+ * attributes on access.
+ *
+ * <p>Content is loaded with the {@code addFeatures} methods, the feature sources returned by the
+ * store do not support writes.
+ *
+ * @see ColumnarFeatureSource
+ */
+public class ColumnarDataStore extends ContentDataStore {
+
+    public ColumnarDataStore() {
+        super();
+    }
+
+    /**
+     * Construct a ColumnarDataStore with an empty table for the provided SimpleFeatureType
+     *
+     * @param featureType An empty table of this type will be made available
+     */
+    public ColumnarDataStore(SimpleFeatureType featureType) throws IOException {
+        createSchema(featureType);
+    }
+
+    /** Construct a ColumnarDataStore holding a copy of the provided collection */
+    public ColumnarDataStore(FeatureCollection<SimpleFeatureType, SimpleFeature> collection)
+            throws IOException {
+        addFeatures(collection);
+    }
+
+    /**
+     * Adds the features provided by the collection, creating the table for their feature type if
+     * needed
+     *
+     * @throws IOException If the features cannot be read, or their type is not compatible with
+     *     the existing table of the same name
+     */
+    public void addFeatures(FeatureCollection<SimpleFeatureType, SimpleFeature> collection)
+            throws IOException {
+        if (collection == null) {
+            throw new IllegalArgumentException("Provided FeatureCollection is empty");
+        }
+        ColumnarTable table = entry(collection.getSchema()).getTable();
+        try (FeatureIterator<SimpleFeature> iterator = collection.features()) {
+            while (iterator.hasNext()) {
+                table.append(iterator.next());
+            }
+        }
+    }
+
+    /**
+     * Adds the features provided by the reader, creating the table for their feature type if
+     * needed. The reader is closed at the end.
+     *
+     * @throws IOException If the features cannot be read, or their type is not compatible with
+     *     the existing table of the same name
+     */
+    public void addFeatures(FeatureReader<SimpleFeatureType, SimpleFeature> reader)
+            throws IOException {
+        try {
+            ColumnarTable table = entry(reader.getFeatureType()).getTable();
+            while (reader.hasNext()) {
+                table.append(reader.next());
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Adds the features in the array, creating the tables for their feature types if needed
+     *
+     * @throws IOException If a feature type is not compatible with the existing table of the same
+     *     name
+     */
+    public void addFeatures(SimpleFeature... features) throws IOException {
+        if ((features == null) || (features.length == 0)) {
+            throw new IllegalArgumentException("Provided features are empty");
+        }
+        for (SimpleFeature feature : features) {
+            entry(feature.getFeatureType()).getTable().append(feature);
+        }
+    }
+
+    /**
+     * Access to entry to store content of the provided schema, will create new entry if needed.
+     *
+     * @throws IOException If new entry could not be created due to typeName conflict
+     */
+    protected ColumnarEntry entry(SimpleFeatureType schema) throws IOException {
+        Name typeName = schema.getName();
+        synchronized (entries) {
+            ColumnarEntry entry = (ColumnarEntry) entries.get(typeName);
+            if (entry == null) {
+                entry = new ColumnarEntry(this, schema, getColumnGeometryFactory());
+                entries.put(typeName, entry);
+            } else if (!FeatureTypes.equals(entry.getTable().getSchema(), schema)) {
+                throw new IOException(
+                        "Entry "
+                                + typeName
+                                + " schema "
+                                + entry.getTable().getSchema()
+                                + " incompatible with provided "
+                                + schema);
+            }
+            return entry;
+        }
+    }
+
+    private GeometryFactory getColumnGeometryFactory() {
+        GeometryFactory factory = getGeometryFactory();
+        if (factory == null) {
+            factory = JTSFactoryFinder.getGeometryFactory();
+        }
+        return factory;
+    }
+
+    /**
+     * Adds support for a new feature type, with an empty table.
+     *
+     * @throws IOException If the feature type already exists
+     */
+    @Override
+    public void createSchema(SimpleFeatureType featureType) throws IOException {
+        Name typeName = featureType.getName();
+        synchronized (entries) {
+            if (entries.containsKey(typeName)) {
+                throw new IOException(typeName + " already exists");
+            }
+            entries.put(
+                    typeName, new ColumnarEntry(this, featureType, getColumnGeometryFactory()));
+        }
+    }
+
+    @Override
+    public void removeSchema(String typeName) throws IOException {
+        for (Name name : entries.keySet()) {
+            if (name.getLocalPart().equals(typeName)) {
+                removeSchema(name);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void removeSchema(Name typeName) throws IOException {
+        if (typeName != null) {
+            synchronized (entries) {
+                entries.remove(typeName);
+            }
+        }
+    }
+
+    @Override
+    protected List<Name> createTypeNames() throws IOException {
+        List<Name> names = new ArrayList<Name>(this.entries.keySet());
+        Collections.sort(
+                names,
+                new Comparator<Name>() {
+                    public int compare(Name n1, Name n2) {
+                        return n1.toString().compareTo(n2.toString());
+                    }
+                });
+        return names;
+    }
+
+    @Override
+    protected ContentFeatureSource createFeatureSource(ContentEntry entry) throws IOException {
+        return new ColumnarFeatureSource(entry, Query.ALL);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.columnar;
+
+import com.vividsolutions.jts.geom.GeometryFactory;
+import org.geotools.data.store.ContentEntry;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/** Entry holding the {@link ColumnarTable} of a single feature type. */
+public class ColumnarEntry extends ContentEntry {
+
+    final ColumnarTable table;
+
+    ColumnarEntry(
+            ColumnarDataStore store, SimpleFeatureType schema, GeometryFactory geometryFactory) {
+        super(store, schema.getName());
+        this.table = new ColumnarTable(schema, geometryFactory);
+    }
+
+    /** The column oriented storage of this entry features */
+    public ColumnarTable getTable() {
+        return table;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarEntry '" + getTypeName() + "': " + table.size() + " features";
+    }
+}
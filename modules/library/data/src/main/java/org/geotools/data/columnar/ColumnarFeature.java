@@ -0,0 +1,203 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.columnar;
+
+import com.vividsolutions.jts.geom.Envelope;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.geotools.feature.simple.SimpleFeatureImpl;
+import org.geotools.filter.identity.FeatureIdImpl;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.opengis.feature.Property;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.feature.type.Name;
+import org.opengis.filter.identity.FeatureId;
+import org.opengis.geometry.BoundingBox;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+/**
+ * A feature backed by a row of a {@link ColumnarTable}. Attribute values are decoded from the
+ * columns only when first accessed, and then kept in the feature, so that modifications made by
+ * the caller stay local to the feature. The identifier is built lazily as well.
+ *
+ * <p>The feature type can be a subset of the table schema, the column mapping tells which column
+ * backs each attribute.
+ */
+class ColumnarFeature extends SimpleFeatureImpl {
+
+    final ColumnarTable table;
+
+    final int[] columns;
+
+    final boolean[] loaded;
+
+    int row;
+
+    ColumnarFeature(ColumnarTable table, SimpleFeatureType type, int[] columns, int row) {
+        super(new Object[columns.length], type, null, false);
+        this.table = table;
+        this.columns = columns;
+        this.loaded = new boolean[columns.length];
+        this.row = row;
+    }
+
+    /**
+     * Moves the feature to another row, forgetting about any value loaded so far. Used to recycle
+     * a single instance while evaluating filters.
+     */
+    void setRow(int row) {
+        this.row = row;
+        this.id = null;
+        this.userData = null;
+        this.attributeUserData = null;
+        Arrays.fill(loaded, false);
+        Arrays.fill(values, null);
+    }
+
+    /** Decodes all the attribute values */
+    private void load() {
+        for (int i = 0; i < values.length; i++) {
+            load(i);
+        }
+        getIdentifier();
+    }
+
+    private void load(int index) {
+        if (!loaded[index]) {
+            values[index] = table.getColumn(columns[index]).get(row);
+            loaded[index] = true;
+        }
+    }
+
+    @Override
+    public FeatureId getIdentifier() {
+        if (id == null) {
+            id = new FeatureIdImpl(table.getFid(row));
+        }
+        return id;
+    }
+
+    @Override
+    public String getID() {
+        if (id != null) {
+            return id.getID();
+        }
+        return table.getFid(row);
+    }
+
+    @Override
+    public Object getAttribute(int index) throws IndexOutOfBoundsException {
+        load(index);
+        return values[index];
+    }
+
+    @Override
+    public List<Object> getAttributes() {
+        load();
+        return super.getAttributes();
+    }
+
+    @Override
+    public void setAttribute(int index, Object value) throws IndexOutOfBoundsException {
+        super.setAttribute(index, value);
+        loaded[index] = true;
+    }
+
+    @Override
+    public void setAttributes(List<Object> values) {
+        super.setAttributes(values);
+        Arrays.fill(loaded, true);
+    }
+
+    @Override
+    public void setValue(Collection<Property> values) {
+        super.setValue(values);
+        Arrays.fill(loaded, true);
+    }
+
+    @Override
+    public BoundingBox getBounds() {
+        // use the stored envelopes, unless a geometry got loaded (and possibly modified)
+        CoordinateReferenceSystem crs = featureType.getCoordinateReferenceSystem();
+        if (crs != null && crs.getCoordinateSystem().getDimension() > 2) {
+            load();
+            return super.getBounds();
+        }
+        Envelope envelope = new Envelope();
+        for (int i = 0; i < values.length; i++) {
+            if (featureType.getDescriptor(i) instanceof GeometryDescriptor) {
+                if (loaded[i]) {
+                    load();
+                    return super.getBounds();
+                }
+                Column column = table.getColumn(columns[i]);
+                ((GeometryColumn) column).expand(row, envelope);
+            }
+        }
+        return new ReferencedEnvelope(envelope, crs);
+    }
+
+    @Override
+    public Collection<Property> getProperties() {
+        load();
+        return super.getProperties();
+    }
+
+    @Override
+    public Collection<Property> getProperties(String name) {
+        load();
+        return super.getProperties(name);
+    }
+
+    @Override
+    public Property getProperty(String name) {
+        load();
+        return super.getProperty(name);
+    }
+
+    @Override
+    public Collection<Property> getProperties(Name name) {
+        load();
+        return super.getProperties(name);
+    }
+
+    @Override
+    public Property getProperty(Name name) {
+        load();
+        return super.getProperty(name);
+    }
+
+    @Override
+    public void validate() {
+        load();
+        super.validate();
+    }
+
+    @Override
+    public int hashCode() {
+        getIdentifier();
+        return super.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        load();
+        return super.equals(obj);
+    }
+}
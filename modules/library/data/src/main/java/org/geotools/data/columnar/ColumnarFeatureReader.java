@@ -0,0 +1,106 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.columnar;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import org.geotools.data.FeatureReader;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Reads the rows of a {@link ColumnarTable} matching a filter. Each returned feature is a lazy
+ * view on its row, attributes are decoded only when accessed.
+ */
+class ColumnarFeatureReader implements FeatureReader<SimpleFeatureType, SimpleFeature> {
+
+    ColumnarTable table;
+
+    SimpleFeatureType featureType;
+
+    /** Table column backing each attribute of the target feature type */
+    int[] columns;
+
+    RowMatcher matcher;
+
+    /** End (exclusive) of the rows visible to this reader */
+    int size;
+
+    /** The next matching row, or -1 if it has not been looked up yet */
+    int next = -1;
+
+    int row;
+
+    ColumnarFeatureReader(
+            ColumnarTable table, SimpleFeatureType featureType, int[] columns, RowMatcher matcher) {
+        this(table, featureType, columns, matcher, 0, table.size());
+    }
+
+    /** Reads the matching rows between start (inclusive) and end (exclusive) */
+    ColumnarFeatureReader(
+            ColumnarTable table,
+            SimpleFeatureType featureType,
+            int[] columns,
+            RowMatcher matcher,
+            int start,
+            int end) {
+        this.table = table;
+        this.featureType = featureType;
+        this.columns = columns;
+        this.matcher = matcher;
+        this.row = start;
+        this.size = end;
+    }
+
+    @Override
+    public SimpleFeatureType getFeatureType() {
+        return featureType;
+    }
+
+    @Override
+    public SimpleFeature next() throws IOException, NoSuchElementException {
+        if (table == null) {
+            throw new IOException("Feature Reader has been closed");
+        }
+        if (!hasNext()) {
+            throw new NoSuchElementException("There are no more Features");
+        }
+        SimpleFeature feature = new ColumnarFeature(table, featureType, columns, next);
+        next = -1;
+        return feature;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        if (table == null) {
+            return false;
+        }
+        while (next < 0 && row < size) {
+            if (matcher.matches(row)) {
+                next = row;
+            }
+            row++;
+        }
+        return next >= 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        table = null;
+        matcher = null;
+    }
+}
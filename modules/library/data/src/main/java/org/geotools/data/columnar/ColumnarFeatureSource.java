@@ -0,0 +1,313 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.columnar;
+
+import com.vividsolutions.jts.geom.Envelope;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.geotools.data.FeatureReader;
+import org.geotools.data.Query;
+import org.geotools.data.columnar.Column.DoubleColumn;
+import org.geotools.data.store.ContentEntry;
+import org.geotools.data.store.ContentFeaturePartition;
+import org.geotools.data.store.ContentFeatureSource;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.feature.visitor.BoundsVisitor;
+import org.geotools.feature.visitor.CountVisitor;
+import org.geotools.feature.visitor.MaxVisitor;
+import org.geotools.feature.visitor.MinVisitor;
+import org.geotools.feature.visitor.UniqueVisitor;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.opengis.feature.FeatureVisitor;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.PropertyName;
+
+/**
+ * Read access to the content of a {@link ColumnarDataStore}.
+ *
+ * <p>Filtering and retyping are handled natively, and the common aggregate visitors ({@link
+ * CountVisitor}, {@link BoundsVisitor}, {@link MinVisitor}, {@link MaxVisitor} and {@link
+ * UniqueVisitor}) are computed straight out of the columns, without building any feature.
+ */
+public class ColumnarFeatureSource extends ContentFeatureSource {
+
+    public ColumnarFeatureSource(ContentEntry entry) {
+        this(entry, Query.ALL);
+    }
+
+    public ColumnarFeatureSource(ContentEntry entry, Query query) {
+        super(entry, query);
+    }
+
+    /** Access parent ColumnarDataStore. */
+    @Override
+    public ColumnarDataStore getDataStore() {
+        return (ColumnarDataStore) super.getDataStore();
+    }
+
+    /** The entry for the feature source. */
+    @Override
+    public ColumnarEntry getEntry() {
+        return (ColumnarEntry) super.getEntry();
+    }
+
+    ColumnarTable getTable() {
+        return getEntry().getTable();
+    }
+
+    @Override
+    protected SimpleFeatureType buildFeatureType() throws IOException {
+        return getTable().getSchema();
+    }
+
+    @Override
+    protected boolean canFilter() {
+        return true;
+    }
+
+    @Override
+    protected boolean canRetype() {
+        return true;
+    }
+
+    @Override
+    protected ReferencedEnvelope getBoundsInternal(Query query) throws IOException {
+        ColumnarTable table = getTable();
+        RowMatcher matcher = new RowMatcher(table, query.getFilter());
+        if (!isUnlimited(query)) {
+            // paging over a sorted result, cannot be done without sorting
+            if (query.getSortBy() != null && query.getSortBy().length > 0) {
+                return null;
+            }
+        }
+        int skip = query.getStartIndex() != null ? query.getStartIndex() : 0;
+        int max = query.getMaxFeatures();
+        Envelope envelope = new Envelope();
+        int size = table.size();
+        int matched = 0;
+        for (int row = 0; row < size && matched - skip < max; row++) {
+            if (matcher.matches(row)) {
+                if (matched >= skip) {
+                    table.expandBounds(row, envelope);
+                }
+                matched++;
+            }
+        }
+        return new ReferencedEnvelope(envelope, getSchema().getCoordinateReferenceSystem());
+    }
+
+    @Override
+    protected int getCountInternal(Query query) throws IOException {
+        ColumnarTable table = getTable();
+        return new RowMatcher(table, query.getFilter()).count(table.size());
+    }
+
+    @Override
+    protected FeatureReader<SimpleFeatureType, SimpleFeature> getReaderInternal(Query query)
+            throws IOException {
+        ColumnarTable table = getTable();
+        SimpleFeatureType target = getTargetType(table, query);
+        return new ColumnarFeatureReader(
+                table,
+                target,
+                getColumns(table, target),
+                new RowMatcher(table, query.getFilter()));
+    }
+
+    @Override
+    protected List<ContentFeaturePartition> splitInternal(Query query, int partitions)
+            throws IOException {
+        // partitions are row ranges, the rows appended later are not visible to them
+        ColumnarTable table = getTable();
+        SimpleFeatureType target = getTargetType(table, query);
+        int[] columns = getColumns(table, target);
+        int size = table.size();
+        List<ContentFeaturePartition> result = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            int start = (int) ((long) size * i / partitions);
+            int end = (int) ((long) size * (i + 1) / partitions);
+            if (start < end) {
+                // matchers are not thread safe, each reader gets its own
+                result.add(
+                        () ->
+                                new ColumnarFeatureReader(
+                                        table,
+                                        target,
+                                        columns,
+                                        new RowMatcher(table, query.getFilter()),
+                                        start,
+                                        end));
+            }
+        }
+        return result;
+    }
+
+    private SimpleFeatureType getTargetType(ColumnarTable table, Query query) {
+        if (query.getPropertyNames() == Query.ALL_NAMES) {
+            return table.getSchema();
+        }
+        return SimpleFeatureTypeBuilder.retype(table.getSchema(), query.getPropertyNames());
+    }
+
+    /** Table column backing each attribute of the target type */
+    private int[] getColumns(ColumnarTable table, SimpleFeatureType target) {
+        SimpleFeatureType schema = table.getSchema();
+        int[] columns = new int[target.getAttributeCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = schema.indexOf(target.getDescriptor(i).getLocalName());
+        }
+        return columns;
+    }
+
+    @Override
+    protected boolean handleVisitor(Query query, FeatureVisitor visitor) throws IOException {
+        // the visitors below are computed on the stored data, bail out if paging,
+        // reprojection or a CRS override are involved
+        if (!isUnlimited(query)
+                || query.getCoordinateSystem() != null
+                || query.getCoordinateSystemReproject() != null) {
+            return false;
+        }
+        ColumnarTable table = getTable();
+        RowMatcher matcher = new RowMatcher(table, query.getFilter());
+        int size = table.size();
+        if (visitor instanceof CountVisitor) {
+            ((CountVisitor) visitor).setValue(matcher.count(size));
+            return true;
+        } else if (visitor instanceof BoundsVisitor) {
+            Envelope envelope = new Envelope();
+            for (int row = 0; row < size; row++) {
+                if (matcher.matches(row)) {
+                    table.expandBounds(row, envelope);
+                }
+            }
+            if (!envelope.isNull()) {
+                ((BoundsVisitor) visitor).getBounds().expandToInclude(envelope);
+            }
+            return true;
+        } else if (visitor instanceof MinVisitor) {
+            Column column = getColumn(((MinVisitor) visitor).getExpression());
+            if (column == null) {
+                return false;
+            }
+            int best = -1;
+            for (int row = 0; row < size; row++) {
+                if (!column.isNull(row)
+                        && matcher.matches(row)
+                        && (best < 0 || column.compare(row, best) < 0)) {
+                    best = row;
+                }
+            }
+            if (best >= 0) {
+                ((MinVisitor) visitor).setValue(column.get(best));
+            }
+            return true;
+        } else if (visitor instanceof MaxVisitor) {
+            Column column = getColumn(((MaxVisitor) visitor).getExpression());
+            if (column == null) {
+                return false;
+            }
+            // the max visitor ignores NaN and infinite doubles
+            DoubleColumn doubles = column instanceof DoubleColumn ? (DoubleColumn) column : null;
+            int best = -1;
+            for (int row = 0; row < size; row++) {
+                if (!column.isNull(row)
+                        && (doubles == null || !doubles.isNaNOrInfinite(row))
+                        && matcher.matches(row)
+                        && (best < 0 || column.compare(row, best) > 0)) {
+                    best = row;
+                }
+            }
+            if (best >= 0) {
+                ((MaxVisitor) visitor).setValue(column.get(best));
+            }
+            return true;
+        } else if (visitor instanceof UniqueVisitor) {
+            UniqueVisitor unique = (UniqueVisitor) visitor;
+            Column column = getColumn(unique.getExpression());
+            if (column == null) {
+                return false;
+            }
+            List<Object> values = collectUnique(column, matcher, size);
+            // the visitor counts distinct values in encounter order when paging
+            if (unique.hasLimits()) {
+                int start = Math.min(unique.getStartIndex(), values.size());
+                long end = Math.min((long) start + unique.getMaxFeatures(), values.size());
+                values = values.subList(start, (int) end);
+            }
+            unique.setValue(values);
+            return true;
+        }
+
+        return false;
+    }
+
+    /** Collects the distinct non null values of a column, in encounter order */
+    private List<Object> collectUnique(Column column, RowMatcher matcher, int size) {
+        List<Object> result = new ArrayList<>();
+        if (column instanceof StringColumn) {
+            // work on the dictionary codes, decode each distinct value once
+            StringColumn strings = (StringColumn) column;
+            BitSet seen = new BitSet(strings.getDictionarySize());
+            for (int row = 0; row < size; row++) {
+                int code = strings.getCode(row);
+                if (code >= 0 && !seen.get(code) && matcher.matches(row)) {
+                    seen.set(code);
+                    result.add(strings.decode(code));
+                }
+            }
+        } else {
+            Set<Object> seen = new LinkedHashSet<>();
+            for (int row = 0; row < size; row++) {
+                if (!column.isNull(row) && matcher.matches(row)) {
+                    seen.add(column.get(row));
+                }
+            }
+            result.addAll(seen);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the non geometric column referenced by the expression, if the expression is a plain
+     * property name, or null otherwise
+     */
+    private Column getColumn(Expression expression) {
+        if (!(expression instanceof PropertyName)) {
+            return null;
+        }
+        String name = ((PropertyName) expression).getPropertyName();
+        SimpleFeatureType schema = getTable().getSchema();
+        int index = schema.indexOf(name);
+        if (index < 0 || schema.getDescriptor(index) instanceof GeometryDescriptor) {
+            return null;
+        }
+        return getTable().getColumn(index);
+    }
+
+    private boolean isUnlimited(Query query) {
+        return (query.getStartIndex() == null || query.getStartIndex() == 0)
+                && (query.getMaxFeatures() < 0 || query.getMaxFeatures() == Integer.MAX_VALUE);
+    }
+}
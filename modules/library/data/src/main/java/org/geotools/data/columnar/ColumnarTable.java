@@ -0,0 +1,167 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.columnar;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.geotools.data.columnar.Column.DoubleColumn;
+import org.geotools.data.columnar.Column.IntColumn;
+import org.geotools.data.columnar.Column.LongColumn;
+import org.geotools.data.columnar.Column.ObjectColumn;
+import org.geotools.util.Converters;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+
+/**
+ * The column oriented content of a single feature type: one {@link Column} per attribute, plus
+ * the feature identifiers.
+ *
+ * <p>Rows can only be appended. Appends are synchronized, the row count is published last so that
+ * readers can work without locking on the rows that were present when they started.
+ */
+public class ColumnarTable {
+
+    final SimpleFeatureType schema;
+
+    final Column[] columns;
+
+    final FidColumn fids = new FidColumn();
+
+    /** Indexes of the geometry columns */
+    final int[] geometryColumns;
+
+    /** Index of the default geometry column, or -1 */
+    final int defaultGeometry;
+
+    volatile int size;
+
+    ColumnarTable(SimpleFeatureType schema, GeometryFactory geometryFactory) {
+        this.schema = schema;
+        List<AttributeDescriptor> descriptors = schema.getAttributeDescriptors();
+        this.columns = new Column[descriptors.size()];
+        List<Integer> geometries = new ArrayList<>();
+        for (int i = 0; i < columns.length; i++) {
+            AttributeDescriptor ad = descriptors.get(i);
+            columns[i] = createColumn(ad, geometryFactory);
+            if (ad instanceof GeometryDescriptor) {
+                geometries.add(i);
+            }
+        }
+        this.geometryColumns = new int[geometries.size()];
+        for (int i = 0; i < geometryColumns.length; i++) {
+            geometryColumns[i] = geometries.get(i);
+        }
+        GeometryDescriptor gd = schema.getGeometryDescriptor();
+        this.defaultGeometry = gd == null ? -1 : schema.indexOf(gd.getLocalName());
+    }
+
+    private static Column createColumn(AttributeDescriptor ad, GeometryFactory geometryFactory) {
+        Class<?> binding = ad.getType().getBinding();
+        if (Geometry.class.isAssignableFrom(binding)) {
+            return new GeometryColumn(binding, geometryFactory);
+        } else if (binding == Double.class || binding == Float.class) {
+            return new DoubleColumn(binding);
+        } else if (binding == Integer.class || binding == Short.class || binding == Byte.class) {
+            return new IntColumn(binding);
+        } else if (binding == Long.class
+                || binding == java.util.Date.class
+                || binding == java.sql.Date.class
+                || binding == java.sql.Time.class) {
+            return new LongColumn(binding);
+        } else if (binding == String.class) {
+            return new StringColumn();
+        } else {
+            return new ObjectColumn(binding);
+        }
+    }
+
+    /** The feature type of the stored rows */
+    public SimpleFeatureType getSchema() {
+        return schema;
+    }
+
+    /** Number of rows stored */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends a feature to the table. The attributes are looked up by name, and converted to the
+     * schema bindings if necessary (any geometry type is accepted in geometry attributes).
+     *
+     * @throws IllegalArgumentException if an attribute value cannot be converted to the expected
+     *     type
+     */
+    public synchronized void append(SimpleFeature feature) {
+        if (feature == null) {
+            throw new IllegalArgumentException("Provided Feature is empty");
+        }
+        // convert first, so that a failure does not leave the columns misaligned
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            String name = schema.getDescriptor(i).getLocalName();
+            Object value = feature.getAttribute(name);
+            Class<?> target =
+                    columns[i] instanceof GeometryColumn ? Geometry.class : columns[i].binding;
+            if (value != null && !target.isInstance(value)) {
+                Object converted = Converters.convert(value, target);
+                if (converted == null) {
+                    throw new IllegalArgumentException(
+                            "Cannot convert value "
+                                    + value
+                                    + " of attribute "
+                                    + name
+                                    + " to "
+                                    + target.getName());
+                }
+                value = converted;
+            }
+            values[i] = value;
+        }
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].append(values[i]);
+        }
+        fids.append(feature.getID());
+        // publish the new row to readers
+        size = size + 1;
+    }
+
+    Column getColumn(int index) {
+        return columns[index];
+    }
+
+    String getFid(int row) {
+        return fids.get(row);
+    }
+
+    /** Returns true if the table has a single geometry column */
+    boolean hasSingleGeometry() {
+        return geometryColumns.length == 1;
+    }
+
+    /** Expands the target envelope with the envelopes of all the geometries in the row */
+    void expandBounds(int row, Envelope target) {
+        for (int g : geometryColumns) {
+            ((GeometryColumn) columns[g]).expand(row, target);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.columnar;
+
+import java.util.Arrays;
+
+/**
+ * Feature identifier storage. The common "prefix.number" identifiers are stored as a shared prefix
+ * plus a primitive long per row, the column switches to plain string storage as soon as an
+ * identifier not following the pattern is appended. The numbers are kept after the switch, so
+ * that readers that did not see it yet can still use them.
+ */
+class FidColumn {
+
+    String prefix;
+
+    volatile long[] numbers;
+
+    volatile String[] strings;
+
+    int size;
+
+    void append(String fid) {
+        if (strings == null) {
+            long number = parseNumber(fid);
+            if (number >= 0) {
+                if (numbers == null) {
+                    numbers = new long[Column.INITIAL_CAPACITY];
+                }
+                int capacity = Column.grow(numbers.length, size);
+                if (capacity > 0) {
+                    numbers = Arrays.copyOf(numbers, capacity);
+                }
+                numbers[size++] = number;
+                return;
+            }
+            // switch to string storage, filled before being published
+            String[] values = new String[Math.max(Column.INITIAL_CAPACITY, size + 1)];
+            for (int i = 0; i < size; i++) {
+                values[i] = prefix + numbers[i];
+            }
+            strings = values;
+        }
+        String[] values = strings;
+        int capacity = Column.grow(values.length, size);
+        if (capacity > 0) {
+            values = Arrays.copyOf(values, capacity);
+            strings = values;
+        }
+        values[size++] = fid;
+    }
+
+    String get(int row) {
+        String[] values = strings;
+        if (values != null) {
+            return values[row];
+        }
+        return prefix + numbers[row];
+    }
+
+    /**
+     * Returns the numeric part of the fid if it follows the prefix pattern (and sets up the prefix
+     * if this is the first fid), -1 otherwise
+     */
+    private long parseNumber(String fid) {
+        int idx = fid.lastIndexOf('.');
+        String fidPrefix = fid.substring(0, idx + 1);
+        String suffix = fid.substring(idx + 1);
+        if (prefix != null && !prefix.equals(fidPrefix)) {
+            return -1;
+        }
+        // only accept canonical representations, so that they can be rebuilt verbatim
+        if (suffix.isEmpty()
+                || suffix.length() > 18
+                || (suffix.length() > 1 && suffix.charAt(0) == '0')) {
+            return -1;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            char c = suffix.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        if (prefix == null) {
+            prefix = fidPrefix;
+        }
+        return Long.parseLong(suffix);
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.columnar;
+
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.CoordinateSequenceFactory;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import java.util.Arrays;
+
+/**
+ * Geometry storage as packed buffers. The coordinates of all the geometries are appended to a
+ * single ordinate array, while a separate int array records the geometry structure (type codes and
+ * element counts, in depth first order). The envelope of each row is stored as well, so that
+ * bounds computations and bounding box tests do not need to rebuild the geometries.
+ *
+ * <p>Geometries are rebuilt on demand by {@link #get(int)}. Geometry classes other than the plain
+ * JTS ones (e.g., curved geometries) are kept as objects, to avoid losing their semantics. The same
+ * goes for geometries carrying user data, or a SRID other than the one of the first geometry
+ * appended: the packed ones are rebuilt with a factory using that SRID. The user data of the
+ * components of a collection is not preserved.
+ */
+class GeometryColumn extends Column {
+
+    static final int NULL = 0;
+
+    static final int POINT = 1;
+
+    static final int LINESTRING = 2;
+
+    static final int LINEARRING = 3;
+
+    static final int POLYGON = 4;
+
+    static final int MULTIPOINT = 5;
+
+    static final int MULTILINESTRING = 6;
+
+    static final int MULTIPOLYGON = 7;
+
+    static final int COLLECTION = 8;
+
+    static final int OTHER = 9;
+
+    /** Rebuilds the packed geometries, its SRID is set by the first non null geometry appended */
+    GeometryFactory factory;
+
+    boolean sridSet;
+
+    /** x/y pairs for all the geometries */
+    volatile double[] ordinates = new double[INITIAL_CAPACITY * 2];
+
+    /** z values, allocated (and NaN filled) only when the first 3D coordinate shows up */
+    volatile double[] zs;
+
+    int coordinateCount;
+
+    volatile int[] structure = new int[INITIAL_CAPACITY * 2];
+
+    int structureCount;
+
+    /** Start offset of each row in the structure array */
+    volatile int[] structureStarts = new int[INITIAL_CAPACITY];
+
+    /** Start offset of each row in the coordinate arrays */
+    volatile int[] coordinateStarts = new int[INITIAL_CAPACITY];
+
+    /** minx, miny, maxx, maxy for each row, NaN for null or empty geometries */
+    volatile double[] envelopes = new double[INITIAL_CAPACITY * 4];
+
+    /** Geometries that cannot be stored in packed form */
+    volatile Geometry[] others = new Geometry[INITIAL_CAPACITY];
+
+    int otherCount;
+
+    GeometryColumn(Class<?> binding, GeometryFactory factory) {
+        super(binding);
+        this.factory = factory;
+    }
+
+    @Override
+    void append(Object value) {
+        int capacity = grow(structureStarts.length, size);
+        if (capacity > 0) {
+            structureStarts = Arrays.copyOf(structureStarts, capacity);
+            coordinateStarts = Arrays.copyOf(coordinateStarts, capacity);
+            envelopes = Arrays.copyOf(envelopes, capacity * 4);
+        }
+        structureStarts[size] = structureCount;
+        coordinateStarts[size] = coordinateCount;
+
+        Geometry geometry = (Geometry) value;
+        int e = size * 4;
+        if (geometry == null || geometry.isEmpty()) {
+            Arrays.fill(envelopes, e, e + 4, Double.NaN);
+        } else {
+            Envelope envelope = geometry.getEnvelopeInternal();
+            envelopes[e] = envelope.getMinX();
+            envelopes[e + 1] = envelope.getMinY();
+            envelopes[e + 2] = envelope.getMaxX();
+            envelopes[e + 3] = envelope.getMaxY();
+        }
+        if (geometry == null) {
+            setNull(size);
+            addStructure(NULL);
+        } else {
+            if (!sridSet) {
+                sridSet = true;
+                if (geometry.getSRID() != factory.getSRID()) {
+                    factory =
+                            new GeometryFactory(
+                                    factory.getPrecisionModel(),
+                                    geometry.getSRID(),
+                                    factory.getCoordinateSequenceFactory());
+                }
+            }
+            if (geometry.getUserData() != null || geometry.getSRID() != factory.getSRID()) {
+                addOther(geometry);
+            } else {
+                encode(geometry);
+            }
+        }
+        size++;
+    }
+
+    private void encode(Geometry g) {
+        Class<?> clazz = g.getClass();
+        if (clazz == Point.class) {
+            addStructure(POINT);
+            addSequence(((Point) g).getCoordinateSequence());
+        } else if (clazz == LineString.class) {
+            addStructure(LINESTRING);
+            addSequence(((LineString) g).getCoordinateSequence());
+        } else if (clazz == LinearRing.class) {
+            addStructure(LINEARRING);
+            addSequence(((LinearRing) g).getCoordinateSequence());
+        } else if (clazz == Polygon.class && isPlainRings((Polygon) g)) {
+            Polygon polygon = (Polygon) g;
+            addStructure(POLYGON);
+            if (polygon.isEmpty()) {
+                addStructure(0);
+            } else {
+                addStructure(polygon.getNumInteriorRing() + 1);
+                addSequence(polygon.getExteriorRing().getCoordinateSequence());
+                for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+                    addSequence(polygon.getInteriorRingN(i).getCoordinateSequence());
+                }
+            }
+        } else if (isPlainCollection(g)) {
+            if (clazz == MultiPoint.class) {
+                addStructure(MULTIPOINT);
+            } else if (clazz == MultiLineString.class) {
+                addStructure(MULTILINESTRING);
+            } else if (clazz == MultiPolygon.class) {
+                addStructure(MULTIPOLYGON);
+            } else {
+                addStructure(COLLECTION);
+            }
+            addStructure(g.getNumGeometries());
+            for (int i = 0; i < g.getNumGeometries(); i++) {
+                encode(g.getGeometryN(i));
+            }
+        } else {
+            addOther(g);
+        }
+    }
+
+    /** Stores the geometry as is */
+    private void addOther(Geometry g) {
+        Geometry[] geometries = others;
+        int capacity = grow(geometries.length, otherCount);
+        if (capacity > 0) {
+            geometries = Arrays.copyOf(geometries, capacity);
+        }
+        geometries[otherCount] = g;
+        others = geometries;
+        addStructure(OTHER);
+        addStructure(otherCount++);
+    }
+
+    private boolean isPlainRings(Polygon polygon) {
+        if (polygon.getExteriorRing().getClass() != LinearRing.class) {
+            return false;
+        }
+        for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+            if (polygon.getInteriorRingN(i).getClass() != LinearRing.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isPlainCollection(Geometry g) {
+        Class<?> clazz = g.getClass();
+        return clazz == MultiPoint.class
+                || clazz == MultiLineString.class
+                || clazz == MultiPolygon.class
+                || clazz == GeometryCollection.class;
+    }
+
+    private void addStructure(int value) {
+        int[] values = structure;
+        if (structureCount == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+            structure = values;
+        }
+        values[structureCount++] = value;
+    }
+
+    /** Adds the coordinate count to the structure and the coordinates to the ordinate buffers */
+    private void addSequence(CoordinateSequence cs) {
+        int n = cs.size();
+        addStructure(n);
+        int required = coordinateCount + n;
+        double[] xys = ordinates;
+        if (required * 2 > xys.length) {
+            int capacity = Math.max(required * 2, xys.length + (xys.length >> 1));
+            xys = Arrays.copyOf(xys, capacity);
+            ordinates = xys;
+        }
+        // fill the z arrays before publishing them, readers use them as soon as they see them
+        boolean threeD = cs.getDimension() > 2;
+        double[] z = zs;
+        if (z == null && threeD) {
+            for (int i = 0; i < n && z == null; i++) {
+                if (!Double.isNaN(cs.getOrdinate(i, CoordinateSequence.Z))) {
+                    z = new double[xys.length / 2];
+                    Arrays.fill(z, Double.NaN);
+                    zs = z;
+                }
+            }
+        }
+        if (z != null && z.length < xys.length / 2) {
+            int oldLength = z.length;
+            z = Arrays.copyOf(z, xys.length / 2);
+            Arrays.fill(z, oldLength, z.length, Double.NaN);
+            zs = z;
+        }
+        for (int i = 0; i < n; i++) {
+            int c = coordinateCount + i;
+            xys[c * 2] = cs.getX(i);
+            xys[c * 2 + 1] = cs.getY(i);
+            if (z != null && threeD) {
+                z[c] = cs.getOrdinate(i, CoordinateSequence.Z);
+            }
+        }
+        coordinateCount += n;
+    }
+
+    @Override
+    Object get(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        Cursor cursor = new Cursor(structureStarts[row], coordinateStarts[row]);
+        return decode(cursor);
+    }
+
+    /** Returns true if the row has a non empty geometry */
+    boolean hasEnvelope(int row) {
+        return !Double.isNaN(envelopes[row * 4]);
+    }
+
+    /** Returns true if the row envelope intersects the specified one */
+    boolean intersects(int row, Envelope envelope) {
+        int e = row * 4;
+        // NaN comparisons are always false, so null/empty rows never intersect
+        return envelopes[e] <= envelope.getMaxX()
+                && envelopes[e + 2] >= envelope.getMinX()
+                && envelopes[e + 1] <= envelope.getMaxY()
+                && envelopes[e + 3] >= envelope.getMinY();
+    }
+
+    /** Expands the target envelope to include the row one */
+    void expand(int row, Envelope target) {
+        int e = row * 4;
+        if (!Double.isNaN(envelopes[e])) {
+            target.expandToInclude(envelopes[e], envelopes[e + 1]);
+            target.expandToInclude(envelopes[e + 2], envelopes[e + 3]);
+        }
+    }
+
+    @Override
+    int compare(int row1, int row2) {
+        throw new UnsupportedOperationException("Geometries are not comparable");
+    }
+
+    /** Position in the structure and coordinate buffers during decoding */
+    static final class Cursor {
+        int structure;
+
+        int coordinate;
+
+        Cursor(int structure, int coordinate) {
+            this.structure = structure;
+            this.coordinate = coordinate;
+        }
+    }
+
+    private Geometry decode(Cursor cursor) {
+        int type = structure[cursor.structure++];
+        switch (type) {
+            case POINT:
+                return factory.createPoint(readSequence(cursor));
+            case LINESTRING:
+                return factory.createLineString(readSequence(cursor));
+            case LINEARRING:
+                return factory.createLinearRing(readSequence(cursor));
+            case POLYGON:
+                {
+                    int rings = structure[cursor.structure++];
+                    if (rings == 0) {
+                        return factory.createPolygon((LinearRing) null, null);
+                    }
+                    LinearRing shell = factory.createLinearRing(readSequence(cursor));
+                    LinearRing[] holes = new LinearRing[rings - 1];
+                    for (int i = 0; i < holes.length; i++) {
+                        holes[i] = factory.createLinearRing(readSequence(cursor));
+                    }
+                    return factory.createPolygon(shell, holes);
+                }
+            case MULTIPOINT:
+                {
+                    Point[] points = new Point[structure[cursor.structure++]];
+                    for (int i = 0; i < points.length; i++) {
+                        points[i] = (Point) decode(cursor);
+                    }
+                    return factory.createMultiPoint(points);
+                }
+            case MULTILINESTRING:
+                {
+                    LineString[] lines = new LineString[structure[cursor.structure++]];
+                    for (int i = 0; i < lines.length; i++) {
+                        lines[i] = (LineString) decode(cursor);
+                    }
+                    return factory.createMultiLineString(lines);
+                }
+            case MULTIPOLYGON:
+                {
+                    Polygon[] polygons = new Polygon[structure[cursor.structure++]];
+                    for (int i = 0; i < polygons.length; i++) {
+                        polygons[i] = (Polygon) decode(cursor);
+                    }
+                    return factory.createMultiPolygon(polygons);
+                }
+            case COLLECTION:
+                {
+                    Geometry[] geometries = new Geometry[structure[cursor.structure++]];
+                    for (int i = 0; i < geometries.length; i++) {
+                        geometries[i] = decode(cursor);
+                    }
+                    return factory.createGeometryCollection(geometries);
+                }
+            case OTHER:
+                return others[structure[cursor.structure++]];
+            default:
+                throw new IllegalStateException("Unexpected geometry type code " + type);
+        }
+    }
+
+    private CoordinateSequence readSequence(Cursor cursor) {
+        int n = structure[cursor.structure++];
+        double[] xys = ordinates;
+        double[] z = zs;
+        int dimension = z != null ? 3 : 2;
+        CoordinateSequenceFactory csFactory = factory.getCoordinateSequenceFactory();
+        CoordinateSequence cs = csFactory.create(n, dimension);
+        for (int i = 0; i < n; i++) {
+            int c = cursor.coordinate + i;
+            cs.setOrdinate(i, CoordinateSequence.X, xys[c * 2]);
+            cs.setOrdinate(i, CoordinateSequence.Y, xys[c * 2 + 1]);
+            if (z != null) {
+                cs.setOrdinate(i, CoordinateSequence.Z, z[c]);
+            }
+        }
+        cursor.coordinate += n;
+        return cs;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.columnar;
+
+import com.vividsolutions.jts.geom.Envelope;
+import org.geotools.filter.visitor.ExtractBoundsFilterVisitor;
+import org.opengis.filter.Filter;
+
+/**
+ * Evaluates a filter against the rows of a {@link ColumnarTable} without building a feature per
+ * row: a single {@link ColumnarFeature} is moved from row to row, so only the attributes the
+ * filter actually reads get decoded. When the filter has a finite spatial extent, and the table a
+ * single geometry, the stored row envelopes are used to skip the rows that cannot match.
+ */
+class RowMatcher {
+
+    final ColumnarTable table;
+
+    final Filter filter;
+
+    final ColumnarFeature flyweight;
+
+    /** The envelope rows must intersect to match, or null */
+    final Envelope envelope;
+
+    final GeometryColumn geometries;
+
+    RowMatcher(ColumnarTable table, Filter filter) {
+        this.table = table;
+        this.filter = filter == null ? Filter.INCLUDE : filter;
+        if (this.filter == Filter.INCLUDE || this.filter == Filter.EXCLUDE) {
+            this.flyweight = null;
+            this.envelope = null;
+            this.geometries = null;
+        } else {
+            int[] columns = new int[table.columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = i;
+            }
+            this.flyweight = new ColumnarFeature(table, table.schema, columns, -1);
+            Envelope bounds = null;
+            if (table.hasSingleGeometry()) {
+                bounds =
+                        (Envelope)
+                                this.filter.accept(
+                                        ExtractBoundsFilterVisitor.BOUNDS_VISITOR, new Envelope());
+            }
+            if (bounds != null
+                    && !bounds.isNull()
+                    && !Double.isInfinite(bounds.getWidth())
+                    && !Double.isInfinite(bounds.getHeight())) {
+                this.envelope = bounds;
+                this.geometries = (GeometryColumn) table.columns[table.geometryColumns[0]];
+            } else {
+                this.envelope = null;
+                this.geometries = null;
+            }
+        }
+    }
+
+    /** True if all rows match */
+    boolean isIncludeAll() {
+        return filter == Filter.INCLUDE;
+    }
+
+    boolean matches(int row) {
+        if (filter == Filter.INCLUDE) {
+            return true;
+        } else if (filter == Filter.EXCLUDE) {
+            return false;
+        }
+        if (envelope != null && !geometries.intersects(row, envelope)) {
+            return false;
+        }
+        flyweight.setRow(row);
+        return filter.evaluate(flyweight);
+    }
+
+    /** Counts the matching rows among the first {@code size} ones */
+    int count(int size) {
+        if (filter == Filter.INCLUDE) {
+            return size;
+        }
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (matches(row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.columnar;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary encoded string storage: each distinct value is kept once, rows only hold an int code
+ * pointing into the dictionary. New values are written in the dictionary before the rows using
+ * them get published, so readers never see a code missing from it.
+ */
+class StringColumn extends Column {
+
+    volatile int[] codes = new int[INITIAL_CAPACITY];
+
+    /** The distinct values, indexed by code */
+    volatile String[] dictionary = new String[INITIAL_CAPACITY];
+
+    int dictionarySize;
+
+    /** Maps values to codes, only used by the appending thread */
+    final Map<String, Integer> lookup = new HashMap<>();
+
+    StringColumn() {
+        super(String.class);
+    }
+
+    @Override
+    void append(Object value) {
+        int capacity = grow(codes.length, size);
+        if (capacity > 0) {
+            codes = Arrays.copyOf(codes, capacity);
+        }
+        if (value == null) {
+            setNull(size);
+            codes[size] = -1;
+        } else {
+            String s = (String) value;
+            Integer code = lookup.get(s);
+            if (code == null) {
+                code = dictionarySize;
+                String[] values = dictionary;
+                int dictionaryCapacity = grow(values.length, code);
+                if (dictionaryCapacity > 0) {
+                    values = Arrays.copyOf(values, dictionaryCapacity);
+                }
+                values[code] = s;
+                dictionary = values;
+                dictionarySize = code + 1;
+                lookup.put(s, code);
+            }
+            codes[size] = code;
+        }
+        size++;
+    }
+
+    @Override
+    Object get(int row) {
+        int code = codes[row];
+        return code < 0 ? null : dictionary[code];
+    }
+
+    /** Returns the dictionary code of the row, or -1 if the value is null */
+    int getCode(int row) {
+        return codes[row];
+    }
+
+    /** Returns the number of distinct values stored so far */
+    int getDictionarySize() {
+        return dictionarySize;
+    }
+
+    /** Returns the value associated to a dictionary code */
+    String decode(int code) {
+        return dictionary[code];
+    }
+
+    @Override
+    int compare(int row1, int row2) {
+        int code1 = codes[row1];
+        int code2 = codes[row2];
+        if (code1 == code2) {
+            return 0;
+        }
+        String[] values = dictionary;
+        return values[code1].compareTo(values[code2]);
+    }
+}
@@ -44,6 +44,12 @@ public class MemoryFeatureReader implements FeatureReader<SimpleFeatureType, Sim
         iterator = internalCollection.iterator();
     }
 
+    /** Reads the features of a partition of the contents */
+    MemoryFeatureReader(SimpleFeatureType featureType, Iterator<SimpleFeature> iterator) {
+        this.featureType = featureType;
+        this.iterator = iterator;
+    }
+
     public SimpleFeatureType getFeatureType() {
         return featureType;
     }
@@ -17,9 +17,12 @@
 package org.geotools.data.memory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.Query;
 import org.geotools.data.store.ContentEntry;
+import org.geotools.data.store.ContentFeaturePartition;
 import org.geotools.data.store.ContentFeatureSource;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.opengis.feature.FeatureVisitor;
@@ -93,6 +96,28 @@ public class MemoryFeatureSource extends ContentFeatureSource {
         return new MemoryFeatureReader(getState(), query);
     }
 
+    @Override
+    protected List<ContentFeaturePartition> splitInternal(Query query, int partitions)
+            throws IOException {
+        // partitions are index ranges over a snapshot of the contents
+        MemoryEntry entry = (MemoryEntry) getState().getEntry();
+        final SimpleFeatureType featureType = getSchema();
+        final List<SimpleFeature> features = new ArrayList<>(entry.getMemory().values());
+        int size = features.size();
+        List<ContentFeaturePartition> result = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            int start = (int) ((long) size * i / partitions);
+            int end = (int) ((long) size * (i + 1) / partitions);
+            if (start < end) {
+                result.add(
+                        () ->
+                                new MemoryFeatureReader(
+                                        featureType, features.subList(start, end).iterator()));
+            }
+        }
+        return result;
+    }
+
     @Override
     protected SimpleFeatureType buildFeatureType() {
         return getState()
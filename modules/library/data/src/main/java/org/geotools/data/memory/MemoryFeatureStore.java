@@ -17,12 +17,14 @@
 package org.geotools.data.memory;
 
 import java.io.IOException;
+import java.util.List;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.FeatureWriter;
 import org.geotools.data.Query;
 import org.geotools.data.QueryCapabilities;
 import org.geotools.data.Transaction;
 import org.geotools.data.store.ContentEntry;
+import org.geotools.data.store.ContentFeaturePartition;
 import org.geotools.data.store.ContentFeatureStore;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.opengis.feature.FeatureVisitor;
@@ -99,6 +101,12 @@ public class MemoryFeatureStore extends ContentFeatureStore {
         return delegate.handleVisitor(query, visitor);
     }
 
+    @Override
+    protected List<ContentFeaturePartition> splitInternal(Query query, int partitions)
+            throws IOException {
+        return delegate.splitInternal(query, partitions);
+    }
+
     @Override
     protected QueryCapabilities buildQueryCapabilities() {
         return new QueryCapabilities() {
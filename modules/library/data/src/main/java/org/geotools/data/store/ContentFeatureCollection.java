@@ -125,6 +125,18 @@ public class ContentFeatureCollection implements SimpleFeatureCollection {
         featureSource.accepts(query, visitor, progress);
     }
 
+    /**
+     * Splits this collection in partitions that can be read concurrently, see {@link
+     * ContentFeatureSource#split(Query, int)}.
+     *
+     * @param partitions the desired number of partitions
+     * @return the partitions, or null if this collection cannot be split
+     * @since 20
+     */
+    public List<ContentFeaturePartition> split(int partitions) throws IOException {
+        return featureSource.split(query, partitions);
+    }
+
     // Iterators
     public static class WrappingFeatureIterator implements SimpleFeatureIterator {
 
@@ -447,7 +459,7 @@ public class ContentFeatureCollection implements SimpleFeatureCollection {
         ArrayList<SimpleFeature> array = new ArrayList<SimpleFeature>();
         FeatureIterator<SimpleFeature> e = null;
         try {
-            e = features();
+            e = retainedFeatures();
             while (e.hasNext()) {
                 array.add(e.next());
             }
@@ -468,7 +480,7 @@ public class ContentFeatureCollection implements SimpleFeatureCollection {
                             java.lang.reflect.Array.newInstance(
                                     array.getClass().getComponentType(), size);
         }
-        FeatureIterator<SimpleFeature> it = features();
+        FeatureIterator<SimpleFeature> it = retainedFeatures();
         try {
             Object[] result = array;
             for (int i = 0; it.hasNext() && i < size; i++) {
@@ -485,6 +497,16 @@ public class ContentFeatureCollection implements SimpleFeatureCollection {
         }
     }
 
+    /** Returns an iterator over features that are going to be kept, and thus cannot be recycled */
+    private SimpleFeatureIterator retainedFeatures() {
+        try {
+            return new WrappingFeatureIterator(
+                    featureSource.getReader(ContentFeatureSource.withoutRecycling(query)));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public String getID() {
         return null; // Only useful for XML Content
     }
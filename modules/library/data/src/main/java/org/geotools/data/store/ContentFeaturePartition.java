@@ -0,0 +1,41 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.store;
+
+import java.io.IOException;
+import org.geotools.data.FeatureReader;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * A contiguous portion of the features returned by a query, that can be read independently of, and
+ * concurrently with, the other portions.
+ *
+ * <p>Partitions are obtained from {@link ContentFeatureSource#split(org.geotools.data.Query, int)}
+ * and, read one after the other, return the same features the query would, in the same order.
+ *
+ * @see ContentFeatureSource#splitInternal(org.geotools.data.Query, int)
+ * @since 20
+ */
+public interface ContentFeaturePartition {
+
+    /**
+     * Opens a new reader over the features of this partition. The caller is responsible for
+     * closing it.
+     */
+    FeatureReader<SimpleFeatureType, SimpleFeature> getReader() throws IOException;
+}
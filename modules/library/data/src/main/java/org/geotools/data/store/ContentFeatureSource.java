@@ -28,6 +28,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.data.DataUtilities;
@@ -57,6 +58,7 @@ import org.geotools.factory.Hints.Key;
 import org.geotools.feature.FeatureCollection;
 import org.geotools.feature.SchemaException;
 import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.feature.visitor.MergeableFeatureCalc;
 import org.geotools.filter.function.Collection_AverageFunction;
 import org.geotools.filter.function.Collection_BoundsFunction;
 import org.geotools.filter.function.Collection_MaxFunction;
@@ -584,6 +586,11 @@ public abstract class ContentFeatureSource implements SimpleFeatureSource {
             throw new IOException("Feature source does not support joins");
         }
 
+        // sorting in memory keeps the features, they cannot be recycled
+        if (!canSort() && query.getSortBy() != null && query.getSortBy().length != 0) {
+            query = withoutRecycling(query);
+        }
+
         // if the implementation can retype but not sort, we might have
         // to remove the retyping, or we won't be able to sort in memory
         FeatureReader<SimpleFeatureType, SimpleFeature> reader;
@@ -674,38 +681,7 @@ public abstract class ContentFeatureSource implements SimpleFeatureSource {
 
         // reprojection
         if (!canReproject()) {
-            CoordinateReferenceSystem sourceCRS = query.getCoordinateSystem();
-            CoordinateReferenceSystem targetCRS = query.getCoordinateSystemReproject();
-            CoordinateReferenceSystem nativeCRS =
-                    reader.getFeatureType().getCoordinateReferenceSystem();
-
-            if (sourceCRS != null && !sourceCRS.equals(nativeCRS)) {
-                // override the nativeCRS
-                try {
-                    reader = new ForceCoordinateSystemFeatureReader(reader, sourceCRS);
-                } catch (SchemaException e) {
-                    throw (IOException)
-                            new IOException("Error occurred trying to force CRS").initCause(e);
-                }
-            } else {
-                // no override
-                sourceCRS = nativeCRS;
-            }
-            if (targetCRS != null) {
-                if (sourceCRS == null) {
-                    throw new IOException("Cannot reproject data, the source CRS is not available");
-                } else if (!sourceCRS.equals(targetCRS)) {
-                    try {
-                        reader = new ReprojectFeatureReader(reader, targetCRS);
-                    } catch (Exception e) {
-                        if (e instanceof IOException) throw (IOException) e;
-                        else
-                            throw (IOException)
-                                    new IOException("Error occurred trying to reproject data")
-                                            .initCause(e);
-                    }
-                }
-            }
+            reader = reproject(reader, query);
         }
 
         // TODO: Use InProcessLockingManager to assert read locks?
@@ -718,6 +694,61 @@ public abstract class ContentFeatureSource implements SimpleFeatureSource {
         return reader;
     }
 
+    /** Wraps the reader so that it forces and reprojects the CRS as requested by the query */
+    private FeatureReader<SimpleFeatureType, SimpleFeature> reproject(
+            FeatureReader<SimpleFeatureType, SimpleFeature> reader, Query query)
+            throws IOException {
+        CoordinateReferenceSystem sourceCRS = query.getCoordinateSystem();
+        CoordinateReferenceSystem targetCRS = query.getCoordinateSystemReproject();
+        CoordinateReferenceSystem nativeCRS =
+                reader.getFeatureType().getCoordinateReferenceSystem();
+
+        if (sourceCRS != null && !sourceCRS.equals(nativeCRS)) {
+            // override the nativeCRS
+            try {
+                reader = new ForceCoordinateSystemFeatureReader(reader, sourceCRS);
+            } catch (SchemaException e) {
+                throw (IOException)
+                        new IOException("Error occurred trying to force CRS").initCause(e);
+            }
+        } else {
+            // no override
+            sourceCRS = nativeCRS;
+        }
+        if (targetCRS != null) {
+            if (sourceCRS == null) {
+                throw new IOException("Cannot reproject data, the source CRS is not available");
+            } else if (!sourceCRS.equals(targetCRS)) {
+                try {
+                    reader = new ReprojectFeatureReader(reader, targetCRS);
+                } catch (Exception e) {
+                    if (e instanceof IOException) throw (IOException) e;
+                    else
+                        throw (IOException)
+                                new IOException("Error occurred trying to reproject data")
+                                        .initCause(e);
+                }
+            }
+        }
+        return reader;
+    }
+
+    /**
+     * Returns the query without the {@link Hints#FEATURE_RECYCLE} hint, for readers whose features
+     * are going to be kept in memory, or the query itself if the hint is not set.
+     */
+    static Query withoutRecycling(Query query) {
+        Hints hints = query.getHints();
+        if (hints == null || !hints.containsKey(Hints.FEATURE_RECYCLE)) {
+            return query;
+        }
+        Hints copy = new Hints(hints);
+        copy.remove(Hints.FEATURE_RECYCLE);
+        Query result = new Query(query);
+        result.setHints(copy);
+        return result;
+    }
+
     /**
      * Returns all the properties used in the sortBy (excluding primary keys and the like, e.g.,
      * natural sorting)
@@ -774,11 +805,23 @@ public abstract class ContentFeatureSource implements SimpleFeatureSource {
             progress = new NullProgressListener();
         }
 
-        if (handleVisitor(query, visitor)) {
+        if (handleVisitor(query, visitor, progress)) {
             // all good, subclass handled
             return;
         }
 
+        // see if the visit can be split among several threads
+        Integer parallelism = (Integer) query.getHints().get(Hints.VISITOR_PARALLELISM);
+        if (parallelism != null
+                && parallelism > 1
+                && visitor instanceof MergeableFeatureCalc) {
+            List<ContentFeaturePartition> partitions = split(query, parallelism);
+            if (partitions != null && partitions.size() > 1) {
+                acceptsParallel(query, (MergeableFeatureCalc) visitor, partitions, progress);
+                return;
+            }
+        }
+
         // subclass could not handle, resort to manually walkign through
         FeatureReader<SimpleFeatureType, SimpleFeature> reader = getReader(query);
         try {
@@ -813,6 +856,152 @@ public abstract class ContentFeatureSource implements SimpleFeatureSource {
         }
     }
 
+    /**
+     * Visits each partition with its own partial visitor using the fork/join common pool, then
+     * merges the partial results into the visitor, in partition order.
+     */
+    private void acceptsParallel(
+            Query query,
+            MergeableFeatureCalc visitor,
+            List<ContentFeaturePartition> partitions,
+            org.opengis.util.ProgressListener progress)
+            throws IOException {
+        List<ForkJoinTask<MergeableFeatureCalc>> tasks = new ArrayList<>(partitions.size());
+        for (ContentFeaturePartition partition : partitions) {
+            MergeableFeatureCalc partial = visitor.createPartial();
+            tasks.add(
+                    ForkJoinTask.adapt(
+                            () -> {
+                                visitPartition(query, partition, partial);
+                                return partial;
+                            }));
+        }
+
+        progress.started();
+        try {
+            ForkJoinTask.invokeAll(tasks);
+            for (ForkJoinTask<MergeableFeatureCalc> task : tasks) {
+                visitor.merge(task.join());
+            }
+        } catch (RuntimeException e) {
+            progress.exceptionOccurred(e);
+            // ForkJoinTask wraps checked exceptions, unwrap the original one
+            Throwable cause = e;
+            while (cause.getCause() != null && !(cause instanceof IOException)) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Problem visiting " + query.getTypeName() + ":" + e, e);
+        } finally {
+            progress.complete();
+        }
+    }
+
+    private void visitPartition(
+            Query query, ContentFeaturePartition partition, MergeableFeatureCalc partial)
+            throws IOException {
+        try (FeatureReader<SimpleFeatureType, SimpleFeature> reader = partition.getReader()) {
+            while (reader.hasNext()) {
+                SimpleFeature feature = reader.next();
+                try {
+                    partial.visit(feature);
+                } catch (Exception unexpected) {
+                    throw new IOException(
+                            "Problem visiting "
+                                    + query.getTypeName()
+                                    + " visiting "
+                                    + feature.getIdentifier()
+                                    + ":"
+                                    + unexpected,
+                            unexpected);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits the features matching the query in partitions that can be read independently, and
+     * concurrently. Read one after the other, the partitions return the same features, in the same
+     * order, as {@link #getReader(Query)}.
+     *
+     * <p>Queries that are sorted, paged or joined, as well as reads inside a transaction other than
+     * {@link Transaction#AUTO_COMMIT}, are not split. The actual split is delegated to {@link
+     * #splitInternal(Query, int)}, and filtering, retyping and reprojection are then applied to
+     * each partition according to the subclass capabilities.
+     *
+     * @param query the query to split
+     * @param partitions the desired number of partitions, the actual number may differ
+     * @return the partitions, or null if the query cannot be split
+     * @since 20
+     */
+    public List<ContentFeaturePartition> split(Query query, int partitions) throws IOException {
+        query = joinQuery(query);
+        query = resolvePropertyNames(query);
+
+        if (partitions < 2
+                || !query.getJoins().isEmpty()
+                || (query.getSortBy() != null && query.getSortBy().length > 0)
+                || (query.getStartIndex() != null && query.getStartIndex() > 0)
+                || !query.isMaxFeaturesUnlimited()
+                || (transaction != null && transaction != Transaction.AUTO_COMMIT)) {
+            return null;
+        }
+
+        List<ContentFeaturePartition> nativePartitions = splitInternal(query, partitions);
+        if (nativePartitions == null) {
+            return null;
+        }
+        final Query partitionQuery = query;
+        List<ContentFeaturePartition> result = new ArrayList<>(nativePartitions.size());
+        for (ContentFeaturePartition partition : nativePartitions) {
+            result.add(() -> wrapPartitionReader(partition.getReader(), partitionQuery));
+        }
+        return result;
+    }
+
+    /** Applies the filtering, retyping and reprojection the subclass cannot handle natively */
+    private FeatureReader<SimpleFeatureType, SimpleFeature> wrapPartitionReader(
+            FeatureReader<SimpleFeatureType, SimpleFeature> reader, Query query)
+            throws IOException {
+        if (!canFilter() && query.getFilter() != null && query.getFilter() != Filter.INCLUDE) {
+            reader =
+                    new FilteringFeatureReader<SimpleFeatureType, SimpleFeature>(
+                            reader, query.getFilter());
+        }
+        if (!canRetype() && query.getPropertyNames() != Query.ALL_NAMES) {
+            SimpleFeatureType target =
+                    SimpleFeatureTypeBuilder.retype(
+                            reader.getFeatureType(), query.getPropertyNames());
+            if (!target.equals(reader.getFeatureType())) {
+                reader = new ReTypeFeatureReader(reader, target, false);
+            }
+        }
+        if (!canReproject()) {
+            reader = reproject(reader, query);
+        }
+        return reader;
+    }
+
+    /**
+     * Subclass method splitting the native reader for a query in partitions, returns null by
+     * default, meaning the subclass cannot split its contents.
+     *
+     * <p>Subclasses overriding this method must return partitions whose readers, read one after
+     * the other, return the same features {@link #getReaderInternal(Query)} would return for the
+     * same query, in the same order. The query is never sorted nor paged.
+     *
+     * @param query the query to split
+     * @param partitions the desired number of partitions
+     * @return the partitions, or null if the query cannot be split
+     * @since 20
+     */
+    protected List<ContentFeaturePartition> splitInternal(Query query, int partitions)
+            throws IOException {
+        return null;
+    }
+
     /**
      * Subclass method which allows subclasses to natively handle a visitor.
      *
@@ -828,6 +1017,23 @@ public abstract class ContentFeatureSource implements SimpleFeatureSource {
         return false;
     }
 
+    /**
+     * Subclass method which allows subclasses to natively handle a visitor, reporting progress to
+     * the listener. By default delegates to {@link #handleVisitor(Query, FeatureVisitor)}.
+     *
+     * @param query The query being made.
+     * @param visitor The visitor to
+     * @param progress The listener provided to {@link #accepts(Query, FeatureVisitor,
+     *     org.opengis.util.ProgressListener)}, never null
+     * @return true if the visitor can be handled natively, otherwise false.
+     * @since 20
+     */
+    protected boolean handleVisitor(
+            Query query, FeatureVisitor visitor, org.opengis.util.ProgressListener progress)
+            throws IOException {
+        return handleVisitor(query, visitor);
+    }
+
     /**
      * Subclass method for returning a native reader from the datastore.
      * <p>
@@ -0,0 +1,183 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import java.util.HashSet;
+import java.util.Set;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.Query;
+import org.geotools.data.memory.MemoryDataStore;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureStore;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.referencing.CRS;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+
+public class TileCachingFeatureSourceTest {
+
+    static final FilterFactory2 FF = CommonFactoryFinder.getFilterFactory2();
+
+    MemoryDataStore store;
+
+    SimpleFeatureStore source;
+
+    @Before
+    public void setup() throws Exception {
+        SimpleFeatureType type = DataUtilities.createType("points", "geom:Point,value:Integer");
+        store = new MemoryDataStore(type);
+        GeometryFactory gf = new GeometryFactory();
+        SimpleFeatureBuilder fb = new SimpleFeatureBuilder(type);
+        for (int x = 0; x < 100; x++) {
+            for (int y = 0; y < 100; y++) {
+                fb.add(gf.createPoint(new Coordinate(x, y)));
+                fb.add(x * 100 + y);
+                store.addFeature(fb.buildFeature("points." + (x * 100 + y)));
+            }
+        }
+        source = (SimpleFeatureStore) store.getFeatureSource("points");
+    }
+
+    @Test
+    public void testSameResults() throws Exception {
+        TileCachingFeatureSource cache = new TileCachingFeatureSource(source, 10_000_000, 10);
+        Filter[] filters = {
+            FF.bbox("geom", 5, 5, 25, 15, null),
+            FF.bbox("geom", -10, -10, 3, 3, null),
+            FF.and(
+                    FF.bbox("geom", 40, 40, 60, 60, null),
+                    FF.less(FF.property("value"), FF.literal(5000))),
+            FF.bbox("geom", 150, 150, 160, 160, null),
+            FF.greater(FF.property("value"), FF.literal(9990))
+        };
+        for (int i = 0; i < 2; i++) {
+            for (Filter filter : filters) {
+                assertEquals(ids(source.getFeatures(filter)), ids(cache.getFeatures(filter)));
+            }
+        }
+        assertTrue(cache.getHits() > 0);
+        assertTrue(cache.getMisses() > 0);
+        assertEquals(0, cache.getEvictions());
+        cache.dispose();
+    }
+
+    @Test
+    public void testHitsAndMisses() throws Exception {
+        TileCachingFeatureSource cache = new TileCachingFeatureSource(source, 10_000_000, 10);
+        Filter filter = FF.bbox("geom", 12, 12, 18, 18, null);
+        assertEquals(49, cache.getFeatures(filter).size());
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(49, cache.getFeatures(filter).size());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertTrue(cache.getCachedBytes() > 0);
+        cache.dispose();
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        TileCachingFeatureSource cache = new TileCachingFeatureSource(source, 100_000, 10);
+        Filter filter = FF.bbox("geom", 0, 0, 99, 99, null);
+        // still complete results, even if the budget cannot hold all the tiles
+        assertEquals(10000, cache.getFeatures(filter).size());
+        assertTrue(cache.getEvictions() > 0);
+        assertTrue(cache.getCachedBytes() <= cache.getMaxBytes());
+        cache.dispose();
+    }
+
+    @Test
+    public void testInvalidation() throws Exception {
+        TileCachingFeatureSource cache = new TileCachingFeatureSource(source, 10_000_000, 10);
+        Filter filter = FF.bbox("geom", 12, 12, 18, 18, null);
+        assertEquals(49, cache.getFeatures(filter).size());
+        source.removeFeatures(FF.equals(FF.property("value"), FF.literal(1515)));
+        assertEquals(48, cache.getFeatures(filter).size());
+        cache.dispose();
+    }
+
+    @Test
+    public void testRetype() throws Exception {
+        TileCachingFeatureSource cache = new TileCachingFeatureSource(source, 10_000_000, 10);
+        Query query = new Query("points", FF.bbox("geom", 12, 12, 18, 18, null));
+        query.setPropertyNames(new String[] {"value"});
+        SimpleFeatureCollection features = cache.getFeatures(query);
+        assertEquals(1, features.getSchema().getAttributeCount());
+        assertEquals(49, features.size());
+        cache.dispose();
+    }
+
+    @Test
+    public void testReprojectedBBOX() throws Exception {
+        SimpleFeatureTypeBuilder tb = new SimpleFeatureTypeBuilder();
+        tb.setName("geographic");
+        tb.setCRS(DefaultGeographicCRS.WGS84);
+        tb.add("geom", Point.class);
+        SimpleFeatureType type = tb.buildFeatureType();
+        MemoryDataStore geographic = new MemoryDataStore(type);
+        GeometryFactory gf = new GeometryFactory();
+        SimpleFeatureBuilder fb = new SimpleFeatureBuilder(type);
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 20; y++) {
+                fb.add(gf.createPoint(new Coordinate(x, y)));
+                geographic.addFeature(fb.buildFeature("geographic." + (x * 20 + y)));
+            }
+        }
+
+        TileCachingFeatureSource cache =
+                new TileCachingFeatureSource(
+                        geographic.getFeatureSource("geographic"), 10_000_000, 10);
+        ReferencedEnvelope mercator =
+                new ReferencedEnvelope(4.5, 8.5, 4.5, 8.5, DefaultGeographicCRS.WGS84)
+                        .transform(CRS.decode("EPSG:3857", true), true);
+        Filter filter = FF.bbox(FF.property("geom"), mercator);
+        for (int i = 0; i < 2; i++) {
+            Set<String> ids = ids(cache.getFeatures(filter));
+            assertEquals(16, ids.size());
+            assertTrue(ids.contains("geographic." + (5 * 20 + 5)));
+            assertTrue(ids.contains("geographic." + (8 * 20 + 8)));
+        }
+        assertTrue(cache.getHits() > 0);
+        cache.dispose();
+    }
+
+    Set<String> ids(SimpleFeatureCollection features) {
+        Set<String> ids = new HashSet<>();
+        try (SimpleFeatureIterator it = features.features()) {
+            while (it.hasNext()) {
+                SimpleFeature feature = it.next();
+                ids.add(feature.getID());
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.columnar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.io.WKTReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.Query;
+import org.geotools.data.memory.MemoryDataStore;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.visitor.BoundsVisitor;
+import org.geotools.feature.visitor.CountVisitor;
+import org.geotools.feature.visitor.FeatureCalc;
+import org.geotools.feature.visitor.MaxVisitor;
+import org.geotools.feature.visitor.MinVisitor;
+import org.geotools.feature.visitor.UniqueVisitor;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+
+public class ColumnarDataStoreTest {
+
+    static final FilterFactory2 FF = CommonFactoryFinder.getFilterFactory2();
+
+    static final int COUNT = 200;
+
+    SimpleFeatureType type;
+
+    List<SimpleFeature> features;
+
+    ColumnarDataStore columnar;
+
+    MemoryDataStore memory;
+
+    @Before
+    public void setUp() throws Exception {
+        type =
+                DataUtilities.createType(
+                        "test",
+                        "geom:Point:srid=4326,name:String,pop:Integer,area:Double,"
+                                + "code:java.lang.Long,since:java.util.Date,flag:Boolean");
+        GeometryFactory gf = new GeometryFactory();
+        SimpleFeatureBuilder fb = new SimpleFeatureBuilder(type);
+        features = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            // leave some holes in every attribute
+            boolean hole = i % 17 == 0;
+            fb.add(hole ? null : gf.createPoint(new Coordinate(i % 20, i / 20)));
+            fb.add(hole ? null : "name" + (i % 7));
+            fb.add(hole ? null : i * 3 % 101);
+            fb.add(hole ? null : (i % 13 == 0 ? Double.NaN : i / 4d));
+            fb.add(hole ? null : 10000000000L + i);
+            fb.add(hole ? null : new Date(1000000L * i));
+            fb.add(hole ? null : i % 2 == 0);
+            features.add(fb.buildFeature("test." + i));
+        }
+        SimpleFeatureCollection collection = DataUtilities.collection(features);
+        columnar = new ColumnarDataStore(collection);
+        memory = new MemoryDataStore(collection);
+    }
+
+    @Test
+    public void testReadBack() throws Exception {
+        SimpleFeatureSource fs = columnar.getFeatureSource("test");
+        assertEquals(COUNT, fs.getCount(Query.ALL));
+        Map<String, SimpleFeature> read = toMap(fs.getFeatures());
+        assertEquals(COUNT, read.size());
+        for (SimpleFeature expected : features) {
+            SimpleFeature actual = read.get(expected.getID());
+            assertEquals(expected.getAttributes(), actual.getAttributes());
+            assertEquals(expected.getBounds(), actual.getBounds());
+        }
+    }
+
+    @Test
+    public void testGeometryRoundTrip() throws Exception {
+        WKTReader reader = new WKTReader();
+        String[] wkts = {
+            "POINT (1 2)",
+            "POINT EMPTY",
+            "LINESTRING (0 0, 10 10, 20 0)",
+            "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (1 1, 2 1, 2 2, 1 1))",
+            "POLYGON EMPTY",
+            "MULTIPOINT ((0 0), (1 1))",
+            "MULTILINESTRING ((0 0, 1 1), (2 2, 3 3))",
+            "MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), ((5 5, 6 5, 6 6, 5 5)))",
+            "GEOMETRYCOLLECTION (POINT (1 1), LINESTRING (0 0, 1 1))",
+            "LINESTRING (0 0 1, 1 1 2)"
+        };
+        SimpleFeatureType geomType = DataUtilities.createType("geoms", "geom:Geometry");
+        ColumnarDataStore store = new ColumnarDataStore(geomType);
+        List<Geometry> expected = new ArrayList<>();
+        for (int i = 0; i < wkts.length; i++) {
+            Geometry g = reader.read(wkts[i]);
+            expected.add(g);
+            store.addFeatures(SimpleFeatureBuilder.build(geomType, new Object[] {g}, "g" + i));
+        }
+        try (SimpleFeatureIterator it = store.getFeatureSource("geoms").getFeatures().features()) {
+            int i = 0;
+            while (it.hasNext()) {
+                Geometry actual = (Geometry) it.next().getDefaultGeometry();
+                assertTrue(wkts[i], expected.get(i).equalsExact(actual));
+                i++;
+            }
+            assertEquals(wkts.length, i);
+        }
+    }
+
+    @Test
+    public void testGeometrySRIDAndUserData() throws Exception {
+        WKTReader reader = new WKTReader();
+        Geometry[] geometries = {
+            reader.read("POINT (1 2)"),
+            reader.read("LINESTRING (0 0, 10 10)"),
+            reader.read("POINT (3 4)"),
+            reader.read("POINT (5 6)")
+        };
+        geometries[0].setSRID(4326);
+        geometries[1].setSRID(4326);
+        geometries[2].setSRID(3857);
+        geometries[3].setSRID(4326);
+        geometries[3].setUserData("userData");
+        SimpleFeatureType geomType = DataUtilities.createType("geoms", "geom:Geometry");
+        ColumnarDataStore store = new ColumnarDataStore(geomType);
+        for (int i = 0; i < geometries.length; i++) {
+            store.addFeatures(
+                    SimpleFeatureBuilder.build(geomType, new Object[] {geometries[i]}, "g" + i));
+        }
+        try (SimpleFeatureIterator it = store.getFeatureSource("geoms").getFeatures().features()) {
+            for (Geometry expected : geometries) {
+                Geometry actual = (Geometry) it.next().getDefaultGeometry();
+                assertTrue(expected.equalsExact(actual));
+                assertEquals(expected.getSRID(), actual.getSRID());
+                assertEquals(expected.getUserData(), actual.getUserData());
+            }
+        }
+    }
+
+    @Test
+    public void testReadWhileAppending() throws Exception {
+        SimpleFeatureType stringType = DataUtilities.createType("strings", "name:String");
+        final ColumnarDataStore store = new ColumnarDataStore(stringType);
+        final int count = 20000;
+        Thread writer =
+                new Thread(
+                        () -> {
+                            for (int i = 0; i < count; i++) {
+                                String name = i % 7 == 0 ? null : "n" + (i % 1000);
+                                SimpleFeature f =
+                                        SimpleFeatureBuilder.build(
+                                                stringType, new Object[] {name}, "s." + i);
+                                try {
+                                    store.addFeatures(f);
+                                } catch (IOException e) {
+                                    throw new RuntimeException(e);
+                                }
+                            }
+                        });
+        writer.start();
+        SimpleFeatureSource fs = store.getFeatureSource("strings");
+        do {
+            int read = 0;
+            try (SimpleFeatureIterator it = fs.getFeatures().features()) {
+                while (it.hasNext()) {
+                    SimpleFeature f = it.next();
+                    int i = Integer.parseInt(f.getID().substring(2));
+                    assertEquals(read, i);
+                    assertEquals(i % 7 == 0 ? null : "n" + (i % 1000), f.getAttribute("name"));
+                    read++;
+                }
+            }
+        } while (writer.isAlive());
+        writer.join();
+        assertEquals(count, fs.getCount(Query.ALL));
+    }
+
+    @Test
+    public void testFilters() throws Exception {
+        Filter[] filters = {
+            FF.equals(FF.property("name"), FF.literal("name3")),
+            FF.greater(FF.property("pop"), FF.literal(50)),
+            FF.bbox("geom", 2, 2, 5, 5, "EPSG:4326"),
+            FF.and(
+                    FF.bbox("geom", 0, 0, 10, 3, "EPSG:4326"),
+                    FF.less(FF.property("area"), FF.literal(20))),
+            FF.isNull(FF.property("name")),
+            FF.id(FF.featureId("test.5"), FF.featureId("test.100")),
+            Filter.EXCLUDE
+        };
+        for (Filter filter : filters) {
+            SimpleFeatureCollection expected =
+                    memory.getFeatureSource("test").getFeatures(filter);
+            SimpleFeatureCollection actual = columnar.getFeatureSource("test").getFeatures(filter);
+            assertEquals(filter.toString(), expected.size(), actual.size());
+            assertEquals(filter.toString(), toMap(expected).keySet(), toMap(actual).keySet());
+        }
+    }
+
+    @Test
+    public void testRetype() throws Exception {
+        Query query = new Query("test", Filter.INCLUDE, new String[] {"pop", "name"});
+        SimpleFeatureCollection fc = columnar.getFeatureSource("test").getFeatures(query);
+        assertEquals(2, fc.getSchema().getAttributeCount());
+        assertEquals("pop", fc.getSchema().getDescriptor(0).getLocalName());
+        try (SimpleFeatureIterator it = fc.features()) {
+            SimpleFeature f = it.next();
+            assertEquals(2, f.getAttributeCount());
+            assertNull(f.getDefaultGeometry());
+            assertEquals(features.get(1).getAttribute("pop"), f.getAttribute("pop"));
+        }
+    }
+
+    @Test
+    public void testLocalModification() throws Exception {
+        SimpleFeatureSource fs = columnar.getFeatureSource("test");
+        try (SimpleFeatureIterator it = fs.getFeatures().features()) {
+            SimpleFeature f = it.next();
+            f.setAttribute("name", "modified");
+            assertEquals("modified", f.getAttribute("name"));
+        }
+        // the stored data is not affected
+        try (SimpleFeatureIterator it = fs.getFeatures().features()) {
+            assertEquals(features.get(0).getAttribute("name"), it.next().getAttribute("name"));
+        }
+    }
+
+    @Test
+    public void testBounds() throws Exception {
+        Filter filter = FF.less(FF.property("pop"), FF.literal(30));
+        ReferencedEnvelope expected =
+                memory.getFeatureSource("test").getBounds(new Query("test", filter));
+        ReferencedEnvelope actual =
+                columnar.getFeatureSource("test").getBounds(new Query("test", filter));
+        assertTrue(expected.boundsEquals2D(actual, 0));
+    }
+
+    @Test
+    public void testVisitors() throws Exception {
+        Filter[] filters = {Filter.INCLUDE, FF.greater(FF.property("pop"), FF.literal(50))};
+        for (Filter filter : filters) {
+            assertVisitor(filter, new CountVisitor());
+            assertVisitor(filter, new BoundsVisitor());
+            for (String attribute : new String[] {"name", "pop", "area", "code", "since"}) {
+                assertVisitor(filter, new MinVisitor(attribute));
+                assertVisitor(filter, new MaxVisitor(attribute));
+                assertVisitor(filter, new UniqueVisitor(attribute));
+            }
+        }
+    }
+
+    @Test
+    public void testUniqueLimits() throws Exception {
+        UniqueVisitor expected = new UniqueVisitor("pop");
+        expected.setPreserveOrder(true);
+        expected.setStartIndex(5);
+        expected.setMaxFeatures(10);
+        memory.getFeatureSource("test").getFeatures().accepts(expected, null);
+        UniqueVisitor actual = new UniqueVisitor("pop");
+        actual.setPreserveOrder(true);
+        actual.setStartIndex(5);
+        actual.setMaxFeatures(10);
+        columnar.getFeatureSource("test").getFeatures().accepts(actual, null);
+        assertEquals(
+                new ArrayList<Object>(expected.getUnique()),
+                new ArrayList<Object>(actual.getUnique()));
+    }
+
+    @Test
+    public void testIncompatibleSchema() throws Exception {
+        SimpleFeatureType other = DataUtilities.createType("test", "geom:Point,name:String");
+        try {
+            columnar.addFeatures(SimpleFeatureBuilder.build(other, new Object[2], "x.1"));
+            fail("Should have failed, the schema is not compatible");
+        } catch (IOException e) {
+            // fine
+        }
+    }
+
+    private void assertVisitor(Filter filter, FeatureCalc visitor) throws IOException {
+        FeatureCalc expected = (FeatureCalc) copy(visitor);
+        memory.getFeatureSource("test").getFeatures(filter).accepts(expected, null);
+        columnar.getFeatureSource("test").getFeatures(filter).accepts(visitor, null);
+        assertEquals(
+                visitor + " " + filter,
+                expected.getResult().getValue(),
+                visitor.getResult().getValue());
+    }
+
+    private Object copy(FeatureCalc visitor) {
+        if (visitor instanceof MinVisitor) {
+            return new MinVisitor(((MinVisitor) visitor).getExpression());
+        } else if (visitor instanceof MaxVisitor) {
+            return new MaxVisitor(((MaxVisitor) visitor).getExpression());
+        } else if (visitor instanceof UniqueVisitor) {
+            return new UniqueVisitor(((UniqueVisitor) visitor).getExpression());
+        } else if (visitor instanceof CountVisitor) {
+            return new CountVisitor();
+        } else {
+            return new BoundsVisitor();
+        }
+    }
+
+    private Map<String, SimpleFeature> toMap(SimpleFeatureCollection fc) {
+        Map<String, SimpleFeature> result = new HashMap<>();
+        try (SimpleFeatureIterator it = fc.features()) {
+            while (it.hasNext()) {
+                SimpleFeature f = it.next();
+                result.put(f.getID(), f);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.FeatureReader;
+import org.geotools.data.Query;
+import org.geotools.data.columnar.ColumnarDataStore;
+import org.geotools.data.memory.MemoryDataStore;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.factory.Hints;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.visitor.AverageVisitor;
+import org.geotools.feature.visitor.CountVisitor;
+import org.geotools.feature.visitor.FeatureCalc;
+import org.geotools.feature.visitor.MaxVisitor;
+import org.geotools.feature.visitor.MinVisitor;
+import org.geotools.feature.visitor.SumVisitor;
+import org.geotools.feature.visitor.UniqueVisitor;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.sort.SortBy;
+
+public class ContentFeatureSourceSplitTest {
+
+    static final FilterFactory2 FF = CommonFactoryFinder.getFilterFactory2();
+
+    static final int COUNT = 1000;
+
+    SimpleFeatureType type;
+
+    MemoryDataStore memory;
+
+    ColumnarDataStore columnar;
+
+    @Before
+    public void setUp() throws Exception {
+        type = DataUtilities.createType("test", "geom:Point:srid=4326,name:String,pop:Integer");
+        GeometryFactory gf = new GeometryFactory();
+        SimpleFeatureBuilder fb = new SimpleFeatureBuilder(type);
+        List<SimpleFeature> features = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            fb.add(gf.createPoint(new Coordinate(i % 360 - 180, i % 180 - 90)));
+            fb.add("name" + (i % 37));
+            fb.add(i % 5 == 0 ? null : (i * 7919) % 1000);
+            features.add(fb.buildFeature("test." + i));
+        }
+        memory = new MemoryDataStore();
+        memory.addFeatures(features);
+        columnar = new ColumnarDataStore(type);
+        columnar.addFeatures(features.toArray(new SimpleFeature[features.size()]));
+    }
+
+    @Test
+    public void testSplitMatchesReader() throws Exception {
+        Query query = new Query("test", FF.greater(FF.property("pop"), FF.literal(100)));
+        query.setPropertyNames(new String[] {"name"});
+        for (ContentDataStore store : new ContentDataStore[] {memory, columnar}) {
+            ContentFeatureSource source = store.getFeatureSource("test");
+            List<String> expected = read(source.getReader(query));
+            assertTrue(expected.size() > 0);
+
+            List<ContentFeaturePartition> partitions = source.split(query, 7);
+            assertNotNull(partitions);
+            assertEquals(7, partitions.size());
+            List<String> actual = new ArrayList<>();
+            for (ContentFeaturePartition partition : partitions) {
+                FeatureReader<SimpleFeatureType, SimpleFeature> reader = partition.getReader();
+                assertEquals(1, reader.getFeatureType().getAttributeCount());
+                actual.addAll(read(reader));
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testSplitRefused() throws Exception {
+        ContentFeatureSource source = memory.getFeatureSource("test");
+        Query sorted = new Query("test");
+        sorted.setSortBy(new SortBy[] {FF.sort("pop", null)});
+        assertNull(source.split(sorted, 4));
+        Query paged = new Query("test");
+        paged.setStartIndex(10);
+        assertNull(source.split(paged, 4));
+        Query limited = new Query("test");
+        limited.setMaxFeatures(10);
+        assertNull(source.split(limited, 4));
+        assertNull(source.split(Query.ALL, 1));
+    }
+
+    @Test
+    public void testParallelVisitors() throws Exception {
+        Filter filter = FF.less(FF.property("pop"), FF.literal(900));
+        for (ContentDataStore store : new ContentDataStore[] {memory, columnar}) {
+            ContentFeatureSource source = store.getFeatureSource("test");
+            assertSameResult(source, filter, new CountVisitor(), new CountVisitor());
+            assertSameResult(
+                    source, filter, new SumVisitor("pop", type), new SumVisitor("pop", type));
+            assertSameResult(
+                    source,
+                    filter,
+                    new AverageVisitor("pop", type),
+                    new AverageVisitor("pop", type));
+            assertSameResult(source, filter, new MinVisitor("pop"), new MinVisitor("pop"));
+            assertSameResult(source, filter, new MaxVisitor("pop"), new MaxVisitor("pop"));
+
+            UniqueVisitor unique = new UniqueVisitor("name");
+            UniqueVisitor parallelUnique = new UniqueVisitor("name");
+            for (UniqueVisitor visitor : new UniqueVisitor[] {unique, parallelUnique}) {
+                visitor.setPreserveOrder(true);
+                visitor.setStartIndex(5);
+                visitor.setMaxFeatures(10);
+            }
+            assertSameResult(source, filter, unique, parallelUnique);
+            assertEquals(
+                    new ArrayList<>(unique.getUnique()),
+                    new ArrayList<>(parallelUnique.getUnique()));
+        }
+    }
+
+    private void assertSameResult(
+            ContentFeatureSource source,
+            Filter filter,
+            FeatureCalc sequential,
+            FeatureCalc parallel)
+            throws IOException {
+        source.accepts(new Query("test", filter), sequential, null);
+        Query query = new Query("test", filter);
+        query.setHints(new Hints(Hints.VISITOR_PARALLELISM, 4));
+        source.accepts(query, parallel, null);
+        assertEquals(sequential.getResult().getValue(), parallel.getResult().getValue());
+    }
+
+    private List<String> read(FeatureReader<SimpleFeatureType, SimpleFeature> reader)
+            throws IOException {
+        List<String> fids = new ArrayList<>();
+        try {
+            while (reader.hasNext()) {
+                fids.add(reader.next().getID());
+            }
+        } finally {
+            reader.close();
+        }
+        return fids;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The rows of a bulk insert, handed over to {@link SQLDialect#copyRows(BulkInsertRows,
+ * java.sql.Connection)}. Each row carries the values of the {@link #getColumns() columns} in order,
+ * primary key values included, along with the SRID and dimension of its geometries.
+ *
+ * @since 20
+ */
+public class BulkInsertRows {
+
+    /** Describes a target column */
+    public static class Column {
+        String name;
+
+        Class<?> binding;
+
+        String nativeTypeName;
+
+        boolean geometry;
+
+        Column(String name, Class<?> binding, String nativeTypeName, boolean geometry) {
+            this.name = name;
+            this.binding = binding;
+            this.nativeTypeName = nativeTypeName;
+            this.geometry = geometry;
+        }
+
+        /** The column name, not encoded */
+        public String getName() {
+            return name;
+        }
+
+        /** The java type of the column values */
+        public Class<?> getBinding() {
+            return binding;
+        }
+
+        /** The database type name of the column, or null if not known */
+        public String getNativeTypeName() {
+            return nativeTypeName;
+        }
+
+        /** True if the column contains geometries */
+        public boolean isGeometry() {
+            return geometry;
+        }
+
+        @Override
+        public String toString() {
+            return name + ":" + (nativeTypeName != null ? nativeTypeName : binding.getName());
+        }
+    }
+
+    String tableName;
+
+    List<Column> columns = new ArrayList<>();
+
+    List<Object[]> values = new ArrayList<>();
+
+    List<int[]> srids = new ArrayList<>();
+
+    List<int[]> dimensions = new ArrayList<>();
+
+    BulkInsertRows(String tableName) {
+        this.tableName = tableName;
+    }
+
+    void addColumn(Column column) {
+        columns.add(column);
+    }
+
+    void addRow(Object[] rowValues, int[] rowSrids, int[] rowDimensions) {
+        values.add(rowValues);
+        srids.add(rowSrids);
+        dimensions.add(rowDimensions);
+    }
+
+    /** The table name, already encoded and qualified by the schema if needed */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /** The target columns */
+    public List<Column> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    /** The number of rows */
+    public int size() {
+        return values.size();
+    }
+
+    /** The values of a row, in column order */
+    public Object[] getValues(int row) {
+        return values.get(row);
+    }
+
+    /** The SRID of a geometry value, or -1 if not known */
+    public int getSRID(int row, int column) {
+        return srids.get(row)[column];
+    }
+
+    /** The coordinate dimension of a geometry value, or -1 if not known */
+    public int getDimension(int row, int column) {
+        return dimensions.get(row)[column];
+    }
+}
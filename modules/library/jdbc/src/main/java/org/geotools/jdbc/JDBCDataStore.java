@@ -45,11 +45,16 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import javax.sql.DataSource;
 import org.geotools.data.DataStore;
 import org.geotools.data.DefaultQuery;
 import org.geotools.data.DefaultTransaction;
+import org.geotools.data.FeatureReader;
 import org.geotools.data.FeatureStore;
 import org.geotools.data.GmlObjectStore;
 import org.geotools.data.InProcessLockingManager;
@@ -259,6 +264,21 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
      */
     protected int batchInsertSize = 1;
 
+    /**
+     * The maximum number of threads prefetching features on behalf of readers, zero (the default)
+     * disables prefetching
+     */
+    protected int prefetchThreads = 0;
+
+    /** The number of prefetching threads currently running */
+    AtomicInteger activePrefetchThreads = new AtomicInteger();
+
+    /** Runs the prefetching producers, created on demand */
+    ExecutorService prefetchExecutor;
+
+    /** The cache of prepared select statements, null if disabled */
+    volatile PreparedStatementCache statementCache;
+
     /** flag controlling whether primary key columns of a table are exposed via the feature type. */
     protected boolean exposePrimaryKeyColumns = false;
 
@@ -435,6 +455,153 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
         this.batchInsertSize = batchInsertSize;
     }
 
+    /**
+     * Returns the maximum number of prepared select statements cached for each database connection.
+     * Zero means caching is disabled.
+     *
+     * @since 20
+     */
+    public int getStatementCacheSize() {
+        PreparedStatementCache cache = statementCache;
+        return cache == null ? 0 : cache.maxSize;
+    }
+
+    /**
+     * Sets the maximum number of prepared select statements cached for each database connection.
+     * When positive, and the dialect is a {@link PreparedStatementSQLDialect}, the statements used
+     * to read features are kept open after the readers get closed, and reused by the following
+     * queries having the same SQL. Filter literals are bound as parameters by such dialects, so
+     * queries differing only in the searched values, such as the bounding box of map tiles, share
+     * the same statement, and the database can reuse its query plan. The least recently used
+     * statements are closed when the limit is exceeded.
+     *
+     * <p>The cached statements are prepared on the physical connection, bypassing any statement
+     * pooling of the data source. With the DBCP pool created by {@link JDBCDataStoreFactory}, which
+     * already pools prepared statements (see {@link
+     * JDBCDataStoreFactory#MAX_OPEN_PREPARED_STATEMENTS}), this cache mostly adds the hit and miss
+     * statistics; it is meant for data sources that do not pool statements, such as JNDI ones.
+     *
+     * @param statementCacheSize the number of statements cached per connection, zero or less to
+     *     disable
+     * @since 20
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        PreparedStatementCache previous = statementCache;
+        statementCache =
+                statementCacheSize > 0 ? new PreparedStatementCache(statementCacheSize) : null;
+        if (previous != null) {
+            previous.clear();
+        }
+    }
+
+    /**
+     * Returns the number of select statements served by the statement cache since it was enabled
+     *
+     * @since 20
+     */
+    public long getStatementCacheHits() {
+        PreparedStatementCache cache = statementCache;
+        return cache == null ? 0 : cache.getHits();
+    }
+
+    /**
+     * Returns the number of select statements that had to be prepared since the statement cache was
+     * enabled. Along with {@link #getStatementCacheHits()} it allows to compute the cache hit
+     * ratio.
+     *
+     * @since 20
+     */
+    public long getStatementCacheMisses() {
+        PreparedStatementCache cache = statementCache;
+        return cache == null ? 0 : cache.getMisses();
+    }
+
+    /**
+     * Prepares a select statement, getting it from the statement cache when enabled. The statement
+     * must be closed using {@link #closeSafe(Statement)} to make it available for reuse.
+     */
+    PreparedStatement prepareSelect(Connection cx, String sql) throws SQLException {
+        PreparedStatementCache cache = statementCache;
+        if (cache != null) {
+            return cache.prepare(cx, sql);
+        }
+        return cx.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    }
+
+    /**
+     * Returns the maximum number of threads that can concurrently prefetch features for the readers
+     * of this store. Zero means prefetching is disabled.
+     *
+     * @since 20
+     */
+    public int getPrefetchThreads() {
+        return prefetchThreads;
+    }
+
+    /**
+     * Sets the maximum number of threads that can concurrently prefetch features. When positive,
+     * readers working outside of a transaction fetch and decode the rows in a background thread,
+     * in batches of {@link #getFetchSize()} features, while the caller consumes them. Readers
+     * opened while all the threads are busy work synchronously, as if prefetching was disabled.
+     *
+     * @param prefetchThreads the maximum number of prefetching threads, zero or less to disable
+     * @since 20
+     */
+    public void setPrefetchThreads(int prefetchThreads) {
+        this.prefetchThreads = Math.max(0, prefetchThreads);
+    }
+
+    /**
+     * Wraps the reader into a {@link JDBCPrefetchingFeatureReader} if prefetching is enabled and a
+     * prefetching thread is available, otherwise returns the reader as is.
+     */
+    FeatureReader<SimpleFeatureType, SimpleFeature> prefetch(
+            FeatureReader<SimpleFeatureType, SimpleFeature> reader) {
+        // grab a thread slot, if any is left
+        int active;
+        do {
+            active = activePrefetchThreads.get();
+            if (active >= prefetchThreads) {
+                return reader;
+            }
+        } while (!activePrefetchThreads.compareAndSet(active, active + 1));
+        try {
+            ExecutorService executor = getPrefetchExecutor();
+            int batchSize = fetchSize > 0 ? fetchSize : 1000;
+            return new JDBCPrefetchingFeatureReader(
+                    reader,
+                    batchSize,
+                    producer ->
+                            executor.execute(
+                                    () -> {
+                                        try {
+                                            producer.run();
+                                        } finally {
+                                            activePrefetchThreads.decrementAndGet();
+                                        }
+                                    }));
+        } catch (RejectedExecutionException e) {
+            activePrefetchThreads.decrementAndGet();
+            LOGGER.log(Level.FINE, "Could not start prefetching, reading synchronously", e);
+            return reader;
+        }
+    }
+
+    private synchronized ExecutorService getPrefetchExecutor() {
+        if (prefetchExecutor == null) {
+            AtomicInteger counter = new AtomicInteger();
+            prefetchExecutor =
+                    Executors.newCachedThreadPool(
+                            r -> {
+                                String name = "JDBC prefetch-" + counter.incrementAndGet();
+                                Thread t = new Thread(r, name);
+                                t.setDaemon(true);
+                                return t;
+                            });
+        }
+        return prefetchExecutor;
+    }
+
     /**
      * Determines if the datastore creates feature types which include those columns / attributes
      * which compose the primary key.
@@ -1327,7 +1494,7 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
             while (rs.next()) {
                 for (int i = 1; i <= columns; i++) {
                     final Envelope envelope =
-                            dialect.decodeGeometryEnvelope(rs, i, st.getConnection());
+                            dialect.decodeGeometryEnvelope(rs, i, cx);
                     if (envelope != null) {
                         if (envelope instanceof ReferencedEnvelope) {
                             bounds = mergeEnvelope(bounds, (ReferencedEnvelope) envelope);
@@ -1760,7 +1927,11 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
                     Map<InsertionClassifier, Collection<SimpleFeature>> kinds =
                             InsertionClassifier.classify(featureType, features);
                     for (InsertionClassifier kind : kinds.keySet()) {
-                        insertPS(kinds.get(kind), kind, featureType, cx, key);
+                        Collection<SimpleFeature> kindFeatures = kinds.get(kind);
+                        if (!insertBulk(
+                                kindFeatures, kind, kind.useExisting, featureType, cx, key)) {
+                            insertPS(kindFeatures, kind, featureType, cx, key);
+                        }
                     }
                 } else {
                     Collection<SimpleFeature> useExistings = new ArrayList<>();
@@ -1769,8 +1940,12 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
                         (InsertionClassifier.useExisting(cur) ? useExistings : notUseExistings)
                                 .add(cur);
                     }
-                    insertNonPS(useExistings, featureType, cx, key, true);
-                    insertNonPS(notUseExistings, featureType, cx, key, false);
+                    if (!insertBulk(useExistings, null, true, featureType, cx, key)) {
+                        insertNonPS(useExistings, featureType, cx, key, true);
+                    }
+                    if (!insertBulk(notUseExistings, null, false, featureType, cx, key)) {
+                        insertNonPS(notUseExistings, featureType, cx, key, false);
+                    }
                 }
             } catch (SQLException e) {
                 String msg = "Error inserting features";
@@ -1779,6 +1954,207 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
         }
     }
 
+    /**
+     * Inserts the features with the dialect bulk copy, or with multi-row insert statements, if the
+     * dialect supports either and the key values are known before the insert. When working in auto
+     * commit mode all the features are inserted in a single transaction.
+     *
+     * @param kind the insertion classifier, used for multi-row inserts, or null
+     * @return true if the features have been inserted, false if they have to be inserted one by one
+     */
+    private boolean insertBulk(
+            Collection<? extends SimpleFeature> features,
+            InsertionClassifier kind,
+            boolean useExisting,
+            SimpleFeatureType featureType,
+            Connection cx,
+            PrimaryKey key)
+            throws IOException, SQLException {
+        if (features.size() < 2) {
+            return false;
+        }
+        boolean copy = dialect.isCopySupported(featureType);
+        if (!copy && (kind == null || !(dialect instanceof PreparedStatementSQLDialect))) {
+            return false;
+        }
+        KeysFetcher keysFetcher = KeysFetcher.create(this, cx, useExisting, key);
+        if (keysFetcher.isPostInsert()) {
+            return false;
+        }
+
+        // the target columns, attributes first, then the primary key ones
+        List<AttributeDescriptor> attributes = new ArrayList<>();
+        for (AttributeDescriptor att : featureType.getAttributeDescriptors()) {
+            if (!keysFetcher.isKey(att.getLocalName())) {
+                attributes.add(att);
+            }
+        }
+        int columnCount = attributes.size() + key.getColumns().size();
+        int multiRowLimit = copy ? 0 : dialect.getMultiRowInsertLimit(columnCount);
+        if (!copy && multiRowLimit < 2) {
+            return false;
+        }
+
+        StringBuffer tableName = new StringBuffer();
+        encodeTableName(featureType.getTypeName(), tableName, null);
+        BulkInsertRows rows = new BulkInsertRows(tableName.toString());
+        for (AttributeDescriptor att : attributes) {
+            rows.addColumn(
+                    new BulkInsertRows.Column(
+                            att.getLocalName(),
+                            att.getType().getBinding(),
+                            (String) att.getUserData().get(JDBC_NATIVE_TYPENAME),
+                            att instanceof GeometryDescriptor));
+        }
+        for (PrimaryKeyColumn col : key.getColumns()) {
+            rows.addColumn(new BulkInsertRows.Column(col.getName(), col.getType(), null, false));
+        }
+
+        keysFetcher.reserveKeys(cx, features.size());
+        for (SimpleFeature feature : features) {
+            Object[] values = new Object[columnCount];
+            int[] srids = new int[columnCount];
+            int[] dimensions = new int[columnCount];
+            Arrays.fill(srids, -1);
+            Arrays.fill(dimensions, -1);
+            int i = 0;
+            for (AttributeDescriptor att : attributes) {
+                Object value = feature.getAttribute(att.getLocalName());
+                if (value == null && !att.isNillable()) {
+                    throw new IOException(
+                            "Cannot set a NULL value on the not null column "
+                                    + att.getLocalName());
+                }
+                if (att instanceof GeometryDescriptor) {
+                    srids[i] = getGeometrySRID((Geometry) value, att);
+                    dimensions[i] = getGeometryDimension((Geometry) value, att);
+                }
+                values[i++] = value;
+            }
+            for (Object keyValue : keysFetcher.getKeyValues(cx, featureType, feature)) {
+                values[i++] = keyValue;
+            }
+            rows.addRow(values, srids, dimensions);
+        }
+
+        boolean autoCommit = cx.getAutoCommit();
+        if (autoCommit) {
+            cx.setAutoCommit(false);
+        }
+        boolean committed = false;
+        try {
+            if (copy) {
+                LOGGER.log(Level.FINE, "Copying {0} new features", rows.size());
+                dialect.copyRows(rows, cx);
+            } else {
+                insertMultiRow(rows, attributes, kind, multiRowLimit, featureType, cx);
+            }
+            if (autoCommit) {
+                cx.commit();
+            }
+            committed = true;
+        } finally {
+            if (autoCommit) {
+                try {
+                    if (!committed) {
+                        cx.rollback();
+                    }
+                } finally {
+                    cx.setAutoCommit(true);
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Inserts the rows with multi-row insert statements */
+    private void insertMultiRow(
+            BulkInsertRows rows,
+            List<AttributeDescriptor> attributes,
+            InsertionClassifier kind,
+            int limit,
+            SimpleFeatureType featureType,
+            Connection cx)
+            throws IOException, SQLException {
+        final PreparedStatementSQLDialect dialect = (PreparedStatementSQLDialect) getSQLDialect();
+        List<BulkInsertRows.Column> columns = rows.getColumns();
+
+        StringBuffer header = new StringBuffer();
+        header.append("INSERT INTO ").append(rows.getTableName()).append(" ( ");
+        for (BulkInsertRows.Column column : columns) {
+            dialect.encodeColumnName(null, column.getName(), header);
+            header.append(",");
+        }
+        header.setLength(header.length() - 1);
+        header.append(" ) VALUES ");
+
+        // the parameters of a single row
+        StringBuffer row = new StringBuffer("(");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i < attributes.size() && attributes.get(i) instanceof GeometryDescriptor) {
+                AttributeDescriptor att = attributes.get(i);
+                dialect.prepareGeometryValue(
+                        kind.geometryTypes.get(att.getLocalName()),
+                        getDescriptorDimension(att),
+                        getDescriptorSRID(att),
+                        att.getType().getBinding(),
+                        row);
+            } else {
+                row.append("?");
+            }
+            row.append(",");
+        }
+        row.setLength(row.length() - 1);
+        row.append(")");
+
+        PreparedStatement ps = null;
+        int psRows = 0;
+        try {
+            for (int start = 0; start < rows.size(); start += limit) {
+                int count = Math.min(limit, rows.size() - start);
+                if (count != psRows) {
+                    closeSafe(ps);
+                    StringBuffer sql = new StringBuffer(header);
+                    for (int i = 0; i < count; i++) {
+                        sql.append(i > 0 ? "," : "").append(row);
+                    }
+                    LOGGER.log(
+                            Level.FINE,
+                            "Inserting {0} new features with ps: {1}",
+                            new Object[] {count, header});
+                    ps = cx.prepareStatement(sql.toString());
+                    psRows = count;
+                }
+
+                int p = 1;
+                for (int r = start; r < start + count; r++) {
+                    Object[] values = rows.getValues(r);
+                    for (int c = 0; c < values.length; c++) {
+                        BulkInsertRows.Column column = columns.get(c);
+                        if (column.isGeometry()) {
+                            dialect.setGeometryValue(
+                                    (Geometry) values[c],
+                                    rows.getDimension(r, c),
+                                    rows.getSRID(r, c),
+                                    column.getBinding(),
+                                    ps,
+                                    p++);
+                        } else {
+                            dialect.setValue(values[c], column.getBinding(), ps, p++, cx);
+                        }
+                    }
+                }
+                dialect.onInsert(ps, cx, featureType);
+                int inserted = ps.executeUpdate();
+                if (inserted != count) {
+                    throw new IOException("Failed to insert some features");
+                }
+            }
+        } finally {
+            closeSafe(ps);
+        }
+    }
+
     /** Specialized insertion for dialects that are using prepared statements. */
     private void insertPS(
             Collection<SimpleFeature> features,
@@ -3584,9 +3960,7 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
         applySearchHints(featureType, query, sql);
 
         LOGGER.fine(sql.toString());
-        PreparedStatement ps =
-                cx.prepareStatement(
-                        sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        PreparedStatement ps = prepareSelect(cx, sql.toString());
         ps.setFetchSize(fetchSize);
 
         if (toSQL != null) {
@@ -3628,9 +4002,7 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
         applyLimitOffset(sql, query.getStartIndex(), query.getMaxFeatures());
 
         LOGGER.fine(sql.toString());
-        PreparedStatement ps =
-                cx.prepareStatement(
-                        sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        PreparedStatement ps = prepareSelect(cx, sql.toString());
         ps.setFetchSize(fetchSize);
 
         setPreparedFilterValues(ps, toSQLs, cx);
@@ -4770,6 +5142,12 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
             return;
         }
 
+        // cached statements are not closed, but made available for reuse
+        PreparedStatementCache cache = statementCache;
+        if (cache != null && cache.release(st)) {
+            return;
+        }
+
         try {
             st.close();
         } catch (SQLException e) {
@@ -4822,6 +5200,17 @@ public final class JDBCDataStore extends ContentDataStore implements GmlObjectSt
 
     public void dispose() {
         super.dispose();
+        synchronized (this) {
+            if (prefetchExecutor != null) {
+                prefetchExecutor.shutdown();
+                prefetchExecutor = null;
+            }
+        }
+        PreparedStatementCache cache = statementCache;
+        if (cache != null) {
+            statementCache = null;
+            cache.clear();
+        }
         if (dataSource != null && dataSource instanceof ManageableDataSource) {
             try {
                 ManageableDataSource mds = (ManageableDataSource) dataSource;
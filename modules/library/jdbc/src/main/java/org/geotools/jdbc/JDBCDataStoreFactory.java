@@ -127,6 +127,29 @@ public abstract class JDBCDataStoreFactory implements DataStoreFactorySpi {
                     false,
                     1000);
 
+    /** Number of threads prefetching features in the background */
+    public static final Param PREFETCH_THREADS =
+            new Param(
+                    "prefetch threads",
+                    Integer.class,
+                    "Maximum number of threads reading and decoding features in the background "
+                            + "while the caller consumes them. Set to 0 (default) to disable.",
+                    false,
+                    0);
+
+    /** Number of prepared select statements cached for each connection */
+    public static final Param STATEMENT_CACHE_SIZE =
+            new Param(
+                    "statement cache size",
+                    Integer.class,
+                    "Number of prepared select statements kept open and reused for each "
+                            + "connection, when using prepared statements. Meant for data sources "
+                            + "that do not pool statements, such as JNDI ones, the built-in pool "
+                            + "already does (see \"Max open prepared statements\"). Set to 0 "
+                            + "(default) to disable.",
+                    false,
+                    0);
+
     /**
      * If different from one, the JDBCInsertFeatureWriter will buffer the features and insert them
      * in batches
@@ -314,6 +337,18 @@ public abstract class JDBCDataStoreFactory implements DataStoreFactorySpi {
         Integer fetchSize = (Integer) FETCHSIZE.lookUp(params);
         if (fetchSize != null && fetchSize > 0) dataStore.setFetchSize(fetchSize);
 
+        // prefetching
+        Integer prefetchThreads = (Integer) PREFETCH_THREADS.lookUp(params);
+        if (prefetchThreads != null && prefetchThreads > 0) {
+            dataStore.setPrefetchThreads(prefetchThreads);
+        }
+
+        // statement caching
+        Integer statementCacheSize = (Integer) STATEMENT_CACHE_SIZE.lookUp(params);
+        if (statementCacheSize != null && statementCacheSize > 0) {
+            dataStore.setStatementCacheSize(statementCacheSize);
+        }
+
         Integer batchInsertSize = (Integer) BATCH_INSERT_SIZE.lookUp(params);
         if (batchInsertSize != null && batchInsertSize > 0) {
             dataStore.setBatchInsertSize(batchInsertSize);
@@ -465,6 +500,8 @@ public abstract class JDBCDataStoreFactory implements DataStoreFactorySpi {
         parameters.put(MAXCONN.key, MAXCONN);
         parameters.put(MINCONN.key, MINCONN);
         parameters.put(FETCHSIZE.key, FETCHSIZE);
+        parameters.put(PREFETCH_THREADS.key, PREFETCH_THREADS);
+        parameters.put(STATEMENT_CACHE_SIZE.key, STATEMENT_CACHE_SIZE);
         parameters.put(BATCH_INSERT_SIZE.key, BATCH_INSERT_SIZE);
         parameters.put(MAXWAIT.key, MAXWAIT);
         if (getValidationQuery() != null) parameters.put(VALIDATECONN.key, VALIDATECONN);
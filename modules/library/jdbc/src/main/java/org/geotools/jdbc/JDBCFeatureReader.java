@@ -42,6 +42,7 @@ import org.geotools.data.Transaction;
 import org.geotools.factory.Hints;
 import org.geotools.feature.GeometryAttributeImpl;
 import org.geotools.feature.IllegalAttributeException;
+import org.geotools.feature.simple.RecyclableSimpleFeature;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.feature.type.AttributeDescriptorImpl;
 import org.geotools.feature.type.Types;
@@ -107,6 +108,12 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
 
     /** feature builder */
     protected SimpleFeatureBuilder builder;
+
+    /** The feature filled with the values of each row, if recycling is enabled */
+    RecyclableSimpleFeature recycled;
+
+    /** The result set index of each attribute, relative to the offset */
+    int[] attributeRsIndex;
     /** The primary key */
     protected PrimaryKey pkey;
 
@@ -267,6 +274,7 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
         this.hints = other.hints;
         this.geometryFactory = other.geometryFactory;
         this.builder = other.builder;
+        this.cx = other.cx;
         this.st = other.st;
         this.rs = other.rs;
         this.md = other.md;
@@ -283,6 +291,17 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
         return featureType;
     }
 
+    /**
+     * Enables feature recycling, the reader will then return the same feature instance for each
+     * row, see {@link Hints#FEATURE_RECYCLE}. Not to be used when the features are retained, or
+     * passed to other threads, such as when joining or prefetching.
+     *
+     * @param recycle true to enable recycling
+     */
+    public void setFeatureRecycling(boolean recycle) {
+        this.recycled = recycle ? new RecyclableSimpleFeature(featureType) : null;
+    }
+
     public PrimaryKey getPrimaryKey() {
         return pkey;
     }
@@ -319,14 +338,6 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
     }
 
     protected SimpleFeature readNextFeature() throws IOException {
-        // grab the connection
-        Connection cx;
-        try {
-            cx = st.getConnection();
-        } catch (SQLException e) {
-            throw (IOException) new IOException().initCause(e);
-        }
-
         // figure out the fid
         String fid;
 
@@ -342,9 +353,15 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
             throw new RuntimeException("Could not determine fid from primary key", e);
         }
 
+        if (recycled != null) {
+            recycled.recycle(fid);
+        }
+
         // round up attributes
         final int attributeCount = featureType.getAttributeCount();
-        int[] attributeRsIndex = buildAttributeRsIndex();
+        if (attributeRsIndex == null) {
+            attributeRsIndex = buildAttributeRsIndex();
+        }
         for (int i = 0; i < attributeCount; i++) {
             AttributeDescriptor type = featureType.getDescriptor(i);
 
@@ -425,13 +442,20 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
                     }
                 }
 
-                builder.add(value);
+                if (recycled != null) {
+                    recycled.set(i, value);
+                } else {
+                    builder.add(value);
+                }
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
         }
 
         // create the feature
+        if (recycled != null) {
+            return recycled;
+        }
         try {
             return builder.buildFeature(fid);
         } catch (IllegalAttributeException e) {
@@ -535,6 +559,7 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
         hints = null;
         next = null;
         builder = null;
+        recycled = null;
         tracer = null;
     }
 
@@ -724,7 +749,7 @@ public class JDBCFeatureReader implements FeatureReader<SimpleFeatureType, Simpl
                                                         rs,
                                                         rsindex,
                                                         dataStore.getGeometryFactory(),
-                                                        st.getConnection(),
+                                                        cx,
                                                         hints);
                             } else {
                                 values[index] = rs.getObject(rsindex);
@@ -42,6 +42,7 @@ import org.geotools.data.QueryCapabilities;
 import org.geotools.data.ReTypeFeatureReader;
 import org.geotools.data.Transaction;
 import org.geotools.data.store.ContentEntry;
+import org.geotools.data.store.ContentFeaturePartition;
 import org.geotools.data.store.ContentFeatureSource;
 import org.geotools.factory.Hints;
 import org.geotools.factory.Hints.Key;
@@ -107,6 +108,7 @@ public class JDBCFeatureSource extends ContentFeatureSource {
         // mark the features as detached, that is, the user can directly alter them
         // without altering the state of the datastore
         hints.add(Hints.FEATURE_DETACHED);
+        hints.add(Hints.FEATURE_RECYCLE);
         getDataStore().getSQLDialect().addSupportedHints(hints);
     }
 
@@ -549,11 +551,27 @@ public class JDBCFeatureSource extends ContentFeatureSource {
 
     protected FeatureReader<SimpleFeatureType, SimpleFeature> getReaderInternal(Query query)
             throws IOException {
+        return getReaderInternal(query, null);
+    }
+
+    /**
+     * Builds the reader for the query, the eventual extra filter is added to the native one as is,
+     * allowing it to reference columns that are not part of the feature type
+     */
+    FeatureReader<SimpleFeatureType, SimpleFeature> getReaderInternal(
+            Query query, Filter extraPreFilter) throws IOException {
         // split the filter
         Filter[] split = splitFilter(query.getFilter());
         Filter preFilter = split[0];
         Filter postFilter = split[1];
         boolean postFilterRequired = postFilter != null && postFilter != Filter.INCLUDE;
+        if (extraPreFilter != null) {
+            if (preFilter == null || preFilter == Filter.INCLUDE) {
+                preFilter = extraPreFilter;
+            } else {
+                preFilter = getDataStore().getFilterFactory().and(preFilter, extraPreFilter);
+            }
+        }
 
         // rebuild a new query with the same params, but just the pre-filter
         DefaultQuery preQuery = new DefaultQuery(query);
@@ -587,15 +605,28 @@ public class JDBCFeatureSource extends ContentFeatureSource {
 
             if (query.getJoins().isEmpty()) {
                 // regular query
+                JDBCFeatureReader jdbcReader;
                 if (dialect instanceof PreparedStatementSQLDialect) {
                     PreparedStatement ps = getDataStore().selectSQLPS(querySchema, preQuery, cx);
-                    reader = new JDBCFeatureReader(ps, cx, this, querySchema, query);
+                    jdbcReader = new JDBCFeatureReader(ps, cx, this, querySchema, query);
                 } else {
                     // build up a statement for the content
                     String sql = getDataStore().selectSQL(querySchema, preQuery);
                     getDataStore().getLogger().fine(sql);
 
-                    reader = new JDBCFeatureReader(sql, cx, this, querySchema, query);
+                    jdbcReader = new JDBCFeatureReader(sql, cx, this, querySchema, query);
+                }
+                reader = jdbcReader;
+
+                Hints hints = query.getHints();
+                if (hints != null && Boolean.TRUE.equals(hints.get(Hints.FEATURE_RECYCLE))) {
+                    // the prefetching reader hands features over to another thread, so
+                    // recycling rules out prefetching
+                    jdbcReader.setFeatureRecycling(true);
+                } else if (getState().getTransaction() == Transaction.AUTO_COMMIT) {
+                    // read ahead in a background thread, unless the connection is shared with
+                    // other operations in the same transaction
+                    reader = getDataStore().prefetch(reader);
                 }
             } else {
                 JoinInfo join = JoinInfo.create(preQuery, this);
@@ -658,6 +689,101 @@ public class JDBCFeatureSource extends ContentFeatureSource {
         return reader;
     }
 
+    /**
+     * Splits the query in ranges of the primary key values, when the key is made of a single
+     * integral column. The ranges are computed from the current minimum and maximum key values, so
+     * they are balanced only if the keys are evenly distributed, and rows inserted after the split
+     * with keys out of the range are not returned.
+     */
+    @Override
+    protected List<ContentFeaturePartition> splitInternal(Query query, int partitions)
+            throws IOException {
+        if (!query.getJoins().isEmpty()) {
+            return null;
+        }
+        List<PrimaryKeyColumn> columns = getPrimaryKey().getColumns();
+        if (columns.size() != 1) {
+            return null;
+        }
+        PrimaryKeyColumn column = columns.get(0);
+        Class<?> type = column.getType();
+        if (type != Long.class
+                && type != Integer.class
+                && type != Short.class
+                && type != Byte.class) {
+            return null;
+        }
+
+        long[] range = getKeyRange(column.getName(), query);
+        List<ContentFeaturePartition> result = new ArrayList<>(partitions);
+        if (range == null) {
+            // empty table
+            return result;
+        }
+        long min = range[0];
+        long max = range[1];
+        if (max - min < 0) {
+            // the span overflows a long
+            return null;
+        }
+        // split [min, max] in contiguous ranges, the last one including max
+        FilterFactory ff = getDataStore().getFilterFactory();
+        PropertyName key = ff.property(column.getName());
+        double span = max - min;
+        for (int i = 0; i < partitions; i++) {
+            long lower = min + (long) (span * i / partitions);
+            Filter rangeFilter;
+            if (i == partitions - 1) {
+                rangeFilter =
+                        ff.and(
+                                ff.greaterOrEqual(key, ff.literal(lower)),
+                                ff.lessOrEqual(key, ff.literal(max)));
+            } else {
+                long upper = min + (long) (span * (i + 1) / partitions);
+                if (upper <= lower) {
+                    continue;
+                }
+                rangeFilter =
+                        ff.and(
+                                ff.greaterOrEqual(key, ff.literal(lower)),
+                                ff.less(key, ff.literal(upper)));
+            }
+            result.add(() -> getReaderInternal(query, rangeFilter));
+        }
+        return result;
+    }
+
+    /** Returns the minimum and maximum value of the key column, or null if the table is empty */
+    private long[] getKeyRange(String keyColumn, Query query) throws IOException {
+        JDBCDataStore dataStore = getDataStore();
+        SQLDialect dialect = dataStore.getSQLDialect();
+        Connection cx = dataStore.getConnection(getState());
+        Statement st = null;
+        ResultSet rs = null;
+        try {
+            StringBuffer sql = new StringBuffer("SELECT MIN(");
+            dialect.encodeColumnName(null, keyColumn, sql);
+            sql.append("), MAX(");
+            dialect.encodeColumnName(null, keyColumn, sql);
+            sql.append(") FROM ");
+            dataStore.encodeTableName(getSchema().getTypeName(), sql, query.getHints());
+            dataStore.getLogger().fine(sql.toString());
+
+            st = cx.createStatement();
+            rs = st.executeQuery(sql.toString());
+            if (!rs.next() || rs.getObject(1) == null) {
+                return null;
+            }
+            return new long[] {rs.getLong(1), rs.getLong(2)};
+        } catch (SQLException e) {
+            throw new IOException("Failed to compute the primary key range", e);
+        } finally {
+            dataStore.closeSafe(rs);
+            dataStore.closeSafe(st);
+            dataStore.releaseConnection(cx, getState());
+        }
+    }
+
     SimpleFeatureType[] buildQueryAndReturnFeatureTypes(
             SimpleFeatureType featureType, String[] propertyNames, Filter filter) {
 
@@ -23,6 +23,7 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import org.geotools.data.FeatureEvent;
 import org.geotools.data.FeatureEvent.Type;
@@ -34,6 +35,7 @@ import org.geotools.data.QueryCapabilities;
 import org.geotools.data.ResourceInfo;
 import org.geotools.data.Transaction;
 import org.geotools.data.store.ContentEntry;
+import org.geotools.data.store.ContentFeaturePartition;
 import org.geotools.data.store.ContentFeatureStore;
 import org.geotools.data.store.ContentState;
 import org.geotools.factory.Hints;
@@ -225,6 +227,12 @@ public final class JDBCFeatureStore extends ContentFeatureStore {
         return delegate.handleVisitor(query, visitor);
     }
 
+    @Override
+    protected List<ContentFeaturePartition> splitInternal(Query query, int partitions)
+            throws IOException {
+        return delegate.splitInternal(query, partitions);
+    }
+
     //  /**
     //  * This method operates by delegating to the
     //  * {@link JDBCFeatureCollection#update(AttributeDescriptor[], Object[])}
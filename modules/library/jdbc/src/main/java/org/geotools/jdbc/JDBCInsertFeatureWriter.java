@@ -125,7 +125,7 @@ public class JDBCInsertFeatureWriter extends JDBCFeatureReader
             // do the insert
             Collection<ResultSetFeature> features =
                     Arrays.asList(Arrays.copyOfRange(buffer, 0, curBufferPos));
-            dataStore.insert(features, featureType, st.getConnection());
+            dataStore.insert(features, featureType, cx);
 
             for (ResultSetFeature cur : features) {
                 // the datastore sets as userData, grab it and update the fid
@@ -144,8 +144,6 @@ public class JDBCInsertFeatureWriter extends JDBCFeatureReader
                 final ContentState state = entry.getState(this.tx);
                 state.fireFeatureAdded(featureSource, cur);
             }
-        } catch (SQLException e) {
-            throw new IOException(e);
         } finally {
             curBufferPos = 0;
         }
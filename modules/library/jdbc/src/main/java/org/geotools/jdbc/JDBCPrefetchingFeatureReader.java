@@ -0,0 +1,225 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.geotools.data.DelegatingFeatureReader;
+import org.geotools.data.FeatureReader;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * A feature reader that moves the reading of a delegate reader to a producer thread, which fetches
+ * and decodes features in batches into a bounded queue while the caller iterates over them. This
+ * way the database round trips and the geometry decoding overlap with the consumer work (e.g.,
+ * rendering) instead of alternating with it.
+ *
+ * <p>The delegate is used by the producer thread only, until {@link #close()} stops the producer,
+ * waits for it to exit, and closes the delegate on the caller thread.
+ *
+ * @see JDBCDataStore#setPrefetchThreads(int)
+ */
+class JDBCPrefetchingFeatureReader
+        implements DelegatingFeatureReader<SimpleFeatureType, SimpleFeature> {
+
+    /** Number of batches that can be queued ahead of the consumer */
+    static final int QUEUED_BATCHES = 2;
+
+    /** How often a producer blocked on a full queue checks if the reader got closed */
+    static final long OFFER_TIMEOUT_MS = 100;
+
+    /** Marks the end of the data in the queue */
+    static final List<SimpleFeature> END = Collections.emptyList();
+
+    FeatureReader<SimpleFeatureType, SimpleFeature> delegate;
+
+    SimpleFeatureType featureType;
+
+    int batchSize;
+
+    /** Contains lists of features, the {@link #END} marker, or the producer failure */
+    BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+
+    /** Released when the producer exits */
+    CountDownLatch producerDone = new CountDownLatch(1);
+
+    volatile boolean closed;
+
+    Iterator<SimpleFeature> current = Collections.emptyIterator();
+
+    boolean finished;
+
+    /**
+     * Starts prefetching the delegate contents
+     *
+     * @param delegate the reader to be consumed by the producer thread
+     * @param batchSize the number of features handed over to the consumer at a time
+     * @param executor the executor running the producer
+     * @throws RejectedExecutionException if the executor cannot run the producer, the delegate is
+     *     left untouched in this case
+     */
+    JDBCPrefetchingFeatureReader(
+            FeatureReader<SimpleFeatureType, SimpleFeature> delegate,
+            int batchSize,
+            Executor executor) {
+        this.delegate = delegate;
+        this.featureType = delegate.getFeatureType();
+        this.batchSize = Math.max(1, batchSize);
+        executor.execute(this::produce);
+    }
+
+    /** Producer loop, reads the delegate in batches until exhausted or closed */
+    void produce() {
+        try {
+            List<SimpleFeature> batch = new ArrayList<>(batchSize);
+            while (!closed && delegate.hasNext()) {
+                batch.add(delegate.next());
+                if (batch.size() >= batchSize) {
+                    if (!offer(batch)) {
+                        return;
+                    }
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty() && !offer(batch)) {
+                return;
+            }
+            offer(END);
+        } catch (Throwable t) { // NOSONAR
+            // hand over the failure to the consumer
+            offer(t);
+        } finally {
+            producerDone.countDown();
+        }
+    }
+
+    /**
+     * Queues an item, waiting for space to become available
+     *
+     * @return false if the reader got closed in the meantime
+     */
+    boolean offer(Object item) {
+        try {
+            while (!closed) {
+                if (queue.offer(item, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @Override
+    public FeatureReader<SimpleFeatureType, SimpleFeature> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public SimpleFeatureType getFeatureType() {
+        return featureType;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean hasNext() throws IOException {
+        if (closed) {
+            throw new IOException("reader already closed");
+        }
+        while (!current.hasNext()) {
+            if (finished) {
+                return false;
+            }
+            Object item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for features", e);
+            }
+            if (item == END) {
+                finished = true;
+            } else if (item instanceof Throwable) {
+                finished = true;
+                rethrow((Throwable) item);
+            } else {
+                current = ((List<SimpleFeature>) item).iterator();
+            }
+        }
+        return true;
+    }
+
+    private void rethrow(Throwable t) throws IOException {
+        if (t instanceof IOException) {
+            throw (IOException) t;
+        } else if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        }
+        throw new IOException(t);
+    }
+
+    @Override
+    public SimpleFeature next()
+            throws IOException, IllegalArgumentException, NoSuchElementException {
+        if (!hasNext()) {
+            throw new NoSuchElementException(
+                    "No more features in this reader, you should call "
+                            + "hasNext() to check for feature availability");
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // free up the queue so that a blocked producer notices the close quickly
+        queue.clear();
+        // the delegate cannot be closed while the producer is still using it
+        boolean interrupted = false;
+        while (true) {
+            try {
+                producerDone.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        queue.clear();
+        current = Collections.emptyIterator();
+        delegate.close();
+    }
+}
@@ -56,7 +56,7 @@ public class JDBCUpdateFeatureWriter extends JDBCFeatureReader
 
         super(ps, cx, featureSource, featureSource.getSchema(), query);
         md = rs.getMetaData();
-        last = new ResultSetFeature(rs, ps.getConnection());
+        last = new ResultSetFeature(rs, cx);
     }
 
     public SimpleFeature next()
@@ -81,17 +81,13 @@ public class JDBCUpdateFeatureWriter extends JDBCFeatureReader
     }
 
     public void remove() throws IOException {
-        try {
-            dataStore.delete(featureType, last.getID(), st.getConnection());
+        dataStore.delete(featureType, last.getID(), cx);
 
-            // issue notification
-            ContentEntry entry = featureSource.getEntry();
-            ContentState state = entry.getState(this.tx);
-            if (state.hasListener()) {
-                state.fireFeatureRemoved(featureSource, last);
-            }
-        } catch (SQLException e) {
-            throw (IOException) new IOException().initCause(e);
+        // issue notification
+        ContentEntry entry = featureSource.getEntry();
+        ContentState state = entry.getState(this.tx);
+        if (state.hasListener()) {
+            state.fireFeatureRemoved(featureSource, last);
         }
     }
 
@@ -118,7 +114,7 @@ public class JDBCUpdateFeatureWriter extends JDBCFeatureReader
             }
 
             // do the write
-            dataStore.update(featureType, changed, values, filter, st.getConnection());
+            dataStore.update(featureType, changed, values, filter, cx);
 
             // issue notification
             ContentEntry entry = featureSource.getEntry();
@@ -24,10 +24,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -123,6 +125,28 @@ abstract class KeysFetcher {
         }
     }
 
+    /**
+     * Returns the key values of a feature about to be inserted, and reports its feature id in the
+     * user data. Only usable if the key values are all known before the insert.
+     */
+    public List<Object> getKeyValues(
+            Connection cx, SimpleFeatureType featureType, SimpleFeature feature)
+            throws IOException, SQLException {
+        if (isPostInsert()) {
+            throw new IllegalStateException("Key values are known only after the insert");
+        }
+        List<Object> keyValues = getNextValues(cx, feature);
+        String fid = featureType.getTypeName() + "." + JDBCDataStore.encodeFID(keyValues);
+        feature.getUserData().put("fid", fid);
+        return keyValues;
+    }
+
+    /**
+     * Notifies that the next <code>count</code> features are going to be inserted in bulk, allowing
+     * to fetch their key values with a single query.
+     */
+    public void reserveKeys(Connection cx, int count) throws IOException, SQLException {}
+
     public abstract void addKeyColumns(StringBuffer sql);
 
     public abstract void addKeyBindings(StringBuffer sql);
@@ -356,6 +380,13 @@ abstract class KeysFetcher {
             return ret;
         }
 
+        @Override
+        public void reserveKeys(Connection cx, int count) throws IOException, SQLException {
+            for (KeyFetcher fetcher : fetchers) {
+                fetcher.reserve(cx, count);
+            }
+        }
+
         @Override
         public boolean hasAutoGeneratedKeys() {
             for (KeyFetcher fetcher : fetchers) {
@@ -406,6 +437,9 @@ abstract class KeysFetcher {
 
         public abstract boolean isPostInsert();
 
+        /** Prepares the next <code>count</code> values, if they can be fetched in bulk */
+        public void reserve(Connection cx, int count) throws IOException, SQLException {}
+
         public boolean isAutoGenerated() {
             return false;
         }
@@ -565,6 +599,9 @@ abstract class KeysFetcher {
     private static class FromSequence extends KeyFetcher {
         private final JDBCDataStore ds;
 
+        /** Values fetched in advance for a bulk insert */
+        private Deque<Object> reserved = new ArrayDeque<>();
+
         public FromSequence(JDBCDataStore ds, PrimaryKeyColumn col) {
             super(ds, col);
             this.ds = ds;
@@ -592,10 +629,27 @@ abstract class KeysFetcher {
                     && ds.getSQLDialect() instanceof PreparedStatementSQLDialect;
         }
 
+        @Override
+        public void reserve(Connection cx, int count) throws IOException, SQLException {
+            if (isPostInsert()) {
+                return;
+            }
+            String sequenceName = ((SequencedPrimaryKeyColumn) col).getSequenceName();
+            List<Object> values =
+                    ds.getSQLDialect()
+                            .getNextSequenceValues(
+                                    ds.getDatabaseSchema(), sequenceName, count, cx);
+            if (values != null) {
+                reserved.addAll(values);
+            }
+        }
+
         @Override
         public Object getNext(Connection cx) throws IOException, SQLException {
             if (isPostInsert()) {
                 return NOT_SET_BEFORE_INSERT;
+            } else if (!reserved.isEmpty()) {
+                return reserved.poll();
             } else {
                 String sequenceName = ((SequencedPrimaryKeyColumn) col).getSequenceName();
                 return ds.getSQLDialect()
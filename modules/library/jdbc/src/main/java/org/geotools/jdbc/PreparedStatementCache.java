@@ -0,0 +1,251 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.data.jdbc.datasource.DataSourceFinder;
+import org.geotools.data.jdbc.datasource.UnWrapper;
+import org.geotools.util.logging.Logging;
+
+/**
+ * A cache of prepared select statements, kept for each physical database connection in least
+ * recently used order. Statements are looked up by their SQL, which for prepared statement dialects
+ * does not contain the filter literals, so that queries differing only in the values being
+ * searched, such as the bounding box of map tiles, share the same statement and query plan.
+ *
+ * <p>A statement handed out by {@link #prepare(Connection, String)} is removed from the cache until
+ * it is given back via {@link #release(Statement)}, so that it is never used by two readers at the
+ * same time.
+ *
+ * <p>Statements are prepared on the physical connection, as the logical connections handed out by a
+ * pool change on each borrow and close their statements when given back. This bypasses the
+ * statement pooling of the DBCP data sources built by {@link JDBCDataStoreFactory} (see {@link
+ * JDBCDataStoreFactory#MAX_OPEN_PREPARED_STATEMENTS}), so a statement is never held by both, and
+ * makes select statements reusable also with data sources that do not pool statements, such as the
+ * ones looked up via JNDI. As a consequence {@link Statement#getConnection()} returns the physical
+ * connection for the statements handed out by this cache, callers must keep using the connection
+ * they passed to {@link #prepare(Connection, String)}.
+ */
+class PreparedStatementCache {
+
+    static final Logger LOGGER = Logging.getLogger(PreparedStatementCache.class);
+
+    /** The unwrappers for each connection class, looking them up is synchronized and slow */
+    static final Map<Class<?>, Optional<UnWrapper>> UNWRAPPERS = new ConcurrentHashMap<>();
+
+    /** Identifies a statement in use */
+    static class Lease {
+        Connection cx;
+
+        String sql;
+
+        Lease(Connection cx, String sql) {
+            this.cx = cx;
+            this.sql = sql;
+        }
+    }
+
+    int maxSize;
+
+    /** The idle statements of each physical connection, in least recently used order */
+    Map<Connection, LinkedHashMap<String, PreparedStatement>> statements = new IdentityHashMap<>();
+
+    /** The statements currently in use */
+    Map<Statement, Lease> leases = new IdentityHashMap<>();
+
+    AtomicLong hits = new AtomicLong();
+
+    AtomicLong misses = new AtomicLong();
+
+    PreparedStatementCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns a forward only, read only prepared statement for the given SQL, either taken from the
+     * cache or freshly prepared against the physical connection behind <code>cx</code>
+     */
+    PreparedStatement prepare(Connection cx, String sql) throws SQLException {
+        Connection physical = unwrap(cx);
+        PreparedStatement ps = null;
+        synchronized (this) {
+            LinkedHashMap<String, PreparedStatement> cached = statements.get(physical);
+            if (cached != null) {
+                ps = cached.remove(sql);
+            }
+            if (ps != null) {
+                leases.put(ps, new Lease(physical, sql));
+            } else {
+                purge();
+            }
+        }
+        if (ps != null) {
+            hits.incrementAndGet();
+            return ps;
+        }
+
+        misses.incrementAndGet();
+        ps =
+                physical.prepareStatement(
+                        sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        synchronized (this) {
+            leases.put(ps, new Lease(physical, sql));
+        }
+        return ps;
+    }
+
+    /**
+     * Gives back a statement obtained from {@link #prepare(Connection, String)}, making it
+     * available for reuse.
+     *
+     * @return true if the statement belongs to the cache, false if it's unknown and the caller
+     *     should close it
+     */
+    boolean release(Statement st) {
+        Lease lease;
+        synchronized (this) {
+            lease = leases.remove(st);
+        }
+        if (lease == null) {
+            return false;
+        }
+
+        PreparedStatement ps = (PreparedStatement) st;
+        try {
+            if (ps.isClosed() || lease.cx.isClosed()) {
+                return true;
+            }
+            ps.clearParameters();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Cannot reuse statement, closing it", e);
+            close(ps);
+            return true;
+        }
+
+        PreparedStatement evicted;
+        synchronized (this) {
+            LinkedHashMap<String, PreparedStatement> cached =
+                    statements.computeIfAbsent(
+                            lease.cx, k -> new LinkedHashMap<>(16, 0.75f, true));
+            evicted = cached.putIfAbsent(lease.sql, ps) == null ? null : ps;
+            if (evicted == null && cached.size() > maxSize) {
+                Iterator<PreparedStatement> it = cached.values().iterator();
+                evicted = it.next();
+                it.remove();
+            }
+        }
+        close(evicted);
+        return true;
+    }
+
+    /** Drops the statements of connections that have been closed */
+    private void purge() {
+        for (Iterator<Connection> it = statements.keySet().iterator(); it.hasNext(); ) {
+            if (isClosed(it.next())) {
+                it.remove();
+            }
+        }
+        for (Iterator<Lease> it = leases.values().iterator(); it.hasNext(); ) {
+            if (isClosed(it.next().cx)) {
+                it.remove();
+            }
+        }
+    }
+
+    /** Closes all the idle statements and forgets about the ones in use */
+    void clear() {
+        Map<Connection, LinkedHashMap<String, PreparedStatement>> cleared;
+        synchronized (this) {
+            cleared = statements;
+            statements = new IdentityHashMap<>();
+            leases.clear();
+        }
+        for (LinkedHashMap<String, PreparedStatement> cached : cleared.values()) {
+            for (PreparedStatement ps : cached.values()) {
+                close(ps);
+            }
+        }
+    }
+
+    /** Number of statements served from the cache */
+    long getHits() {
+        return hits.get();
+    }
+
+    /** Number of statements that had to be prepared */
+    long getMisses() {
+        return misses.get();
+    }
+
+    /** Returns the physical connection behind pool and lifecycle wrappers */
+    static Connection unwrap(Connection cx) {
+        if (cx instanceof LifecycleConnection) {
+            cx = ((LifecycleConnection) cx).delegate;
+        }
+        try {
+            Class<?> type = cx.getClass();
+            Optional<UnWrapper> cached = UNWRAPPERS.get(type);
+            if (cached == null) {
+                cached = Optional.ofNullable(DataSourceFinder.getUnWrapper(cx));
+                UNWRAPPERS.put(type, cached);
+            }
+            UnWrapper unwrapper = cached.orElse(null);
+            if (unwrapper != null) {
+                Connection unwrapped = unwrapper.unwrap(cx);
+                if (unwrapped != null) {
+                    return unwrapped;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.FINE, "Could not unwrap connection, caching on the wrapper", e);
+        }
+        // if the wrapper is not reused the statements will be purged when it gets closed
+        return cx;
+    }
+
+    private static boolean isClosed(Connection cx) {
+        try {
+            return cx.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void close(Statement st) {
+        if (st != null) {
+            try {
+                st.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Error closing statement", e);
+            }
+        }
+    }
+}
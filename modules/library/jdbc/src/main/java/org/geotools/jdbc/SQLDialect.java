@@ -1164,6 +1164,86 @@ public abstract class SQLDialect {
         return null;
     }
 
+    /**
+     * Obtains the next <tt>count</tt> values of a sequence, used to assign keys to the rows of bulk
+     * inserts before writing them. The default implementation calls {@link
+     * #getNextSequenceValue(String, String, Connection)} once per value, subclasses are encouraged
+     * to fetch all of them with a single query.
+     *
+     * @param schemaName The schema name, this might be <code>null</code>.
+     * @param sequenceName The name of the sequence.
+     * @param count The number of values needed
+     * @param cx The database connection.
+     * @return The values of the sequence, or <code>null</code> if they could not be obtained
+     * @since 20
+     */
+    public List<Object> getNextSequenceValues(
+            String schemaName, String sequenceName, int count, Connection cx)
+            throws SQLException {
+        List<Object> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Object value = getNextSequenceValue(schemaName, sequenceName, cx);
+            if (value == null) {
+                return null;
+            }
+            values.add(value);
+        }
+        return values;
+    }
+
+    /**
+     * Returns the maximum number of rows that can be inserted with a single multi-row <code>
+     * INSERT INTO ... VALUES (...), (...)</code> statement, for a table with the given number of
+     * columns. Only used by dialects working with prepared statements.
+     *
+     * <p>The default implementation returns 1, disabling multi-row inserts. Dialects whose database
+     * supports the syntax should return a value respecting the database limits on the number of
+     * statement parameters.
+     *
+     * @param columnCount The number of columns being inserted
+     * @since 20
+     */
+    public int getMultiRowInsertLimit(int columnCount) {
+        return 1;
+    }
+
+    /**
+     * Returns true if the dialect can bulk load features of the given type via {@link
+     * #copyRows(BulkInsertRows, Connection)}. This is the only capability check performed before
+     * calling {@link #copyRows(BulkInsertRows, Connection)}, dialects making bulk loading optional
+     * (e.g., via a store parameter) should return false here when it is disabled. The default
+     * implementation returns false.
+     *
+     * @param featureType The type of the features being inserted
+     * @since 20
+     */
+    public boolean isCopySupported(SimpleFeatureType featureType) {
+        return false;
+    }
+
+    /**
+     * Loads the rows into the database using a native bulk loading protocol, such as the
+     * PostgreSQL <code>COPY</code> command. Only called if {@link
+     * #isCopySupported(SimpleFeatureType)} returned true. Primary key values are already part of
+     * the rows.
+     *
+     * <p>This method is given a direct connection to the database, but this connection should never
+     * be closed. However any statements or result sets instantiated from the connection must be
+     * closed.
+     *
+     * <p>The default implementation throws a {@link SQLException}, dialects overriding {@link
+     * #isCopySupported(SimpleFeatureType)} must override this method as well.
+     *
+     * @param rows The rows to be inserted
+     * @param cx The database connection.
+     * @throws SQLException If the rows could not be loaded, or the dialect does not support bulk
+     *     loading
+     * @since 20
+     */
+    public void copyRows(BulkInsertRows rows, Connection cx) throws IOException, SQLException {
+        throw new SQLException("Bulk copy is not supported by " + getClass().getSimpleName());
+    }
+
     /**
      * Returns true if this dialect can encode both {@linkplain Query#getStartIndex()} and
      * {@linkplain Query#getMaxFeatures()} into native SQL.
@@ -19,17 +19,24 @@ package org.geotools.jdbc;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
 import org.geotools.data.DataUtilities;
 import org.geotools.data.DefaultTransaction;
+import org.geotools.data.FeatureReader;
 import org.geotools.data.Query;
 import org.geotools.data.QueryCapabilities;
 import org.geotools.data.Transaction;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.store.ContentFeaturePartition;
 import org.geotools.data.store.ContentFeatureSource;
 import org.geotools.factory.CommonFactoryFinder;
 import org.geotools.factory.Hints;
+import org.geotools.feature.visitor.SumVisitor;
 import org.geotools.geometry.jts.LiteCoordinateSequenceFactory;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.referencing.CRS;
@@ -559,4 +566,40 @@ public abstract class JDBCFeatureSourceOnlineTest extends JDBCTestSupport {
             assertFalse("connection maintained", connection.isClosed());
         }
     }
+
+    public void testSplit() throws Exception {
+        FilterFactory ff = dataStore.getFilterFactory();
+        Query query =
+                new Query(
+                        tname("ft1"),
+                        ff.greaterOrEqual(ff.property(aname("intProperty")), ff.literal(0)));
+        Set<String> expected = new TreeSet<>();
+        try (SimpleFeatureIterator it = featureSource.getFeatures(query).features()) {
+            while (it.hasNext()) {
+                expected.add(it.next().getID());
+            }
+        }
+        assertEquals(3, expected.size());
+
+        List<ContentFeaturePartition> partitions = featureSource.split(query, 2);
+        assertNotNull(partitions);
+        assertEquals(2, partitions.size());
+        List<String> actual = new ArrayList<>();
+        for (ContentFeaturePartition partition : partitions) {
+            try (FeatureReader<SimpleFeatureType, SimpleFeature> reader = partition.getReader()) {
+                while (reader.hasNext()) {
+                    actual.add(reader.next().getID());
+                }
+            }
+        }
+        // the partitions do not overlap
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected, new TreeSet<>(actual));
+
+        // the parallel visit gives the same results as the sequential one
+        query.setHints(new Hints(Hints.VISITOR_PARALLELISM, 2));
+        SumVisitor sum = new SumVisitor(aname("intProperty"), featureSource.getSchema());
+        featureSource.accepts(query, sum, null);
+        assertEquals(3, sum.getResult().toInt());
+    }
 }
@@ -0,0 +1,200 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.FeatureReader;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+public class JDBCPrefetchingFeatureReaderTest {
+
+    SimpleFeatureType type;
+
+    ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        type = DataUtilities.createType("test", "id:Integer");
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testReadAll() throws Exception {
+        CountingReader delegate = new CountingReader(1000, -1);
+        try (JDBCPrefetchingFeatureReader reader =
+                new JDBCPrefetchingFeatureReader(delegate, 7, executor)) {
+            assertSame(type, reader.getFeatureType());
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(reader.hasNext());
+                assertEquals(i, reader.next().getAttribute("id"));
+            }
+            assertFalse(reader.hasNext());
+            try {
+                reader.next();
+                fail("Should have thrown a NoSuchElementException");
+            } catch (NoSuchElementException e) {
+                // fine
+            }
+        }
+        assertTrue(delegate.closed);
+        assertFalse(delegate.usedAfterClose);
+    }
+
+    @Test
+    public void testEarlyClose() throws Exception {
+        // the producer fills up the queue and blocks
+        CountingReader delegate = new CountingReader(Integer.MAX_VALUE, -1);
+        JDBCPrefetchingFeatureReader reader =
+                new JDBCPrefetchingFeatureReader(delegate, 10, executor);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, reader.next().getAttribute("id"));
+        }
+        reader.close();
+        assertTrue(delegate.closed);
+        assertFalse(delegate.usedAfterClose);
+        // the producer stopped reading ahead
+        assertTrue(delegate.count <= 10 * (JDBCPrefetchingFeatureReader.QUEUED_BATCHES + 2));
+        try {
+            reader.hasNext();
+            fail("Should have failed, the reader is closed");
+        } catch (IOException e) {
+            // fine
+        }
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        CountingReader delegate = new CountingReader(100, 25);
+        try (JDBCPrefetchingFeatureReader reader =
+                new JDBCPrefetchingFeatureReader(delegate, 10, executor)) {
+            int read = 0;
+            try {
+                while (reader.hasNext()) {
+                    reader.next();
+                    read++;
+                }
+                fail("Should have propagated the producer failure");
+            } catch (IOException e) {
+                assertEquals("Failed at 25", e.getMessage());
+            }
+            // the full batches were handed over before the failure
+            assertEquals(20, read);
+        }
+        assertTrue(delegate.closed);
+    }
+
+    @Test
+    public void testThreadLimit() throws Exception {
+        JDBCDataStore store = new JDBCDataStore();
+        try {
+            CountingReader delegate = new CountingReader(10, -1);
+            // disabled by default
+            assertSame(delegate, store.prefetch(delegate));
+
+            store.setPrefetchThreads(1);
+            FeatureReader<SimpleFeatureType, SimpleFeature> first = store.prefetch(delegate);
+            assertTrue(first instanceof JDBCPrefetchingFeatureReader);
+            // no more threads available, the reader is used synchronously
+            CountingReader other = new CountingReader(10, -1);
+            assertSame(other, store.prefetch(other));
+            first.close();
+
+            // the thread slot is given back once the producer exits
+            long timeout = System.currentTimeMillis() + 10000;
+            FeatureReader<SimpleFeatureType, SimpleFeature> reader = store.prefetch(other);
+            while (reader == other && System.currentTimeMillis() < timeout) {
+                Thread.sleep(10);
+                reader = store.prefetch(other);
+            }
+            assertTrue(reader instanceof JDBCPrefetchingFeatureReader);
+            reader.close();
+        } finally {
+            store.dispose();
+        }
+    }
+
+    /** A reader generating sequential features, optionally failing at a given position */
+    class CountingReader implements FeatureReader<SimpleFeatureType, SimpleFeature> {
+
+        int size;
+
+        int failAt;
+
+        volatile int count;
+
+        volatile boolean closed;
+
+        volatile boolean usedAfterClose;
+
+        SimpleFeatureBuilder builder = new SimpleFeatureBuilder(type);
+
+        CountingReader(int size, int failAt) {
+            this.size = size;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public SimpleFeatureType getFeatureType() {
+            return type;
+        }
+
+        @Override
+        public SimpleFeature next() throws IOException {
+            if (closed) {
+                usedAfterClose = true;
+            }
+            if (count == failAt) {
+                throw new IOException("Failed at " + failAt);
+            }
+            builder.add(count);
+            return builder.buildFeature("test." + count++);
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            if (closed) {
+                usedAfterClose = true;
+            }
+            return count < size;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+        }
+    }
+}
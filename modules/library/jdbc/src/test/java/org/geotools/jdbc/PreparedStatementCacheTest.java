@@ -0,0 +1,132 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PreparedStatementCacheTest {
+
+    Connection cx;
+
+    PreparedStatementCache cache;
+
+    @Before
+    public void setUp() throws SQLException {
+        cx = mockConnection();
+        cache = new PreparedStatementCache(2);
+    }
+
+    private Connection mockConnection() throws SQLException {
+        Connection cx = mock(Connection.class);
+        when(cx.prepareStatement(anyString(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> mock(PreparedStatement.class));
+        return cx;
+    }
+
+    @Test
+    public void testReuse() throws Exception {
+        PreparedStatement ps = cache.prepare(cx, "SELECT a FROM t WHERE b = ?");
+        assertTrue(cache.release(ps));
+        verify(ps).clearParameters();
+        verify(ps, never()).close();
+
+        assertSame(ps, cache.prepare(cx, "SELECT a FROM t WHERE b = ?"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testInUseNotShared() throws Exception {
+        PreparedStatement ps1 = cache.prepare(cx, "SELECT a FROM t");
+        PreparedStatement ps2 = cache.prepare(cx, "SELECT a FROM t");
+        assertNotSame(ps1, ps2);
+        assertEquals(0, cache.getHits());
+
+        // only one of them is kept when both are released
+        assertTrue(cache.release(ps1));
+        assertTrue(cache.release(ps2));
+        verify(ps1, never()).close();
+        verify(ps2).close();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws Exception {
+        PreparedStatement a = cache.prepare(cx, "A");
+        cache.release(a);
+        PreparedStatement b = cache.prepare(cx, "B");
+        cache.release(b);
+        // use A again, B becomes the eldest
+        cache.release(cache.prepare(cx, "A"));
+        PreparedStatement c = cache.prepare(cx, "C");
+        cache.release(c);
+
+        verify(b).close();
+        verify(a, never()).close();
+        assertSame(a, cache.prepare(cx, "A"));
+        assertSame(c, cache.prepare(cx, "C"));
+    }
+
+    @Test
+    public void testPerConnection() throws Exception {
+        Connection other = mockConnection();
+        PreparedStatement ps = cache.prepare(cx, "A");
+        cache.release(ps);
+        assertNotSame(ps, cache.prepare(other, "A"));
+        assertSame(ps, cache.prepare(cx, "A"));
+    }
+
+    @Test
+    public void testClosedConnection() throws Exception {
+        PreparedStatement ps = cache.prepare(cx, "A");
+        cache.release(ps);
+        when(cx.isClosed()).thenReturn(true);
+
+        cache.prepare(mockConnection(), "B");
+        assertTrue(cache.statements.isEmpty());
+    }
+
+    @Test
+    public void testReleaseUnknown() throws Exception {
+        assertFalse(cache.release(mock(Statement.class)));
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        PreparedStatement ps = cache.prepare(cx, "A");
+        cache.release(ps);
+        cache.clear();
+        verify(ps).close();
+        assertNotSame(ps, cache.prepare(cx, "A"));
+    }
+}
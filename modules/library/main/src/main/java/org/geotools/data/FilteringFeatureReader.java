@@ -19,8 +19,10 @@ package org.geotools.data;
 import java.io.IOException;
 import java.util.NoSuchElementException;
 import org.geotools.feature.IllegalAttributeException;
+import org.geotools.filter.FilterCompiler;
 import org.geotools.filter.visitor.BindingFilterVisitor;
 import org.opengis.feature.Feature;
+import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.feature.type.FeatureType;
 import org.opengis.filter.Filter;
 
@@ -44,6 +46,9 @@ public class FilteringFeatureReader<T extends FeatureType, F extends Feature>
     protected final Filter filter;
     protected F next;
 
+    /** The filter compiled against the feature type, used to evaluate the features */
+    private final Filter compiled;
+
     /**
      * Creates a new instance of AbstractFeatureReader
      *
@@ -59,6 +64,11 @@ public class FilteringFeatureReader<T extends FeatureType, F extends Feature>
                 (Filter)
                         filter.accept(
                                 new BindingFilterVisitor(featureReader.getFeatureType()), null);
+        FeatureType schema = featureReader.getFeatureType();
+        this.compiled =
+                schema instanceof SimpleFeatureType
+                        ? FilterCompiler.compile(this.filter, (SimpleFeatureType) schema)
+                        : this.filter;
         next = null;
     }
 
@@ -113,7 +123,7 @@ public class FilteringFeatureReader<T extends FeatureType, F extends Feature>
             while (featureReader.hasNext()) {
                 peek = featureReader.next();
 
-                if (filter.evaluate(peek)) {
+                if (compiled.evaluate(peek)) {
                     next = peek;
                     return true;
                 }
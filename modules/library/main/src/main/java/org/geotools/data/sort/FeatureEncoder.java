@@ -0,0 +1,209 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.sort;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKBReader;
+import com.vividsolutions.jts.io.WKBWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+
+/**
+ * Writes and reads features in a compact binary form, primitives and strings are written as is,
+ * geometries as WKB, and any other value with Java serialization.
+ *
+ * <p>Instances are not thread safe, as they reuse the geometry encoders and the feature builder.
+ */
+class FeatureEncoder {
+
+    final SimpleFeatureType schema;
+
+    final Class<?>[] bindings;
+
+    final String[] names;
+
+    final SimpleFeatureBuilder builder;
+
+    WKBWriter wkbWriter;
+
+    WKBReader wkbReader;
+
+    FeatureEncoder(SimpleFeatureType schema) {
+        this.schema = schema;
+        List<AttributeDescriptor> descriptors = schema.getAttributeDescriptors();
+        this.bindings = new Class<?>[descriptors.size()];
+        this.names = new String[descriptors.size()];
+        for (int i = 0; i < bindings.length; i++) {
+            bindings[i] = descriptors.get(i).getType().getBinding();
+            names[i] = descriptors.get(i).getLocalName();
+        }
+        this.builder = new SimpleFeatureBuilder(schema);
+    }
+
+    /** Writes the feature id and attributes */
+    void write(DataOutput out, SimpleFeature sf) throws IOException {
+        writeString(out, sf.getID());
+        boolean sameType = sf.getFeatureType() == schema;
+        for (int i = 0; i < bindings.length; i++) {
+            Object value = sameType ? sf.getAttribute(i) : sf.getAttribute(names[i]);
+            writeAttribute(out, bindings[i], value);
+        }
+    }
+
+    /** Reads back a feature written by {@link #write(DataOutput, SimpleFeature)} */
+    SimpleFeature read(DataInput in) throws IOException {
+        String fid = readString(in);
+        for (int i = 0; i < bindings.length; i++) {
+            builder.add(readAttribute(in, bindings[i]));
+        }
+        return builder.buildFeature(fid);
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        // not using writeUTF, it cannot handle strings longer than 64k bytes
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    void writeAttribute(DataOutput out, Class<?> binding, Object value) throws IOException {
+        if (value == null) {
+            // null marker
+            out.writeBoolean(true);
+        } else {
+            // not null, write the contents. This one requires some explanation. We are not
+            // writing any type metadata in the stream for the types we can optimize (primitives,
+            // numbers, strings and the like). This means we have to be 100% sure the class we're
+            // writing is actually the one we can optimize for, and not some subclass. Thus, we are
+            // authorized to use identity comparison instead of isAssignableFrom or equality, when
+            // we read back it must be as if we did not serialize stuff at all
+            out.writeBoolean(false);
+            if (binding == Boolean.class) {
+                out.writeBoolean((Boolean) value);
+            } else if (binding == Byte.class || binding == byte.class) {
+                out.writeByte((Byte) value);
+            } else if (binding == Short.class || binding == short.class) {
+                out.writeShort((Short) value);
+            } else if (binding == Integer.class || binding == int.class) {
+                out.writeInt((Integer) value);
+            } else if (binding == Long.class || binding == long.class) {
+                out.writeLong((Long) value);
+            } else if (binding == Float.class || binding == float.class) {
+                out.writeFloat((Float) value);
+            } else if (binding == Double.class || binding == double.class) {
+                out.writeDouble((Double) value);
+            } else if (binding == String.class) {
+                writeString(out, (String) value);
+            } else if (binding == java.sql.Date.class
+                    || binding == java.sql.Time.class
+                    || binding == java.sql.Timestamp.class
+                    || binding == java.util.Date.class) {
+                out.writeLong(((Date) value).getTime());
+            } else if (Geometry.class.isAssignableFrom(binding)) {
+                if (wkbWriter == null) {
+                    wkbWriter = new WKBWriter();
+                }
+                byte[] buffer = wkbWriter.write((Geometry) value);
+                out.writeInt(buffer.length);
+                out.write(buffer);
+            } else {
+                // can't optimize, in this case we use an ObjectOutputStream to write out
+                // full metadata
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                ObjectOutputStream oos = new ObjectOutputStream(bos);
+                oos.writeObject(value);
+                oos.flush();
+                byte[] bytes = bos.toByteArray();
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    Object readAttribute(DataInput in, Class<?> binding) throws IOException {
+        // See the comments in writeAttribute to get an insight on why the method is built like
+        // this
+        boolean isNull = in.readBoolean();
+        if (isNull) {
+            return null;
+        } else if (binding == Boolean.class) {
+            return in.readBoolean();
+        } else if (binding == Byte.class || binding == byte.class) {
+            return in.readByte();
+        } else if (binding == Short.class || binding == short.class) {
+            return in.readShort();
+        } else if (binding == Integer.class || binding == int.class) {
+            return in.readInt();
+        } else if (binding == Long.class || binding == long.class) {
+            return in.readLong();
+        } else if (binding == Float.class || binding == float.class) {
+            return in.readFloat();
+        } else if (binding == Double.class || binding == double.class) {
+            return in.readDouble();
+        } else if (binding == String.class) {
+            return readString(in);
+        } else if (binding == java.sql.Date.class) {
+            return new java.sql.Date(in.readLong());
+        } else if (binding == java.sql.Time.class) {
+            return new java.sql.Time(in.readLong());
+        } else if (binding == java.sql.Timestamp.class) {
+            return new java.sql.Timestamp(in.readLong());
+        } else if (binding == java.util.Date.class) {
+            return new java.util.Date(in.readLong());
+        } else if (Geometry.class.isAssignableFrom(binding)) {
+            if (wkbReader == null) {
+                wkbReader = new WKBReader();
+            }
+            byte[] buffer = new byte[in.readInt()];
+            in.readFully(buffer);
+            try {
+                return wkbReader.read(buffer);
+            } catch (ParseException e) {
+                throw new IOException("Failed to parse the geometry WKB", e);
+            }
+        } else {
+            byte[] buffer = new byte[in.readInt()];
+            in.readFully(buffer);
+            ByteArrayInputStream bis = new ByteArrayInputStream(buffer);
+            ObjectInputStream ois = new ObjectInputStream(bis);
+            try {
+                return ois.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Could not read back object", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.sort;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.geotools.data.simple.SimpleFeatureReader;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Merges the sorted runs of a {@link SortRunFile}, comparing only the sort keys, with a loser tree
+ * selecting the next feature with log(runs) key comparisons. Equal keys are returned in run order,
+ * so the sort is stable.
+ */
+class KeyMergeSortReader implements SimpleFeatureReader {
+
+    /** Overall amount of memory used to buffer the run reads */
+    static final int READ_BUFFER_MEMORY = 16 * 1024 * 1024;
+
+    SortRunFile runFile;
+
+    FeatureEncoder encoder;
+
+    RunReader[] readers;
+
+    /**
+     * The tree of losers, tree[0] is the overall winner, the other entries are the losers of the
+     * matches played at each internal node, with the runs being the leaves
+     */
+    int[] tree;
+
+    KeyMergeSortReader(SortRunFile runFile, List<SortRunFile.Run> runs) throws IOException {
+        this.runFile = runFile;
+        this.encoder = new FeatureEncoder(runFile.schema);
+        int bufferSize = Math.max(4096, Math.min(65536, READ_BUFFER_MEMORY / runs.size()));
+        this.readers = new RunReader[runs.size()];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new RunReader(runFile.channel, runs.get(i), bufferSize);
+            readers[i].advance(encoder);
+        }
+        buildTree();
+    }
+
+    private void buildTree() {
+        int k = readers.length;
+        tree = new int[k];
+        // play the initial tournament, winners[k + i] is the leaf of run i
+        int[] winners = new int[2 * k];
+        for (int i = 0; i < k; i++) {
+            winners[k + i] = i;
+        }
+        for (int node = k - 1; node > 0; node--) {
+            int a = winners[2 * node];
+            int b = winners[2 * node + 1];
+            if (wins(a, b)) {
+                winners[node] = a;
+                tree[node] = b;
+            } else {
+                winners[node] = b;
+                tree[node] = a;
+            }
+        }
+        tree[0] = winners[1];
+    }
+
+    /** Replays the matches from the leaf of the last winner up to the root */
+    private void replay() {
+        int k = readers.length;
+        int winner = tree[0];
+        for (int node = (winner + k) >> 1; node > 0; node >>= 1) {
+            if (wins(tree[node], winner)) {
+                int loser = winner;
+                winner = tree[node];
+                tree[node] = loser;
+            }
+        }
+        tree[0] = winner;
+    }
+
+    /** Returns true if run a comes before run b, exhausted runs come last */
+    private boolean wins(int a, int b) {
+        byte[] ka = readers[a].key;
+        byte[] kb = readers[b].key;
+        if (ka == null || kb == null) {
+            return kb == null && (ka != null || a < b);
+        }
+        int compare = SortKeyEncoder.compare(ka, kb);
+        return compare < 0 || (compare == 0 && a < b);
+    }
+
+    public SimpleFeatureType getFeatureType() {
+        return runFile.schema;
+    }
+
+    public SimpleFeature next()
+            throws IOException, IllegalArgumentException, NoSuchElementException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        RunReader reader = readers[tree[0]];
+        SimpleFeature feature = reader.feature;
+        reader.advance(encoder);
+        replay();
+        return feature;
+    }
+
+    public boolean hasNext() throws IOException {
+        return readers[tree[0]].key != null;
+    }
+
+    public void close() throws IOException {
+        runFile.close();
+    }
+
+    /** Reads the records of a run, one at a time */
+    static final class RunReader {
+        DataInputStream input;
+
+        int remaining;
+
+        /** The key of the current record, null if the run is exhausted */
+        byte[] key;
+
+        SimpleFeature feature;
+
+        RunReader(FileChannel channel, SortRunFile.Run run, int bufferSize) {
+            InputStream section = new ChannelSectionInputStream(channel, run.offset, run.length);
+            this.input = new DataInputStream(new BufferedInputStream(section, bufferSize));
+            this.remaining = run.count;
+        }
+
+        void advance(FeatureEncoder encoder) throws IOException {
+            if (remaining == 0) {
+                key = null;
+                feature = null;
+                input = null;
+                return;
+            }
+            key = new byte[input.readInt()];
+            input.readFully(key);
+            feature = encoder.read(input);
+            remaining--;
+        }
+    }
+
+    /** Reads a section of a file channel, using positional reads */
+    static final class ChannelSectionInputStream extends InputStream {
+        final FileChannel channel;
+
+        final long end;
+
+        long position;
+
+        ChannelSectionInputStream(FileChannel channel, long offset, long length) {
+            this.channel = channel;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == 1 ? b[0] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int n = (int) Math.min(len, end - position);
+            int read = channel.read(ByteBuffer.wrap(b, off, n), position);
+            if (read <= 0) {
+                return -1;
+            }
+            position += read;
+            return read;
+        }
+    }
+}
@@ -120,6 +120,11 @@ class MergeSortDumper {
                             + Arrays.toString(sortBy));
         }
 
+        // sort on binary keys when possible
+        if (SortKeyEncoder.canEncode(schema, sortBy)) {
+            return getKeySortedReader(reader, sortBy, maxFeatures);
+        }
+
         int count = 0;
         File file = null;
         SimpleFeatureIO io = null;
@@ -179,6 +184,62 @@ class MergeSortDumper {
         }
     }
 
+    /**
+     * Sorts the reader contents comparing binary keys built from the sorting attributes. Runs of
+     * features exceeding the in memory limit are sorted and written to disk in parallel, and then
+     * merged back
+     */
+    static SimpleFeatureReader getKeySortedReader(
+            SimpleFeatureReader reader, SortBy[] sortBy, int maxFeatures) throws IOException {
+        SimpleFeatureType schema = reader.getFeatureType();
+        SortRunFile runFile = null;
+        boolean cleanFile = true;
+        try {
+            List<SimpleFeature> features = new ArrayList<SimpleFeature>();
+            // the runs being sorted in parallel count against the limit too, so once spilling
+            // the runs are cut small enough for all of them to fit
+            int runSize = Math.max(1, maxFeatures / (SortRunFile.MAX_PENDING + 1));
+            while (reader.hasNext()) {
+                features.add(reader.next());
+                if (runFile == null && features.size() > maxFeatures) {
+                    runFile = new SortRunFile(schema, sortBy);
+                    for (int i = 0; i < features.size(); i += runSize) {
+                        int end = Math.min(features.size(), i + runSize);
+                        runFile.spill(new ArrayList<SimpleFeature>(features.subList(i, end)));
+                    }
+                    features = new ArrayList<SimpleFeature>();
+                } else if (runFile != null && features.size() >= runSize) {
+                    runFile.spill(features);
+                    features = new ArrayList<SimpleFeature>();
+                }
+            }
+
+            if (runFile == null) {
+                // simple case, we managed to keep everything in memory
+                SortKeyEncoder.Record[] records = new SortKeyEncoder(schema, sortBy).sort(features);
+                features.clear();
+                for (SortKeyEncoder.Record record : records) {
+                    features.add(record.feature);
+                }
+                SimpleFeatureIterator fi = new ListFeatureCollection(schema, features).features();
+                return new DelegateSimpleFeatureReader(schema, fi);
+            } else {
+                if (!features.isEmpty()) {
+                    runFile.spill(features);
+                }
+                List<SortRunFile.Run> runs = runFile.finish();
+                KeyMergeSortReader merger = new KeyMergeSortReader(runFile, runs);
+                cleanFile = false;
+                return merger;
+            }
+        } finally {
+            if (cleanFile && runFile != null) {
+                runFile.close();
+            }
+            reader.close();
+        }
+    }
+
     /**
      * Writes the feature attributes to a binary file
      *
@@ -0,0 +1,249 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.sort;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+/**
+ * Turns the sort values of a feature into a byte array key, such that comparing two keys as
+ * unsigned bytes gives the same order as the {@link SortedFeatureReader#getComparator(SortBy[])}
+ * comparator on the features.
+ *
+ * <p>Each value is encoded as a null marker followed by a self delimiting, order preserving, form
+ * of the value: sign flipped big endian numbers, and strings as a sequence of escaped characters
+ * closed by a terminator. Descending values get all their bytes inverted. Instances are not thread
+ * safe.
+ */
+class SortKeyEncoder {
+
+    static final int FID = 0;
+
+    static final int INTEGRAL = 1;
+
+    static final int FLOATING = 2;
+
+    static final int STRING = 3;
+
+    static final int BOOLEAN = 4;
+
+    static final int DATE = 5;
+
+    static final int TIMESTAMP = 6;
+
+    /** A feature paired with its sort key */
+    static final class Record {
+        final byte[] key;
+
+        final SimpleFeature feature;
+
+        Record(byte[] key, SimpleFeature feature) {
+            this.key = key;
+            this.feature = feature;
+        }
+    }
+
+    final SimpleFeatureType schema;
+
+    final int[] kinds;
+
+    final int[] indexes;
+
+    final String[] names;
+
+    final boolean[] ascending;
+
+    byte[] buffer = new byte[64];
+
+    int length;
+
+    SortKeyEncoder(SimpleFeatureType schema, SortBy[] sortBy) {
+        this.schema = schema;
+        this.kinds = new int[sortBy.length];
+        this.indexes = new int[sortBy.length];
+        this.names = new String[sortBy.length];
+        this.ascending = new boolean[sortBy.length];
+        for (int i = 0; i < sortBy.length; i++) {
+            SortBy sb = sortBy[i];
+            if (sb == SortBy.NATURAL_ORDER || sb == SortBy.REVERSE_ORDER) {
+                kinds[i] = FID;
+                ascending[i] = sb == SortBy.NATURAL_ORDER;
+            } else {
+                names[i] = sb.getPropertyName().getPropertyName();
+                indexes[i] = schema.indexOf(names[i]);
+                kinds[i] = getKind(schema.getDescriptor(names[i]));
+                ascending[i] = sb.getSortOrder() == SortOrder.ASCENDING;
+            }
+        }
+    }
+
+    /** Returns true if all the sorting values can be turned into keys */
+    static boolean canEncode(SimpleFeatureType schema, SortBy[] sortBy) {
+        for (SortBy sb : sortBy) {
+            if (sb != SortBy.NATURAL_ORDER
+                    && sb != SortBy.REVERSE_ORDER
+                    && getKind(schema.getDescriptor(sb.getPropertyName().getPropertyName()))
+                            < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int getKind(AttributeDescriptor descriptor) {
+        if (descriptor == null) {
+            return -1;
+        }
+        Class<?> binding = descriptor.getType().getBinding();
+        if (binding == Byte.class
+                || binding == Short.class
+                || binding == Integer.class
+                || binding == Long.class) {
+            return INTEGRAL;
+        } else if (binding == Float.class || binding == Double.class) {
+            return FLOATING;
+        } else if (binding == String.class) {
+            return STRING;
+        } else if (binding == Boolean.class) {
+            return BOOLEAN;
+        } else if (binding == Timestamp.class) {
+            return TIMESTAMP;
+        } else if (binding == Date.class
+                || binding == java.sql.Date.class
+                || binding == java.sql.Time.class) {
+            return DATE;
+        }
+        return -1;
+    }
+
+    /** Builds the key of the given feature */
+    byte[] encode(SimpleFeature feature) {
+        length = 0;
+        boolean sameType = feature.getFeatureType() == schema;
+        for (int i = 0; i < kinds.length; i++) {
+            int start = length;
+            Object value;
+            if (kinds[i] == FID) {
+                value = feature.getID();
+            } else if (sameType) {
+                value = feature.getAttribute(indexes[i]);
+            } else {
+                value = feature.getAttribute(names[i]);
+            }
+            if (value == null) {
+                write(0);
+            } else {
+                write(1);
+                encode(kinds[i], value);
+            }
+            if (!ascending[i]) {
+                for (int j = start; j < length; j++) {
+                    buffer[j] = (byte) ~buffer[j];
+                }
+            }
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private void encode(int kind, Object value) {
+        switch (kind) {
+            case INTEGRAL:
+                writeLong(((Number) value).longValue() ^ Long.MIN_VALUE);
+                break;
+            case FLOATING:
+                // same order as Double.compareTo, -0.0 before 0.0 and NaN last
+                long bits = Double.doubleToLongBits(((Number) value).doubleValue());
+                writeLong(bits ^ ((bits >> 63) | Long.MIN_VALUE));
+                break;
+            case FID:
+            case STRING:
+                String string = (String) value;
+                for (int i = 0; i < string.length(); i++) {
+                    char c = string.charAt(i);
+                    write(1);
+                    write(c >>> 8);
+                    write(c);
+                }
+                write(0);
+                break;
+            case BOOLEAN:
+                write((Boolean) value ? 1 : 0);
+                break;
+            case DATE:
+                writeLong(((Date) value).getTime() ^ Long.MIN_VALUE);
+                break;
+            case TIMESTAMP:
+                Timestamp timestamp = (Timestamp) value;
+                writeLong(timestamp.getTime() ^ Long.MIN_VALUE);
+                writeInt(timestamp.getNanos());
+                break;
+            default:
+                throw new IllegalArgumentException("Cannot build a sort key for " + value);
+        }
+    }
+
+    private void write(int b) {
+        if (length == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        buffer[length++] = (byte) b;
+    }
+
+    private void writeInt(int value) {
+        write(value >>> 24);
+        write(value >>> 16);
+        write(value >>> 8);
+        write(value);
+    }
+
+    private void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    /** Returns the features paired with their keys, sorted, keeping the order of equal ones */
+    Record[] sort(List<SimpleFeature> features) {
+        Record[] records = new Record[features.size()];
+        for (int i = 0; i < records.length; i++) {
+            SimpleFeature feature = features.get(i);
+            records[i] = new Record(encode(feature), feature);
+        }
+        // object sorting is stable
+        Arrays.sort(records, (r1, r2) -> compare(r1.key, r2.key));
+        return records;
+    }
+
+    /** Compares two keys as unsigned bytes */
+    static int compare(byte[] k1, byte[] k2) {
+        int length = Math.min(k1.length, k2.length);
+        for (int i = 0; i < length; i++) {
+            int b1 = k1[i] & 0xFF;
+            int b2 = k2[i] & 0xFF;
+            if (b1 != b2) {
+                return b1 - b2;
+            }
+        }
+        return k1.length - k2.length;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.sort;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.sort.SortBy;
+
+/**
+ * A temporary file holding sorted runs of features, each feature preceded by its sort key.
+ *
+ * <p>Runs are sorted and written by the fork/join common pool while the caller keeps on reading
+ * features. At most {@link #MAX_PENDING} runs are being sorted at any time, each holding its
+ * features and their sort keys, so the memory used is bounded by that many runs plus the one being
+ * filled by the caller. Callers keeping a limit on the features in memory should thus cut the runs
+ * at a size of limit / ({@link #MAX_PENDING} + 1).
+ */
+class SortRunFile implements Closeable {
+
+    /** The number of runs that can be sorted and written in parallel */
+    static final int MAX_PENDING =
+            Math.max(1, Math.min(4, ForkJoinPool.getCommonPoolParallelism()));
+
+    /** A sorted run, a contiguous section of the file */
+    static final class Run {
+        final long offset;
+
+        final int length;
+
+        final int count;
+
+        Run(long offset, int length, int count) {
+            this.offset = offset;
+            this.length = length;
+            this.count = count;
+        }
+    }
+
+    final SimpleFeatureType schema;
+
+    final SortBy[] sortBy;
+
+    final File file;
+
+    final FileChannel channel;
+
+    /** The file size, used to allocate space to the runs */
+    final AtomicLong size = new AtomicLong();
+
+    final List<Run> runs = new ArrayList<>();
+
+    final Deque<ForkJoinTask<Run>> pending = new ArrayDeque<>();
+
+    SortRunFile(SimpleFeatureType schema, SortBy[] sortBy) throws IOException {
+        this.schema = schema;
+        this.sortBy = sortBy;
+        this.file = File.createTempFile("sorted", ".features");
+        this.channel =
+                FileChannel.open(
+                        file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /** Schedules the sorting and writing of a run, the list must not be modified afterwards */
+    void spill(List<SimpleFeature> features) throws IOException {
+        if (pending.size() >= MAX_PENDING) {
+            runs.add(join(pending.poll()));
+        }
+        ForkJoinTask<Run> task = ForkJoinTask.adapt(() -> write(features));
+        pending.add(ForkJoinPool.commonPool().submit(task));
+    }
+
+    /** Waits for all the runs to be written, and returns them in the order they were spilled */
+    List<Run> finish() throws IOException {
+        while (!pending.isEmpty()) {
+            runs.add(join(pending.poll()));
+        }
+        return runs;
+    }
+
+    private Run join(ForkJoinTask<Run> task) throws IOException {
+        try {
+            return task.join();
+        } catch (RuntimeException e) {
+            // ForkJoinTask wraps checked exceptions, unwrap the original one
+            Throwable cause = e;
+            while (cause.getCause() != null && !(cause instanceof IOException)) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to sort features: " + e, e);
+        }
+    }
+
+    /** Sorts the features and appends them to the file */
+    Run write(List<SimpleFeature> features) throws IOException {
+        SortKeyEncoder keys = new SortKeyEncoder(schema, sortBy);
+        FeatureEncoder encoder = new FeatureEncoder(schema);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        for (SortKeyEncoder.Record record : keys.sort(features)) {
+            out.writeInt(record.key.length);
+            out.write(record.key);
+            encoder.write(out, record.feature);
+        }
+        out.flush();
+        ByteBuffer buffer = ByteBuffer.wrap(bos.toByteArray());
+        int length = buffer.remaining();
+        long offset = size.getAndAdd(length);
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return new Run(offset, length, features.size());
+    }
+
+    /** Closes and deletes the file, after waiting for any run still being written */
+    public void close() throws IOException {
+        try {
+            for (ForkJoinTask<Run> task : pending) {
+                task.quietlyJoin();
+            }
+            pending.clear();
+            channel.close();
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.simple;
+
+import java.util.Arrays;
+import org.geotools.feature.FeatureBuilder;
+import org.geotools.filter.identity.FeatureIdImpl;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.identity.FeatureId;
+
+/**
+ * A {@link org.opengis.feature.simple.SimpleFeature} that readers can recycle, filling it again
+ * with the values of each row they read, instead of allocating a new feature every time.
+ *
+ * <p>The attribute name to index mapping is shared with the feature type, the {@link FeatureId} is
+ * only created if requested, and the user data map is cleared rather than thrown away when the
+ * feature gets recycled. Values are stored as provided, without conversion nor validation.
+ *
+ * <p>Since the same instance is returned for all rows, the feature, its values and identifier
+ * must not be retained, or handed over to other threads, after the next call to <code>hasNext()
+ * </code> or <code>next()</code> on the reader that returned it. Readers only use recyclable
+ * features when asked to via {@link org.geotools.factory.Hints#FEATURE_RECYCLE}.
+ *
+ * @since 20
+ */
+public class RecyclableSimpleFeature extends SimpleFeatureImpl {
+
+    /** The feature id, from which {@link #id} is lazily built */
+    protected String fid;
+
+    /** The prefix of a numeric feature id, from which {@link #fid} is lazily built */
+    protected String fidPrefix;
+
+    /** The number of a numeric feature id */
+    protected long fidNumber;
+
+    /**
+     * Builds a new recyclable feature for the given feature type
+     *
+     * @param featureType the type of the feature
+     */
+    public RecyclableSimpleFeature(SimpleFeatureType featureType) {
+        super(new Object[featureType.getAttributeCount()], featureType, null, false);
+    }
+
+    /**
+     * Prepares the feature to hold the values of a new row, clearing the values, the identifier and
+     * the user data of the previous one.
+     *
+     * @param fid the feature id, if null a new one will be generated
+     */
+    public void recycle(String fid) {
+        clear();
+        this.fid = fid != null ? fid : FeatureBuilder.createDefaultFeatureId();
+    }
+
+    /**
+     * Prepares the feature to hold the values of a new row, like {@link #recycle(String)}, with a
+     * feature id made of a prefix and a number. The id string is built only if requested.
+     *
+     * @param fidPrefix the feature id prefix, usually the type name followed by a dot
+     * @param fidNumber the feature id number
+     */
+    public void recycle(String fidPrefix, long fidNumber) {
+        clear();
+        this.fidPrefix = fidPrefix;
+        this.fidNumber = fidNumber;
+    }
+
+    private void clear() {
+        this.fid = null;
+        this.fidPrefix = null;
+        this.id = null;
+        Arrays.fill(values, null);
+        if (userData != null && !userData.isEmpty()) {
+            userData.clear();
+        }
+        attributeUserData = null;
+    }
+
+    /**
+     * Sets an attribute value, as is, without any conversion or validation
+     *
+     * @param index the attribute index
+     * @param value the attribute value, which must be compatible with the attribute type
+     */
+    public void set(int index, Object value) {
+        values[index] = value;
+    }
+
+    @Override
+    public FeatureId getIdentifier() {
+        if (id == null) {
+            String fid = getID();
+            if (fid != null) {
+                id = new FeatureIdImpl(fid);
+            }
+        }
+        return id;
+    }
+
+    @Override
+    public String getID() {
+        if (fid == null && fidPrefix != null) {
+            fid = fidPrefix + fidNumber;
+        }
+        return fid;
+    }
+
+    @Override
+    public int hashCode() {
+        getIdentifier();
+        return super.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        getIdentifier();
+        return super.equals(obj);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.visitor;
+
+import java.util.Arrays;
+import java.util.List;
+import org.opengis.feature.Feature;
+import org.opengis.filter.expression.Expression;
+
+/**
+ * Estimates the number of distinct values of an expression using a HyperLogLog sketch, in constant
+ * memory, as opposed to {@link UniqueVisitor} that collects all the values.
+ *
+ * <p>The sketch uses 2<sup>precision</sup> one byte registers, and has a relative standard error of
+ * about 1.04 / sqrt(2<sup>precision</sup>), e.g., 0.8% for the default precision of 14 (16KB of
+ * registers). Small cardinalities are estimated with linear counting, and are close to exact.
+ * Null values are not counted.
+ *
+ * @since 20
+ */
+public class ApproximateCountDistinctVisitor
+        implements FeatureCalc, FeatureAttributeVisitor, MergeableFeatureCalc {
+
+    /** The default precision, for a relative standard error of about 0.8% */
+    public static final int DEFAULT_PRECISION = 14;
+
+    static final int MIN_PRECISION = 4;
+
+    static final int MAX_PRECISION = 18;
+
+    private final Expression expr;
+
+    private final int precision;
+
+    private byte[] registers;
+
+    public ApproximateCountDistinctVisitor(Expression expr) {
+        this(expr, DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param expr the expression whose distinct values are counted
+     * @param precision the base two logarithm of the number of registers, between 4 and 18
+     */
+    public ApproximateCountDistinctVisitor(Expression expr, int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(
+                    "Precision must be between "
+                            + MIN_PRECISION
+                            + " and "
+                            + MAX_PRECISION
+                            + ", was "
+                            + precision);
+        }
+        this.expr = expr;
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /** Returns the smallest precision whose relative standard error is below the given one */
+    public static int getPrecision(double relativeError) {
+        double registers = Math.pow(1.04 / relativeError, 2);
+        int precision = (int) Math.ceil(Math.log(registers) / Math.log(2));
+        return Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision));
+    }
+
+    @Override
+    public List<Expression> getExpressions() {
+        return Arrays.asList(expr);
+    }
+
+    public Expression getExpression() {
+        return expr;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    @Override
+    public void visit(Feature feature) {
+        Object value = expr.evaluate(feature);
+        if (value != null) {
+            long hash = Sketches.hash64(value);
+            int index = (int) (hash >>> (64 - precision));
+            // the rank of the first one bit in the remaining bits, the sentinel bounds it
+            long remaining = (hash << precision) | (1L << (precision - 1));
+            byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+            if (rank > registers[index]) {
+                registers[index] = rank;
+            }
+        }
+    }
+
+    /** Returns the estimated number of distinct values */
+    public long getCount() {
+        return estimate(registers);
+    }
+
+    public void reset() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    @Override
+    public MergeableFeatureCalc createPartial() {
+        return new ApproximateCountDistinctVisitor(expr, precision);
+    }
+
+    @Override
+    public void merge(MergeableFeatureCalc partial) {
+        union(registers, ((ApproximateCountDistinctVisitor) partial).registers);
+    }
+
+    @Override
+    public CalcResult getResult() {
+        return new CountDistinctResult(registers.clone());
+    }
+
+    static void union(byte[] registers, byte[] other) {
+        if (registers.length != other.length) {
+            throw new IllegalArgumentException("Cannot merge sketches with different precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other[i] > registers[i]) {
+                registers[i] = other[i];
+            }
+        }
+    }
+
+    static long estimate(byte[] registers) {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1d, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha;
+        if (m == 16) {
+            alpha = 0.673;
+        } else if (m == 32) {
+            alpha = 0.697;
+        } else if (m == 64) {
+            alpha = 0.709;
+        } else {
+            alpha = 0.7213 / (1 + 1.079 / m);
+        }
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // linear counting is more accurate for small cardinalities
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * The result of a distinct count estimate, whose value is the estimated count as a long.
+     * Results with the same precision can be merged.
+     */
+    public static class CountDistinctResult extends AbstractCalcResult {
+
+        private final byte[] registers;
+
+        CountDistinctResult(byte[] registers) {
+            this.registers = registers;
+        }
+
+        @Override
+        public Object getValue() {
+            return estimate(registers);
+        }
+
+        @Override
+        public boolean isCompatible(CalcResult targetResults) {
+            return targetResults == CalcResult.NULL_RESULT
+                    || (targetResults instanceof CountDistinctResult
+                            && ((CountDistinctResult) targetResults).registers.length
+                                    == registers.length);
+        }
+
+        @Override
+        public CalcResult merge(CalcResult resultsToAdd) {
+            if (!isCompatible(resultsToAdd)) {
+                throw new IllegalArgumentException("Parameter is not a compatible type");
+            }
+            if (resultsToAdd == CalcResult.NULL_RESULT) {
+                return this;
+            }
+            byte[] merged = registers.clone();
+            union(merged, ((CountDistinctResult) resultsToAdd).registers);
+            return new CountDistinctResult(merged);
+        }
+    }
+}
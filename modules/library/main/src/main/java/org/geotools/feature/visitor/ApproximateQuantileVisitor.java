@@ -0,0 +1,177 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.visitor;
+
+import java.util.Arrays;
+import java.util.List;
+import org.opengis.feature.Feature;
+import org.opengis.filter.expression.Expression;
+
+/**
+ * Estimates quantiles of a numeric expression using a KLL sketch, in bounded memory, as opposed to
+ * {@link MedianVisitor} and {@link QuantileListVisitor} that collect all the values.
+ *
+ * <p>The sketch keeps about 3k values, and the rank of the returned quantiles is within about
+ * 1.65 / k of the requested one, e.g., 0.8% with the default k of 200. The minimum and maximum are
+ * exact. Null and NaN values are ignored, other values must be numbers.
+ *
+ * <p>The value of the result is the approximate median, {@link QuantileResult#getQuantile(double)}
+ * gives access to any other quantile.
+ *
+ * @since 20
+ */
+public class ApproximateQuantileVisitor
+        implements FeatureCalc, FeatureAttributeVisitor, MergeableFeatureCalc {
+
+    /** The default sketch size, for a rank error of about 0.8% */
+    public static final int DEFAULT_K = 200;
+
+    private final Expression expr;
+
+    private final int k;
+
+    private KllSketch sketch;
+
+    public ApproximateQuantileVisitor(Expression expr) {
+        this(expr, DEFAULT_K);
+    }
+
+    /**
+     * @param expr the expression providing the values
+     * @param k the sketch size, at least 8, the rank error decreases linearly with it
+     */
+    public ApproximateQuantileVisitor(Expression expr, int k) {
+        this.expr = expr;
+        this.k = k;
+        this.sketch = new KllSketch(k);
+    }
+
+    /** Returns the sketch size giving a rank error below the given one, as a fraction */
+    public static int getK(double rankError) {
+        return Math.max(8, (int) Math.ceil(1.65 / rankError));
+    }
+
+    @Override
+    public List<Expression> getExpressions() {
+        return Arrays.asList(expr);
+    }
+
+    public Expression getExpression() {
+        return expr;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    @Override
+    public void visit(Feature feature) {
+        Object value = expr.evaluate(feature);
+        if (value == null) {
+            return;
+        }
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException(
+                    "Approximate quantiles can only be computed on numbers, found " + value);
+        }
+        sketch.update(((Number) value).doubleValue());
+    }
+
+    /** Returns the approximate quantile, or NaN if no value was visited */
+    public double getQuantile(double fraction) {
+        return sketch.getQuantile(fraction);
+    }
+
+    /** Returns the number of values visited, excluding null and NaN ones */
+    public long getCount() {
+        return sketch.getCount();
+    }
+
+    public void reset() {
+        sketch = new KllSketch(k);
+    }
+
+    @Override
+    public MergeableFeatureCalc createPartial() {
+        return new ApproximateQuantileVisitor(expr, k);
+    }
+
+    @Override
+    public void merge(MergeableFeatureCalc partial) {
+        sketch.merge(((ApproximateQuantileVisitor) partial).sketch);
+    }
+
+    @Override
+    public CalcResult getResult() {
+        if (sketch.getCount() == 0) {
+            return CalcResult.NULL_RESULT;
+        }
+        return new QuantileResult(sketch.copy());
+    }
+
+    /** The result of the quantile estimate, whose value is the approximate median */
+    public static class QuantileResult extends AbstractCalcResult {
+
+        private final KllSketch sketch;
+
+        QuantileResult(KllSketch sketch) {
+            this.sketch = sketch;
+        }
+
+        @Override
+        public Object getValue() {
+            return sketch.getQuantile(0.5);
+        }
+
+        /** Returns the value whose rank is approximately the given fraction of the values */
+        public double getQuantile(double fraction) {
+            return sketch.getQuantile(fraction);
+        }
+
+        /** Returns the number of values summarized */
+        public long getCount() {
+            return sketch.getCount();
+        }
+
+        public double getMin() {
+            return sketch.getMin();
+        }
+
+        public double getMax() {
+            return sketch.getMax();
+        }
+
+        @Override
+        public boolean isCompatible(CalcResult targetResults) {
+            return targetResults == CalcResult.NULL_RESULT
+                    || targetResults instanceof QuantileResult;
+        }
+
+        @Override
+        public CalcResult merge(CalcResult resultsToAdd) {
+            if (!isCompatible(resultsToAdd)) {
+                throw new IllegalArgumentException("Parameter is not a compatible type");
+            }
+            if (resultsToAdd == CalcResult.NULL_RESULT) {
+                return this;
+            }
+            KllSketch merged = sketch.copy();
+            merged.merge(((QuantileResult) resultsToAdd).sketch);
+            return new QuantileResult(merged);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.visitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.opengis.feature.Feature;
+import org.opengis.filter.expression.Expression;
+
+/**
+ * Finds the most frequent values of an expression, with their approximate frequency, using a
+ * count-min sketch, in bounded memory, as opposed to {@link UniqueVisitor} that collects all the
+ * values.
+ *
+ * <p>The frequency estimates never undercount, and overcount by at most epsilon times the number
+ * of values with probability 1 - delta. The sketch uses e / epsilon times ln(1 / delta) counters,
+ * e.g., about 110KB with the defaults of 0.001 and 0.01. Null values are ignored.
+ *
+ * <p>The value of the result is a map from the top values to their estimated frequency, sorted by
+ * decreasing frequency.
+ *
+ * @since 20
+ */
+public class ApproximateTopKVisitor
+        implements FeatureCalc, FeatureAttributeVisitor, MergeableFeatureCalc {
+
+    public static final double DEFAULT_EPSILON = 0.001;
+
+    public static final double DEFAULT_DELTA = 0.01;
+
+    private final Expression expr;
+
+    private final int k;
+
+    private final double epsilon;
+
+    private final double delta;
+
+    private CountMinSketch sketch;
+
+    /**
+     * @param expr the expression providing the values
+     * @param k the number of most frequent values to return
+     */
+    public ApproximateTopKVisitor(Expression expr, int k) {
+        this(expr, k, DEFAULT_EPSILON, DEFAULT_DELTA);
+    }
+
+    /**
+     * @param expr the expression providing the values
+     * @param k the number of most frequent values to return
+     * @param epsilon the maximum overcount, as a fraction of the number of values
+     * @param delta the probability of exceeding the maximum overcount
+     */
+    public ApproximateTopKVisitor(Expression expr, int k, double epsilon, double delta) {
+        this.expr = expr;
+        this.k = k;
+        this.epsilon = epsilon;
+        this.delta = delta;
+        this.sketch = new CountMinSketch(k, epsilon, delta);
+    }
+
+    @Override
+    public List<Expression> getExpressions() {
+        return Arrays.asList(expr);
+    }
+
+    public Expression getExpression() {
+        return expr;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    @Override
+    public void visit(Feature feature) {
+        Object value = expr.evaluate(feature);
+        if (value != null) {
+            sketch.add(value);
+        }
+    }
+
+    /** Returns the most frequent values and their estimated frequency, most frequent first */
+    public Map<Object, Long> getTop() {
+        return sketch.getTop();
+    }
+
+    public void reset() {
+        sketch = new CountMinSketch(k, epsilon, delta);
+    }
+
+    @Override
+    public MergeableFeatureCalc createPartial() {
+        return new ApproximateTopKVisitor(expr, k, epsilon, delta);
+    }
+
+    @Override
+    public void merge(MergeableFeatureCalc partial) {
+        sketch.merge(((ApproximateTopKVisitor) partial).sketch);
+    }
+
+    @Override
+    public CalcResult getResult() {
+        if (sketch.getCount() == 0) {
+            return CalcResult.NULL_RESULT;
+        }
+        return new TopKResult(sketch.copy());
+    }
+
+    /**
+     * The result of the top k estimate. Its value is a map from the top values to their estimated
+     * frequency, most frequent first, while {@link #toList()} returns the values alone.
+     */
+    public static class TopKResult extends AbstractCalcResult {
+
+        private final CountMinSketch sketch;
+
+        TopKResult(CountMinSketch sketch) {
+            this.sketch = sketch;
+        }
+
+        @Override
+        public Object getValue() {
+            return sketch.getTop();
+        }
+
+        @Override
+        public List toList() {
+            return new ArrayList<>(sketch.getTop().keySet());
+        }
+
+        @Override
+        public boolean isCompatible(CalcResult targetResults) {
+            return targetResults == CalcResult.NULL_RESULT || targetResults instanceof TopKResult;
+        }
+
+        @Override
+        public CalcResult merge(CalcResult resultsToAdd) {
+            if (!isCompatible(resultsToAdd)) {
+                throw new IllegalArgumentException("Parameter is not a compatible type");
+            }
+            if (resultsToAdd == CalcResult.NULL_RESULT) {
+                return this;
+            }
+            CountMinSketch merged = sketch.copy();
+            merged.merge(((TopKResult) resultsToAdd).sketch);
+            return new TopKResult(merged);
+        }
+    }
+}
@@ -34,7 +34,7 @@ import org.opengis.filter.expression.Expression;
  * @since 2.2.M2
  * @source $URL$
  */
-public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
+public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor, MergeableFeatureCalc {
     private Expression expr;
 
     /**
@@ -149,6 +149,22 @@ public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
         isOptimized = false;
     }
 
+    public MergeableFeatureCalc createPartial() {
+        return new AverageVisitor(expr);
+    }
+
+    public void merge(MergeableFeatureCalc partial) {
+        AverageVisitor other = (AverageVisitor) partial;
+        if (other.strategy == null) {
+            return;
+        }
+        if (strategy == null) {
+            strategy = createStrategy(other.strategy.getSum().getClass());
+        }
+        strategy.merge(other.strategy);
+        isOptimized |= other.isOptimized;
+    }
+
     /** Returns a CalcResult object (containing the Average) */
     public CalcResult getResult() {
         if (strategy == null) {
@@ -187,6 +203,9 @@ public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
         public int getCount();
 
         public void set(int count, Object sum);
+
+        /** Adds the sum and count of another strategy to this one */
+        public void merge(AverageStrategy other);
     }
 
     /** Implements the average calculation for values of the type double */
@@ -215,6 +234,11 @@ public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
             number = ((Number) sum).doubleValue();
             count = newCount;
         }
+
+        public void merge(AverageStrategy other) {
+            number += ((Number) other.getSum()).doubleValue();
+            count += other.getCount();
+        }
     }
 
     /** Implements the average calculation for values of the type float */
@@ -243,6 +267,11 @@ public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
             number = ((Number) sum).floatValue();
             count = newCount;
         }
+
+        public void merge(AverageStrategy other) {
+            number += ((Number) other.getSum()).floatValue();
+            count += other.getCount();
+        }
     }
 
     /** Implements the average calculation for values of the type long */
@@ -271,6 +300,11 @@ public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
             number = ((Number) sum).longValue();
             count = newCount;
         }
+
+        public void merge(AverageStrategy other) {
+            number += ((Number) other.getSum()).longValue();
+            count += other.getCount();
+        }
     }
 
     /** Implements the average calculation for values of the type integer */
@@ -299,6 +333,11 @@ public class AverageVisitor implements FeatureCalc, FeatureAttributeVisitor {
             number = ((Number) sum).intValue();
             count = newCount;
         }
+
+        public void merge(AverageStrategy other) {
+            number += ((Number) other.getSum()).intValue();
+            count += other.getCount();
+        }
     }
 
     /** */
@@ -26,7 +26,7 @@ import org.geotools.geometry.jts.ReferencedEnvelope;
  * @since 2.2.M2
  * @source $URL$
  */
-public class BoundsVisitor implements FeatureCalc {
+public class BoundsVisitor implements FeatureCalc, MergeableFeatureCalc {
     ReferencedEnvelope bounds = new ReferencedEnvelope();
 
     public void visit(org.opengis.feature.Feature feature) {
@@ -41,6 +41,14 @@ public class BoundsVisitor implements FeatureCalc {
         this.bounds = new ReferencedEnvelope();
     }
 
+    public MergeableFeatureCalc createPartial() {
+        return new BoundsVisitor();
+    }
+
+    public void merge(MergeableFeatureCalc partial) {
+        bounds.include(((BoundsVisitor) partial).bounds);
+    }
+
     public CalcResult getResult() {
         if (bounds == null || bounds.isEmpty()) {
             return CalcResult.NULL_RESULT;
@@ -0,0 +1,159 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.visitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A count-min sketch tracking the most frequent values (Cormode, Muthukrishnan, "An Improved Data
+ * Stream Summary: The Count-Min Sketch and its Applications").
+ *
+ * <p>Counts are kept in a matrix of depth rows and width columns, each value incrementing one
+ * counter per row, and the estimated frequency is the smallest of its counters. Estimates never
+ * undercount, and overcount by at most epsilon times the total count with probability 1 - delta.
+ * The k values with the highest estimates seen so far are kept as candidates.
+ */
+class CountMinSketch {
+
+    private final int k;
+
+    private final int width;
+
+    private final long[][] counters;
+
+    private final Map<Object, Long> candidates = new HashMap<>();
+
+    /** A lower bound of the smallest candidate estimate */
+    private long threshold;
+
+    private long count;
+
+    CountMinSketch(int k, double epsilon, double delta) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive, was " + k);
+        }
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException(
+                    "Epsilon and delta must be between 0 and 1, were " + epsilon + ", " + delta);
+        }
+        this.k = k;
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        this.counters = new long[(int) Math.ceil(Math.log(1 / delta))][width];
+    }
+
+    private CountMinSketch(CountMinSketch other) {
+        this.k = other.k;
+        this.width = other.width;
+        this.counters = new long[other.counters.length][];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = other.counters[i].clone();
+        }
+        this.candidates.putAll(other.candidates);
+        this.threshold = other.threshold;
+        this.count = other.count;
+    }
+
+    CountMinSketch copy() {
+        return new CountMinSketch(this);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    void add(Object value) {
+        long hash = Sketches.hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < counters.length; i++) {
+            int column = Math.floorMod(h1 + i * h2, width);
+            estimate = Math.min(estimate, ++counters[i][column]);
+        }
+        count++;
+        offer(value, estimate);
+    }
+
+    /** Returns the estimated frequency of a value */
+    long estimate(Object value) {
+        long hash = Sketches.hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < counters.length; i++) {
+            estimate = Math.min(estimate, counters[i][Math.floorMod(h1 + i * h2, width)]);
+        }
+        return estimate;
+    }
+
+    private void offer(Object value, long estimate) {
+        if (candidates.containsKey(value) || candidates.size() < k) {
+            candidates.put(value, estimate);
+        } else if (estimate > threshold) {
+            // the threshold can be stale, since candidate estimates only grow
+            Map.Entry<Object, Long> smallest = null;
+            for (Map.Entry<Object, Long> entry : candidates.entrySet()) {
+                if (smallest == null || entry.getValue() < smallest.getValue()) {
+                    smallest = entry;
+                }
+            }
+            threshold = smallest.getValue();
+            if (estimate > threshold) {
+                candidates.remove(smallest.getKey());
+                candidates.put(value, estimate);
+            }
+        }
+    }
+
+    /** Adds the counts of another sketch built with the same parameters */
+    void merge(CountMinSketch other) {
+        if (other.width != width || other.counters.length != counters.length) {
+            throw new IllegalArgumentException("Cannot merge sketches with different sizes");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            long[] row = counters[i];
+            long[] otherRow = other.counters[i];
+            for (int j = 0; j < width; j++) {
+                row[j] += otherRow[j];
+            }
+        }
+        count += other.count;
+        // re-estimate the candidates of both sketches against the merged counts
+        List<Object> values = new ArrayList<>(candidates.keySet());
+        values.addAll(other.candidates.keySet());
+        candidates.clear();
+        threshold = 0;
+        for (Object value : values) {
+            offer(value, estimate(value));
+        }
+    }
+
+    /** Returns the candidates and their estimated frequencies, most frequent first */
+    Map<Object, Long> getTop() {
+        List<Map.Entry<Object, Long>> entries = new ArrayList<>(candidates.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        Map<Object, Long> top = new LinkedHashMap<>();
+        for (Map.Entry<Object, Long> entry : entries) {
+            top.put(entry.getKey(), entry.getValue());
+        }
+        return top;
+    }
+}
@@ -27,7 +27,7 @@ import org.opengis.feature.simple.SimpleFeature;
  * @since 2.2.M2
  * @source $URL$
  */
-public class CountVisitor implements FeatureCalc {
+public class CountVisitor implements FeatureCalc, MergeableFeatureCalc {
     Integer count = null;
 
     public void init(SimpleFeatureCollection collection) {
@@ -60,6 +60,17 @@ public class CountVisitor implements FeatureCalc {
         this.count = null;
     }
 
+    public MergeableFeatureCalc createPartial() {
+        return new CountVisitor();
+    }
+
+    public void merge(MergeableFeatureCalc partial) {
+        Integer partialCount = ((CountVisitor) partial).count;
+        if (partialCount != null) {
+            count = count == null ? partialCount : count + partialCount;
+        }
+    }
+
     public CalcResult getResult() {
         if (count == null) {
             return CalcResult.NULL_RESULT;
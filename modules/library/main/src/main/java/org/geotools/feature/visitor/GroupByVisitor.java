@@ -32,16 +32,30 @@ import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.filter.expression.Expression;
 import org.opengis.util.ProgressListener;
 
-/** Group features by one or several attributes and applies an aggregator visitor to each group. */
-public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor {
+/**
+ * Group features by one or several attributes and applies an aggregator visitor to each group.
+ *
+ * <p>Sum, count, min, max and average are computed in memory by a hash aggregation keeping the
+ * state of each group in primitive arrays, the other aggregates use a copy of the aggregate visitor
+ * per group. When a memory limit is set, the hash aggregation spills groups to temporary files once
+ * its estimated size exceeds the limit, the spilled groups are read back when the result is
+ * computed, and the result holds all the groups in memory. The visit can also be split among
+ * several partial visitors, see {@link MergeableFeatureCalc}.
+ */
+public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor, MergeableFeatureCalc {
 
     private final Aggregate aggregate;
     private final Expression expression;
     private final FeatureCalc visitorProtoType;
     private final List<Expression> groupByAttributes;
     private final ProgressListener progressListener;
+    private final long memoryLimit;
+
+    /** Hash aggregation, used when the aggregate supports it */
+    private final HashGroupBy hashGroupBy;
 
-    private final InMemoryGroupBy inMemoryGroupBy = new InMemoryGroupBy();
+    /** Visitor per group aggregation, used for the other aggregates */
+    private final InMemoryGroupBy inMemoryGroupBy;
 
     private CalcResult optimizationResult = CalcResult.NULL_RESULT;
 
@@ -50,11 +64,43 @@ public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor {
             Expression expression,
             List<Expression> groupByAttributes,
             ProgressListener progressListener) {
+        this(aggregateVisitor, expression, groupByAttributes, progressListener, 0);
+    }
+
+    /**
+     * Builds a group by visitor whose in memory aggregation spills groups to disk when its
+     * estimated size exceeds the given limit. The limit applies to each partial visitor separately,
+     * and only while visiting, the result still holds all the groups in memory.
+     *
+     * @param memoryLimit the memory limit in bytes, zero or negative to keep all groups in memory
+     * @since 20
+     */
+    public GroupByVisitor(
+            Aggregate aggregateVisitor,
+            Expression expression,
+            List<Expression> groupByAttributes,
+            ProgressListener progressListener,
+            long memoryLimit) {
         this.aggregate = aggregateVisitor;
         this.expression = expression;
         this.groupByAttributes = groupByAttributes;
         this.progressListener = progressListener;
+        this.memoryLimit = Math.max(0, memoryLimit);
         visitorProtoType = aggregateVisitor.create(expression);
+        if (HashGroupBy.supports(aggregateVisitor)) {
+            // the visitor knows the actual expression, e.g. the area of the geometry for SUMAREA
+            Expression aggregated =
+                    visitorProtoType instanceof SumVisitor
+                            ? ((SumVisitor) visitorProtoType).getExpression()
+                            : expression;
+            hashGroupBy =
+                    new HashGroupBy(
+                            aggregateVisitor, aggregated, groupByAttributes, this.memoryLimit);
+            inMemoryGroupBy = null;
+        } else {
+            hashGroupBy = null;
+            inMemoryGroupBy = new InMemoryGroupBy();
+        }
     }
 
     public boolean wasOptimized() {
@@ -62,7 +108,10 @@ public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor {
     }
 
     public boolean wasVisited() {
-        return !inMemoryGroupBy.groupByIndexes.isEmpty();
+        if (hashGroupBy != null) {
+            return !hashGroupBy.isEmpty();
+        }
+        return !inMemoryGroupBy.groupByIndexes.isEmpty() || !inMemoryGroupBy.merged.isEmpty();
     }
 
     /**
@@ -76,7 +125,8 @@ public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor {
     @Override
     public CalcResult getResult() {
         // do a in memory computation for any visited feature
-        Map<List<Object>, CalcResult> results = inMemoryGroupBy.visit();
+        Map<List<Object>, CalcResult> results =
+                hashGroupBy != null ? hashGroupBy.getResults() : inMemoryGroupBy.visit();
         // create the result, if no feature was visited this will be an empty result that can be
         // safely merged
         GroupByResult result = new GroupByResult(results, aggregate, groupByAttributes);
@@ -90,7 +140,27 @@ public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor {
 
     @Override
     public void visit(Feature feature) {
-        inMemoryGroupBy.index((SimpleFeature) feature);
+        if (hashGroupBy != null) {
+            hashGroupBy.visit((SimpleFeature) feature);
+        } else {
+            inMemoryGroupBy.index((SimpleFeature) feature);
+        }
+    }
+
+    @Override
+    public MergeableFeatureCalc createPartial() {
+        return new GroupByVisitor(
+                aggregate, expression, groupByAttributes, progressListener, memoryLimit);
+    }
+
+    @Override
+    public void merge(MergeableFeatureCalc partial) {
+        GroupByVisitor other = (GroupByVisitor) partial;
+        if (hashGroupBy != null) {
+            hashGroupBy.merge(other.hashGroupBy);
+        } else {
+            inMemoryGroupBy.merge(other.inMemoryGroupBy);
+        }
     }
 
     public Expression getExpression() {
@@ -105,6 +175,16 @@ public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor {
         return groupByAttributes;
     }
 
+    /**
+     * Returns the memory limit, in bytes, above which the in memory aggregation spills to disk, or
+     * zero if there is no limit
+     *
+     * @since 20
+     */
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
     /**
      * Methods that allow optimizations to directly set the group by visitor result instead of
      * computing it visiting all the features. Aggregate visitor results are wrapped with the
@@ -149,6 +229,9 @@ public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor {
         // feature collections grouped by the group by attributes
         private final Map<List<Object>, FeatureCalc> groupByIndexes = new HashMap<>();
 
+        // results of partial visitors whose aggregate visitor cannot be merged
+        private final Map<List<Object>, CalcResult> merged = new HashMap<>();
+
         /**
          * Add a feature to the appropriate group by feature collection.
          *
@@ -177,13 +260,40 @@ public class GroupByVisitor implements FeatureCalc, FeatureAttributeVisitor {
          * @return the result of applying the aggregation visitor to eac feature collection
          */
         Map<List<Object>, CalcResult> visit() {
-            Map<List<Object>, CalcResult> results = new HashMap<>();
+            Map<List<Object>, CalcResult> results = new HashMap<>(merged);
             for (Map.Entry<List<Object>, FeatureCalc> entry : groupByIndexes.entrySet()) {
                 // we add the aggregation visitor to the results
-                results.put(entry.getKey(), entry.getValue().getResult());
+                CalcResult result = entry.getValue().getResult();
+                CalcResult existing = results.get(entry.getKey());
+                results.put(entry.getKey(), existing == null ? result : existing.merge(result));
             }
             return results;
         }
+
+        /**
+         * Merges the groups of a partial visitor, using the aggregate visitors merge if available,
+         * or their results otherwise.
+         */
+        void merge(InMemoryGroupBy other) {
+            for (Map.Entry<List<Object>, CalcResult> entry : other.merged.entrySet()) {
+                CalcResult existing = merged.get(entry.getKey());
+                merged.put(
+                        entry.getKey(),
+                        existing == null ? entry.getValue() : existing.merge(entry.getValue()));
+            }
+            for (Map.Entry<List<Object>, FeatureCalc> entry : other.groupByIndexes.entrySet()) {
+                FeatureCalc calc = groupByIndexes.get(entry.getKey());
+                if (calc == null) {
+                    groupByIndexes.put(entry.getKey(), entry.getValue());
+                } else if (calc instanceof MergeableFeatureCalc) {
+                    ((MergeableFeatureCalc) calc).merge((MergeableFeatureCalc) entry.getValue());
+                } else {
+                    CalcResult result = entry.getValue().getResult();
+                    CalcResult existing = merged.get(entry.getKey());
+                    merged.put(entry.getKey(), existing == null ? result : existing.merge(result));
+                }
+            }
+        }
     }
 
     /** This class implements the feature calculation result of the group by visitor. */
@@ -39,6 +39,7 @@ public final class GroupByVisitorBuilder {
     private Aggregate aggregateVisitor;
     private List<Expression> groupByAttributes = new ArrayList<>();
     private ProgressListener progressListener;
+    private long memoryLimit;
 
     public GroupByVisitorBuilder withAggregateAttribute(
             int attributeTypeIndex, SimpleFeatureType type) {
@@ -97,6 +98,22 @@ public final class GroupByVisitorBuilder {
         return this;
     }
 
+    /**
+     * Sets the estimated memory, in bytes, the in memory aggregation can use before spilling groups
+     * to temporary files. By default all groups are kept in memory.
+     *
+     * <p>The limit only bounds the memory used while visiting the features, and only applies to the
+     * sum, count, min, max and average aggregates. Spilled groups are merged back when the result
+     * is computed, and {@link GroupByVisitor#getResult()} holds every group in memory anyway, so
+     * the limit does not help when the number of groups itself does not fit in memory.
+     *
+     * @since 20
+     */
+    public GroupByVisitorBuilder withMemoryLimit(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+        return this;
+    }
+
     private Expression toExpression(int attributeTypeIndex, SimpleFeatureType type) {
         FilterFactory filterFactory = CommonFactoryFinder.getFilterFactory(null);
         AttributeDescriptor attribute = type.getDescriptor(attributeTypeIndex);
@@ -135,6 +152,10 @@ public final class GroupByVisitorBuilder {
             progressListener = new NullProgressListener();
         }
         return new GroupByVisitor(
-                aggregateVisitor, aggregateAttribute, groupByAttributes, progressListener);
+                aggregateVisitor,
+                aggregateAttribute,
+                groupByAttributes,
+                progressListener,
+                memoryLimit);
     }
 }
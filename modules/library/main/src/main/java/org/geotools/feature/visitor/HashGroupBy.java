@@ -0,0 +1,850 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.visitor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.geotools.feature.visitor.AverageVisitor.AverageResult;
+import org.geotools.feature.visitor.CountVisitor.CountResult;
+import org.geotools.feature.visitor.MaxVisitor.MaxResult;
+import org.geotools.feature.visitor.MinVisitor.MinResult;
+import org.geotools.feature.visitor.SumVisitor.SumResult;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.filter.expression.Expression;
+
+/**
+ * Hash aggregation engine used by {@link GroupByVisitor} for the aggregates that can be computed
+ * with primitive accumulators (sum, count, min, max and average).
+ *
+ * <p>Groups are kept in an open addressing table, and the aggregation state lives in arrays indexed
+ * by group, so visiting a feature that falls into an existing group allocates nothing. The results
+ * are the same the corresponding visitors would compute, including the result type being decided
+ * by the first value found in each group.
+ *
+ * <p>When a memory limit is set and the estimated size of the table exceeds it, the groups are
+ * spilled to temporary files, split in {@link #PARTITIONS} partitions by key hash, and the table is
+ * cleared. When the result is requested, each partition is read back and aggregated on its own, so
+ * that only the groups of one partition need to fit in memory at a time. Group keys and min/max
+ * values other than strings, numbers and booleans are spilled with Java serialization.
+ */
+class HashGroupBy {
+
+    /** Number of spill partitions, must be a power of two */
+    static final int PARTITIONS = 16;
+
+    private static final int PARTITION_SHIFT = 32 - Integer.numberOfTrailingZeros(PARTITIONS);
+
+    /** Rough per group overhead, in bytes, of the table, the key array and the accumulators */
+    private static final int GROUP_OVERHEAD = 96;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Aggregate aggregate;
+
+    private final Expression expression;
+
+    private final List<Expression> groupByAttributes;
+
+    private final long memoryLimit;
+
+    /** Scratch buffer holding the group by values of the feature being visited */
+    private final Object[] values;
+
+    /** Open addressing table, holds the group index plus one, zero marks an empty slot */
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+
+    private int[] hashes = new int[INITIAL_CAPACITY];
+
+    private Object[][] keys = new Object[INITIAL_CAPACITY][];
+
+    private int size;
+
+    private long memory;
+
+    private final Accumulator accumulator;
+
+    /** The spill files of each partition, null if the table was never spilled */
+    private List<List<File>> spills;
+
+    /** The results of the spilled groups, once they have been aggregated */
+    private Map<List<Object>, CalcResult> spilledResults;
+
+    /** Returns true if the aggregate can be computed by this engine */
+    static boolean supports(Aggregate aggregate) {
+        switch (aggregate) {
+            case SUM:
+            case SUMAREA:
+            case COUNT:
+            case MIN:
+            case MAX:
+            case AVERAGE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @param aggregate the aggregate to compute, must be {@link #supports(Aggregate) supported}
+     * @param expression the expression providing the aggregated values, ignored for counts
+     * @param groupByAttributes the group by expressions
+     * @param memoryLimit the estimated table size, in bytes, above which groups are spilled to
+     *     disk, or zero to keep all groups in memory
+     */
+    HashGroupBy(
+            Aggregate aggregate,
+            Expression expression,
+            List<Expression> groupByAttributes,
+            long memoryLimit) {
+        this.aggregate = aggregate;
+        this.expression = aggregate == Aggregate.COUNT ? null : expression;
+        this.groupByAttributes = groupByAttributes;
+        this.memoryLimit = memoryLimit;
+        this.values = new Object[groupByAttributes.size()];
+        this.accumulator = createAccumulator(aggregate);
+        accumulator.grow(INITIAL_CAPACITY);
+    }
+
+    private static Accumulator createAccumulator(Aggregate aggregate) {
+        switch (aggregate) {
+            case SUM:
+            case SUMAREA:
+                return new SumAccumulator();
+            case COUNT:
+                return new CountAccumulator();
+            case MIN:
+                return new ExtremeAccumulator(false);
+            case MAX:
+                return new ExtremeAccumulator(true);
+            case AVERAGE:
+                return new AverageAccumulator();
+            default:
+                throw new IllegalArgumentException("Unsupported aggregate " + aggregate);
+        }
+    }
+
+    /** Returns true if no feature was visited or merged yet */
+    boolean isEmpty() {
+        return size == 0 && spills == null && spilledResults == null;
+    }
+
+    void visit(SimpleFeature feature) {
+        int hash = 1;
+        for (int i = 0; i < values.length; i++) {
+            Object value = groupByAttributes.get(i).evaluate(feature);
+            values[i] = value;
+            hash = 31 * hash + (value == null ? 0 : value.hashCode());
+        }
+        int group = findOrAdd(values, hash);
+        accumulator.add(group, expression == null ? null : expression.evaluate(feature));
+        if (memoryLimit > 0 && memory > memoryLimit) {
+            spill();
+        }
+    }
+
+    /**
+     * Merges the groups of another engine, configured in the same way, into this one. The other
+     * engine spill files are taken over, and it should not be used anymore.
+     */
+    void merge(HashGroupBy other) {
+        if (other.spills != null) {
+            initSpills();
+            for (int p = 0; p < PARTITIONS; p++) {
+                spills.get(p).addAll(other.spills.get(p));
+            }
+            other.spills = null;
+        }
+        if (other.spilledResults != null) {
+            if (spilledResults == null) {
+                spilledResults = new HashMap<>();
+            }
+            for (Map.Entry<List<Object>, CalcResult> entry : other.spilledResults.entrySet()) {
+                addResult(spilledResults, entry.getKey(), entry.getValue());
+            }
+        }
+        for (int g = 0; g < other.size; g++) {
+            int group = findOrAdd(other.keys[g], other.hashes[g]);
+            accumulator.combine(group, other.accumulator, g);
+            if (memoryLimit > 0 && memory > memoryLimit) {
+                spill();
+            }
+        }
+    }
+
+    /**
+     * Computes the result of each group. If groups were spilled, the partitions are aggregated and
+     * the spill files removed.
+     */
+    Map<List<Object>, CalcResult> getResults() {
+        if (spills != null) {
+            aggregateSpills();
+        }
+        Map<List<Object>, CalcResult> results =
+                spilledResults == null ? new HashMap<>() : new HashMap<>(spilledResults);
+        collect(results, -1);
+        return results;
+    }
+
+    /** Adds the results of the groups in the table, all of them if the partition is negative */
+    private void collect(Map<List<Object>, CalcResult> results, int partition) {
+        for (int g = 0; g < size; g++) {
+            if (partition < 0 || partition(hashes[g]) == partition) {
+                addResult(results, Arrays.asList(keys[g]), accumulator.getResult(g));
+            }
+        }
+    }
+
+    private static void addResult(
+            Map<List<Object>, CalcResult> results, List<Object> key, CalcResult result) {
+        CalcResult existing = results.get(key);
+        results.put(key, existing == null ? result : existing.merge(result));
+    }
+
+    private int findOrAdd(Object[] values, int hash) {
+        int mask = table.length - 1;
+        int slot = slot(hash) & mask;
+        while (true) {
+            int group = table[slot] - 1;
+            if (group < 0) {
+                return add(values, hash, slot);
+            }
+            if (hashes[group] == hash && Arrays.equals(keys[group], values)) {
+                return group;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int add(Object[] values, int hash, int slot) {
+        int group = size++;
+        if (group == hashes.length) {
+            int capacity = hashes.length * 2;
+            hashes = Arrays.copyOf(hashes, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            accumulator.grow(capacity);
+        }
+        hashes[group] = hash;
+        keys[group] = values.clone();
+        table[slot] = group + 1;
+        memory += GROUP_OVERHEAD + estimateSize(values);
+        // keep the load factor at one half, probe sequences stay short
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return group;
+    }
+
+    private void rehash(int capacity) {
+        int[] rehashed = new int[capacity];
+        int mask = capacity - 1;
+        for (int g = 0; g < size; g++) {
+            int slot = slot(hashes[g]) & mask;
+            while (rehashed[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed[slot] = g + 1;
+        }
+        table = rehashed;
+    }
+
+    private static int mix(int hash) {
+        return hash * 0x9E3779B9;
+    }
+
+    private static int slot(int hash) {
+        int h = mix(hash);
+        return h ^ (h >>> 16);
+    }
+
+    private static int partition(int hash) {
+        return mix(hash) >>> PARTITION_SHIFT;
+    }
+
+    private static long estimateSize(Object[] values) {
+        long size = 0;
+        for (Object value : values) {
+            if (value instanceof String) {
+                size += 40 + 2 * ((String) value).length();
+            } else {
+                size += 24;
+            }
+        }
+        return size;
+    }
+
+    private void clear() {
+        Arrays.fill(table, 0);
+        Arrays.fill(keys, 0, size, null);
+        accumulator.clear(size);
+        size = 0;
+        memory = 0;
+    }
+
+    private void initSpills() {
+        if (spills == null) {
+            spills = new ArrayList<>(PARTITIONS);
+            for (int p = 0; p < PARTITIONS; p++) {
+                spills.add(new ArrayList<>());
+            }
+        }
+    }
+
+    /** Writes all groups in the table to one new file per partition, and clears the table */
+    private void spill() {
+        initSpills();
+        ObjectOutputStream[] outputs = new ObjectOutputStream[PARTITIONS];
+        try {
+            try {
+                for (int g = 0; g < size; g++) {
+                    int p = partition(hashes[g]);
+                    ObjectOutputStream out = outputs[p];
+                    if (out == null) {
+                        File file = File.createTempFile("groupby", ".spill");
+                        spills.get(p).add(file);
+                        out =
+                                new ObjectOutputStream(
+                                        new BufferedOutputStream(new FileOutputStream(file)));
+                        outputs[p] = out;
+                    }
+                    out.writeBoolean(true);
+                    for (Object value : keys[g]) {
+                        writeValue(out, value);
+                    }
+                    accumulator.write(out, g);
+                }
+            } finally {
+                for (ObjectOutputStream out : outputs) {
+                    if (out != null) {
+                        out.writeBoolean(false);
+                        out.close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to spill the group by aggregation to disk", e);
+        }
+        clear();
+    }
+
+    /**
+     * Aggregates each partition of the spilled groups, together with the groups of the same
+     * partition still in the table, then clears the table and removes the spill files.
+     */
+    private void aggregateSpills() {
+        if (spilledResults == null) {
+            spilledResults = new HashMap<>();
+        }
+        try {
+            for (int p = 0; p < PARTITIONS; p++) {
+                List<File> files = spills.get(p);
+                HashGroupBy partition =
+                        new HashGroupBy(aggregate, expression, groupByAttributes, 0);
+                for (File file : files) {
+                    partition.read(file);
+                }
+                for (int g = 0; g < size; g++) {
+                    if (partition(hashes[g]) == p) {
+                        int group = partition.findOrAdd(keys[g], hashes[g]);
+                        partition.accumulator.combine(group, accumulator, g);
+                    }
+                }
+                partition.collect(spilledResults, -1);
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException("Failed to read back the spilled group by aggregation", e);
+        } finally {
+            for (List<File> files : spills) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            spills = null;
+        }
+        clear();
+    }
+
+    private void read(File file) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in =
+                new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (in.readBoolean()) {
+                int hash = 1;
+                for (int i = 0; i < values.length; i++) {
+                    Object value = readValue(in);
+                    values[i] = value;
+                    hash = 31 * hash + (value == null ? 0 : value.hashCode());
+                }
+                int group = findOrAdd(values, hash);
+                accumulator.read(in, group);
+            }
+        }
+    }
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte OBJECT = 7;
+
+    static void writeValue(ObjectOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            String string = (String) value;
+            out.writeByte(STRING);
+            out.writeInt(string.length());
+            out.writeChars(string);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else {
+            out.writeByte(OBJECT);
+            out.writeObject(value);
+            // do not let the stream keep references to all the values written
+            out.reset();
+        }
+    }
+
+    static Object readValue(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                char[] chars = new char[in.readInt()];
+                for (int i = 0; i < chars.length; i++) {
+                    chars[i] = in.readChar();
+                }
+                return new String(chars);
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case BOOLEAN:
+                return in.readBoolean();
+            case OBJECT:
+                return in.readObject();
+            default:
+                throw new IOException("Unexpected value type " + type);
+        }
+    }
+
+    /** Aggregation state of all groups, stored in arrays indexed by group */
+    abstract static class Accumulator {
+
+        /** Makes room for the given number of groups */
+        abstract void grow(int capacity);
+
+        /** Resets the state of the first groups */
+        abstract void clear(int size);
+
+        /** Adds a value, possibly null, to the group */
+        abstract void add(int group, Object value);
+
+        /** Adds the state of a group of another accumulator of the same type */
+        abstract void combine(int group, Accumulator other, int otherGroup);
+
+        abstract CalcResult getResult(int group);
+
+        abstract void write(ObjectOutputStream out, int group) throws IOException;
+
+        /** Reads a state written by {@link #write} and adds it to the group */
+        abstract void read(ObjectInputStream in, int group)
+                throws IOException, ClassNotFoundException;
+    }
+
+    static class CountAccumulator extends Accumulator {
+
+        int[] counts = new int[0];
+
+        @Override
+        void grow(int capacity) {
+            counts = Arrays.copyOf(counts, capacity);
+        }
+
+        @Override
+        void clear(int size) {
+            Arrays.fill(counts, 0, size, 0);
+        }
+
+        @Override
+        void add(int group, Object value) {
+            counts[group]++;
+        }
+
+        @Override
+        void combine(int group, Accumulator other, int otherGroup) {
+            counts[group] += ((CountAccumulator) other).counts[otherGroup];
+        }
+
+        @Override
+        CalcResult getResult(int group) {
+            return new CountResult(counts[group]);
+        }
+
+        @Override
+        void write(ObjectOutputStream out, int group) throws IOException {
+            out.writeInt(counts[group]);
+        }
+
+        @Override
+        void read(ObjectInputStream in, int group) throws IOException {
+            counts[group] += in.readInt();
+        }
+    }
+
+    /**
+     * Base class for the numeric accumulators. The kind of each group is decided by the first
+     * value, as the visitor strategies do, integral values are kept in the long array and floating
+     * point ones in the double array.
+     */
+    abstract static class NumberAccumulator extends Accumulator {
+
+        static final byte NONE = 0;
+        static final byte INT = 1;
+        static final byte LONG = 2;
+        static final byte FLOAT = 3;
+        static final byte DOUBLE = 4;
+
+        byte[] kinds = new byte[0];
+
+        long[] longs = new long[0];
+
+        double[] doubles = new double[0];
+
+        @Override
+        void grow(int capacity) {
+            kinds = Arrays.copyOf(kinds, capacity);
+            longs = Arrays.copyOf(longs, capacity);
+            doubles = Arrays.copyOf(doubles, capacity);
+        }
+
+        @Override
+        void clear(int size) {
+            Arrays.fill(kinds, 0, size, NONE);
+            Arrays.fill(longs, 0, size, 0);
+            Arrays.fill(doubles, 0, size, 0);
+        }
+
+        /** Same type mapping as the sum and average visitor strategies */
+        static byte sumKind(Object value) {
+            Class<?> type = value.getClass();
+            if (type == Integer.class) {
+                return INT;
+            } else if (type == Long.class) {
+                return LONG;
+            } else if (type == Float.class) {
+                return FLOAT;
+            }
+            return DOUBLE;
+        }
+
+        /** Adds the value to the group sum, using the arithmetic of the group kind */
+        void sum(int group, Number value) {
+            switch (kinds[group]) {
+                case INT:
+                    longs[group] = (int) longs[group] + value.intValue();
+                    break;
+                case LONG:
+                    longs[group] += value.longValue();
+                    break;
+                case FLOAT:
+                    doubles[group] = (float) doubles[group] + value.floatValue();
+                    break;
+                default:
+                    doubles[group] += value.doubleValue();
+            }
+        }
+
+        /** Returns the group value boxed in the type matching its kind */
+        Object box(int group) {
+            switch (kinds[group]) {
+                case INT:
+                    return (int) longs[group];
+                case LONG:
+                    return longs[group];
+                case FLOAT:
+                    return (float) doubles[group];
+                case DOUBLE:
+                    return doubles[group];
+                default:
+                    return null;
+            }
+        }
+
+        void writeNumber(ObjectOutputStream out, int group) throws IOException {
+            byte kind = kinds[group];
+            out.writeByte(kind);
+            if (kind == INT || kind == LONG) {
+                out.writeLong(longs[group]);
+            } else if (kind != NONE) {
+                out.writeDouble(doubles[group]);
+            }
+        }
+
+        /** Reads a value written by {@link #writeNumber}, null if the group had no value */
+        static Object readNumber(ObjectInputStream in) throws IOException {
+            byte kind = in.readByte();
+            switch (kind) {
+                case NONE:
+                    return null;
+                case INT:
+                    return (int) in.readLong();
+                case LONG:
+                    return in.readLong();
+                case FLOAT:
+                    return (float) in.readDouble();
+                default:
+                    return in.readDouble();
+            }
+        }
+    }
+
+    static class SumAccumulator extends NumberAccumulator {
+
+        @Override
+        void add(int group, Object value) {
+            if (value == null) {
+                return;
+            }
+            if (kinds[group] == NONE) {
+                kinds[group] = sumKind(value);
+            }
+            sum(group, (Number) value);
+        }
+
+        @Override
+        void combine(int group, Accumulator other, int otherGroup) {
+            add(group, ((SumAccumulator) other).box(otherGroup));
+        }
+
+        @Override
+        CalcResult getResult(int group) {
+            Object sum = box(group);
+            return sum == null ? CalcResult.NULL_RESULT : new SumResult(sum);
+        }
+
+        @Override
+        void write(ObjectOutputStream out, int group) throws IOException {
+            writeNumber(out, group);
+        }
+
+        @Override
+        void read(ObjectInputStream in, int group) throws IOException {
+            add(group, readNumber(in));
+        }
+    }
+
+    static class AverageAccumulator extends NumberAccumulator {
+
+        int[] counts = new int[0];
+
+        @Override
+        void grow(int capacity) {
+            super.grow(capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+
+        @Override
+        void clear(int size) {
+            super.clear(size);
+            Arrays.fill(counts, 0, size, 0);
+        }
+
+        @Override
+        void add(int group, Object value) {
+            if (value != null) {
+                addSum(group, value, 1);
+            }
+        }
+
+        private void addSum(int group, Object sum, int count) {
+            if (kinds[group] == NONE) {
+                kinds[group] = sumKind(sum);
+            }
+            sum(group, (Number) sum);
+            counts[group] += count;
+        }
+
+        @Override
+        void combine(int group, Accumulator other, int otherGroup) {
+            AverageAccumulator average = (AverageAccumulator) other;
+            Object sum = average.box(otherGroup);
+            if (sum != null) {
+                addSum(group, sum, average.counts[otherGroup]);
+            }
+        }
+
+        @Override
+        CalcResult getResult(int group) {
+            Object sum = box(group);
+            return sum == null ? CalcResult.NULL_RESULT : new AverageResult(counts[group], sum);
+        }
+
+        @Override
+        void write(ObjectOutputStream out, int group) throws IOException {
+            writeNumber(out, group);
+            out.writeInt(counts[group]);
+        }
+
+        @Override
+        void read(ObjectInputStream in, int group) throws IOException {
+            Object sum = readNumber(in);
+            int count = in.readInt();
+            if (sum != null) {
+                addSum(group, sum, count);
+            }
+        }
+    }
+
+    /**
+     * Min or max accumulator. Integer, long, float and double values are compared as primitives,
+     * as long as all the values of the group have the same type, otherwise the group switches to
+     * comparing the values as {@link Comparable}, like the min and max visitors do.
+     */
+    static class ExtremeAccumulator extends NumberAccumulator {
+
+        static final byte COMPARABLE = 5;
+
+        final boolean max;
+
+        Comparable[] comparables = new Comparable[0];
+
+        ExtremeAccumulator(boolean max) {
+            this.max = max;
+        }
+
+        @Override
+        void grow(int capacity) {
+            super.grow(capacity);
+            comparables = Arrays.copyOf(comparables, capacity);
+        }
+
+        @Override
+        void clear(int size) {
+            super.clear(size);
+            Arrays.fill(comparables, 0, size, null);
+        }
+
+        private static byte kind(Object value) {
+            Class<?> type = value.getClass();
+            if (type == Integer.class) {
+                return INT;
+            } else if (type == Long.class) {
+                return LONG;
+            } else if (type == Float.class) {
+                return FLOAT;
+            } else if (type == Double.class) {
+                return DOUBLE;
+            }
+            return COMPARABLE;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void add(int group, Object value) {
+            if (value == null) {
+                return;
+            }
+            byte current = kinds[group];
+            byte kind = kind(value);
+            if (current == NONE) {
+                kinds[group] = kind;
+                if (kind == COMPARABLE) {
+                    comparables[group] = (Comparable) value;
+                } else if (kind == INT || kind == LONG) {
+                    longs[group] = ((Number) value).longValue();
+                } else {
+                    doubles[group] = ((Number) value).doubleValue();
+                }
+            } else if (kind == current && (kind == INT || kind == LONG)) {
+                long l = ((Number) value).longValue();
+                if (max ? l > longs[group] : l < longs[group]) {
+                    longs[group] = l;
+                }
+            } else if (kind == current && kind != COMPARABLE) {
+                int c = Double.compare(((Number) value).doubleValue(), doubles[group]);
+                if (max ? c > 0 : c < 0) {
+                    doubles[group] = ((Number) value).doubleValue();
+                }
+            } else {
+                Comparable extreme = (Comparable) box(group);
+                int c = ((Comparable) value).compareTo(extreme);
+                kinds[group] = COMPARABLE;
+                comparables[group] = (max ? c > 0 : c < 0) ? (Comparable) value : extreme;
+            }
+        }
+
+        @Override
+        Object box(int group) {
+            return kinds[group] == COMPARABLE ? comparables[group] : super.box(group);
+        }
+
+        @Override
+        void combine(int group, Accumulator other, int otherGroup) {
+            add(group, ((ExtremeAccumulator) other).box(otherGroup));
+        }
+
+        @Override
+        CalcResult getResult(int group) {
+            Comparable extreme = (Comparable) box(group);
+            if (extreme == null) {
+                return CalcResult.NULL_RESULT;
+            }
+            return max ? new MaxResult(extreme) : new MinResult(extreme);
+        }
+
+        @Override
+        void write(ObjectOutputStream out, int group) throws IOException {
+            writeValue(out, box(group));
+        }
+
+        @Override
+        void read(ObjectInputStream in, int group) throws IOException, ClassNotFoundException {
+            add(group, readValue(in));
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.visitor;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A KLL quantile sketch over double values (Karnin, Lang, Liberty, "Optimal Quantile Approximation
+ * in Streams").
+ *
+ * <p>Values are kept in a stack of levels, an item at level h standing for 2<sup>h</sup> values.
+ * When the sketch grows over its capacity, the lowest full level is sorted and every other item is
+ * promoted to the next level, starting at a random offset. Level capacities decrease geometrically
+ * going down the stack, so the sketch holds about 3k items whatever the number of values, with a
+ * normalized rank error of about 1.65 / k.
+ */
+class KllSketch {
+
+    private static final double DECAY = 2.0 / 3.0;
+
+    private static final int MIN_WIDTH = 8;
+
+    final int k;
+
+    private double[][] levels = new double[1][];
+
+    private int[] sizes = new int[1];
+
+    private int size;
+
+    private int capacity;
+
+    private long count;
+
+    private double min = Double.NaN;
+
+    private double max = Double.NaN;
+
+    private final Random random = new Random(0);
+
+    KllSketch(int k) {
+        if (k < MIN_WIDTH) {
+            throw new IllegalArgumentException("k must be at least " + MIN_WIDTH + ", was " + k);
+        }
+        this.k = k;
+        levels[0] = new double[k];
+        capacity = computeCapacity();
+    }
+
+    KllSketch copy() {
+        KllSketch copy = new KllSketch(k);
+        copy.merge(this);
+        return copy;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    double getMin() {
+        return min;
+    }
+
+    double getMax() {
+        return max;
+    }
+
+    /** Adds a value, NaN values are ignored */
+    void update(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else if (value < min) {
+            min = value;
+        } else if (value > max) {
+            max = value;
+        }
+        count++;
+        append(0, value);
+        if (size >= capacity) {
+            compress();
+        }
+    }
+
+    /** Adds all the values summarized by another sketch */
+    void merge(KllSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            min = other.min;
+            max = other.max;
+        } else {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        count += other.count;
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        if (size >= capacity) {
+            compress();
+        }
+    }
+
+    /**
+     * Returns the value whose rank is approximately the given fraction of the values, or NaN if
+     * the sketch is empty.
+     */
+    double getQuantile(double fraction) {
+        if (count == 0) {
+            return Double.NaN;
+        } else if (fraction <= 0) {
+            return min;
+        } else if (fraction >= 1) {
+            return max;
+        }
+        // sort the items by value, along with the level giving their weight
+        double[] values = new double[size];
+        byte[] weights = new byte[size];
+        Integer[] order = new Integer[size];
+        int n = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[n] = levels[h][i];
+                weights[n] = (byte) h;
+                order[n] = n;
+                n++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        double target = fraction * count;
+        long cumulative = 0;
+        for (Integer item : order) {
+            cumulative += 1L << weights[item];
+            if (cumulative >= target) {
+                return values[item];
+            }
+        }
+        return max;
+    }
+
+    private void append(int level, double value) {
+        if (level >= levels.length) {
+            int levelCount = levels.length;
+            levels = Arrays.copyOf(levels, level + 1);
+            sizes = Arrays.copyOf(sizes, level + 1);
+            for (int h = levelCount; h <= level; h++) {
+                levels[h] = new double[MIN_WIDTH];
+            }
+            capacity = computeCapacity();
+        }
+        double[] items = levels[level];
+        if (sizes[level] == items.length) {
+            items = Arrays.copyOf(items, items.length * 2);
+            levels[level] = items;
+        }
+        items[sizes[level]++] = value;
+        size++;
+    }
+
+    private int levelCapacity(int level) {
+        int depth = levels.length - level - 1;
+        return Math.max(MIN_WIDTH, (int) Math.ceil(k * Math.pow(DECAY, depth)));
+    }
+
+    private int computeCapacity() {
+        int total = 0;
+        for (int h = 0; h < levels.length; h++) {
+            total += levelCapacity(h);
+        }
+        return total;
+    }
+
+    private void compress() {
+        while (size >= capacity) {
+            int level = 0;
+            while (sizes[level] < levelCapacity(level)) {
+                level++;
+            }
+            compact(level);
+        }
+    }
+
+    /** Sorts the level and promotes every other item to the next level */
+    private void compact(int level) {
+        int n = sizes[level];
+        double[] items = levels[level];
+        Arrays.sort(items, 0, n);
+        // with an odd number of items the smallest one stays, keeping the total weight exact
+        int kept = n & 1;
+        int start = kept + (random.nextBoolean() ? 1 : 0);
+        sizes[level] = kept;
+        size -= n - kept;
+        for (int i = start; i < n; i += 2) {
+            // append may reallocate the levels, but not the array of this level
+            append(level + 1, items[i]);
+        }
+    }
+}
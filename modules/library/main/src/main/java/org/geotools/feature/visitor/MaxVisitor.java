@@ -33,7 +33,7 @@ import org.opengis.filter.expression.Expression;
  * @since 2.2.M2
  * @source $URL$
  */
-public class MaxVisitor implements FeatureCalc, FeatureAttributeVisitor {
+public class MaxVisitor implements FeatureCalc, FeatureAttributeVisitor, MergeableFeatureCalc {
     private Expression expr;
     Comparable maxvalue;
     Comparable curvalue;
@@ -141,6 +141,21 @@ public class MaxVisitor implements FeatureCalc, FeatureAttributeVisitor {
         return expr;
     }
 
+    public MergeableFeatureCalc createPartial() {
+        return new MaxVisitor(expr);
+    }
+
+    public void merge(MergeableFeatureCalc partial) {
+        MaxVisitor other = (MaxVisitor) partial;
+        countNull += other.countNull;
+        countNaN += other.countNaN;
+        // strict comparison, on ties the value found first in visit order wins
+        if (other.visited && (!visited || other.maxvalue.compareTo(maxvalue) > 0)) {
+            maxvalue = other.maxvalue;
+            visited = true;
+        }
+    }
+
     public CalcResult getResult() {
         if (!visited) {
             return CalcResult.NULL_RESULT;
@@ -0,0 +1,45 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.visitor;
+
+/**
+ * A {@link FeatureCalc} whose calculation can be split among several partial visitors, each one
+ * visiting a disjoint portion of the features, possibly on a different thread. The partial results
+ * are then merged back into the original visitor, in the same order the portions would have been
+ * visited sequentially, so that order sensitive results (e.g., unique values with limits) match the
+ * ones of a sequential visit.
+ *
+ * <p>Floating point aggregates computed by merging partials may differ from the sequential ones in
+ * the last bits, as the additions are performed in a different order.
+ *
+ * @since 20
+ */
+public interface MergeableFeatureCalc extends FeatureCalc {
+
+    /**
+     * Creates a new visitor with the same configuration as this one, but no state, that will be
+     * used to visit a portion of the features.
+     */
+    MergeableFeatureCalc createPartial();
+
+    /**
+     * Merges the state of a visitor created by {@link #createPartial()} into this one.
+     *
+     * @param partial a visitor created by {@link #createPartial()}, that completed its visit
+     */
+    void merge(MergeableFeatureCalc partial);
+}
@@ -33,7 +33,7 @@ import org.opengis.filter.expression.Expression;
  * @since 2.2.M2
  * @source $URL$
  */
-public class MinVisitor implements FeatureCalc, FeatureAttributeVisitor {
+public class MinVisitor implements FeatureCalc, FeatureAttributeVisitor, MergeableFeatureCalc {
     private Expression expr;
     Comparable minvalue;
     Comparable curvalue;
@@ -112,6 +112,19 @@ public class MinVisitor implements FeatureCalc, FeatureAttributeVisitor {
         this.minvalue = new Integer(0);
     }
 
+    public MergeableFeatureCalc createPartial() {
+        return new MinVisitor(expr);
+    }
+
+    public void merge(MergeableFeatureCalc partial) {
+        MinVisitor other = (MinVisitor) partial;
+        // strict comparison, on ties the value found first in visit order wins
+        if (other.visited && (!visited || other.minvalue.compareTo(minvalue) < 0)) {
+            minvalue = other.minvalue;
+            visited = true;
+        }
+    }
+
     public CalcResult getResult() {
         if (!visited) {
             return CalcResult.NULL_RESULT;
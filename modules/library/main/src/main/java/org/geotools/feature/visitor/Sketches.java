@@ -0,0 +1,62 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.visitor;
+
+/** Hashing shared by the sketch based visitors. */
+final class Sketches {
+
+    private Sketches() {}
+
+    /**
+     * Returns a well mixed 64 bit hash of a value. Numbers and strings are hashed on their content,
+     * as their {@link Object#hashCode()} only has 32 bits and collides on common values, other
+     * objects use their hash code. Values that are equal according to {@link Object#equals(Object)}
+     * have the same hash.
+     */
+    static long hash64(Object value) {
+        long hash;
+        if (value instanceof String) {
+            // FNV-1a over the characters
+            String string = (String) value;
+            hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < string.length(); i++) {
+                hash ^= string.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+        } else if (value instanceof Long
+                || value instanceof Integer
+                || value instanceof Short
+                || value instanceof Byte) {
+            hash = ((Number) value).longValue();
+        } else if (value instanceof Double || value instanceof Float) {
+            hash = Double.doubleToLongBits(((Number) value).doubleValue());
+        } else {
+            hash = value.hashCode();
+        }
+        return mix(hash ^ value.getClass().getName().hashCode());
+    }
+
+    /** The MurmurHash3 64 bit finalizer */
+    static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
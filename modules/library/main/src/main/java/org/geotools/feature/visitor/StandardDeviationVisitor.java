@@ -41,7 +41,8 @@ import org.opengis.filter.expression.Expression;
  * @author Andrea Aime, GeoSolutions
  * @source $URL$
  */
-public class StandardDeviationVisitor implements FeatureCalc, FeatureAttributeVisitor {
+public class StandardDeviationVisitor
+        implements FeatureCalc, FeatureAttributeVisitor, MergeableFeatureCalc {
     public static class Result extends AbstractCalcResult {
         final Double deviation;
 
@@ -133,6 +134,31 @@ public class StandardDeviationVisitor implements FeatureCalc, FeatureAttributeVi
         m2 = m2 + delta * (x - mean); // This expression uses the new value of mean
     }
 
+    public MergeableFeatureCalc createPartial() {
+        return new StandardDeviationVisitor(expr);
+    }
+
+    /** Combines the partial mean and squared differences using Chan et al. pairwise update */
+    public void merge(MergeableFeatureCalc partial) {
+        StandardDeviationVisitor other = (StandardDeviationVisitor) partial;
+        countNull += other.countNull;
+        countNaN += other.countNaN;
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            return;
+        }
+        int total = count + other.count;
+        double delta = other.mean - mean;
+        mean = mean + delta * other.count / total;
+        m2 = m2 + other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+    }
+
     public void reset() {
         this.count = 0;
         this.countNull = 0;
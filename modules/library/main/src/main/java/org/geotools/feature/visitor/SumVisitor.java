@@ -37,7 +37,7 @@ import org.opengis.filter.expression.Expression;
  * @since 2.2.M2
  * @source $URL$
  */
-public class SumVisitor implements FeatureCalc, FeatureAttributeVisitor {
+public class SumVisitor implements FeatureCalc, FeatureAttributeVisitor, MergeableFeatureCalc {
     private Expression expr;
 
     SumStrategy strategy;
@@ -129,6 +129,21 @@ public class SumVisitor implements FeatureCalc, FeatureAttributeVisitor {
         strategy = null;
     }
 
+    public MergeableFeatureCalc createPartial() {
+        return new SumVisitor(expr);
+    }
+
+    public void merge(MergeableFeatureCalc partial) {
+        SumStrategy partialStrategy = ((SumVisitor) partial).strategy;
+        if (partialStrategy != null) {
+            Object partialSum = partialStrategy.getResult();
+            if (strategy == null) {
+                strategy = createStrategy(partialSum.getClass());
+            }
+            strategy.add(partialSum);
+        }
+    }
+
     public CalcResult getResult() {
         if (strategy == null) {
             return CalcResult.NULL_RESULT;
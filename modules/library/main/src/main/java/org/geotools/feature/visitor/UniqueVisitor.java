@@ -40,7 +40,8 @@ import org.opengis.filter.expression.Expression;
  * @since 2.2.M2
  * @source $URL$
  */
-public class UniqueVisitor implements FeatureCalc, FeatureAttributeVisitor, LimitingVisitor {
+public class UniqueVisitor
+        implements FeatureCalc, FeatureAttributeVisitor, LimitingVisitor, MergeableFeatureCalc {
     private Expression expr;
     Set set = new HashSet();
     Set skipped = new HashSet();
@@ -109,14 +110,34 @@ public class UniqueVisitor implements FeatureCalc, FeatureAttributeVisitor, Limi
         // we ignore null attributes
         Object value = expr.evaluate(feature);
         if (value != null) {
-            if (!set.contains(value) && !skipped.contains(value)) {
-                if (currentItem >= startIndex && currentItem < (startIndex + maxFeatures)) {
-                    set.add(value);
-                } else {
-                    skipped.add(value);
-                }
-                currentItem++;
+            add(value);
+        }
+    }
+
+    private void add(Object value) {
+        if (!set.contains(value) && !skipped.contains(value)) {
+            if (currentItem >= startIndex && currentItem < (startIndex + maxFeatures)) {
+                set.add(value);
+            } else {
+                skipped.add(value);
             }
+            currentItem++;
+        }
+    }
+
+    /**
+     * Returns a visitor collecting all the unique values, in visit order. Limits are applied when
+     * merging it back into this visitor.
+     */
+    public MergeableFeatureCalc createPartial() {
+        UniqueVisitor partial = new UniqueVisitor(expr);
+        partial.setPreserveOrder(true);
+        return partial;
+    }
+
+    public void merge(MergeableFeatureCalc partial) {
+        for (Object value : ((UniqueVisitor) partial).set) {
+            add(value);
         }
     }
 
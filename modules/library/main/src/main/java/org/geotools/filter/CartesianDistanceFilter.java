@@ -16,7 +16,14 @@
  */
 package org.geotools.filter;
 
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import com.vividsolutions.jts.operation.distance.IndexedFacetDistance;
 import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
 import org.opengis.filter.spatial.Beyond;
 import org.opengis.filter.spatial.DWithin;
 import org.opengis.filter.spatial.DistanceBufferOperator;
@@ -48,6 +55,8 @@ public abstract class CartesianDistanceFilter extends GeometryFilterImpl
     private double distance;
     /** the distnace units */
     private String units;
+    /** The literal geometry prepared for distance checks, lazily built */
+    private volatile PreparedDistance preparedDistance;
 
     @Deprecated
     protected CartesianDistanceFilter() {}
@@ -78,6 +87,116 @@ public abstract class CartesianDistanceFilter extends GeometryFilterImpl
         return distance;
     }
 
+    /**
+     * Checks if the two geometries are within the filter distance of each other. When one of the
+     * two expressions is a literal geometry, the check is performed against a prepared version of
+     * it, built only once and shared among threads, which short-circuits on the envelopes and
+     * indexes the literal geometry segments.
+     *
+     * @param left the geometry obtained from evaluating Expression1
+     * @param right the geometry obtained from evaluating Expression2
+     * @return true if the distance among the two geometries is less or equal to the filter distance
+     */
+    protected boolean isWithinDistance(Geometry left, Geometry right) {
+        PreparedDistance prepared = getPreparedDistance();
+        if (prepared != null) {
+            if (prepared.geometry == right && prepared.accepts(left)) {
+                return prepared.isWithinDistance(left);
+            } else if (prepared.geometry == left && prepared.accepts(right)) {
+                return prepared.isWithinDistance(right);
+            }
+        }
+        return left.isWithinDistance(right, distance);
+    }
+
+    /**
+     * Returns the prepared literal geometry, building it if missing or if the expressions or the
+     * distance changed since it was built. Returns null if there is no literal geometry to prepare.
+     */
+    private PreparedDistance getPreparedDistance() {
+        Expression literal = expression2 instanceof Literal ? expression2 : expression1;
+        if (!(literal instanceof Literal) || distance < 0) {
+            return null;
+        }
+        Object value = ((Literal) literal).getValue();
+        PreparedDistance prepared = preparedDistance;
+        if (prepared != null
+                && prepared.geometry == value
+                && prepared.distance == distance
+                && prepared.expression == literal) {
+            return prepared;
+        }
+        if (!(value instanceof Geometry) || !PreparedDistance.isPreparable((Geometry) value)) {
+            return null;
+        }
+        prepared = new PreparedDistance(literal, (Geometry) value, distance);
+        preparedDistance = prepared;
+        return prepared;
+    }
+
+    /**
+     * A literal geometry prepared for distance checks. Immutable, apart from the lazily built
+     * segment index, so it can be shared among threads
+     */
+    static final class PreparedDistance {
+        static final PreparedGeometryFactory FACTORY = new PreparedGeometryFactory();
+
+        final Expression expression;
+
+        final Geometry geometry;
+
+        final double distance;
+
+        final Envelope envelope;
+
+        final Envelope expanded;
+
+        final PreparedGeometry prepared;
+
+        /** The index of the literal geometry segments, built on the first distance computation */
+        private volatile IndexedFacetDistance facetDistance;
+
+        PreparedDistance(Expression expression, Geometry geometry, double distance) {
+            this.expression = expression;
+            this.geometry = geometry;
+            this.distance = distance;
+            this.envelope = geometry.getEnvelopeInternal();
+            this.expanded = new Envelope(envelope);
+            expanded.expandBy(distance);
+            this.prepared = FACTORY.create(geometry);
+        }
+
+        /**
+         * Heterogeneous collections are not supported by the prepared predicates, and empty
+         * geometries have no meaningful distance
+         */
+        static boolean isPreparable(Geometry geometry) {
+            return !geometry.isEmpty() && geometry.getClass() != GeometryCollection.class;
+        }
+
+        boolean accepts(Geometry other) {
+            return other != null && isPreparable(other);
+        }
+
+        boolean isWithinDistance(Geometry other) {
+            Envelope otherEnvelope = other.getEnvelopeInternal();
+            if (!expanded.intersects(otherEnvelope)
+                    || envelope.distance(otherEnvelope) > distance) {
+                return false;
+            }
+            // intersecting geometries are at distance zero
+            if (prepared.intersects(other)) {
+                return true;
+            }
+            IndexedFacetDistance index = facetDistance;
+            if (index == null) {
+                index = new IndexedFacetDistance(geometry);
+                facetDistance = index;
+            }
+            return index.getDistance(other) <= distance;
+        }
+    }
+
     public String getDistanceUnits() {
         return units;
     }
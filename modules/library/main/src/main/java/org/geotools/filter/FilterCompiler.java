@@ -0,0 +1,528 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.filter;
+
+import java.util.Collection;
+import java.util.List;
+import org.geotools.factory.Hints;
+import org.geotools.util.ConverterFactory;
+import org.geotools.util.Converters;
+import org.opengis.feature.Attribute;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.And;
+import org.opengis.filter.BinaryComparisonOperator;
+import org.opengis.filter.ExcludeFilter;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterVisitor;
+import org.opengis.filter.IncludeFilter;
+import org.opengis.filter.Not;
+import org.opengis.filter.Or;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+
+/**
+ * Compiles filters into evaluators specialized for a given {@link SimpleFeatureType}.
+ *
+ * <p>The compiled evaluators read the attributes by index, and work against literals converted to
+ * the attribute types once, at compile time, instead of looking up property accessors and
+ * converting values for every feature. Comparisons among a property and a literal, null checks and
+ * logic operators are compiled, provided the attribute type is one of the basic number types,
+ * String or Boolean. Any other filter is evaluated as is. The results are the same as evaluating
+ * the original filter.
+ *
+ * <p>The compiled filter evaluates features of a different type, and any other object, by
+ * delegating to the original filter, which is also the one receiving the {@link FilterVisitor}s.
+ *
+ * @since 20
+ */
+public class FilterCompiler {
+
+    /** Attribute types the evaluators can handle, values of these types can be compared safely */
+    static final List<Class<?>> EQUALITY_TYPES =
+            java.util.Arrays.asList(
+                    String.class,
+                    Integer.class,
+                    Long.class,
+                    Short.class,
+                    Byte.class,
+                    Double.class,
+                    Float.class,
+                    Boolean.class);
+
+    static final Hints SAFE_CONVERSION = new Hints(ConverterFactory.SAFE_CONVERSION, true);
+
+    /** A compiled filter, or a portion of it */
+    interface Evaluator {
+        boolean evaluate(SimpleFeature feature);
+    }
+
+    /**
+     * Compiles the filter for features of the given type
+     *
+     * @param filter the filter to compile
+     * @param featureType the type of the features that will be evaluated
+     * @return a filter giving the same results as the original one, or the original filter itself
+     *     if there is nothing to gain by compiling it
+     */
+    public static Filter compile(Filter filter, SimpleFeatureType featureType) {
+        if (filter == null
+                || filter instanceof CompiledFilter
+                || filter instanceof IncludeFilter
+                || filter instanceof ExcludeFilter
+                || featureType == null) {
+            return filter;
+        }
+        Evaluator evaluator = new FilterCompiler(featureType).compile(filter);
+        if (evaluator instanceof FallbackEvaluator) {
+            return filter;
+        }
+        return new CompiledFilter(filter, featureType, evaluator);
+    }
+
+    SimpleFeatureType featureType;
+
+    FilterCompiler(SimpleFeatureType featureType) {
+        this.featureType = featureType;
+    }
+
+    Evaluator compile(Filter filter) {
+        if (filter instanceof IncludeFilter) {
+            return f -> true;
+        } else if (filter instanceof ExcludeFilter) {
+            return f -> false;
+        } else if (filter instanceof And) {
+            Evaluator[] children = compile(((And) filter).getChildren());
+            return f -> {
+                for (Evaluator child : children) {
+                    if (!child.evaluate(f)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        } else if (filter instanceof Or) {
+            Evaluator[] children = compile(((Or) filter).getChildren());
+            return f -> {
+                for (Evaluator child : children) {
+                    if (child.evaluate(f)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        } else if (filter instanceof Not) {
+            Evaluator child = compile(((Not) filter).getFilter());
+            return f -> !child.evaluate(f);
+        } else if (filter instanceof IsNullImpl) {
+            int index = getAttributeIndex(((IsNullImpl) filter).getExpression());
+            if (index >= 0) {
+                return f -> f.getAttribute(index) == null;
+            }
+        } else if (filter instanceof IsEqualsToImpl || filter instanceof IsNotEqualToImpl) {
+            Evaluator evaluator = compileEquality((BinaryComparisonOperator) filter);
+            if (evaluator != null) {
+                return evaluator;
+            }
+        } else if (filter instanceof IsLessThenImpl
+                || filter instanceof IsLessThenOrEqualToImpl
+                || filter instanceof IsGreaterThanImpl
+                || filter instanceof IsGreaterThanOrEqualToImpl) {
+            Evaluator evaluator = compileComparison((BinaryComparisonOperator) filter);
+            if (evaluator != null) {
+                return evaluator;
+            }
+        } else if (filter instanceof IsBetweenImpl) {
+            Evaluator evaluator = compileBetween((IsBetweenImpl) filter);
+            if (evaluator != null) {
+                return evaluator;
+            }
+        }
+        return new FallbackEvaluator(filter);
+    }
+
+    private Evaluator[] compile(List<Filter> filters) {
+        Evaluator[] result = new Evaluator[filters.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = compile(filters.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the attribute the expression refers to, or -1 if the expression is not
+     * a plain reference to an attribute of the feature type
+     */
+    int getAttributeIndex(Expression expression) {
+        if (!(expression instanceof AttributeExpressionImpl)) {
+            return -1;
+        }
+        String name = ((AttributeExpressionImpl) expression).getPropertyName();
+        if (name == null
+                || name.indexOf(':') >= 0
+                || name.indexOf('/') >= 0
+                || name.indexOf('@') >= 0
+                || name.indexOf('[') >= 0) {
+            return -1;
+        }
+        return featureType.indexOf(name);
+    }
+
+    /** Returns the type of the attribute if it's one the evaluators can handle, null otherwise */
+    Class<?> getBinding(int index) {
+        Class<?> binding = featureType.getDescriptor(index).getType().getBinding();
+        return EQUALITY_TYPES.contains(binding) ? binding : null;
+    }
+
+    /** Returns the value of a literal expression, or null if not a usable literal */
+    static Object getLiteralValue(Expression expression) {
+        if (!(expression instanceof Literal)) {
+            return null;
+        }
+        Object value = expression.evaluate(null);
+        if (value instanceof Collection || value instanceof Attribute) {
+            return null;
+        }
+        return value;
+    }
+
+    /** Compiles a property equal, or not equal, to a literal, see {@link IsEqualsToImpl} */
+    Evaluator compileEquality(BinaryComparisonOperator filter) {
+        boolean negate = filter instanceof IsNotEqualToImpl;
+        int index = getAttributeIndex(filter.getExpression1());
+        Object literal = getLiteralValue(filter.getExpression2());
+        if (index < 0) {
+            index = getAttributeIndex(filter.getExpression2());
+            literal = getLiteralValue(filter.getExpression1());
+        }
+        if (index < 0 || literal == null) {
+            return null;
+        }
+        Class<?> binding = getBinding(index);
+        if (binding == null || (!filter.isMatchCase() && binding != String.class)) {
+            return null;
+        }
+        // all the checks on the literal side done upfront
+        Object converted = Converters.convert(literal, binding);
+        boolean numericBinding = Number.class.isAssignableFrom(binding);
+        Number literalNumber = null;
+        boolean numericComparison = false;
+        if (literal instanceof Number) {
+            literalNumber = (Number) literal;
+            numericComparison = numericBinding || binding == String.class;
+        } else if (literal instanceof CharSequence && numericBinding) {
+            numericComparison = true;
+            literalNumber = parseToNumber(literal.toString());
+        }
+        if (!filter.isMatchCase() && !(literal instanceof String)) {
+            return null;
+        }
+        boolean ignoreCase = !filter.isMatchCase() && !numericComparison;
+
+        EqualityEvaluator evaluator = new EqualityEvaluator();
+        evaluator.original = filter;
+        evaluator.index = index;
+        evaluator.binding = binding;
+        evaluator.literal = literal;
+        evaluator.converted = converted;
+        evaluator.numericComparison = numericComparison;
+        evaluator.literalNumber = literalNumber;
+        evaluator.ignoreCase = ignoreCase;
+        return negate ? f -> !evaluator.evaluate(f) : evaluator;
+    }
+
+    /** Compiles the comparison of a property with a literal, see {@link CompareFilterImpl} */
+    Evaluator compileComparison(BinaryComparisonOperator filter) {
+        int index = getAttributeIndex(filter.getExpression1());
+        Object literal = getLiteralValue(filter.getExpression2());
+        boolean literalFirst = false;
+        if (index < 0) {
+            index = getAttributeIndex(filter.getExpression2());
+            literal = getLiteralValue(filter.getExpression1());
+            literalFirst = true;
+        }
+        if (index < 0 || literal == null) {
+            return null;
+        }
+        Class<?> binding = getBinding(index);
+        if (binding == null || binding == Boolean.class) {
+            return null;
+        }
+        // values are aligned to the type of the first one, see BinaryComparisonAbstract.eval
+        Object converted = literal;
+        if (literal.getClass() != binding) {
+            if (literalFirst) {
+                return null;
+            }
+            converted = Converters.convert(literal, binding, SAFE_CONVERSION);
+            if (converted == null) {
+                return null;
+            }
+        }
+
+        ComparisonEvaluator evaluator = new ComparisonEvaluator();
+        evaluator.original = filter;
+        evaluator.index = index;
+        evaluator.binding = binding;
+        evaluator.literalFirst = literalFirst;
+        if (converted instanceof Number) {
+            evaluator.literalDouble = ((Number) converted).doubleValue();
+        } else {
+            evaluator.literalString = (String) converted;
+            try {
+                evaluator.literalParsed = Double.parseDouble(evaluator.literalString);
+            } catch (NumberFormatException e) {
+                evaluator.literalParsed = null;
+            }
+        }
+        if (filter instanceof IsLessThenImpl) {
+            return f -> evaluator.compare(f, c -> c < 0);
+        } else if (filter instanceof IsLessThenOrEqualToImpl) {
+            return f -> evaluator.compare(f, c -> c <= 0);
+        } else if (filter instanceof IsGreaterThanImpl) {
+            return f -> evaluator.compare(f, c -> c > 0);
+        } else {
+            return f -> evaluator.compare(f, c -> c >= 0);
+        }
+    }
+
+    /** Compiles a property between two literals, see {@link IsBetweenImpl} */
+    Evaluator compileBetween(IsBetweenImpl filter) {
+        int index = getAttributeIndex(filter.getExpression());
+        Object lower = getLiteralValue(filter.getLowerBoundary());
+        Object upper = getLiteralValue(filter.getUpperBoundary());
+        if (index < 0 || lower == null || upper == null) {
+            return null;
+        }
+        Class<?> binding = getBinding(index);
+        if (binding == null || binding == Boolean.class) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        Comparable<Object> lc = (Comparable<Object>) Converters.convert(lower, binding);
+        @SuppressWarnings("unchecked")
+        Comparable<Object> uc = (Comparable<Object>) Converters.convert(upper, binding);
+        if (lc == null || uc == null) {
+            return null;
+        }
+        return f -> {
+            Object value = f.getAttribute(index);
+            if (value == null) {
+                return false;
+            } else if (value.getClass() != binding) {
+                return filter.evaluate(f);
+            }
+            return lc.compareTo(value) <= 0 && uc.compareTo(value) >= 0;
+        };
+    }
+
+    /**
+     * Parses the specified string as a {@link Long} or a {@link Double} value, returns null if not
+     * a number
+     */
+    static Number parseToNumber(final String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            try {
+                return Double.valueOf(value);
+            } catch (NumberFormatException e2) {
+                return null;
+            }
+        }
+    }
+
+    /** Evaluates the original filter */
+    static class FallbackEvaluator implements Evaluator {
+        Filter filter;
+
+        FallbackEvaluator(Filter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean evaluate(SimpleFeature feature) {
+            return filter.evaluate(feature);
+        }
+    }
+
+    /** Equality among an attribute and a literal, mimicking {@link IsEqualsToImpl} */
+    static class EqualityEvaluator implements Evaluator {
+        Filter original;
+
+        int index;
+
+        Class<?> binding;
+
+        Object literal;
+
+        /** The literal converted to the attribute type */
+        Object converted;
+
+        boolean numericComparison;
+
+        /** The literal as a number, null if it cannot be parsed as such */
+        Number literalNumber;
+
+        boolean ignoreCase;
+
+        @Override
+        public boolean evaluate(SimpleFeature feature) {
+            Object value = feature.getAttribute(index);
+            if (value == null) {
+                return false;
+            } else if (value.getClass() != binding) {
+                // this is why the original filter is kept around
+                boolean result = original.evaluate(feature);
+                return original instanceof IsNotEqualToImpl ? !result : result;
+            }
+            if (value.equals(literal) || (converted != null && value.equals(converted))) {
+                return true;
+            }
+            if (numericComparison) {
+                Number number =
+                        value instanceof Number
+                                ? (Number) value
+                                : parseToNumber(value.toString());
+                if (number == null || literalNumber == null) {
+                    return false;
+                }
+                return numericEquals(number, literalNumber);
+            } else if (ignoreCase) {
+                return ((String) value).equalsIgnoreCase((String) literal);
+            }
+            return false;
+        }
+
+        static boolean numericEquals(Number n1, Number n2) {
+            final double fp1 = n1.doubleValue();
+            final double fp2 = n2.doubleValue();
+            final long lg1, lg2;
+            if (fp1 == (double) (lg1 = n1.longValue()) && fp2 == (double) (lg2 = n2.longValue())) {
+                return lg1 == lg2;
+            } else {
+                return (fp1 == fp2) || (Double.isNaN(fp1) && Double.isNaN(fp2));
+            }
+        }
+    }
+
+    /** Order comparison among an attribute and a literal, mimicking {@link CompareFilterImpl} */
+    static class ComparisonEvaluator {
+        Filter original;
+
+        int index;
+
+        Class<?> binding;
+
+        boolean literalFirst;
+
+        /** The literal value, for numeric attributes */
+        double literalDouble;
+
+        /** The literal value, for string attributes */
+        String literalString;
+
+        /** The literal parsed as a number, for string attributes, null if not a number */
+        Double literalParsed;
+
+        interface Test {
+            boolean test(int comparison);
+        }
+
+        boolean compare(SimpleFeature feature, Test test) {
+            Object value = feature.getAttribute(index);
+            if (value == null) {
+                return false;
+            } else if (value.getClass() != binding) {
+                return original.evaluate(feature);
+            }
+            int comparison;
+            if (value instanceof Number) {
+                double left = ((Number) value).doubleValue();
+                double right = literalDouble;
+                if (literalFirst) {
+                    right = left;
+                    left = literalDouble;
+                }
+                comparison = left > right ? 1 : (left == right ? 0 : -1);
+            } else {
+                String string = (String) value;
+                Double parsed = null;
+                if (literalParsed != null) {
+                    try {
+                        parsed = Double.parseDouble(string);
+                    } catch (NumberFormatException e) {
+                        // compare as strings then
+                    }
+                }
+                if (parsed != null) {
+                    comparison = parsed.compareTo(literalParsed);
+                } else {
+                    comparison = string.compareTo(literalString);
+                }
+                if (literalFirst) {
+                    comparison = -Integer.signum(comparison);
+                }
+            }
+            return test.test(comparison);
+        }
+    }
+
+    /** The compiled filter, delegating to the original one when not evaluating simple features */
+    static class CompiledFilter implements Filter {
+
+        Filter original;
+
+        SimpleFeatureType featureType;
+
+        /** Last feature type found to be equal, but not identical, to the compiled one */
+        volatile SimpleFeatureType equalType;
+
+        Evaluator evaluator;
+
+        CompiledFilter(Filter original, SimpleFeatureType featureType, Evaluator evaluator) {
+            this.original = original;
+            this.featureType = featureType;
+            this.evaluator = evaluator;
+        }
+
+        @Override
+        public boolean evaluate(Object object) {
+            if (object instanceof SimpleFeature) {
+                SimpleFeature feature = (SimpleFeature) object;
+                SimpleFeatureType type = feature.getFeatureType();
+                if (type == featureType || type == equalType) {
+                    return evaluator.evaluate(feature);
+                } else if (featureType.equals(type)) {
+                    equalType = type;
+                    return evaluator.evaluate(feature);
+                }
+            }
+            return original.evaluate(object);
+        }
+
+        @Override
+        public Object accept(FilterVisitor visitor, Object extraData) {
+            return original.accept(visitor, extraData);
+        }
+
+        @Override
+        public String toString() {
+            return original.toString();
+        }
+    }
+}
@@ -26,10 +26,13 @@ import java.util.Set;
 import java.util.logging.Level;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.feature.FeatureCollection;
+import org.geotools.feature.visitor.ApproximateQuantileVisitor;
+import org.geotools.feature.visitor.ApproximateQuantileVisitor.QuantileResult;
 import org.geotools.feature.visitor.CalcResult;
 import org.geotools.feature.visitor.QuantileListVisitor;
 import org.geotools.filter.capability.FunctionNameImpl;
 import org.geotools.util.NullProgressListener;
+import org.opengis.feature.type.AttributeDescriptor;
 import org.opengis.filter.capability.FunctionName;
 
 /**
@@ -47,11 +50,39 @@ public class QuantileFunction extends ClassificationFunction {
                     parameter("value", Double.class),
                     parameter("classes", Integer.class));
 
+    /** Rank error of the approximate computation, zero for an exact one */
+    private double rankError;
+
     public QuantileFunction() {
         super(NAME);
     }
 
+    /**
+     * Returns the rank error allowed when computing the classes, or zero if they are computed
+     * exactly
+     *
+     * @since 20
+     */
+    public double getRankError() {
+        return rankError;
+    }
+
+    /**
+     * Allows computing the classes of numeric values with an {@link ApproximateQuantileVisitor},
+     * in bounded memory, instead of collecting and sorting all the values. The breaks rank will be
+     * within about the given error, as a fraction of the number of values, of the exact one.
+     *
+     * @param rankError the rank error, e.g., 0.001, or zero for an exact computation
+     * @since 20
+     */
+    public void setRankError(double rankError) {
+        this.rankError = rankError;
+    }
+
     private Object calculate(SimpleFeatureCollection featureCollection) {
+        if (rankError > 0 && isNumeric(featureCollection)) {
+            return calculateApproximate(featureCollection);
+        }
         // use a visitor to find the values in each bin
         QuantileListVisitor quantileVisit =
                 new QuantileListVisitor(getParameters().get(0), getClasses());
@@ -83,19 +114,66 @@ public class QuantileFunction extends ClassificationFunction {
         }
     }
 
+    /** Returns true if the classified expression is known to return numbers */
+    private boolean isNumeric(SimpleFeatureCollection featureCollection) {
+        Object descriptor = getParameters().get(0).evaluate(featureCollection.getSchema());
+        return descriptor instanceof AttributeDescriptor
+                && Number.class.isAssignableFrom(
+                        ((AttributeDescriptor) descriptor).getType().getBinding());
+    }
+
+    /** Computes the breaks as approximate quantiles, without holding the values in memory */
+    private Object calculateApproximate(SimpleFeatureCollection featureCollection) {
+        ApproximateQuantileVisitor quantileVisit =
+                new ApproximateQuantileVisitor(
+                        getParameters().get(0), ApproximateQuantileVisitor.getK(rankError));
+        if (progress == null) progress = new NullProgressListener();
+        try {
+            featureCollection.accepts(quantileVisit, progress);
+        } catch (IOException e) {
+            LOGGER.log(
+                    Level.SEVERE, "QuantileFunction calculate(SimpleFeatureCollection) failed", e);
+            return null;
+        }
+        if (progress.isCanceled()) return null;
+        CalcResult calcResult = quantileVisit.getResult();
+        if (!(calcResult instanceof QuantileResult)) return null;
+        QuantileResult quantiles = (QuantileResult) calcResult;
+
+        int classNum = getClasses();
+        Comparable[] localMin = new Comparable[classNum];
+        Comparable[] localMax = new Comparable[classNum];
+        for (int i = 0; i < classNum; i++) {
+            localMin[i] = quantiles.getQuantile((double) i / classNum);
+            localMax[i] = quantiles.getQuantile((double) (i + 1) / classNum);
+        }
+        return calculateNumerical(localMin, localMax, quantiles.getMin(), quantiles.getMax());
+    }
+
     private Object calculateNumerical(List[] bin, Comparable globalMin, Comparable globalMax) {
         int classNum = bin.length;
         // size arrays
         Comparable[] localMin = new Comparable[classNum];
         Comparable[] localMax = new Comparable[classNum];
-        // globally consistent
-        // double slotWidth = (((Number) globalMax).doubleValue() - ((Number)
-        // globalMin).doubleValue()) / classNum;
         for (int i = 0; i < classNum; i++) {
             // copy the min + max values
             List thisBin = bin[i];
             localMin[i] = (Comparable) thisBin.get(0);
             localMax[i] = (Comparable) thisBin.get(thisBin.size() - 1);
+        }
+        return calculateNumerical(localMin, localMax, globalMin, globalMax);
+    }
+
+    private Object calculateNumerical(
+            Comparable[] localMin,
+            Comparable[] localMax,
+            Comparable globalMin,
+            Comparable globalMax) {
+        int classNum = localMin.length;
+        // globally consistent
+        // double slotWidth = (((Number) globalMax).doubleValue() - ((Number)
+        // globalMin).doubleValue()) / classNum;
+        for (int i = 0; i < classNum; i++) {
             // locally accurate
             double slotWidth =
                     ((Number) localMax[i]).doubleValue() - ((Number) localMin[i]).doubleValue();
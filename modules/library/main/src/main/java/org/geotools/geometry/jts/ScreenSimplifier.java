@@ -0,0 +1,312 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.geometry.jts;
+
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+
+/**
+ * Simplifies geometries that have already been transformed to screen space, right before they get
+ * painted. Coordinates are snapped to the pixel grid, duplicate and collinear points are removed,
+ * and geometries (or components) smaller than a pixel are either culled or collapsed to a single
+ * pixel.
+ *
+ * <p>All the work happens in place on the {@link LiteCoordinateSequence} backing the geometry, no
+ * new JTS geometry is ever created: the caller gets back the same geometry it provided, or {@code
+ * null} if it has been culled. Sequences of other types are left untouched, as are points.
+ *
+ * @since 20
+ */
+public final class ScreenSimplifier {
+
+    private static final double EPS = 1e-9;
+
+    private final double pixelSize;
+
+    private final boolean cullSubPixel;
+
+    /**
+     * Builds a simplifier working on a one unit pixel grid, collapsing sub-pixel geometries to a
+     * single pixel
+     */
+    public ScreenSimplifier() {
+        this(1, false);
+    }
+
+    /**
+     * Builds a new simplifier
+     *
+     * @param pixelSize The size of the grid coordinates are snapped to, in screen units
+     * @param cullSubPixel If true sub-pixel geometries are removed, if false they are collapsed to
+     *     a single pixel, so that they still show up in the map
+     */
+    public ScreenSimplifier(double pixelSize, boolean cullSubPixel) {
+        if (!(pixelSize > 0)) {
+            throw new IllegalArgumentException("The pixel size must be positive: " + pixelSize);
+        }
+        this.pixelSize = pixelSize;
+        this.cullSubPixel = cullSubPixel;
+    }
+
+    /** The size of the grid coordinates are snapped to */
+    public double getPixelSize() {
+        return pixelSize;
+    }
+
+    /** Returns true if sub-pixel geometries are culled, false if they are painted as one pixel */
+    public boolean isCullSubPixel() {
+        return cullSubPixel;
+    }
+
+    /**
+     * Simplifies the geometry in place.
+     *
+     * @param geometry A geometry whose coordinates are expressed in screen units
+     * @return The same geometry, or null if the geometry has been culled
+     */
+    public Geometry simplify(Geometry geometry) {
+        if (geometry == null || geometry.isEmpty()) {
+            return geometry;
+        }
+        Envelope envelope = geometry.getEnvelopeInternal();
+        if (isSubPixel(geometry, envelope)) {
+            if (cullSubPixel) {
+                return null;
+            }
+            collapse(geometry, envelope);
+        } else {
+            simplifyComponents(geometry);
+        }
+        geometry.geometryChanged();
+        return geometry;
+    }
+
+    private boolean isSubPixel(Geometry geometry, Envelope envelope) {
+        return !(geometry instanceof Point)
+                && envelope.getWidth() < pixelSize
+                && envelope.getHeight() < pixelSize;
+    }
+
+    private void simplifyComponents(Geometry geometry) {
+        if (geometry instanceof GeometryCollection) {
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                Geometry component = geometry.getGeometryN(i);
+                if (component.isEmpty()) {
+                    continue;
+                }
+                if (isSubPixel(component, component.getEnvelopeInternal())) {
+                    // cannot remove the component without building a new collection, but a
+                    // degenerate one won't paint anything
+                    if (cullSubPixel) {
+                        degenerate(component);
+                    } else {
+                        collapse(component, component.getEnvelopeInternal());
+                    }
+                } else {
+                    simplifyComponents(component);
+                }
+            }
+        } else if (geometry instanceof Polygon) {
+            Polygon polygon = (Polygon) geometry;
+            simplify(polygon.getExteriorRing().getCoordinateSequence(), true);
+            for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+                LineString hole = polygon.getInteriorRingN(i);
+                if (hole.getEnvelopeInternal().getWidth() < pixelSize
+                        && hole.getEnvelopeInternal().getHeight() < pixelSize) {
+                    degenerate(hole.getCoordinateSequence(), true);
+                } else {
+                    simplify(hole.getCoordinateSequence(), true);
+                }
+            }
+        } else if (geometry instanceof LineString) {
+            LineString ls = (LineString) geometry;
+            simplify(ls.getCoordinateSequence(), ls instanceof LinearRing);
+        }
+    }
+
+    /** Snaps, removes duplicate and collinear points, compacting the sequence in place */
+    void simplify(CoordinateSequence cs, boolean ring) {
+        if (!(cs instanceof LiteCoordinateSequence) || cs.size() < 2) {
+            return;
+        }
+        LiteCoordinateSequence seq = (LiteCoordinateSequence) cs;
+        final int n = seq.size();
+        final int dim = seq.getDimension();
+        final double[] coords = seq.getArray();
+
+        for (int i = 0; i < n * dim; i += dim) {
+            coords[i] = snap(coords[i]);
+            coords[i + 1] = snap(coords[i + 1]);
+        }
+
+        // k is the number of points kept so far, the first one is always kept
+        int k = 1;
+        for (int i = 1; i < n; i++) {
+            int curr = i * dim;
+            int last = (k - 1) * dim;
+            double x = coords[curr];
+            double y = coords[curr + 1];
+            if (x == coords[last] && y == coords[last + 1]) {
+                continue;
+            }
+            if (k > 1 && isStraight(coords, (k - 2) * dim, last, x, y)) {
+                // the last kept point is in the middle of a straight run, replace it
+                k--;
+            }
+            if (k != i) {
+                System.arraycopy(coords, curr, coords, k * dim, dim);
+            }
+            k++;
+        }
+
+        if ((ring && k < 4) || k < 2) {
+            degenerate(seq, ring);
+        } else if (k < n) {
+            double[] compacted = new double[k * dim];
+            System.arraycopy(coords, 0, compacted, 0, compacted.length);
+            seq.setArray(compacted, dim);
+        } else {
+            // coordinates were snapped in place, clear the cached coordinate objects
+            seq.setArray(coords, dim);
+        }
+    }
+
+    private double snap(double ordinate) {
+        return Math.round(ordinate / pixelSize) * pixelSize;
+    }
+
+    /**
+     * Returns true if the point at b lies on the segment going from the point at a to (x,y), in
+     * which case it does not contribute to the shape (spikes going back and forth are preserved)
+     */
+    private boolean isStraight(double[] coords, int a, int b, double x, double y) {
+        double ax = coords[a];
+        double ay = coords[a + 1];
+        double bx = coords[b];
+        double by = coords[b + 1];
+        double cross = (bx - ax) * (y - ay) - (by - ay) * (x - ax);
+        if (Math.abs(cross) > EPS) {
+            return false;
+        }
+        double dot = (bx - ax) * (x - bx) + (by - ay) * (y - by);
+        return dot > 0;
+    }
+
+    /** Collapses the geometry to a single pixel, centered on the envelope center */
+    private void collapse(Geometry geometry, Envelope envelope) {
+        double x = Math.floor(envelope.centre().x / pixelSize) * pixelSize;
+        double y = Math.floor(envelope.centre().y / pixelSize) * pixelSize;
+        collapse(geometry, x, y, false);
+    }
+
+    /**
+     * Collapses the first non point component to the pixel at x,y, and makes the following ones
+     * degenerate (two overlapping pixels would cancel each other with the even-odd fill rule)
+     *
+     * @return true if the pixel has been assigned to a component
+     */
+    private boolean collapse(Geometry geometry, double x, double y, boolean assigned) {
+        if (geometry instanceof GeometryCollection) {
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                assigned = collapse(geometry.getGeometryN(i), x, y, assigned);
+            }
+        } else if (assigned) {
+            degenerate(geometry);
+        } else if (geometry instanceof Polygon) {
+            Polygon polygon = (Polygon) geometry;
+            setPixel(polygon.getExteriorRing().getCoordinateSequence(), x, y, true);
+            for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+                degenerate(polygon.getInteriorRingN(i).getCoordinateSequence(), true);
+            }
+            assigned = true;
+        } else if (geometry instanceof LineString) {
+            LineString ls = (LineString) geometry;
+            setPixel(ls.getCoordinateSequence(), x, y, ls instanceof LinearRing);
+            assigned = true;
+        }
+        return assigned;
+    }
+
+    /** Turns the geometry into a zero-area, zero-length one, that won't paint anything */
+    private void degenerate(Geometry geometry) {
+        if (geometry instanceof GeometryCollection) {
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                degenerate(geometry.getGeometryN(i));
+            }
+        } else if (geometry instanceof Polygon) {
+            Polygon polygon = (Polygon) geometry;
+            degenerate(polygon.getExteriorRing().getCoordinateSequence(), true);
+            for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+                degenerate(polygon.getInteriorRingN(i).getCoordinateSequence(), true);
+            }
+        } else if (geometry instanceof LineString) {
+            LineString ls = (LineString) geometry;
+            degenerate(ls.getCoordinateSequence(), ls instanceof LinearRing);
+        }
+    }
+
+    private void degenerate(CoordinateSequence cs, boolean ring) {
+        if (!(cs instanceof LiteCoordinateSequence) || cs.size() == 0) {
+            return;
+        }
+        LiteCoordinateSequence seq = (LiteCoordinateSequence) cs;
+        double x = seq.getOrdinate(0, 0);
+        double y = seq.getOrdinate(0, 1);
+        double[] xy = ring ? new double[] {x, y, x, y, x, y, x, y} : new double[] {x, y, x, y};
+        setCoordinates(seq, xy);
+    }
+
+    private void setPixel(CoordinateSequence cs, double x, double y, boolean ring) {
+        if (!(cs instanceof LiteCoordinateSequence) || cs.size() == 0) {
+            return;
+        }
+        double x2 = x + pixelSize;
+        double y2 = y + pixelSize;
+        double[] xy;
+        if (ring) {
+            xy = new double[] {x, y, x2, y, x2, y2, x, y2, x, y};
+        } else {
+            double ym = y + pixelSize / 2;
+            xy = new double[] {x, ym, x2, ym};
+        }
+        setCoordinates((LiteCoordinateSequence) cs, xy);
+    }
+
+    /** Replaces the sequence points, extra ordinates are copied over from the first point */
+    private void setCoordinates(LiteCoordinateSequence seq, double[] xy) {
+        int dim = seq.getDimension();
+        if (dim == 2) {
+            seq.setArray(xy, 2);
+            return;
+        }
+        double[] source = seq.getArray();
+        int n = xy.length / 2;
+        double[] coords = new double[n * dim];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(source, 0, coords, i * dim, dim);
+            coords[i * dim] = xy[i * 2];
+            coords[i * dim + 1] = xy[i * 2 + 1];
+        }
+        seq.setArray(coords, dim);
+    }
+}
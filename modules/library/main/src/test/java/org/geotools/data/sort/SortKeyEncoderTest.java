@@ -0,0 +1,159 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.sort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.vividsolutions.jts.geom.Point;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.DelegateSimpleFeatureReader;
+import org.geotools.data.simple.SimpleFeatureReader;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+public class SortKeyEncoderTest {
+
+    static final String[] STRINGS = {
+        null, "", "a", "ab", "abc", "b", "B", "\u0000", "a\u0000", "\u00e8", "\uffff", "z"
+    };
+
+    static final Double[] DOUBLES = {
+        null, -Double.MAX_VALUE, -1.5, -0.0, 0.0, 1e-300, 2.5, Double.POSITIVE_INFINITY, Double.NaN
+    };
+
+    static final Integer[] INTS = {null, Integer.MIN_VALUE, -1, 0, 1, 7, Integer.MAX_VALUE};
+
+    FilterFactory ff = CommonFactoryFinder.getFilterFactory(null);
+
+    SimpleFeatureType schema;
+
+    List<SimpleFeature> features;
+
+    @Before
+    public void setup() throws Exception {
+        schema = DataUtilities.createType("test", "name:String,value:Double,count:Integer");
+        features = new ArrayList<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            Object[] values = {
+                STRINGS[random.nextInt(STRINGS.length)],
+                DOUBLES[random.nextInt(DOUBLES.length)],
+                INTS[random.nextInt(INTS.length)]
+            };
+            features.add(SimpleFeatureBuilder.build(schema, values, "test." + i));
+        }
+    }
+
+    @Test
+    public void testCanEncode() throws Exception {
+        SimpleFeatureTypeBuilder tb = new SimpleFeatureTypeBuilder();
+        tb.setName("test");
+        tb.add("geom", Point.class);
+        tb.add("d", BigDecimal.class);
+        SimpleFeatureType type = tb.buildFeatureType();
+        assertTrue(SortKeyEncoder.canEncode(type, new SortBy[] {SortBy.NATURAL_ORDER}));
+        assertFalse(
+                SortKeyEncoder.canEncode(type, new SortBy[] {ff.sort("d", SortOrder.ASCENDING)}));
+        assertFalse(
+                SortKeyEncoder.canEncode(
+                        type, new SortBy[] {ff.sort("missing", SortOrder.ASCENDING)}));
+    }
+
+    @Test
+    public void testKeyOrder() {
+        for (String name : new String[] {"name", "value", "count"}) {
+            for (SortOrder order : SortOrder.values()) {
+                assertSameOrder(new SortBy[] {ff.sort(name, order)});
+            }
+        }
+        assertSameOrder(new SortBy[] {SortBy.NATURAL_ORDER});
+        assertSameOrder(new SortBy[] {SortBy.REVERSE_ORDER});
+        assertSameOrder(
+                new SortBy[] {
+                    ff.sort("name", SortOrder.DESCENDING),
+                    ff.sort("count", SortOrder.ASCENDING),
+                    ff.sort("value", SortOrder.DESCENDING)
+                });
+    }
+
+    @Test
+    public void testMemorySort() throws IOException {
+        assertSorted(1000000);
+    }
+
+    @Test
+    public void testMergeSort() throws IOException {
+        // many runs, some of them with a single feature
+        assertSorted(1);
+        assertSorted(7);
+        assertSorted(100);
+    }
+
+    void assertSameOrder(SortBy[] sortBy) {
+        Comparator<SimpleFeature> comparator = SortedFeatureReader.getComparator(sortBy);
+        SortKeyEncoder encoder = new SortKeyEncoder(schema, sortBy);
+        for (int i = 0; i < 200; i++) {
+            SimpleFeature f1 = features.get(i);
+            byte[] k1 = encoder.encode(f1);
+            for (int j = 0; j < 200; j++) {
+                SimpleFeature f2 = features.get(j);
+                byte[] k2 = encoder.encode(f2);
+                assertEquals(
+                        f1 + " vs " + f2,
+                        Integer.signum(comparator.compare(f1, f2)),
+                        Integer.signum(SortKeyEncoder.compare(k1, k2)));
+            }
+        }
+    }
+
+    void assertSorted(int maxFeatures) throws IOException {
+        SortBy[] sortBy = {ff.sort("name", SortOrder.ASCENDING)};
+        // the sort is stable, same as the in memory one
+        List<SimpleFeature> expected = new ArrayList<>(features);
+        Collections.sort(expected, SortedFeatureReader.getComparator(sortBy));
+        SimpleFeatureReader reader =
+                new DelegateSimpleFeatureReader(
+                        schema, new ListFeatureCollection(schema, features).features());
+        try (SimpleFeatureReader sorted = new SortedFeatureReader(reader, sortBy, maxFeatures)) {
+            for (SimpleFeature feature : expected) {
+                assertTrue(sorted.hasNext());
+                SimpleFeature actual = sorted.next();
+                assertEquals(feature.getID(), actual.getID());
+                assertEquals(feature.getAttributes(), actual.getAttributes());
+            }
+            assertFalse(sorted.hasNext());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.simple;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.WKTReader;
+import org.geotools.data.DataUtilities;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.identity.FeatureId;
+
+public class RecyclableSimpleFeatureTest {
+
+    SimpleFeatureType schema;
+
+    RecyclableSimpleFeature feature;
+
+    @Before
+    public void setUp() throws Exception {
+        schema = DataUtilities.createType("buildings", "the_geom:Point,name:String,floors:Integer");
+        feature = new RecyclableSimpleFeature(schema);
+    }
+
+    @Test
+    public void testRecycle() throws Exception {
+        Geometry point = new WKTReader().read("POINT(1 2)");
+        feature.recycle("buildings.1");
+        feature.set(0, point);
+        feature.set(1, "ABC");
+        feature.set(2, 3);
+        feature.getUserData().put("key", "value");
+
+        assertEquals("buildings.1", feature.getID());
+        assertEquals("buildings.1", feature.getIdentifier().getID());
+        assertSame(point, feature.getDefaultGeometry());
+        assertEquals("ABC", feature.getAttribute("name"));
+        assertEquals(3, feature.getAttribute(2));
+
+        feature.recycle("buildings.2");
+        assertEquals("buildings.2", feature.getIdentifier().getID());
+        assertNull(feature.getAttribute("name"));
+        assertNull(feature.getDefaultGeometry());
+        assertTrue(feature.getUserData().isEmpty());
+    }
+
+    @Test
+    public void testNumericId() {
+        feature.recycle("buildings.", 10);
+        FeatureId id = feature.getIdentifier();
+        assertEquals("buildings.10", id.getID());
+        assertSame(id, feature.getIdentifier());
+
+        feature.recycle("buildings.", 11);
+        assertEquals("buildings.11", feature.getID());
+        assertNotSame(id, feature.getIdentifier());
+    }
+
+    @Test
+    public void testGeneratedId() {
+        feature.recycle(null);
+        assertTrue(feature.getID() != null);
+    }
+
+    @Test
+    public void testEquals() throws Exception {
+        feature.recycle("buildings.1");
+        feature.set(1, "ABC");
+        SimpleFeature copy =
+                SimpleFeatureBuilder.build(schema, new Object[] {null, "ABC", null}, "buildings.1");
+        assertEquals(copy, feature);
+        assertEquals(feature, copy);
+        assertEquals(copy.hashCode(), feature.hashCode());
+    }
+}
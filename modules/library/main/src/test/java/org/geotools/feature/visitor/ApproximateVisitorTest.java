@@ -0,0 +1,204 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.feature.visitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.geotools.data.DataUtilities;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.expression.Expression;
+
+public class ApproximateVisitorTest {
+
+    static final FilterFactory FF = CommonFactoryFinder.getFilterFactory(null);
+
+    static final int COUNT = 100000;
+
+    static List<SimpleFeature> features;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        SimpleFeatureType type =
+                DataUtilities.createType("values", "value:Double,category:String,code:Integer");
+        features = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            // values are a permutation of 0..COUNT-1, categories have a skewed frequency
+            double value = (i * 7919L) % COUNT;
+            String category = i % 2 == 0 ? "A" : i % 4 == 1 ? "B" : "C" + (i % 1000);
+            Integer code = i % 10 == 0 ? null : i % 5000;
+            features.add(
+                    SimpleFeatureBuilder.build(
+                            type, new Object[] {value, category, code}, "values." + i));
+        }
+    }
+
+    @Test
+    public void testCountDistinct() {
+        ApproximateCountDistinctVisitor visitor =
+                new ApproximateCountDistinctVisitor(FF.property("code"));
+        visit(visitor, features);
+        // 5000 codes minus the multiples of 10, nulls are not counted
+        assertEquals(4500, visitor.getCount(), 4500 * 0.03);
+        assertEquals(visitor.getCount(), visitor.getResult().toLong());
+
+        ApproximateCountDistinctVisitor small =
+                new ApproximateCountDistinctVisitor(FF.property("category"));
+        visit(small, features.subList(0, 100));
+        // small cardinalities are close to exact
+        assertEquals(27, small.getCount());
+    }
+
+    @Test
+    public void testCountDistinctPrecision() {
+        assertEquals(14, ApproximateCountDistinctVisitor.getPrecision(0.01));
+        assertEquals(4, ApproximateCountDistinctVisitor.getPrecision(0.5));
+        assertEquals(18, ApproximateCountDistinctVisitor.getPrecision(0.0001));
+    }
+
+    @Test
+    public void testCountDistinctMerge() {
+        ApproximateCountDistinctVisitor visitor =
+                new ApproximateCountDistinctVisitor(FF.property("value"), 12);
+        ApproximateCountDistinctVisitor sequential =
+                new ApproximateCountDistinctVisitor(FF.property("value"), 12);
+        visit(sequential, features);
+        visitPartials(visitor, 4);
+        // the union of the registers does not depend on the visit order
+        assertEquals(sequential.getCount(), visitor.getCount());
+        assertEquals(COUNT, visitor.getCount(), COUNT * 0.05);
+
+        CalcResult merged =
+                visitPartial(visitor, 0, 2)
+                        .getResult()
+                        .merge(visitPartial(visitor, 1, 2).getResult());
+        assertEquals(sequential.getCount(), merged.toLong());
+    }
+
+    @Test
+    public void testQuantiles() {
+        ApproximateQuantileVisitor visitor = new ApproximateQuantileVisitor(FF.property("value"));
+        visit(visitor, features);
+        assertEquals(COUNT, visitor.getCount());
+        assertEquals(0, visitor.getQuantile(0), 0d);
+        assertEquals(COUNT - 1, visitor.getQuantile(1), 0d);
+        for (double fraction = 0.05; fraction < 1; fraction += 0.05) {
+            assertEquals(fraction * COUNT, visitor.getQuantile(fraction), COUNT * 0.01);
+        }
+        assertEquals(COUNT / 2, visitor.getResult().toDouble(), COUNT * 0.01);
+    }
+
+    @Test
+    public void testQuantilesMerge() {
+        ApproximateQuantileVisitor visitor =
+                new ApproximateQuantileVisitor(
+                        FF.property("value"), ApproximateQuantileVisitor.getK(0.005));
+        visitPartials(visitor, 5);
+        assertEquals(COUNT, visitor.getCount());
+        for (double fraction = 0.1; fraction < 1; fraction += 0.1) {
+            assertEquals(fraction * COUNT, visitor.getQuantile(fraction), COUNT * 0.005);
+        }
+
+        ApproximateQuantileVisitor.QuantileResult merged =
+                (ApproximateQuantileVisitor.QuantileResult)
+                        visitPartial(visitor, 0, 2)
+                                .getResult()
+                                .merge(visitPartial(visitor, 1, 2).getResult());
+        assertEquals(COUNT, merged.getCount());
+        assertEquals(COUNT / 2, merged.getQuantile(0.5), COUNT * 0.005);
+    }
+
+    @Test
+    public void testQuantilesEmpty() {
+        ApproximateQuantileVisitor visitor = new ApproximateQuantileVisitor(FF.property("value"));
+        assertSame(CalcResult.NULL_RESULT, visitor.getResult());
+        assertTrue(Double.isNaN(visitor.getQuantile(0.5)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testQuantilesNotNumeric() {
+        visit(new ApproximateQuantileVisitor(FF.property("category")), features);
+    }
+
+    @Test
+    public void testTopK() {
+        ApproximateTopKVisitor visitor = new ApproximateTopKVisitor(FF.property("category"), 2);
+        visit(visitor, features);
+        checkTop(visitor.getTop());
+        assertEquals(Arrays.asList("A", "B"), visitor.getResult().toList());
+    }
+
+    @Test
+    public void testTopKMerge() {
+        ApproximateTopKVisitor visitor = new ApproximateTopKVisitor(FF.property("category"), 2);
+        visitPartials(visitor, 3);
+        checkTop(visitor.getTop());
+
+        CalcResult merged =
+                visitPartial(visitor, 0, 2)
+                        .getResult()
+                        .merge(visitPartial(visitor, 1, 2).getResult());
+        checkTop(merged.toMap());
+    }
+
+    private void checkTop(Map<?, ?> top) {
+        assertEquals(2, top.size());
+        Iterator<? extends Map.Entry<?, ?>> entries = top.entrySet().iterator();
+        Map.Entry<?, ?> first = entries.next();
+        assertEquals("A", first.getKey());
+        // estimates never undercount, and overcount by at most 0.1% of the values
+        long a = (Long) first.getValue();
+        assertTrue(a >= COUNT / 2 && a <= COUNT / 2 + COUNT / 1000);
+        Map.Entry<?, ?> second = entries.next();
+        assertEquals("B", second.getKey());
+        long b = (Long) second.getValue();
+        assertTrue(b >= COUNT / 4 && b <= COUNT / 4 + COUNT / 1000);
+    }
+
+    private static void visit(FeatureCalc visitor, List<SimpleFeature> features) {
+        for (SimpleFeature feature : features) {
+            visitor.visit(feature);
+        }
+    }
+
+    /** Visits the features in the given number of partials, then merges them in the visitor */
+    private static void visitPartials(MergeableFeatureCalc visitor, int partials) {
+        for (int i = 0; i < partials; i++) {
+            visitor.merge(visitPartial(visitor, i, partials));
+        }
+    }
+
+    private static MergeableFeatureCalc visitPartial(
+            MergeableFeatureCalc visitor, int partial, int partials) {
+        MergeableFeatureCalc calc = visitor.createPartial();
+        int size = features.size();
+        visit(calc, features.subList(partial * size / partials, (partial + 1) * size / partials));
+        return calc;
+    }
+}
@@ -22,11 +22,16 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.junit.Assert.*;
 
 import com.vividsolutions.jts.io.WKTReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.geotools.data.DataUtilities;
+import org.geotools.factory.CommonFactoryFinder;
 import org.geotools.feature.FeatureCollection;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.util.NullProgressListener;
@@ -695,6 +700,100 @@ public class GroupByVisitorTest {
                 });
     }
 
+    @Test
+    public void testSpillToDisk() throws Exception {
+        List<SimpleFeature> features = buildFeatures(5000, 700);
+        for (Aggregate aggregate : HASH_AGGREGATES) {
+            for (String attribute : new String[] {"id", "energy_consumption"}) {
+                GroupByVisitor visitor =
+                        new GroupByVisitorBuilder()
+                                .withAggregateAttribute(attribute, buildingType)
+                                .withAggregateVisitor(aggregate)
+                                .withGroupByAttribute("building_id", buildingType)
+                                .withMemoryLimit(16 * 1024)
+                                .build();
+                for (SimpleFeature feature : features) {
+                    visitor.visit(feature);
+                }
+                assertEquals(
+                        aggregate + " " + attribute,
+                        expectedResults(features, aggregate, attribute),
+                        visitor.getResult().toMap());
+            }
+        }
+    }
+
+    @Test
+    public void testMergePartials() throws Exception {
+        List<SimpleFeature> features = buildFeatures(3000, 200);
+        List<Aggregate> aggregates = new ArrayList<>(Arrays.asList(HASH_AGGREGATES));
+        aggregates.add(Aggregate.MEDIAN);
+        for (Aggregate aggregate : aggregates) {
+            GroupByVisitor visitor =
+                    new GroupByVisitorBuilder()
+                            .withAggregateAttribute("energy_consumption", buildingType)
+                            .withAggregateVisitor(aggregate)
+                            .withGroupByAttribute("building_id", buildingType)
+                            .withMemoryLimit(8 * 1024)
+                            .build();
+            int partials = 3;
+            for (int i = 0; i < partials; i++) {
+                MergeableFeatureCalc partial = visitor.createPartial();
+                for (SimpleFeature feature :
+                        features.subList(
+                                i * features.size() / partials,
+                                (i + 1) * features.size() / partials)) {
+                    partial.visit(feature);
+                }
+                visitor.merge(partial);
+            }
+            assertTrue(visitor.wasVisited());
+            assertEquals(
+                    aggregate.toString(),
+                    expectedResults(features, aggregate, "energy_consumption"),
+                    visitor.getResult().toMap());
+        }
+    }
+
+    private static final Aggregate[] HASH_AGGREGATES = {
+        Aggregate.SUM, Aggregate.COUNT, Aggregate.MIN, Aggregate.MAX, Aggregate.AVERAGE
+    };
+
+    /**
+     * Builds features spread over the given number of groups, with an aggregated value that is
+     * sometimes null, and whose sums are exact in floating point.
+     */
+    private List<SimpleFeature> buildFeatures(int count, int groups) {
+        List<SimpleFeature> features = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Double consumption = i % 50 == 0 ? null : (i % 17) * 0.5;
+            features.add(
+                    SimpleFeatureBuilder.build(
+                            buildingType,
+                            new Object[] {
+                                i, "BUILDING_" + (i % groups), "SCHOOL", "WIND", consumption, null
+                            },
+                            "b." + i));
+        }
+        return features;
+    }
+
+    /** Computes the group by results using a new aggregate visitor for each group */
+    private Map<Object, Object> expectedResults(
+            List<SimpleFeature> features, Aggregate aggregate, String attribute) {
+        Expression expression = CommonFactoryFinder.getFilterFactory(null).property(attribute);
+        Map<List<Object>, FeatureCalc> calcs = new HashMap<>();
+        for (SimpleFeature feature : features) {
+            List<Object> key = Collections.singletonList(feature.getAttribute("building_id"));
+            calcs.computeIfAbsent(key, k -> aggregate.create(expression)).visit(feature);
+        }
+        Map<Object, Object> results = new HashMap<>();
+        for (Map.Entry<List<Object>, FeatureCalc> entry : calcs.entrySet()) {
+            results.put(entry.getKey(), entry.getValue().getResult().getValue());
+        }
+        return results;
+    }
+
     @Test
     public void testFeatureAttributeVisitor() {
         GroupByVisitor visitor =
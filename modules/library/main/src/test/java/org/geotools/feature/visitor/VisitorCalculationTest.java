@@ -544,6 +544,70 @@ public class VisitorCalculationTest extends DataTestCase {
         assertSame(result, result.merge(emptyVisitor.getResult()));
     }
 
+    public void testMergePartials() throws Exception {
+        FilterFactory factory = CommonFactoryFinder.getFilterFactory(null);
+        Expression expr = factory.property(ft3.getDescriptor(0).getLocalName());
+
+        assertPartialsMerge(new CountVisitor(), new CountVisitor());
+        assertPartialsMerge(new SumVisitor(expr), new SumVisitor(expr));
+        assertPartialsMerge(new AverageVisitor(expr), new AverageVisitor(expr));
+        assertPartialsMerge(new MinVisitor(expr), new MinVisitor(expr));
+        assertPartialsMerge(new MaxVisitor(expr), new MaxVisitor(expr));
+        assertPartialsMerge(new UniqueVisitor(expr), new UniqueVisitor(expr));
+
+        StandardDeviationVisitor stdDev = new StandardDeviationVisitor(expr);
+        StandardDeviationVisitor stdDevMerged = new StandardDeviationVisitor(expr);
+        fc3.accepts(stdDev, null);
+        visitPartials(fc3, stdDevMerged);
+        assertEquals(stdDev.getResult().toDouble(), stdDevMerged.getResult().toDouble(), 1e-9);
+        assertEquals(stdDev.getMean(), stdDevMerged.getMean(), 1e-9);
+
+        BoundsVisitor bounds = new BoundsVisitor();
+        BoundsVisitor boundsMerged = new BoundsVisitor();
+        fc.accepts(bounds, null);
+        visitPartials(fc, boundsMerged);
+        assertEquals(bounds.getBounds(), boundsMerged.getBounds());
+    }
+
+    public void testMergeUniquePartialsWithLimits() throws Exception {
+        FilterFactory factory = CommonFactoryFinder.getFilterFactory(null);
+        Expression expr = factory.property(ft3.getDescriptor(0).getLocalName());
+        UniqueVisitor unique = new UniqueVisitor(expr);
+        UniqueVisitor uniqueMerged = new UniqueVisitor(expr);
+        for (UniqueVisitor visitor : Arrays.asList(unique, uniqueMerged)) {
+            visitor.setPreserveOrder(true);
+            visitor.setStartIndex(20);
+            visitor.setMaxFeatures(30);
+        }
+        fc3.accepts(unique, null);
+        visitPartials(fc3, uniqueMerged);
+        List expected = new ArrayList(unique.getUnique());
+        assertEquals(30, expected.size());
+        assertEquals(21, expected.get(0));
+        assertEquals(expected, new ArrayList(uniqueMerged.getUnique()));
+    }
+
+    private void assertPartialsMerge(MergeableFeatureCalc sequential, MergeableFeatureCalc merged)
+            throws IOException {
+        fc3.accepts(sequential, null);
+        visitPartials(fc3, merged);
+        assertEquals(sequential.getResult().getValue(), merged.getResult().getValue());
+    }
+
+    /** Visits the collection in uneven chunks, using partial visitors merged back in order */
+    private void visitPartials(SimpleFeatureCollection collection, MergeableFeatureCalc visitor) {
+        List<SimpleFeature> features = DataUtilities.list(collection);
+        int size = features.size();
+        int[] breaks = {0, size / 3, size / 3 + 1, size};
+        for (int i = 0; i < breaks.length - 1; i++) {
+            MergeableFeatureCalc partial = visitor.createPartial();
+            for (SimpleFeature feature : features.subList(breaks[i], breaks[i + 1])) {
+                partial.visit(feature);
+            }
+            visitor.merge(partial);
+        }
+    }
+
     // try merging a count and sum to get an average, both count+sum and sum+count
     public void testCountSumMerge() throws IllegalFilterException, IOException {
         CountVisitor countVisitor = new CountVisitor();
@@ -0,0 +1,175 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.geotools.data.DataUtilities;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureImpl;
+import org.geotools.filter.identity.FeatureIdImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+
+public class FilterCompilerTest {
+
+    static final FilterFactory2 FF = CommonFactoryFinder.getFilterFactory2(null);
+
+    static final String[] ATTRIBUTES = {"s", "i", "l", "d", "f", "b"};
+
+    static final Object[] LITERALS = {
+        "abc", "ABC", "10", "10.0", "-3.5", "", "x10", 10, 10L, -3.5d, 10.0f, 0, true, false
+    };
+
+    SimpleFeatureType type;
+
+    List<SimpleFeature> features;
+
+    @Before
+    public void setup() throws Exception {
+        type =
+                DataUtilities.createType(
+                        "test", "s:String,i:Integer,l:Long,d:Double,f:Float,b:Boolean");
+        features = new ArrayList<>();
+        Object[][] values = {
+            {"abc", 10, 10L, 10d, 10f, true},
+            {"ABC", -3, -3L, -3.5d, -3.5f, false},
+            {"10", 0, 0L, 0d, 0f, false},
+            {"10.0", 11, 11L, 10.5d, 10.5f, true},
+            {"", Integer.MAX_VALUE, Long.MIN_VALUE, Double.NaN, Float.NaN, true},
+            {"x10", 9, 9L, -0d, -0f, false},
+            {"-3.5", 10, 10L, 10d, 10f, true},
+            {null, null, null, null, null, null},
+        };
+        for (int i = 0; i < values.length; i++) {
+            features.add(SimpleFeatureBuilder.build(type, values[i], "test." + i));
+        }
+    }
+
+    @Test
+    public void testComparisons() {
+        for (String attribute : ATTRIBUTES) {
+            PropertyName property = FF.property(attribute);
+            for (Object value : LITERALS) {
+                Literal literal = FF.literal(value);
+                assertSameResults(FF.equals(property, literal));
+                assertSameResults(FF.equal(property, literal, false));
+                assertSameResults(FF.equals(literal, property));
+                assertSameResults(FF.notEqual(property, literal));
+                assertSameResults(FF.notEqual(property, literal, false));
+                assertSameResults(FF.less(property, literal));
+                assertSameResults(FF.lessOrEqual(property, literal));
+                assertSameResults(FF.greater(property, literal));
+                assertSameResults(FF.greaterOrEqual(property, literal));
+                assertSameResults(FF.less(literal, property));
+                assertSameResults(FF.greaterOrEqual(literal, property));
+            }
+        }
+    }
+
+    @Test
+    public void testBetween() {
+        for (String attribute : ATTRIBUTES) {
+            for (Object lower : LITERALS) {
+                for (Object upper : LITERALS) {
+                    Literal l = FF.literal(lower);
+                    Literal u = FF.literal(upper);
+                    assertSameResults(FF.between(FF.property(attribute), l, u));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLogic() {
+        Filter f1 = FF.greater(FF.property("i"), FF.literal(5));
+        Filter f2 = FF.equals(FF.property("s"), FF.literal("abc"));
+        Filter f3 = FF.isNull(FF.property("d"));
+        assertSameResults(FF.and(f1, f2));
+        assertSameResults(FF.or(Arrays.asList(f1, f2, f3)));
+        assertSameResults(FF.not(FF.and(f1, FF.not(f3))));
+        assertSameResults(FF.or(f3, Filter.EXCLUDE));
+        assertSameResults(FF.and(f1, Filter.INCLUDE));
+    }
+
+    @Test
+    public void testPartialCompilation() {
+        // the function cannot be compiled, but it's still evaluated as part of the tree
+        Expression function = FF.function("strToUpperCase", FF.property("s"));
+        Filter filter =
+                FF.and(
+                        FF.equals(function, FF.literal("ABC")),
+                        FF.greater(FF.property("i"), FF.literal(0)));
+        assertSameResults(filter);
+    }
+
+    @Test
+    public void testNotCompiled() {
+        Filter filter = FF.equals(FF.function("strToUpperCase", FF.property("s")), FF.literal("A"));
+        assertSame(filter, FilterCompiler.compile(filter, type));
+        Filter missing = FF.equals(FF.property("missing"), FF.literal("A"));
+        assertSame(missing, FilterCompiler.compile(missing, type));
+        assertSame(Filter.INCLUDE, FilterCompiler.compile(Filter.INCLUDE, type));
+    }
+
+    @Test
+    public void testOtherObjects() throws Exception {
+        Filter filter = FF.equals(FF.property("s"), FF.literal("abc"));
+        Filter compiled = FilterCompiler.compile(filter, type);
+        assertNotSame(filter, compiled);
+        // features of another type, with the attribute in a different position
+        SimpleFeatureType other = DataUtilities.createType("other", "i:Integer,s:String");
+        SimpleFeature feature = SimpleFeatureBuilder.build(other, new Object[] {1, "abc"}, null);
+        assertTrue(compiled.evaluate(feature));
+        // values not matching the declared type
+        Object[] values = {null, "10", null, null, null, null};
+        SimpleFeature mismatched =
+                new SimpleFeatureImpl(values, type, new FeatureIdImpl("test.m"), false);
+        assertSameResults(FF.equals(FF.property("i"), FF.literal(10)), mismatched);
+        // the visitors see the original filter
+        assertEquals(filter.toString(), compiled.toString());
+        assertEquals(
+                filter.accept(new FilterAttributeExtractor(), null),
+                compiled.accept(new FilterAttributeExtractor(), null));
+    }
+
+    void assertSameResults(Filter filter) {
+        for (SimpleFeature feature : features) {
+            assertSameResults(filter, feature);
+        }
+    }
+
+    void assertSameResults(Filter filter, SimpleFeature feature) {
+        Filter compiled = FilterCompiler.compile(filter, type);
+        assertEquals(
+                filter + " on " + feature, filter.evaluate(feature), compiled.evaluate(feature));
+    }
+}
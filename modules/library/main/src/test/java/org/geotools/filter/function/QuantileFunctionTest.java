@@ -17,6 +17,7 @@
 package org.geotools.filter.function;
 
 import org.geotools.data.DataUtilities;
+import org.geotools.data.collection.ListFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.feature.DefaultFeatureCollection;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
@@ -157,6 +158,27 @@ public class QuantileFunctionTest extends FunctionTestSupport {
         assertTrue(classifier instanceof RangedClassifier);
     }
 
+    public void testApproximate() throws Exception {
+        SimpleFeatureType type = DataUtilities.createType("approximate", "value:double");
+        ListFeatureCollection features = new ListFeatureCollection(type);
+        for (int i = 0; i < 10000; i++) {
+            // a permutation of 0..9999
+            Object[] values = new Object[] {(double) ((i * 7919) % 10000)};
+            features.add(SimpleFeatureBuilder.build(type, values, "approximate." + i));
+        }
+        QuantileFunction func =
+                (QuantileFunction) ff.function("Quantile", ff.property("value"), ff.literal(4));
+        func.setRankError(0.01);
+        RangedClassifier ranged = (RangedClassifier) func.evaluate(features);
+        assertEquals(4, ranged.getSize());
+        assertEquals(0, ((Number) ranged.getMin(0)).doubleValue(), 0d);
+        assertEquals(9999, ((Number) ranged.getMax(3)).doubleValue(), 0d);
+        for (int i = 1; i < 4; i++) {
+            assertEquals(i * 2500, ((Number) ranged.getMin(i)).doubleValue(), 100);
+            assertEquals(ranged.getMin(i), ranged.getMax(i - 1));
+        }
+    }
+
     public void testEvaluateWithStrings() throws Exception {
         org.opengis.filter.expression.Expression function =
                 ff.function("Quantile", ff.property("group"), ff.literal(2));
@@ -0,0 +1,97 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.filter.spatial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.WKTReader;
+import org.geotools.data.DataUtilities;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.spatial.Beyond;
+import org.opengis.filter.spatial.DWithin;
+
+public class DWithinImplTest {
+
+    static final String[] GEOMETRIES = {
+        "POINT(0 0)",
+        "POINT(12 5)",
+        "POINT(5 5)",
+        "LINESTRING(-5 -5, -1 20)",
+        "LINESTRING(11 0, 11 10, 20 10)",
+        "POLYGON((2 2, 3 2, 3 3, 2 3, 2 2))",
+        "POLYGON((-10 -10, 30 -10, 30 30, -10 30, -10 -10))",
+        "MULTIPOINT((14 14), (-3 4))",
+        "GEOMETRYCOLLECTION(POINT(13 13), LINESTRING(0 -4, 10 -4))",
+        "POLYGON EMPTY"
+    };
+
+    static final double[] DISTANCES = {0, 0.5, 1, 2, 3, 5, 100};
+
+    FilterFactory2 ff = CommonFactoryFinder.getFilterFactory2();
+
+    WKTReader reader = new WKTReader();
+
+    @Test
+    public void testPreparedLiteral() throws Exception {
+        Geometry literal =
+                reader.read("POLYGON((0 0, 10 0, 10 10, 0 10, 0 0), (4 4, 6 4, 6 6, 4 4))");
+        for (double distance : DISTANCES) {
+            DWithin right = ff.dwithin(ff.property("geom"), ff.literal(literal), distance, "m");
+            DWithin left = ff.dwithin(ff.literal(literal), ff.property("geom"), distance, "m");
+            Beyond beyond = ff.beyond(ff.property("geom"), ff.literal(literal), distance, "m");
+            for (String wkt : GEOMETRIES) {
+                Geometry geometry = reader.read(wkt);
+                SimpleFeature feature = feature(geometry);
+                boolean expected = geometry.isWithinDistance(literal, distance);
+                String message = wkt + " at " + distance;
+                assertEquals(message, expected, right.evaluate(feature));
+                assertEquals(message, expected, left.evaluate(feature));
+                assertEquals(message, !expected, beyond.evaluate(feature));
+            }
+        }
+    }
+
+    @Test
+    public void testLiteralChanges() throws Exception {
+        DWithinImpl filter =
+                (DWithinImpl)
+                        ff.dwithin(
+                                ff.property("geom"),
+                                ff.literal(reader.read("POINT(0 0)")),
+                                1,
+                                "m");
+        SimpleFeature point = feature(reader.read("POINT(3 0)"));
+        assertFalse(filter.evaluate(point));
+        filter.setDistance(3);
+        assertTrue(filter.evaluate(point));
+        filter.setExpression2(ff.literal(reader.read("POINT(10 0)")));
+        assertFalse(filter.evaluate(point));
+    }
+
+    SimpleFeature feature(Geometry geometry) throws Exception {
+        SimpleFeatureType type = DataUtilities.createType("test", "geom:Geometry");
+        return SimpleFeatureBuilder.build(type, new Object[] {geometry}, null);
+    }
+}
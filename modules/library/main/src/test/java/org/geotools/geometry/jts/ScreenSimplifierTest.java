@@ -0,0 +1,141 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.geometry.jts;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import org.junit.Test;
+
+public class ScreenSimplifierTest {
+
+    LiteCoordinateSequenceFactory csf = new LiteCoordinateSequenceFactory();
+
+    GeometryFactory gf = new GeometryFactory(csf);
+
+    ScreenSimplifier simplifier = new ScreenSimplifier();
+
+    private LinearRing ring(double... coords) {
+        return gf.createLinearRing(csf.create(coords));
+    }
+
+    private double[] ordinates(LineString ls) {
+        return ((LiteCoordinateSequence) ls.getCoordinateSequence()).getArray();
+    }
+
+    @Test
+    public void testSnapDuplicatesCollinear() {
+        LineString ls =
+                gf.createLineString(
+                        csf.create(new double[] {0, 0, 0.2, 0.1, 1, 0, 2, 0.2, 3, 0, 3, 5}));
+        Geometry result = simplifier.simplify(ls);
+        assertSame(ls, result);
+        assertArrayEquals(new double[] {0, 0, 3, 0, 3, 5}, ordinates(ls), 0d);
+        assertEquals(8, ls.getLength(), 0d);
+    }
+
+    @Test
+    public void testSpikePreserved() {
+        LineString ls = gf.createLineString(csf.create(new double[] {0, 0, 5, 0, 2, 0}));
+        simplifier.simplify(ls);
+        assertArrayEquals(new double[] {0, 0, 5, 0, 2, 0}, ordinates(ls), 0d);
+    }
+
+    @Test
+    public void testPolygonSimplified() {
+        Polygon polygon =
+                gf.createPolygon(
+                        ring(0, 0, 5, 0.1, 10, 0, 10, 4.9, 10, 10, 0, 10, 0, 10.2, 0, 0), null);
+        assertSame(polygon, simplifier.simplify(polygon));
+        assertEquals(5, polygon.getNumPoints());
+        assertEquals(100, polygon.getArea(), 0d);
+        assertEquals(10, polygon.getEnvelopeInternal().getWidth(), 0d);
+    }
+
+    @Test
+    public void testRingCollapsingToSliver() {
+        Polygon polygon = gf.createPolygon(ring(0, 0, 10, 0.2, 20, 0, 10, -0.2, 0, 0), null);
+        assertSame(polygon, simplifier.simplify(polygon));
+        // still a valid linear ring, but not painting anything
+        assertEquals(4, polygon.getExteriorRing().getNumPoints());
+        assertEquals(0, polygon.getArea(), 0d);
+    }
+
+    @Test
+    public void testSubPixelCollapsed() {
+        Polygon polygon =
+                gf.createPolygon(ring(3.1, 4.1, 3.5, 4.1, 3.5, 4.6, 3.1, 4.6, 3.1, 4.1), null);
+        assertSame(polygon, simplifier.simplify(polygon));
+        assertArrayEquals(
+                new double[] {3, 4, 4, 4, 4, 5, 3, 5, 3, 4},
+                ordinates(polygon.getExteriorRing()),
+                0d);
+        assertEquals(1, polygon.getArea(), 0d);
+    }
+
+    @Test
+    public void testSubPixelCulled() {
+        Polygon polygon =
+                gf.createPolygon(ring(3.1, 4.1, 3.5, 4.1, 3.5, 4.6, 3.1, 4.6, 3.1, 4.1), null);
+        assertNull(new ScreenSimplifier(1, true).simplify(polygon));
+    }
+
+    @Test
+    public void testSubPixelComponentCulled() {
+        Polygon large = gf.createPolygon(ring(0, 0, 10, 0, 10, 10, 0, 10, 0, 0), null);
+        Polygon small =
+                gf.createPolygon(ring(20.1, 20.1, 20.5, 20.1, 20.5, 20.5, 20.1, 20.1), null);
+        MultiPolygon mp = gf.createMultiPolygon(new Polygon[] {large, small});
+        assertSame(mp, new ScreenSimplifier(1, true).simplify(mp));
+        assertEquals(2, mp.getNumGeometries());
+        assertEquals(100, mp.getArea(), 0d);
+        assertEquals(0, small.getArea(), 0d);
+    }
+
+    @Test
+    public void testSubPixelHoleRemoved() {
+        Polygon polygon =
+                gf.createPolygon(
+                        ring(0, 0, 10, 0, 10, 10, 0, 10, 0, 0),
+                        new LinearRing[] {ring(5.1, 5.1, 5.5, 5.1, 5.5, 5.5, 5.1, 5.1)});
+        simplifier.simplify(polygon);
+        assertEquals(1, polygon.getNumInteriorRing());
+        assertEquals(4, polygon.getInteriorRingN(0).getNumPoints());
+        assertEquals(100, polygon.getArea(), 0d);
+    }
+
+    @Test
+    public void testPointUntouched() {
+        Point point = gf.createPoint(csf.create(new double[] {0.3, 0.3}));
+        assertSame(point, simplifier.simplify(point));
+        assertEquals(0.3, point.getX(), 0d);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPixelSize() {
+        new ScreenSimplifier(0, false);
+    }
+}
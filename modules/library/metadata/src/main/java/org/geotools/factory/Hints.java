@@ -618,6 +618,17 @@ public class Hints extends RenderingHints {
      */
     public static final Key FEATURE_2D = new Key(Boolean.class);
 
+    /**
+     * Allows readers to return the same feature instance for every row, filling it with new values
+     * each time, to reduce allocation while streaming. The features returned are then valid only
+     * until the next call to the reader, and must not be retained or handed over to other threads.
+     * Readers not supporting recycling ignore this hint, and so do readers whose features are
+     * sorted or collected in memory.
+     *
+     * @since 20
+     */
+    public static final Key FEATURE_RECYCLE = new Key(Boolean.class);
+
     /**
      * Key to control the maximum number of features that will be kept in memory when performing a
      * fallback merge-sort (used when the datastore does not have native means to handle feature
@@ -847,6 +858,16 @@ public class Hints extends RenderingHints {
     public static final Hints.Key ASSOCIATION_PROPERTY =
             new Key("org.opengis.filter.expression.PropertyName");
 
+    /**
+     * The number of partitions a feature visit can be split into, so that visitors implementing
+     * {@code org.geotools.feature.visitor.MergeableFeatureCalc} are run in parallel by the data
+     * stores able to split their contents. Values lower than 2 (the default) keep the visit
+     * sequential.
+     *
+     * @since 20
+     */
+    public static final Key VISITOR_PARALLELISM = new Key(Integer.class);
+
     ////////////////////////////////////////////////////////////////////////
     ////////                                                        ////////
     ////////                         Caches                         ////////
@@ -87,16 +87,22 @@ abstract class GlyphProcessor {
         }
 
         public boolean process(GlyphVector glyphVector, int g, AffineTransform tx, char c) {
-            Rectangle2D labelEnvelope =
-                    tx.createTransformedShape(glyphVector.getGlyphLogicalBounds(g)).getBounds2D();
             // try to paint the label, the condition under which this happens are complex
             // white space character does not conflict with other labels
             if (Character.isWhitespace(c)) return false;
-            else if ((displayArea.contains(labelEnvelope) || labelItem.isPartialsEnabled())
-                    && !(labelItem.isConflictResolutionEnabled()
-                            && paintedBounds.labelsWithinDistance(labelEnvelope, extraSpace))
-                    && !groupLabels.labelsWithinDistance(labelEnvelope, minDistance)) return false;
-            else return true; // collision = true
+            // glyphs are tested as oriented rectangles, following the label rotation
+            Rectangle2D glyphBounds = glyphVector.getGlyphLogicalBounds(g).getBounds2D();
+            if (!labelItem.isPartialsEnabled()) {
+                Rectangle2D labelEnvelope = tx.createTransformedShape(glyphBounds).getBounds2D();
+                if (!displayArea.contains(labelEnvelope)) {
+                    return true;
+                }
+            }
+            if (labelItem.isConflictResolutionEnabled()
+                    && paintedBounds.labelsWithinDistance(glyphBounds, tx, extraSpace)) {
+                return true;
+            }
+            return groupLabels.labelsWithinDistance(glyphBounds, tx, minDistance);
         }
     }
 
@@ -112,9 +118,8 @@ abstract class GlyphProcessor {
 
         public boolean process(GlyphVector glyphVector, int g, AffineTransform tx, char c) {
             if (Character.isWhitespace(c)) return false;
-            Rectangle2D labelEnvelope =
-                    tx.createTransformedShape(glyphVector.getGlyphOutline(g)).getBounds2D();
-            index.addLabel(labelItem, labelEnvelope);
+            Rectangle2D glyphBounds = glyphVector.getGlyphOutline(g).getBounds2D();
+            index.addLabel(labelItem, glyphBounds, tx);
             return true;
         }
     }
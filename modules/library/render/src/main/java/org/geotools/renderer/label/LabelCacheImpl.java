@@ -1447,12 +1447,13 @@ public class LabelCacheImpl implements LabelCache {
             throws Exception {
         setupPointTransform(tempTransform, point, textStyle, painter);
 
-        // check for overlaps and paint
-        Rectangle2D transformed =
-                tempTransform.createTransformedShape(painter.getFullLabelBounds()).getBounds2D();
+        // check for overlaps and paint, rotated labels are tested as oriented rectangles
+        Rectangle2D labelBounds = painter.getFullLabelBounds();
+        Rectangle2D transformed = tempTransform.createTransformedShape(labelBounds).getBounds2D();
         if (!(displayArea.contains(transformed) || labelItem.isPartialsEnabled())
                 || (labelItem.isConflictResolutionEnabled()
-                        && glyphs.labelsWithinDistance(transformed, labelItem.getSpaceAround()))) {
+                        && glyphs.labelsWithinDistance(
+                                labelBounds, tempTransform, labelItem.getSpaceAround()))) {
             return false;
         } else {
             painter.paintStraightLabel(tempTransform);
@@ -1461,7 +1462,9 @@ public class LabelCacheImpl implements LabelCache {
                 painter.graphics.setColor(Color.RED);
                 painter.graphics.draw(transformed);
             }
-            if (labelItem.isConflictResolutionEnabled()) glyphs.addLabel(labelItem, transformed);
+            if (labelItem.isConflictResolutionEnabled()) {
+                glyphs.addLabel(labelItem, labelBounds, tempTransform);
+            }
             return true;
         }
     }
@@ -1614,11 +1617,12 @@ public class LabelCacheImpl implements LabelCache {
         AffineTransform original = new AffineTransform(tempTransform);
         setupPointTransform(tempTransform, centroid, textStyle, painter);
 
-        Rectangle2D transformed =
-                tempTransform.createTransformedShape(painter.getFullLabelBounds()).getBounds2D();
+        Rectangle2D labelBounds = painter.getFullLabelBounds();
+        Rectangle2D transformed = tempTransform.createTransformedShape(labelBounds).getBounds2D();
         if (!(displayArea.contains(transformed) || labelItem.isPartialsEnabled())
                 || (labelItem.isConflictResolutionEnabled()
-                        && glyphs.labelsWithinDistance(transformed, labelItem.getSpaceAround()))
+                        && glyphs.labelsWithinDistance(
+                                labelBounds, tempTransform, labelItem.getSpaceAround()))
                 || goodnessOfFit(painter, tempTransform, pg)
                         < painter.getLabel().getGoodnessOfFit()) {
             // try the alternate rotation if possible
@@ -1626,14 +1630,11 @@ public class LabelCacheImpl implements LabelCache {
                 tempTransform.setTransform(original);
                 setupPointTransform(tempTransform, centroid, textStyle, painter);
 
-                transformed =
-                        tempTransform
-                                .createTransformedShape(painter.getFullLabelBounds())
-                                .getBounds2D();
+                transformed = tempTransform.createTransformedShape(labelBounds).getBounds2D();
                 if (!(displayArea.contains(transformed) || labelItem.isPartialsEnabled())
                         || (labelItem.isConflictResolutionEnabled()
                                 && glyphs.labelsWithinDistance(
-                                        transformed, labelItem.getSpaceAround()))
+                                        labelBounds, tempTransform, labelItem.getSpaceAround()))
                         || goodnessOfFit(painter, tempTransform, pg)
                                 < painter.getLabel().getGoodnessOfFit()) {
                     textStyle.flipRotation(pg.getGeometry());
@@ -1651,7 +1652,7 @@ public class LabelCacheImpl implements LabelCache {
         }
         painter.paintStraightLabel(tempTransform);
         if (labelItem.isConflictResolutionEnabled()) {
-            glyphs.addLabel(labelItem, transformed);
+            glyphs.addLabel(labelItem, labelBounds, tempTransform);
         }
         return true;
     }
@@ -16,22 +16,79 @@
  */
 package org.geotools.renderer.label;
 
-import com.vividsolutions.jts.geom.Envelope;
-import com.vividsolutions.jts.index.quadtree.Quadtree;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Stores label items and helps in finding the interferering ones, either by pure overlap or within
- * a certain distance from the specified bounds
+ * a certain distance from the specified bounds.
+ *
+ * <p>Labels are indexed in a uniform grid of screen cells, with the bounds kept in flat arrays, so
+ * that the many conflict tests performed while looking for a label position do not allocate. Labels
+ * placed with a rotation can be indexed and tested as oriented rectangles, instead of their axis
+ * aligned bounds.
  *
  * @author Andrea Aime
  * @source $URL$
  */
 public class LabelIndex {
 
-    Quadtree index = new Quadtree();
+    /** The default size of the grid cells, in pixels */
+    public static final int DEFAULT_CELL_SIZE = 64;
+
+    /** Items spanning more cells than this are kept out of the grid, and always tested */
+    static final int MAX_ITEM_CELLS = 256;
+
+    final double cellSize;
+
+    /** The axis aligned bounds of the items, as minx, miny, maxx, maxy */
+    double[] bounds = new double[64];
+
+    /** The corners of the items that are not axis aligned, null for the others */
+    double[][] corners = new double[16][];
+
+    /** The items themselves, kept around to help debugging (null for reserved areas) */
+    LabelCacheItem[] items = new LabelCacheItem[16];
+
+    int size;
+
+    /** The ids of the items too large for the grid */
+    int[] large = new int[4];
+
+    int largeSize;
+
+    /** Open addressing hash table from cell keys to the ids of the items overlapping the cell */
+    long[] cellKeys = new long[64];
+
+    int[][] cellItems = new int[64][];
+
+    int[] cellSizes = new int[64];
+
+    int cellCount;
+
+    /** Scratch arrays for the oriented rectangle tests */
+    final double[] queryCorners = new double[8];
+
+    final double[] itemCorners = new double[8];
+
+    public LabelIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Builds an index with the given grid cell size, ideally close to the size of the labels
+     *
+     * @param cellSize the cell size, in pixels
+     * @since 20
+     */
+    public LabelIndex(int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
 
     /**
      * Returns true if there is any label in the index within the specified distance from the
@@ -42,21 +99,36 @@ public class LabelIndex {
      * @param distance
      * @return
      */
-    @SuppressWarnings("unchecked")
     public boolean labelsWithinDistance(Rectangle2D bounds, double distance) {
         if (distance < 0) return false;
 
-        Envelope e = toEnvelope(bounds);
-        e.expandBy(distance);
-        List<InterferenceItem> results = index.query(e);
-        if (results.size() == 0) return false;
-        for (Iterator<InterferenceItem> it = results.iterator(); it.hasNext(); ) {
-            InterferenceItem item = it.next();
-            if (item.env.intersects(e)) {
-                return true;
-            }
+        return intersects(
+                bounds.getMinX() - distance,
+                bounds.getMinY() - distance,
+                bounds.getMaxX() + distance,
+                bounds.getMaxY() + distance,
+                null);
+    }
+
+    /**
+     * Returns true if there is any label in the index within the specified distance from the
+     * bounds, once transformed by the given transform. If the transform rotates the bounds, they
+     * are tested as an oriented rectangle, expanded by the distance on each side.
+     *
+     * @param bounds the label bounds, in label space
+     * @param tx the transformation from label space to screen
+     * @param distance the distance, in pixels
+     * @since 20
+     */
+    public boolean labelsWithinDistance(Rectangle2D bounds, AffineTransform tx, double distance) {
+        if (distance < 0) return false;
+        if (isAxisAligned(tx)) {
+            return labelsWithinDistance(transformBounds(bounds, tx), distance);
         }
-        return false;
+
+        double[] c = queryCorners;
+        transformCorners(bounds, tx, distance, c);
+        return intersects(minX(c), minY(c), maxX(c), maxY(c), c);
     }
 
     /**
@@ -66,48 +138,267 @@ public class LabelIndex {
      * @param bounds
      */
     public void addLabel(LabelCacheItem item, Rectangle2D bounds) {
-        Envelope e = toEnvelope(bounds);
-        index.insert(e, new InterferenceItem(e, item));
+        add(item, bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY(), null);
     }
 
     /**
-     * Turns the specified Java2D rectangle into a JTS envelope
+     * Adds a label into the index, as the given bounds transformed by the transform. If the
+     * transform rotates the bounds, the label is indexed as an oriented rectangle.
      *
-     * @param bounds
-     * @return
+     * @param item the label
+     * @param bounds the label bounds, in label space
+     * @param tx the transformation from label space to screen
+     * @since 20
      */
-    private Envelope toEnvelope(Rectangle2D bounds) {
-        return new Envelope(bounds.getMinX(), bounds.getMaxX(), bounds.getMinY(), bounds.getMaxY());
+    public void addLabel(LabelCacheItem item, Rectangle2D bounds, AffineTransform tx) {
+        if (isAxisAligned(tx)) {
+            addLabel(item, transformBounds(bounds, tx));
+        } else {
+            double[] c = new double[8];
+            transformCorners(bounds, tx, 0, c);
+            add(item, minX(c), minY(c), maxX(c), maxY(c), c);
+        }
     }
 
     /**
-     * Simple structure stored into the quadtree (keeping the item around helps in debugging)
+     * Reserve the area indicated by these Geometry.
      *
-     * @author Andrea Aime
+     * @param reserved
      */
-    static class InterferenceItem {
-        Envelope env;
+    public void reserveArea(List<Rectangle2D> reserved) {
+        for (Rectangle2D area : reserved) {
+            addLabel(null, area);
+        }
+    }
 
-        LabelCacheItem item;
+    private void add(
+            LabelCacheItem item,
+            double minX,
+            double minY,
+            double maxX,
+            double maxY,
+            double[] itemCorners) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+            corners = Arrays.copyOf(corners, size * 2);
+            bounds = Arrays.copyOf(bounds, size * 8);
+        }
+        int id = size++;
+        items[id] = item;
+        corners[id] = itemCorners;
+        bounds[id * 4] = minX;
+        bounds[id * 4 + 1] = minY;
+        bounds[id * 4 + 2] = maxX;
+        bounds[id * 4 + 3] = maxY;
 
-        public InterferenceItem(Envelope env, LabelCacheItem item) {
-            super();
-            this.env = env;
-            this.item = item;
+        int minCol = cell(minX), maxCol = cell(maxX);
+        int minRow = cell(minY), maxRow = cell(maxY);
+        if ((long) (maxCol - minCol + 1) * (maxRow - minRow + 1) > MAX_ITEM_CELLS) {
+            if (largeSize == large.length) {
+                large = Arrays.copyOf(large, largeSize * 2);
+            }
+            large[largeSize++] = id;
+            return;
+        }
+        for (int col = minCol; col <= maxCol; col++) {
+            for (int row = minRow; row <= maxRow; row++) {
+                addToCell(key(col, row), id);
+            }
         }
     }
 
+    private boolean intersects(
+            double minX, double minY, double maxX, double maxY, double[] queryCorners) {
+        if (size == 0) return false;
+
+        for (int i = 0; i < largeSize; i++) {
+            if (intersects(large[i], minX, minY, maxX, maxY, queryCorners)) {
+                return true;
+            }
+        }
+
+        int minCol = cell(minX), maxCol = cell(maxX);
+        int minRow = cell(minY), maxRow = cell(maxY);
+        if ((long) (maxCol - minCol + 1) * (maxRow - minRow + 1) > size) {
+            // visiting the cells would cost more than scanning the items
+            for (int id = 0; id < size; id++) {
+                if (intersects(id, minX, minY, maxX, maxY, queryCorners)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (int col = minCol; col <= maxCol; col++) {
+            for (int row = minRow; row <= maxRow; row++) {
+                int slot = findCell(key(col, row));
+                if (cellItems[slot] == null) {
+                    continue;
+                }
+                int[] ids = cellItems[slot];
+                for (int i = 0; i < cellSizes[slot]; i++) {
+                    if (intersects(ids[i], minX, minY, maxX, maxY, queryCorners)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean intersects(
+            int id, double minX, double minY, double maxX, double maxY, double[] queryCorners) {
+        int b = id * 4;
+        if (bounds[b] > maxX
+                || bounds[b + 2] < minX
+                || bounds[b + 1] > maxY
+                || bounds[b + 3] < minY) {
+            return false;
+        }
+        double[] c = corners[id];
+        if (c == null && queryCorners == null) {
+            return true;
+        }
+        if (c == null) {
+            c = itemCorners;
+            c[0] = c[6] = bounds[b];
+            c[1] = c[3] = bounds[b + 1];
+            c[2] = c[4] = bounds[b + 2];
+            c[5] = c[7] = bounds[b + 3];
+        }
+        if (queryCorners == null) {
+            queryCorners = this.queryCorners;
+            queryCorners[0] = queryCorners[6] = minX;
+            queryCorners[1] = queryCorners[3] = minY;
+            queryCorners[2] = queryCorners[4] = maxX;
+            queryCorners[5] = queryCorners[7] = maxY;
+        }
+        return !separated(c, queryCorners) && !separated(queryCorners, c);
+    }
+
     /**
-     * Reserve the area indicated by these Geometry.
-     *
-     * @param reserved
+     * Returns true if one of the edge normals of the first rectangle separates the projections of
+     * the two rectangles (separating axis test)
      */
-    public void reserveArea(List<Rectangle2D> reserved) {
-        for (Rectangle2D area : reserved) {
-            Envelope env = toEnvelope(area);
+    static boolean separated(double[] a, double[] b) {
+        for (int e = 0; e < 2; e++) {
+            double axisX = a[e * 2 + 1] - a[e * 2 + 3];
+            double axisY = a[e * 2 + 2] - a[e * 2];
+            double minA = Double.POSITIVE_INFINITY, maxA = Double.NEGATIVE_INFINITY;
+            double minB = Double.POSITIVE_INFINITY, maxB = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < 8; i += 2) {
+                double pa = a[i] * axisX + a[i + 1] * axisY;
+                minA = Math.min(minA, pa);
+                maxA = Math.max(maxA, pa);
+                double pb = b[i] * axisX + b[i + 1] * axisY;
+                minB = Math.min(minB, pb);
+                maxB = Math.max(maxB, pb);
+            }
+            if (maxA < minB || maxB < minA) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAxisAligned(AffineTransform tx) {
+        int type = tx.getType();
+        return (type & AffineTransform.TYPE_GENERAL_ROTATION) == 0
+                && (type & AffineTransform.TYPE_GENERAL_TRANSFORM) == 0;
+    }
+
+    private static Rectangle2D transformBounds(Rectangle2D bounds, AffineTransform tx) {
+        return tx.createTransformedShape(bounds).getBounds2D();
+    }
+
+    /**
+     * Transforms the corners of the bounds, expanded in label space so that the expansion on
+     * screen matches the distance
+     */
+    private static void transformCorners(
+            Rectangle2D bounds, AffineTransform tx, double distance, double[] c) {
+        double expansion = 0;
+        if (distance > 0) {
+            double scale = Math.sqrt(Math.abs(tx.getDeterminant()));
+            expansion = scale > 0 ? distance / scale : distance;
+        }
+        double minX = bounds.getMinX() - expansion;
+        double minY = bounds.getMinY() - expansion;
+        double maxX = bounds.getMaxX() + expansion;
+        double maxY = bounds.getMaxY() + expansion;
+        c[0] = c[6] = minX;
+        c[1] = c[3] = minY;
+        c[2] = c[4] = maxX;
+        c[5] = c[7] = maxY;
+        tx.transform(c, 0, c, 0, 4);
+    }
+
+    private static double minX(double[] c) {
+        return Math.min(Math.min(c[0], c[2]), Math.min(c[4], c[6]));
+    }
+
+    private static double minY(double[] c) {
+        return Math.min(Math.min(c[1], c[3]), Math.min(c[5], c[7]));
+    }
+
+    private static double maxX(double[] c) {
+        return Math.max(Math.max(c[0], c[2]), Math.max(c[4], c[6]));
+    }
+
+    private static double maxY(double[] c) {
+        return Math.max(Math.max(c[1], c[3]), Math.max(c[5], c[7]));
+    }
+
+    private int cell(double ordinate) {
+        double cell = Math.floor(ordinate / cellSize);
+        // keep far away (or infinite) ordinates in the border cells
+        return (int) Math.max(Integer.MIN_VALUE / 2, Math.min(Integer.MAX_VALUE / 2, cell));
+    }
 
-            InterferenceItem item = new InterferenceItem(env, null);
-            index.insert(env, item);
+    private static long key(int col, int row) {
+        return ((long) col << 32) | (row & 0xFFFFFFFFL);
+    }
+
+    /** Returns the slot holding the key, or the empty slot where it should be inserted */
+    private int findCell(long key) {
+        int mask = cellKeys.length - 1;
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (cellItems[slot] != null && cellKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void addToCell(long key, int id) {
+        int slot = findCell(key);
+        if (cellItems[slot] == null) {
+            if ((cellCount + 1) * 2 > cellKeys.length) {
+                rehash();
+                slot = findCell(key);
+            }
+            cellKeys[slot] = key;
+            cellItems[slot] = new int[4];
+            cellCount++;
+        } else if (cellSizes[slot] == cellItems[slot].length) {
+            cellItems[slot] = Arrays.copyOf(cellItems[slot], cellSizes[slot] * 2);
+        }
+        cellItems[slot][cellSizes[slot]++] = id;
+    }
+
+    private void rehash() {
+        long[] oldKeys = cellKeys;
+        int[][] oldItems = cellItems;
+        int[] oldSizes = cellSizes;
+        cellKeys = new long[oldKeys.length * 2];
+        cellItems = new int[oldKeys.length * 2][];
+        cellSizes = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldItems[i] != null) {
+                int slot = findCell(oldKeys[i]);
+                cellKeys[slot] = oldKeys[i];
+                cellItems[slot] = oldItems[i];
+                cellSizes[slot] = oldSizes[i];
+            }
         }
     }
 }
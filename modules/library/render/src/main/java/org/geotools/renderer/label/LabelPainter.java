@@ -81,6 +81,9 @@ public class LabelPainter {
     /** The cached label bounds */
     Rectangle2D labelBounds;
 
+    /** The cached label bounds, including halo and shield */
+    Rectangle2D fullLabelBounds;
+
     /** The class in charge of splitting the labels in multiple lines/scripts/fonts */
     LabelSplitter splitter = new LabelSplitter();
 
@@ -108,6 +111,7 @@ public class LabelPainter {
 
         // reset previous caches
         labelBounds = null;
+        fullLabelBounds = null;
         lines = null;
 
         // layout the label elements
@@ -222,6 +226,14 @@ public class LabelPainter {
      * @return
      */
     public Rectangle2D getFullLabelBounds() {
+        // computed once per label, as they get used for each candidate position
+        if (fullLabelBounds == null) {
+            fullLabelBounds = computeFullLabelBounds();
+        }
+        return (Rectangle2D) fullLabelBounds.clone();
+    }
+
+    private Rectangle2D computeFullLabelBounds() {
         // base bounds (clone them, we're going to alter the bounds directly)
         Rectangle2D bounds = (Rectangle2D) getLabelBounds().clone();
 
@@ -491,7 +503,7 @@ public class LabelPainter {
     private void drawGlyphVector(LineComponent component) {
         LineMetrics metrics = computeLineMetricsIfNeeded(component);
         GlyphVector gv = component.getGlyphVector();
-        java.awt.Shape outline = gv.getOutline();
+        java.awt.Shape outline = component.getOutline();
         if (labelItem.getTextStyle().getHaloFill() != null) {
             configureHalo();
             graphics.draw(outline);
@@ -19,7 +19,6 @@ package org.geotools.renderer.label;
 import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.font.FontRenderContext;
-import java.awt.font.GlyphVector;
 import java.awt.font.LineBreakMeasurer;
 import java.awt.font.TextAttribute;
 import java.awt.font.TextLayout;
@@ -35,6 +34,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 import org.geotools.renderer.label.LineInfo.LineComponent;
+import org.geotools.renderer.style.GlyphLayoutCache;
+import org.geotools.renderer.style.GlyphLayoutCache.GlyphLayout;
 
 /**
  * Helper class splitting a LabelCacheItem text over multiple lines (if necessary due to newlines or
@@ -51,6 +52,9 @@ class LabelSplitter {
     /** Splits a string on spaces between words, keeping the spaces attached to the */
     private static final Pattern WORD_SPLITTER = Pattern.compile("(?<=\\s)(?=\\S)");
 
+    /** Shapes the text, labels repeat a lot across requests */
+    GlyphLayoutCache cache = GlyphLayoutCache.getDefaultInstance();
+
     public List<LineInfo> layout(LabelCacheItem labelItem, Graphics2D graphics) {
         String text = labelItem.getLabel();
         Font[] fonts = labelItem.getTextStyle().getFonts();
@@ -62,7 +66,7 @@ class LabelSplitter {
                         || textLength == fonts[0].canDisplayUpTo(text.toCharArray(), 0, textLength);
         if (!(text.contains("\n") || labelItem.getAutoWrap() > 0) && singleFont) {
             FontRenderContext frc = graphics.getFontRenderContext();
-            TextLayout layout = new TextLayout(text, fonts[0], frc);
+            TextLayout layout = cache.getTextLayout(text, fonts[0], frc);
             LineInfo lineInfo = new LineInfo();
             List<LineComponent> components =
                     buildLineComponents(text, fonts[0], labelItem, graphics, layout);
@@ -84,7 +88,7 @@ class LabelSplitter {
                 for (FontRange range : ranges) {
                     graphics.setFont(range.font);
                     FontRenderContext frc = graphics.getFontRenderContext();
-                    TextLayout layout = new TextLayout(range.text, range.font, frc);
+                    TextLayout layout = cache.getTextLayout(range.text, range.font, frc);
                     List<LineComponent> components =
                             buildLineComponents(
                                     range.text, range.font, labelItem, graphics, layout);
@@ -212,7 +216,7 @@ class LabelSplitter {
                             font.deriveFont(
                                     Collections.singletonMap(TextAttribute.TRACKING, tracking));
                     TextLayout spacerLayout =
-                            new TextLayout(
+                            cache.getTextLayout(
                                     SINGLE_CHAR_STRING,
                                     spacerFont,
                                     graphics.getFontRenderContext());
@@ -283,24 +287,20 @@ class LabelSplitter {
     }
 
     /**
-     * Turns a string into the corresponding {@link GlyphVector}
+     * Turns a string into the corresponding {@link GlyphLayout}
      *
      * @param label
      * @param item
      * @return
      */
-    GlyphVector layoutSentence(String label, LabelCacheItem item, Graphics2D graphics, Font font) {
+    GlyphLayout layoutSentence(String label, LabelCacheItem item, Graphics2D graphics, Font font) {
         final char[] chars = label.toCharArray();
         final int length = label.length();
+        final FontRenderContext frc = graphics.getFontRenderContext();
         if (Bidi.requiresBidi(chars, 0, length)) {
             Bidi bidi = new Bidi(label, Bidi.DIRECTION_DEFAULT_LEFT_TO_RIGHT);
             if (bidi.isRightToLeft()) {
-                return font.layoutGlyphVector(
-                        graphics.getFontRenderContext(),
-                        chars,
-                        0,
-                        length,
-                        Font.LAYOUT_RIGHT_TO_LEFT);
+                return cache.getGlyphLayout(label, font, frc, Font.LAYOUT_RIGHT_TO_LEFT);
             } else if (bidi.isMixed()) {
                 String r = "";
                 for (int i = 0; i < bidi.getRunCount(); i++) {
@@ -310,16 +310,10 @@ class LabelSplitter {
                     }
                     r = r + s1;
                 }
-                char[] chars2 = r.toCharArray();
-                return font.layoutGlyphVector(
-                        graphics.getFontRenderContext(),
-                        chars2,
-                        0,
-                        length,
-                        Font.LAYOUT_RIGHT_TO_LEFT);
+                return cache.getGlyphLayout(r, font, frc, Font.LAYOUT_RIGHT_TO_LEFT);
             }
         }
-        return font.layoutGlyphVector(graphics.getFontRenderContext(), chars, 0, chars.length, 0);
+        return cache.getGlyphLayout(label, font, frc, 0);
     }
 
     List<FontRange> buildFontRanges(String text, Font[] fonts) {
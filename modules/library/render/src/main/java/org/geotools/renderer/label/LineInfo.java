@@ -17,6 +17,7 @@
 
 package org.geotools.renderer.label;
 
+import java.awt.Shape;
 import java.awt.font.FontRenderContext;
 import java.awt.font.GlyphVector;
 import java.awt.font.LineMetrics;
@@ -24,6 +25,7 @@ import java.awt.font.TextLayout;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.List;
+import org.geotools.renderer.style.GlyphLayoutCache.GlyphLayout;
 
 /** Core information needed to draw out a line of text */
 class LineInfo {
@@ -42,25 +44,28 @@ class LineInfo {
         // the text to be drawn
         private String text;
 
-        // the text represented as a glyph vector
-        private GlyphVector gv;
+        // the text represented as a glyph vector, shared with other labels
+        private GlyphLayout glyphs;
 
         // the text layout
         private TextLayout layout;
 
-        Rectangle2D visualBounds;
-
-        LineComponent(String text, GlyphVector gv, TextLayout layout) {
+        LineComponent(String text, GlyphLayout glyphs, TextLayout layout) {
             this.text = text;
-            this.gv = gv;
+            this.glyphs = glyphs;
             this.layout = layout;
         }
 
         Rectangle2D getVisualBounds() {
-            if (visualBounds == null) {
-                visualBounds = gv.getVisualBounds();
-            }
-            return visualBounds;
+            return glyphs.getVisualBounds();
+        }
+
+        Rectangle2D getLogicalBounds() {
+            return glyphs.getLogicalBounds();
+        }
+
+        Shape getOutline() {
+            return glyphs.getOutline();
         }
 
         double getX() {
@@ -76,7 +81,7 @@ class LineInfo {
         }
 
         GlyphVector getGlyphVector() {
-            return gv;
+            return glyphs.getGlyphVector();
         }
 
         TextLayout getLayout() {
@@ -89,7 +94,7 @@ class LineInfo {
          * context is provided.
          */
         LineMetrics computeLineMetrics(FontRenderContext fontRenderContext) {
-            return gv.getFont().getLineMetrics(text, fontRenderContext);
+            return glyphs.getGlyphVector().getFont().getLineMetrics(text, fontRenderContext);
         }
     }
 
@@ -116,7 +121,7 @@ class LineInfo {
     double getWidth() {
         double width = 0;
         for (LineComponent lineComponent : components) {
-            width += lineComponent.getGlyphVector().getLogicalBounds().getWidth();
+            width += lineComponent.getLogicalBounds().getWidth();
         }
         return width;
     }
@@ -124,8 +129,8 @@ class LineInfo {
     Rectangle2D getBounds() {
         Rectangle2D vb = null;
         for (LineComponent lineComponent : components) {
-            Rectangle2D componentVisualBounds = lineComponent.getGlyphVector().getVisualBounds();
-            Rectangle2D componentLogicalBounds = lineComponent.getGlyphVector().getLogicalBounds();
+            Rectangle2D componentVisualBounds = lineComponent.getVisualBounds();
+            Rectangle2D componentLogicalBounds = lineComponent.getLogicalBounds();
             // the logical bounds include the spaces, we want them in the horizontal direction
             // in order to compose the element in the row, but we need the visual bounds for
             // vertical alignment
@@ -156,7 +161,7 @@ class LineInfo {
         for (LineComponent component : components) {
             component.setX(x);
             // use the logical bounds to have spaces taken into account
-            x += component.getGlyphVector().getLogicalBounds().getWidth();
+            x += component.getLogicalBounds().getWidth();
         }
     }
 
@@ -179,7 +184,7 @@ class LineInfo {
         double height = Float.NEGATIVE_INFINITY;
         for (LineComponent component : components) {
             double ch =
-                    component.getGlyphVector().getVisualBounds().getHeight()
+                    component.getVisualBounds().getHeight()
                             - component.getLayout().getDescent();
             if (ch > height) {
                 height = ch;
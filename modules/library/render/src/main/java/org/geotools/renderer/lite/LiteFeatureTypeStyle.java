@@ -19,10 +19,15 @@ package org.geotools.renderer.lite;
 import java.awt.Composite;
 import java.awt.Graphics2D;
 import java.util.List;
+import org.geotools.filter.FilterCompiler;
 import org.geotools.map.Layer;
 import org.geotools.renderer.ScreenMap;
 import org.geotools.renderer.crs.ProjectionHandler;
+import org.geotools.styling.FeatureTypeStyle;
 import org.geotools.styling.Rule;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.Filter;
 import org.opengis.filter.expression.Expression;
 import org.opengis.filter.sort.SortBy;
 
@@ -66,6 +71,12 @@ final class LiteFeatureTypeStyle {
 
     public SortBy[] sortBy;
 
+    /** The feature type style this one has been built from */
+    FeatureTypeStyle source;
+
+    /** The metrics collected for this style, if metrics are being collected */
+    RenderingMetrics.StyleMetrics metrics;
+
     /** When true, the first matching rule will be applied, skipping the others */
     boolean matchFirst = false;
 
@@ -87,6 +98,9 @@ final class LiteFeatureTypeStyle {
     /** The meta buffer for the current layer */
     int metaBuffer;
 
+    /** The rule filters compiled for the last feature type seen, see {@link #getRuleFilters} */
+    private CompiledRules compiledRules;
+
     /**
      * use this for only the 1st FTS. We don't actually create an image for it -- we just use the
      * graphics. WATCH OUT FOR THIS. NOTE: image=null in this case
@@ -108,4 +122,40 @@ final class LiteFeatureTypeStyle {
         this.elseRules = (Rule[]) elseRuleList.toArray(new Rule[elseRuleList.size()]);
         this.transformation = transformation;
     }
+
+    /**
+     * Returns the filters of the {@link #ruleList} compiled for the type of the given feature, or
+     * null if the feature is not a simple feature, in which case the rule filters should be used
+     * as is. A null entry in the array means the rule has no filter.
+     */
+    Filter[] getRuleFilters(Object feature) {
+        if (!(feature instanceof SimpleFeature)) {
+            return null;
+        }
+        SimpleFeatureType type = ((SimpleFeature) feature).getFeatureType();
+        CompiledRules compiled = compiledRules;
+        if (compiled == null
+                || compiled.filters.length != ruleList.length
+                || (compiled.featureType != type && !compiled.featureType.equals(type))) {
+            Filter[] filters = new Filter[ruleList.length];
+            for (int i = 0; i < filters.length; i++) {
+                filters[i] = FilterCompiler.compile(ruleList[i].getFilter(), type);
+            }
+            compiled = new CompiledRules(type, filters);
+            compiledRules = compiled;
+        }
+        return compiled.filters;
+    }
+
+    /** Rule filters compiled against a feature type */
+    static final class CompiledRules {
+        final SimpleFeatureType featureType;
+
+        final Filter[] filters;
+
+        CompiledRules(SimpleFeatureType featureType, Filter[] filters) {
+            this.featureType = featureType;
+            this.filters = filters;
+        }
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.lite;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.geotools.geometry.jts.LiteShape2;
+import org.geotools.styling.TextSymbolizer;
+import org.geotools.util.NumberRange;
+import org.opengis.feature.Feature;
+
+/**
+ * A {@link LabelCache} that just records the labels and the reserved areas it receives, so that a
+ * layer rendered on its own can later hand them over to the label cache of the main rendering, in
+ * layer order.
+ */
+class RecordingLabelCache implements LabelCache {
+
+    /** A recorded label */
+    static class Label {
+        final TextSymbolizer symbolizer;
+
+        final Feature feature;
+
+        final LiteShape2 shape;
+
+        final NumberRange<Double> scaleRange;
+
+        Label(
+                TextSymbolizer symbolizer,
+                Feature feature,
+                LiteShape2 shape,
+                NumberRange<Double> scaleRange) {
+            this.symbolizer = symbolizer;
+            this.feature = feature;
+            this.shape = shape;
+            this.scaleRange = scaleRange;
+        }
+    }
+
+    final List<Label> labels = new ArrayList<>();
+
+    final List<Rectangle2D> reserved = new ArrayList<>();
+
+    /**
+     * Puts the recorded reserved areas and labels in the target cache, the labels under the given
+     * layer id
+     */
+    synchronized void replay(LabelCache target, String layerId) {
+        for (Rectangle2D area : reserved) {
+            target.put(area);
+        }
+        for (Label label : labels) {
+            target.put(layerId, label.symbolizer, label.feature, label.shape, label.scaleRange);
+        }
+    }
+
+    public void start() {
+        // nothing to do
+    }
+
+    public void startLayer(String layerId) {
+        // nothing to do
+    }
+
+    public synchronized void put(
+            String layerId,
+            TextSymbolizer symbolizer,
+            Feature feature,
+            LiteShape2 shape,
+            NumberRange<Double> scaleRange) {
+        labels.add(new Label(symbolizer, feature, shape, scaleRange));
+    }
+
+    public synchronized void put(Rectangle2D area) {
+        reserved.add(area);
+    }
+
+    public void endLayer(String layerId, Graphics2D graphics, Rectangle displayArea) {
+        // nothing to do, labels are drawn by the target cache
+    }
+
+    public void end(Graphics2D graphics, Rectangle displayArea) {
+        // nothing to do, labels are drawn by the target cache
+    }
+
+    public void stop() {
+        // nothing to do
+    }
+
+    public synchronized void clear() {
+        labels.clear();
+        reserved.clear();
+    }
+
+    public void clear(String layerId) {
+        // a single layer is recorded
+        clear();
+    }
+
+    public void disableLayer(String layerId) {
+        // nothing to do
+    }
+
+    public void enableLayer(String layerId) {
+        // nothing to do
+    }
+
+    public List orderedLabels() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.lite;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.geotools.map.Layer;
+import org.geotools.styling.FeatureTypeStyle;
+
+/**
+ * Breakdown of the time spent by a {@link StreamingRenderer} paint call, per layer and per
+ * feature type style, along with the number of features read and painted. All times are in
+ * nanoseconds.
+ *
+ * <p>The data query and feature decoding are shared by all the feature type styles of a layer, so
+ * they are reported at the layer level, while geometry preparation, painting and labelling are
+ * reported for each feature type style. Label placement happens once at the end of the paint call,
+ * for all layers at once, and is reported at the top level. Layers in a z-group are not reported.
+ *
+ * @since 20
+ */
+public class RenderingMetrics {
+
+    /** The rendering phases time is accounted for */
+    public enum Phase {
+        /** Running the query, up to the opening of the feature iterator */
+        QUERY,
+        /** Iterating over the features, including on the fly reprojection of the collection */
+        DECODE,
+        /** Geometry preparation: reprojection, generalization, clipping and offsetting */
+        TRANSFORM,
+        /** Symbolizer painting, including the creation of the painting styles */
+        PAINT,
+        /** Label collection, and the final label placement for the top level metrics */
+        LABEL
+    }
+
+    final List<LayerMetrics> layers = new ArrayList<>();
+
+    long labelPlacementNanos;
+
+    long totalNanos;
+
+    LayerMetrics addLayer(Layer layer, String layerId) {
+        LayerMetrics metrics = new LayerMetrics(layer, layerId);
+        layers.add(metrics);
+        return metrics;
+    }
+
+    /**
+     * Adds the layers of a rendering performed on another thread under the given layer id. The
+     * phases of such layers overlap in time with the ones of the other layers.
+     */
+    void addLayers(RenderingMetrics other, String layerId) {
+        for (LayerMetrics source : other.layers) {
+            LayerMetrics target = addLayer(source.layer, layerId);
+            target.queryNanos = source.queryNanos;
+            target.decodeNanos = source.decodeNanos;
+            target.featuresRead = source.featuresRead;
+            target.styles.addAll(source.styles);
+        }
+    }
+
+    /** The metrics of the rendered layers, in painting order */
+    public List<LayerMetrics> getLayers() {
+        return Collections.unmodifiableList(layers);
+    }
+
+    /** The time spent placing and drawing the labels collected from all layers */
+    public long getLabelPlacementNanos() {
+        return labelPlacementNanos;
+    }
+
+    /** The wall clock time of the whole paint call */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /** The time spent in the given phase, summed over all layers */
+    public long getNanos(Phase phase) {
+        long nanos = phase == Phase.LABEL ? labelPlacementNanos : 0;
+        for (LayerMetrics layer : layers) {
+            nanos += layer.getNanos(phase);
+        }
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Rendering metrics, total ");
+        sb.append(millis(totalNanos)).append("ms");
+        sb.append(", label placement ").append(millis(labelPlacementNanos)).append("ms");
+        for (LayerMetrics layer : layers) {
+            sb.append("\n  ").append(layer);
+            for (StyleMetrics style : layer.styles) {
+                sb.append("\n    ").append(style);
+            }
+        }
+        return sb.toString();
+    }
+
+    static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /** Metrics about a single layer */
+    public static class LayerMetrics {
+
+        final Layer layer;
+
+        final String layerId;
+
+        final List<StyleMetrics> styles = new ArrayList<>();
+
+        long queryNanos;
+
+        long decodeNanos;
+
+        long featuresRead;
+
+        LayerMetrics(Layer layer, String layerId) {
+            this.layer = layer;
+            this.layerId = layerId;
+        }
+
+        StyleMetrics addStyle(FeatureTypeStyle style) {
+            StyleMetrics metrics = new StyleMetrics(style);
+            styles.add(metrics);
+            return metrics;
+        }
+
+        /** The layer */
+        public Layer getLayer() {
+            return layer;
+        }
+
+        /** The layer identifier, as used in the label cache */
+        public String getLayerId() {
+            return layerId;
+        }
+
+        /** The metrics of each feature type style active for the layer */
+        public List<StyleMetrics> getStyles() {
+            return Collections.unmodifiableList(styles);
+        }
+
+        /**
+         * Number of features read from the layer. Without optimized feature type style rendering
+         * the features are read once per feature type style.
+         */
+        public long getFeaturesRead() {
+            return featuresRead;
+        }
+
+        /** Number of features painted by at least one feature type style */
+        public long getFeaturesPainted() {
+            long painted = 0;
+            for (StyleMetrics style : styles) {
+                painted = Math.max(painted, style.featuresPainted);
+            }
+            return painted;
+        }
+
+        /** The time spent in the given phase for this layer */
+        public long getNanos(Phase phase) {
+            switch (phase) {
+                case QUERY:
+                    return queryNanos;
+                case DECODE:
+                    return decodeNanos;
+                default:
+                    long nanos = 0;
+                    for (StyleMetrics style : styles) {
+                        nanos += style.getNanos(phase);
+                    }
+                    return nanos;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Layer "
+                    + (layer.getTitle() != null ? layer.getTitle() : layerId)
+                    + ": read "
+                    + featuresRead
+                    + ", query "
+                    + millis(queryNanos)
+                    + "ms, decode "
+                    + millis(decodeNanos)
+                    + "ms";
+        }
+    }
+
+    /** Metrics about a single feature type style of a layer */
+    public static class StyleMetrics {
+
+        final FeatureTypeStyle style;
+
+        long transformNanos;
+
+        /** Painting time spent on the data loading thread, creating the styles */
+        long styleNanos;
+
+        /** Painting time spent on the painter thread */
+        long paintNanos;
+
+        long labelNanos;
+
+        long featuresPainted;
+
+        StyleMetrics(FeatureTypeStyle style) {
+            this.style = style;
+        }
+
+        /** The feature type style */
+        public FeatureTypeStyle getStyle() {
+            return style;
+        }
+
+        /** Number of features painted by this style, that is, not filtered or clipped out */
+        public long getFeaturesPainted() {
+            return featuresPainted;
+        }
+
+        /** The time spent in the given phase for this style, zero for query and decode */
+        public long getNanos(Phase phase) {
+            switch (phase) {
+                case TRANSFORM:
+                    return transformNanos;
+                case PAINT:
+                    return styleNanos + paintNanos;
+                case LABEL:
+                    return labelNanos;
+                default:
+                    return 0;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Style "
+                    + (style != null && style.getName() != null ? style.getName() : "")
+                    + ": painted "
+                    + featuresPainted
+                    + ", transform "
+                    + millis(transformNanos)
+                    + "ms, paint "
+                    + millis(styleNanos + paintNanos)
+                    + "ms, label "
+                    + millis(labelNanos)
+                    + "ms";
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.lite;
+
+/**
+ * Receives the {@link RenderingMetrics} collected by the {@link StreamingRenderer} while painting
+ * a map, see {@link StreamingRenderer#addMetricsListener(RenderingMetricsListener)}. Collecting
+ * metrics has a small cost, so it happens only if at least one listener is registered.
+ *
+ * @since 20
+ */
+public interface RenderingMetricsListener {
+
+    /**
+     * Reports the metrics of a completed paint call. Not called if the rendering got stopped.
+     *
+     * @param metrics The metrics of the paint call
+     */
+    public void renderingCompleted(RenderingMetrics metrics);
+}
@@ -44,6 +44,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -51,10 +52,13 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -90,6 +94,7 @@ import org.geotools.geometry.jts.LiteCoordinateSequenceFactory;
 import org.geotools.geometry.jts.LiteShape2;
 import org.geotools.geometry.jts.OffsetCurveBuilder;
 import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.geometry.jts.ScreenSimplifier;
 import org.geotools.map.DirectLayer;
 import org.geotools.map.Layer;
 import org.geotools.map.MapContent;
@@ -112,6 +117,7 @@ import org.geotools.renderer.label.LabelCacheImpl.LabelRenderingMode;
 import org.geotools.renderer.lite.gridcoverage2d.GridCoverageReaderHelper;
 import org.geotools.renderer.lite.gridcoverage2d.GridCoverageRenderer;
 import org.geotools.renderer.style.LineStyle2D;
+import org.geotools.renderer.style.RasterSymbolCache;
 import org.geotools.renderer.style.SLDStyleFactory;
 import org.geotools.renderer.style.Style2D;
 import org.geotools.resources.coverage.FeatureUtilities;
@@ -121,6 +127,7 @@ import org.geotools.styling.PointSymbolizer;
 import org.geotools.styling.RasterSymbolizer;
 import org.geotools.styling.Rule;
 import org.geotools.styling.RuleImpl;
+import org.geotools.styling.Style;
 import org.geotools.styling.StyleAttributeExtractor;
 import org.geotools.styling.Symbolizer;
 import org.geotools.styling.TextSymbolizer;
@@ -279,6 +286,12 @@ public class StreamingRenderer implements GTRenderer {
 
     private List<RenderListener> renderListeners = new CopyOnWriteArrayList<RenderListener>();
 
+    private List<RenderingMetricsListener> metricsListeners =
+            new CopyOnWriteArrayList<RenderingMetricsListener>();
+
+    /** The metrics of the current paint call, null if there are no metrics listeners */
+    private RenderingMetrics metrics;
+
     private RenderingHints java2dHints;
 
     private int renderingBufferDEFAULT = 0;
@@ -359,6 +372,30 @@ public class StreamingRenderer implements GTRenderer {
 
     private static boolean VECTOR_RENDERING_ENABLED_DEFAULT = false;
 
+    /**
+     * Boolean flag enabling a screen space simplification of the geometries before painting them:
+     * once transformed to pixels, coordinates are snapped to the pixel grid, duplicate and
+     * collinear points are removed, and geometries smaller than a pixel are collapsed to a single
+     * pixel (see {@link #SUBPIXEL_CULLING_KEY}). Disabled by default, as snapping slightly alters
+     * the antialiased output.
+     */
+    public static final String SCREEN_SIMPLIFICATION_KEY = "screenSimplification";
+
+    /**
+     * Boolean flag, when screen space simplification is enabled, geometries smaller than a pixel
+     * are not painted at all, instead of being painted as a single pixel. Disabled by default.
+     */
+    public static final String SUBPIXEL_CULLING_KEY = "subPixelCulling";
+
+    /**
+     * Enables painting marks and icons by copying pre-rasterized images of them, instead of
+     * painting their vector shapes at each point. The value can be {@link Boolean#TRUE}, to use
+     * the {@link RasterSymbolCache#getDefaultInstance() shared cache}, or a {@link
+     * RasterSymbolCache} instance. Disabled by default, as symbols end up placed with a sub-pixel
+     * approximation.
+     */
+    public static final String SYMBOL_CACHE_KEY = "symbolCache";
+
     public static final String LABEL_CACHE_KEY = "labelCache";
     public static final String FORCE_EPSG_AXIS_ORDER_KEY = "ForceEPSGAxisOrder";
     public static final String DPI_KEY = "dpi";
@@ -397,6 +434,18 @@ public class StreamingRenderer implements GTRenderer {
 
     private PainterThread painterThread;
 
+    /** The thread pool used to render whole layers in parallel, if any */
+    private ExecutorService layerThreadPool;
+
+    /** The layers being rendered in parallel for the current compositing group */
+    private volatile ParallelLayers parallelLayers;
+
+    /** The parallel rendering this renderer paints a layer for, if any */
+    private ParallelLayers parentLayers;
+
+    /** The screen space simplifier, if enabled via {@link #SCREEN_SIMPLIFICATION_KEY} */
+    private ScreenSimplifier screenSimplifier;
+
     /**
      * Creates a new instance of LiteRenderer without a context. Use it only to gain access to
      * utility methods of this class or if you want to render random feature collections instead of
@@ -413,6 +462,31 @@ public class StreamingRenderer implements GTRenderer {
         this.threadPool = threadPool;
     }
 
+    /**
+     * Sets a thread pool used to render layers in parallel. When set, each layer that can be drawn
+     * independently is queried, transformed and painted on its own image by a task running in the
+     * pool, while the images and the labels are still composited in layer order, so the output
+     * matches the sequential rendering. Layers that cannot be drawn independently (direct layers,
+     * z-ordered groups, layers using composites), and all layers when concatenating transforms or
+     * painting on a transformed graphics, are rendered sequentially as usual.
+     *
+     * <p>The pool must not be the same used by {@link #setThreadPool(ExecutorService)}, as the
+     * layer tasks need their own painter threads. Render listeners will be called from the pool
+     * threads too.
+     *
+     * <p>Each layer rendered in parallel paints on its own full size {@code TYPE_INT_ARGB_PRE}
+     * image, 4 bytes per pixel, kept until it is composited. The number of layers scheduled at
+     * any time matches the pool size (its maximum size for a {@link ThreadPoolExecutor}), capped
+     * by the number of processors, so a paint call can hold that many images at once, e.g., 64MB
+     * each for a 4096x4096 map. Size the pool accordingly.
+     *
+     * @param layerThreadPool the pool, or null to render layers sequentially
+     * @since 20
+     */
+    public void setLayerThreadPool(ExecutorService layerThreadPool) {
+        this.layerThreadPool = layerThreadPool;
+    }
+
     /**
      * Sets the flag which controls behaviour for applying affine transformation to the graphics
      * object.
@@ -457,6 +531,27 @@ public class StreamingRenderer implements GTRenderer {
         renderListeners.remove(listener);
     }
 
+    /**
+     * Adds a listener receiving, at the end of each paint call, metrics about where the rendering
+     * time went. Metrics are collected only while there is at least one such listener.
+     *
+     * @see RenderingMetricsListener
+     * @param listener the listener to add.
+     */
+    public void addMetricsListener(RenderingMetricsListener listener) {
+        metricsListeners.add(listener);
+    }
+
+    /**
+     * Removes a metrics listener.
+     *
+     * @see RenderingMetricsListener
+     * @param listener the listener to remove.
+     */
+    public void removeMetricsListener(RenderingMetricsListener listener) {
+        metricsListeners.remove(listener);
+    }
+
     private void fireFeatureRenderedEvent(Object feature) {
         if (!(feature instanceof SimpleFeature)) {
             if (feature instanceof Feature) {
@@ -496,18 +591,28 @@ public class StreamingRenderer implements GTRenderer {
      */
     public void stopRendering() {
         renderingStopRequested = true;
-        // un-block the queue in case it was filled with requests and the main
-        // thread got blocked on it
-        requests.clear();
-        // wake up the painter and put a death pill in the queue
-        painterThread.interrupt();
-        try {
-            requests.put(new EndRequest());
-        } catch (InterruptedException e) {
-            throw new RuntimeException(
-                    "Interrupted while trying to put the end "
-                            + "request in the requests queue, this should never happen",
-                    e);
+        // the rendering might not have got to the painter thread setup yet
+        BlockingQueue<RenderingRequest> requests = this.requests;
+        PainterThread painterThread = this.painterThread;
+        if (requests != null && painterThread != null) {
+            // un-block the queue in case it was filled with requests and the main
+            // thread got blocked on it
+            requests.clear();
+            // wake up the painter and put a death pill in the queue
+            painterThread.interrupt();
+            try {
+                requests.put(new EndRequest());
+            } catch (InterruptedException e) {
+                throw new RuntimeException(
+                        "Interrupted while trying to put the end "
+                                + "request in the requests queue, this should never happen",
+                        e);
+            }
+        }
+
+        ParallelLayers parallel = parallelLayers;
+        if (parallel != null) {
+            parallel.cancel();
         }
 
         labelCache.stop();
@@ -725,6 +830,8 @@ public class StreamingRenderer implements GTRenderer {
         // multithreaded environment. I will fix this at the end.
         //
         // ////////////////////////////////////////////////////////////////////
+        final long paintStart = System.nanoTime();
+        metrics = metricsListeners.isEmpty() ? null : new RenderingMetrics();
         destinationCrs = mapArea.getCoordinateReferenceSystem();
         mapExtent = new ReferencedEnvelope(mapArea);
         this.screenSize = paintArea;
@@ -737,8 +844,8 @@ public class StreamingRenderer implements GTRenderer {
                         worldToScreenTransform.getTranslateX(),
                         worldToScreenTransform.getTranslateY());
         graphics.setRenderingHint(StyledShapePainter.TEXTURE_ANCHOR_HINT_KEY, textureAnchor);
-        // reset the abort flag
-        renderingStopRequested = false;
+        // reset the abort flag, unless the parallel rendering this layer belongs to got stopped
+        renderingStopRequested = parentLayers != null && parentLayers.cancelled;
 
         // setup the graphic clip
         graphics.setClip(paintArea);
@@ -803,6 +910,11 @@ public class StreamingRenderer implements GTRenderer {
                     CompositingGroup.splitOnCompositingBase(
                             graphics, paintArea, zGroupedMapContent);
 
+            boolean parallel =
+                    layerThreadPool != null
+                            && !concatTransforms
+                            && graphics.getTransform().isIdentity()
+                            && !paintArea.isEmpty();
             int layerCounter = 0;
             for (CompositingGroup compositingGroup : compositingGroups) {
                 MapContent currentMapContent = compositingGroup.mapContent;
@@ -821,7 +933,12 @@ public class StreamingRenderer implements GTRenderer {
                                     LabelRenderingMode.valueOf(getTextRenderingMethod()));
                 }
 
-                for (Layer layer : currentMapContent.layers()) {
+                List<Layer> layers = currentMapContent.layers();
+                if (parallel) {
+                    parallelLayers = new ParallelLayers(layers, graphics.getRenderingHints());
+                }
+                for (int i = 0; i < layers.size(); i++) {
+                    Layer layer = layers.get(i);
                     layerCounter++;
                     String layerId = String.valueOf(layerCounter);
                     if (!layer.isVisible()) {
@@ -834,7 +951,11 @@ public class StreamingRenderer implements GTRenderer {
                     }
 
                     labelCache.startLayer(layerId);
-                    if (layer instanceof DirectLayer) {
+                    Future<LayerRendering> rendering =
+                            parallelLayers != null ? parallelLayers.take(i) : null;
+                    if (rendering != null) {
+                        compositeLayer(compositingGraphic, layerId, rendering);
+                    } else if (layer instanceof DirectLayer) {
                         RenderingRequest request =
                                 new RenderDirectLayerRequest(
                                         compositingGraphic, (DirectLayer) layer);
@@ -875,6 +996,10 @@ public class StreamingRenderer implements GTRenderer {
                 }
             }
         } finally {
+            if (parallelLayers != null) {
+                parallelLayers.cancel();
+                parallelLayers = null;
+            }
             try {
                 // clean up generated map contents (in finally block to ensure it's done regardless
                 // of how we got here
@@ -904,10 +1029,19 @@ public class StreamingRenderer implements GTRenderer {
         }
 
         if (!renderingStopRequested) {
+            long labelStart = metrics != null ? System.nanoTime() : 0;
             labelCache.end(graphics, paintArea);
+            if (metrics != null) {
+                metrics.labelPlacementNanos = System.nanoTime() - labelStart;
+                metrics.totalNanos = System.nanoTime() - paintStart;
+                for (RenderingMetricsListener listener : metricsListeners) {
+                    listener.renderingCompleted(metrics);
+                }
+            }
         } else {
             labelCache.clear();
         }
+        metrics = null;
 
         if (LOGGER.isLoggable(Level.FINE))
             LOGGER.fine(
@@ -1803,6 +1937,7 @@ public class StreamingRenderer implements GTRenderer {
                                     fts.getTransformation());
                 }
                 lfts.composite = composite;
+                lfts.source = fts;
                 if (FeatureTypeStyle.VALUE_EVALUATION_MODE_FIRST.equals(
                         fts.getOptions().get(FeatureTypeStyle.KEY_EVALUATION_MODE))) {
                     lfts.matchFirst = true;
@@ -1945,6 +2080,101 @@ public class StreamingRenderer implements GTRenderer {
         return maxBuffers * width * height * 4;
     }
 
+    /**
+     * Returns true if the layer can be painted on its own image and composited later, that is, if
+     * it's a plain style layer whose feature type styles do not blend with the layers below
+     */
+    private boolean isParallelizable(Layer layer) {
+        if (!layer.isVisible() || !(layer instanceof StyleLayer) || layer instanceof DirectLayer) {
+            return false;
+        }
+        Style style = layer.getStyle();
+        if (style == null) {
+            return false;
+        }
+        try {
+            for (FeatureTypeStyle fts : style.featureTypeStyles()) {
+                if (styleFactory.getComposite(fts.getOptions()) != null) {
+                    return false;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // invalid composite, let the sequential rendering report it
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Paints a single layer on a new image, using a renderer configured like this one, and
+     * recording the labels instead of drawing them. Called by the layer thread pool.
+     */
+    private LayerRendering renderLayer(
+            StreamingRenderer renderer, Layer layer, RenderingHints hints, boolean collectMetrics) {
+        BufferedImage image =
+                new BufferedImage(
+                        screenSize.width, screenSize.height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHints(hints);
+        graphics.translate(-screenSize.x, -screenSize.y);
+
+        RecordingLabelCache labels = new RecordingLabelCache();
+        LayerRendering result = new LayerRendering(image, labels);
+        Map layerHints = rendererHints != null ? new HashMap(rendererHints) : new HashMap();
+        layerHints.put(LABEL_CACHE_KEY, labels);
+        renderer.setRendererHints(layerHints);
+        renderer.setJava2DHints(java2dHints);
+        renderer.setGeneralizationDistance(generalizationDistance);
+        renderer.setInteractive(interactive);
+        for (RenderListener listener : renderListeners) {
+            renderer.addRenderListener(listener);
+        }
+        if (collectMetrics) {
+            renderer.addMetricsListener(m -> result.metrics = m);
+        }
+
+        // the layer is removed before disposing, it still belongs to the caller map content
+        MapContent content = new MapContent();
+        content.addLayer(layer);
+        try {
+            renderer.setMapContent(content);
+            renderer.paint(graphics, screenSize, originalMapExtent, worldToScreenTransform);
+        } finally {
+            content.removeLayer(layer);
+            content.dispose();
+            graphics.dispose();
+        }
+        return result;
+    }
+
+    /**
+     * Waits for a layer rendered in parallel, hands its labels to the label cache and schedules the
+     * painting of its image
+     */
+    private void compositeLayer(
+            Graphics2D graphics, String layerId, Future<LayerRendering> future) {
+        LayerRendering rendering;
+        try {
+            rendering = future.get();
+        } catch (ExecutionException e) {
+            fireErrorEvent(e.getCause());
+            return;
+        } catch (InterruptedException | CancellationException e) {
+            fireErrorEvent(e);
+            return;
+        }
+
+        rendering.labels.replay(labelCache, layerId);
+        if (metrics != null && rendering.metrics != null) {
+            metrics.addLayers(rendering.metrics, layerId);
+        }
+        try {
+            requests.put(new PaintLayerImageRequest(graphics, rendering.image));
+        } catch (InterruptedException e) {
+            fireErrorEvent(e);
+        }
+    }
+
     /**
      * Applies all the styles to the features/coverages contained in the given layer.
      *
@@ -1977,22 +2207,34 @@ public class StreamingRenderer implements GTRenderer {
             }
         }
 
+        RenderingMetrics.LayerMetrics layerMetrics = null;
+        if (metrics != null) {
+            layerMetrics = metrics.addLayer(layer, layerId);
+            for (LiteFeatureTypeStyle style : lfts) {
+                style.metrics = layerMetrics.addStyle(style.source);
+            }
+        }
+
         // classify by sortby and transformation (aka how we produce the features to
         // be rendered)
         List<List<LiteFeatureTypeStyle>> txClassified = classifyByFeatureProduction(lfts);
 
         // render groups by uniform transformation
         for (List<LiteFeatureTypeStyle> uniform : txClassified) {
+            long start = layerMetrics != null ? System.nanoTime() : 0;
             FeatureCollection features = getFeatures(layer, schema, uniform);
+            if (layerMetrics != null) {
+                layerMetrics.queryNanos += System.nanoTime() - start;
+            }
             if (features == null) {
                 continue;
             }
 
             // finally, perform rendering
             if (isOptimizedFTSRenderingEnabled() && lfts.size() > 1) {
-                drawOptimized(graphics, layerId, features, uniform);
+                drawOptimized(graphics, layerId, features, uniform, layerMetrics);
             } else {
-                drawPlain(graphics, layerId, features, uniform);
+                drawPlain(graphics, layerId, features, uniform, layerMetrics);
             }
         }
     }
@@ -2400,12 +2642,17 @@ public class StreamingRenderer implements GTRenderer {
             final Graphics2D graphics,
             String layerId,
             FeatureCollection<?, ?> features,
-            final List<LiteFeatureTypeStyle> lfts) {
+            final List<LiteFeatureTypeStyle> lfts,
+            RenderingMetrics.LayerMetrics metrics) {
 
         // for each lite feature type style, scan the whole collection and draw
         for (LiteFeatureTypeStyle liteFeatureTypeStyle : lfts) {
+            long start = metrics != null ? System.nanoTime() : 0;
             try (FeatureIterator<?> featureIterator =
                     ((FeatureCollection<?, ?>) features).features()) {
+                if (metrics != null) {
+                    metrics.queryNanos += System.nanoTime() - start;
+                }
                 if (featureIterator == null) {
                     return; // nothing to do
                 }
@@ -2418,8 +2665,7 @@ public class StreamingRenderer implements GTRenderer {
                 // one is there to make sure a single feature error does not ruin the rendering
                 // (best effort) whilst an exception in hasNext() + ignoring catch results in
                 // an infinite loop
-                while (featureIterator.hasNext() && !renderingStopRequested) {
-                    rf.setFeature(featureIterator.next());
+                while (nextFeature(featureIterator, rf, metrics)) {
                     processFeature(rf, liteFeatureTypeStyle);
                 }
             }
@@ -2457,9 +2703,14 @@ public class StreamingRenderer implements GTRenderer {
             final Graphics2D graphics,
             String layerId,
             FeatureCollection features,
-            final List<LiteFeatureTypeStyle> lfts) {
+            final List<LiteFeatureTypeStyle> lfts,
+            RenderingMetrics.LayerMetrics metrics) {
 
+        long start = metrics != null ? System.nanoTime() : 0;
         try (FeatureIterator<?> iterator = features.features()) {
+            if (metrics != null) {
+                metrics.queryNanos += System.nanoTime() - start;
+            }
             if (iterator == null) return; // nothing to do
 
             boolean cloningRequired = isCloningRequired(lfts);
@@ -2469,8 +2720,7 @@ public class StreamingRenderer implements GTRenderer {
             // one is there to make sure a single feature error does not ruin the rendering
             // (best effort) whilst an exception in hasNext() + ignoring catch results in
             // an infinite loop
-            while (iterator.hasNext() && !renderingStopRequested) {
-                rf.setFeature(iterator.next());
+            while (nextFeature(iterator, rf, metrics)) {
                 // draw the feature on the main graphics and on the eventual extra image buffers
                 for (LiteFeatureTypeStyle liteFeatureTypeStyle : lfts) {
                     processFeature(rf, liteFeatureTypeStyle);
@@ -2483,6 +2733,34 @@ public class StreamingRenderer implements GTRenderer {
         }
     }
 
+    /**
+     * Moves the renderable feature to the next feature, unless the iterator is exhausted or the
+     * rendering got stopped, accounting for the decoding time in the metrics, if not null
+     */
+    private boolean nextFeature(
+            FeatureIterator<?> iterator,
+            RenderableFeature rf,
+            RenderingMetrics.LayerMetrics metrics) {
+        if (metrics == null) {
+            if (!iterator.hasNext() || renderingStopRequested) {
+                return false;
+            }
+            rf.setFeature(iterator.next());
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            if (!iterator.hasNext() || renderingStopRequested) {
+                return false;
+            }
+            rf.setFeature(iterator.next());
+            metrics.featuresRead++;
+            return true;
+        } finally {
+            metrics.decodeNanos += System.nanoTime() - start;
+        }
+    }
+
     /** Tells if geometry cloning is required or not */
     private boolean isCloningRequired(List<LiteFeatureTypeStyle> lfts) {
         // check if the features are detached, we can thus modify the geometries in place
@@ -2580,15 +2858,18 @@ public class StreamingRenderer implements GTRenderer {
             Filter filter;
             Graphics2D graphics = fts.graphics;
             // applicable rules
+            // rule filters compiled against the feature type, if possible
+            Filter[] ruleFilters = fts.getRuleFilters(rf.feature);
             final int length = ruleList.length;
             int paintCommands = 0;
             for (int t = 0; t < length; t++) {
                 r = ruleList[t];
-                filter = r.getFilter();
+                filter = ruleFilters != null ? ruleFilters[t] : r.getFilter();
 
                 if (filter == null || filter.evaluate(rf.feature)) {
                     doElse = false;
-                    paintCommands += processSymbolizers(graphics, rf, r.symbolizers());
+                    paintCommands +=
+                            processSymbolizers(graphics, rf, r.symbolizers(), fts.metrics);
 
                     // bail out if we are in match first mode
                     if (fts.matchFirst) {
@@ -2602,7 +2883,8 @@ public class StreamingRenderer implements GTRenderer {
                 for (int tt = 0; tt < elseLength; tt++) {
                     r = elseRuleList[tt];
 
-                    paintCommands += processSymbolizers(graphics, rf, r.symbolizers());
+                    paintCommands +=
+                            processSymbolizers(graphics, rf, r.symbolizers(), fts.metrics);
                 }
             }
 
@@ -2610,6 +2892,9 @@ public class StreamingRenderer implements GTRenderer {
             // if it has been clipped out or eliminated by the screenmap we won't emit the event
             // instead
             if (paintCommands > 0) {
+                if (fts.metrics != null) {
+                    fts.metrics.featuresPainted++;
+                }
                 requests.put(new FeatureRenderedRequest(rf.feature));
             }
 
@@ -2631,13 +2916,15 @@ public class StreamingRenderer implements GTRenderer {
      * @param shape
      * @param destinationCrs
      * @param layerId
+     * @param metrics The metrics to update, or null if not collecting metrics
      * @throws TransformException
      * @throws FactoryException
      */
     private int processSymbolizers(
             final Graphics2D graphics,
             final RenderableFeature drawMe,
-            final List<Symbolizer> symbolizers)
+            final List<Symbolizer> symbolizers,
+            final RenderingMetrics.StyleMetrics metrics)
             throws Exception {
         int paintCommands = 0;
 
@@ -2699,7 +2986,13 @@ public class StreamingRenderer implements GTRenderer {
                 // FEATURE
                 //
                 // /////////////////////////////////////////////////////////////////
+                long start = metrics != null ? System.nanoTime() : 0;
                 LiteShape2 shape = drawMe.getShape(symbolizer, worldToScreenTransform);
+                if (metrics != null) {
+                    long now = System.nanoTime();
+                    metrics.transformNanos += now - start;
+                    start = now;
+                }
                 if (shape == null) {
                     continue;
                 }
@@ -2711,9 +3004,17 @@ public class StreamingRenderer implements GTRenderer {
                             drawMe.feature,
                             shape,
                             null);
+                    if (metrics != null) {
+                        metrics.labelNanos += System.nanoTime() - start;
+                    }
                     paintCommands++;
                 } else {
                     Style2D style = styleFactory.createStyle(drawMe.feature, symbolizer);
+                    if (metrics != null) {
+                        long now = System.nanoTime();
+                        metrics.styleNanos += now - start;
+                        start = now;
+                    }
 
                     // clip to the visible area + the size of the symbolizer (with some extra
                     // to make sure we get no artifacts from polygon new borders)
@@ -2773,14 +3074,20 @@ public class StreamingRenderer implements GTRenderer {
                             g = offseter.offset(g);
                         }
                     }
+                    if (metrics != null) {
+                        metrics.transformNanos += System.nanoTime() - start;
+                    }
                     if (g == null) {
                         continue;
-                    } else {
+                    } else if (g != source || screenSimplifier == null) {
                         shape = new LiteShape2(g, null, null, false);
                     }
+                    // otherwise the geometry is fully visible, the simplified shape can be painted
+                    // as is, without cloning it
 
                     PaintShapeRequest paintShapeRequest =
                             new PaintShapeRequest(graphics, shape, style, scaleDenominator);
+                    paintShapeRequest.metrics = metrics;
                     if (symbolizer.hasOption("labelObstacle")) {
                         paintShapeRequest.setLabelObstacle(true);
                     }
@@ -3018,6 +3325,22 @@ public class StreamingRenderer implements GTRenderer {
 
         // sets whether vector rendering is enabled in the SLDStyleFactory
         styleFactory.setVectorRenderingEnabled(isVectorRenderingEnabled());
+
+        Object symbolCache = hints != null ? hints.get(SYMBOL_CACHE_KEY) : null;
+        if (symbolCache instanceof RasterSymbolCache) {
+            painter.setSymbolCache((RasterSymbolCache) symbolCache);
+        } else if (Boolean.TRUE.equals(symbolCache)) {
+            painter.setSymbolCache(RasterSymbolCache.getDefaultInstance());
+        } else {
+            painter.setSymbolCache(null);
+        }
+
+        if (hints != null && Boolean.TRUE.equals(hints.get(SCREEN_SIMPLIFICATION_KEY))) {
+            boolean cull = Boolean.TRUE.equals(hints.get(SUBPIXEL_CULLING_KEY));
+            screenSimplifier = new ScreenSimplifier(1, cull);
+        } else {
+            screenSimplifier = null;
+        }
     }
 
     /*
@@ -3317,6 +3640,13 @@ public class StreamingRenderer implements GTRenderer {
                 shape = new LiteShape2(geom, xform, getDecimator(xform), false, false);
             }
 
+            // simplify in screen space, the shape is shared by all symbolizers
+            if (shape != null && screenSimplifier != null) {
+                if (screenSimplifier.simplify(shape.getGeometry()) == null) {
+                    shape = null;
+                }
+            }
+
             // cache the result
             geometries.add(originalGeom);
             shapes.add(shape);
@@ -3375,6 +3705,9 @@ public class StreamingRenderer implements GTRenderer {
 
         boolean labelObstacle = false;
 
+        /** Accumulates the painting time, if not null. Only the painter thread updates it. */
+        RenderingMetrics.StyleMetrics metrics;
+
         public PaintShapeRequest(
                 Graphics2D graphic, LiteShape2 shape, Style2D style, double scale) {
             this.graphic = graphic;
@@ -3393,11 +3726,15 @@ public class StreamingRenderer implements GTRenderer {
                 ((DelayedBackbufferGraphic) graphic).init();
             }
 
+            long start = metrics != null ? System.nanoTime() : 0;
             try {
                 painter.paint(graphic, shape, style, scale, labelObstacle);
             } catch (Throwable t) {
                 fireErrorEvent(t);
             }
+            if (metrics != null) {
+                metrics.paintNanos += System.nanoTime() - start;
+            }
         }
     }
 
@@ -3687,6 +4024,138 @@ public class StreamingRenderer implements GTRenderer {
         }
     }
 
+    /** Paints the image of a layer rendered in parallel */
+    protected class PaintLayerImageRequest extends RenderingRequest {
+        private final Graphics2D graphics;
+
+        private final BufferedImage image;
+
+        public PaintLayerImageRequest(Graphics2D graphics, BufferedImage image) {
+            this.graphics = graphics;
+            this.image = image;
+        }
+
+        @Override
+        void execute() {
+            if (graphics instanceof DelayedBackbufferGraphic) {
+                ((DelayedBackbufferGraphic) graphics).init();
+            }
+            graphics.setComposite(AlphaComposite.SrcOver);
+            graphics.drawImage(image, screenSize.x, screenSize.y, null);
+        }
+    }
+
+    /** The image and the labels of a layer rendered in parallel */
+    private static class LayerRendering {
+        final BufferedImage image;
+
+        final RecordingLabelCache labels;
+
+        volatile RenderingMetrics metrics;
+
+        LayerRendering(BufferedImage image, RecordingLabelCache labels) {
+            this.image = image;
+            this.labels = labels;
+        }
+    }
+
+    /**
+     * Schedules the parallel rendering of the layers of a compositing group, keeping at most a
+     * window of layers in flight ahead of the one being composited, to bound the memory used by
+     * the layer images
+     */
+    private class ParallelLayers {
+        final List<Layer> layers;
+
+        final RenderingHints hints;
+
+        final boolean collectMetrics;
+
+        final List<Future<LayerRendering>> futures;
+
+        /** The renderers painting the layers right now */
+        final List<StreamingRenderer> renderers = new ArrayList<>();
+
+        final int window;
+
+        int submitted;
+
+        volatile boolean cancelled;
+
+        ParallelLayers(List<Layer> layers, RenderingHints hints) {
+            this.layers = layers;
+            this.hints = hints;
+            this.collectMetrics = metrics != null;
+            this.futures = new ArrayList<>(Collections.nCopies(layers.size(), null));
+            this.window = getWindow(layerThreadPool);
+            submit(window);
+        }
+
+        /**
+         * The number of layers scheduled ahead, as many as the pool can render at the same time:
+         * more would only sit in memory, each with its own image, waiting to be composited
+         */
+        private int getWindow(ExecutorService pool) {
+            int window = Runtime.getRuntime().availableProcessors();
+            if (pool instanceof ThreadPoolExecutor) {
+                window = Math.min(window, ((ThreadPoolExecutor) pool).getMaximumPoolSize());
+            }
+            return Math.max(1, window);
+        }
+
+        /**
+         * Returns the rendering of the layer at the given position, or null if the layer has to be
+         * rendered sequentially, and schedules the following layers in the window
+         */
+        synchronized Future<LayerRendering> take(int index) {
+            submit(index + window);
+            return futures.set(index, null);
+        }
+
+        private void submit(int limit) {
+            for (; submitted < Math.min(limit, layers.size()); submitted++) {
+                Layer layer = layers.get(submitted);
+                if (isParallelizable(layer)) {
+                    futures.set(submitted, layerThreadPool.submit(() -> render(layer)));
+                }
+            }
+        }
+
+        private LayerRendering render(Layer layer) {
+            StreamingRenderer renderer = new StreamingRenderer();
+            renderer.parentLayers = this;
+            synchronized (this) {
+                if (cancelled) {
+                    throw new CancellationException();
+                }
+                renderers.add(renderer);
+            }
+            try {
+                return renderLayer(renderer, layer, hints, collectMetrics);
+            } finally {
+                synchronized (this) {
+                    renderers.remove(renderer);
+                }
+            }
+        }
+
+        /**
+         * Cancels the layers not started yet, and stops the ones being painted. Threads are not
+         * interrupted, as that would close the channels shared with other readers.
+         */
+        synchronized void cancel() {
+            cancelled = true;
+            for (Future<LayerRendering> future : futures) {
+                if (future != null) {
+                    future.cancel(false);
+                }
+            }
+            for (StreamingRenderer renderer : renderers) {
+                renderer.stopRendering();
+            }
+        }
+    }
+
     /**
      * Marks the end of the request flow, instructs the painting thread to exit
      *
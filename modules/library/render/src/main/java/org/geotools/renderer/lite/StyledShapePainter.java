@@ -51,6 +51,7 @@ import org.geotools.renderer.style.LineStyle2D;
 import org.geotools.renderer.style.MarkStyle2D;
 import org.geotools.renderer.style.PointStyle2D;
 import org.geotools.renderer.style.PolygonStyle2D;
+import org.geotools.renderer.style.RasterSymbolCache;
 import org.geotools.renderer.style.Style2D;
 import org.opengis.filter.expression.Literal;
 import org.opengis.referencing.FactoryException;
@@ -93,6 +94,9 @@ public class StyledShapePainter {
      */
     LabelCache labelCache;
 
+    /** The cache of rasterized point symbols, if any */
+    RasterSymbolCache symbolCache;
+
     public StyledShapePainter() {
         // nothing do do, just needs to exist
     }
@@ -101,6 +105,21 @@ public class StyledShapePainter {
         this.labelCache = cache;
     }
 
+    /** Returns the cache of rasterized point symbols, or null if marks and icons are not cached */
+    public RasterSymbolCache getSymbolCache() {
+        return symbolCache;
+    }
+
+    /**
+     * Sets the cache of rasterized point symbols. When set, marks and icons painted with plain
+     * colors are copied from the cache instead of being painted as vectors at each point.
+     *
+     * @param symbolCache the cache, or null to disable symbol caching
+     */
+    public void setSymbolCache(RasterSymbolCache symbolCache) {
+        this.symbolCache = symbolCache;
+    }
+
     public void paint(
             final Graphics2D graphics,
             final LiteShape2 shape,
@@ -139,6 +158,13 @@ public class StyledShapePainter {
             return;
         }
 
+        if (symbolCache != null
+                && !isLabelObstacle
+                && style instanceof PointStyle2D
+                && paintCachedSymbols(graphics, shape, (PointStyle2D) style)) {
+            return;
+        }
+
         if (style instanceof IconStyle2D) {
             AffineTransform temp = graphics.getTransform();
             try {
@@ -299,6 +325,39 @@ public class StyledShapePainter {
         }
     }
 
+    /**
+     * Paints the point symbols by copying their rasters from the symbol cache
+     *
+     * @return false if the style cannot be painted from the cache, in which case nothing was
+     *     painted
+     */
+    private boolean paintCachedSymbols(Graphics2D graphics, LiteShape2 shape, PointStyle2D style) {
+        // the rasters are in device space, they can only be moved around by whole pixels
+        AffineTransform transform = graphics.getTransform();
+        if ((transform.getType() & ~AffineTransform.TYPE_TRANSLATION) != 0
+                || transform.getTranslateX() != Math.rint(transform.getTranslateX())
+                || transform.getTranslateY() != Math.rint(transform.getTranslateY())) {
+            return false;
+        }
+        RasterSymbolCache.Symbol symbol =
+                symbolCache.getSymbol(style, graphics.getRenderingHints());
+        if (symbol == null) {
+            return false;
+        }
+
+        // opacity is already part of the rasters
+        graphics.setComposite(AlphaComposite.SrcOver);
+        float[] coords = new float[2];
+        PathIterator citer = getPathIterator(shape);
+        while (!(citer.isDone())) {
+            if (citer.currentSegment(coords) != PathIterator.SEG_MOVETO) {
+                symbol.paint(graphics, coords[0], coords[1]);
+            }
+            citer.next();
+        }
+        return true;
+    }
+
     /**
      * Checks if the fill can simply be omitted because it's not going to be visible anyways. It
      * takes a style that has a solid outline and a width or height that's less than the stroke
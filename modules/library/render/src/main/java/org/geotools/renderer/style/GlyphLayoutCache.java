@@ -0,0 +1,300 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.style;
+
+import java.awt.Font;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.TextLayout;
+import java.awt.geom.Rectangle2D;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of laid out glyph vectors and text layouts, along with their outlines and
+ * bounds, keyed by text, font (including its size and attributes), font render context (that is,
+ * the transform and the antialiasing and fractional metrics hints) and layout flags.
+ *
+ * <p>Shaping text is expensive, and labels tend to repeat across requests (the same road and city
+ * names show up in many tiles), so the results are shared among all renderers, and must not be
+ * modified. The cache size is
+ * accounted in glyphs, and can be set with the {@link #MAX_GLYPHS_KEY} system variable; when full,
+ * arbitrary entries are evicted until a quarter of the space is free.
+ *
+ * @since 20
+ */
+public class GlyphLayoutCache {
+
+    /** System variable setting the max number of glyphs in the default cache */
+    public static final String MAX_GLYPHS_KEY = "org.geotools.render.glyphCacheSize";
+
+    /**
+     * Layout flag asking for a plain {@link Font#createGlyphVector(FontRenderContext, char[])}
+     * call, without the complex text layout performed by {@link Font#layoutGlyphVector}
+     */
+    public static final int NO_LAYOUT = -1;
+
+    static final int TEXT_LAYOUT = -2;
+
+    static final int DEFAULT_MAX_GLYPHS = 100000;
+
+    static final GlyphLayoutCache DEFAULT_INSTANCE =
+            new GlyphLayoutCache(Integer.getInteger(MAX_GLYPHS_KEY, DEFAULT_MAX_GLYPHS));
+
+    /** A laid out text, with its bounds and outline */
+    public static class GlyphLayout {
+        final GlyphVector glyphVector;
+
+        final Rectangle2D visualBounds;
+
+        final Rectangle2D logicalBounds;
+
+        Shape outline;
+
+        GlyphLayout(GlyphVector glyphVector) {
+            this.glyphVector = glyphVector;
+            // computing the bounds also completes the lazy setup of the glyph vector positions,
+            // before the glyph vector gets shared with other threads
+            this.visualBounds = glyphVector.getVisualBounds();
+            this.logicalBounds = glyphVector.getLogicalBounds();
+        }
+
+        /** Returns the glyph vector, do not modify it */
+        public GlyphVector getGlyphVector() {
+            return glyphVector;
+        }
+
+        /** Returns the outline of the glyph vector, do not modify it */
+        public synchronized Shape getOutline() {
+            if (outline == null) {
+                outline = glyphVector.getOutline();
+            }
+            return outline;
+        }
+
+        /** Returns the visual bounds of the glyph vector, do not modify them */
+        public Rectangle2D getVisualBounds() {
+            return visualBounds;
+        }
+
+        /** Returns the logical bounds of the glyph vector, do not modify them */
+        public Rectangle2D getLogicalBounds() {
+            return logicalBounds;
+        }
+    }
+
+    static final class Key {
+        final String text;
+
+        final Font font;
+
+        final FontRenderContext frc;
+
+        final int flags;
+
+        final int hash;
+
+        Key(String text, Font font, FontRenderContext frc, int flags) {
+            this.text = text;
+            this.font = font;
+            this.frc = frc;
+            this.flags = flags;
+            int h = text.hashCode();
+            h = 31 * h + font.hashCode();
+            h = 31 * h + frc.hashCode();
+            this.hash = 31 * h + flags;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash
+                    && flags == other.flags
+                    && text.equals(other.text)
+                    && font.equals(other.font)
+                    && frc.equals(other.frc);
+        }
+    }
+
+    static final class Entry {
+        final Object value;
+
+        final int glyphs;
+
+        Entry(Object value, int glyphs) {
+            this.value = value;
+            this.glyphs = glyphs;
+        }
+    }
+
+    final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    final long maxGlyphs;
+
+    final AtomicLong glyphs = new AtomicLong();
+
+    final LongAdder hits = new LongAdder();
+
+    final LongAdder misses = new LongAdder();
+
+    /** Returns the default, system wide cache */
+    public static GlyphLayoutCache getDefaultInstance() {
+        return DEFAULT_INSTANCE;
+    }
+
+    /**
+     * Builds a new cache
+     *
+     * @param maxGlyphs the max number of glyphs held by the cache, zero or less disables caching
+     */
+    public GlyphLayoutCache(long maxGlyphs) {
+        this.maxGlyphs = maxGlyphs;
+    }
+
+    /**
+     * Returns the layout of the text in the given font
+     *
+     * @param text the text
+     * @param font the font
+     * @param frc the font render context
+     * @param flags the {@link Font#layoutGlyphVector} flags, or {@link #NO_LAYOUT}
+     */
+    public GlyphLayout getGlyphLayout(String text, Font font, FontRenderContext frc, int flags) {
+        Key key = new Key(text, font, frc, flags);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits.increment();
+            return (GlyphLayout) entry.value;
+        }
+
+        misses.increment();
+        char[] chars = text.toCharArray();
+        GlyphVector gv;
+        if (flags == NO_LAYOUT) {
+            gv = font.createGlyphVector(frc, chars);
+        } else {
+            gv = font.layoutGlyphVector(frc, chars, 0, chars.length, flags);
+        }
+        GlyphLayout layout = new GlyphLayout(gv);
+        put(key, layout, gv.getNumGlyphs());
+        return layout;
+    }
+
+    /**
+     * Returns the laid out glyph vector of the text, do not modify it
+     *
+     * @see #getGlyphLayout(String, Font, FontRenderContext, int)
+     */
+    public GlyphVector getGlyphVector(String text, Font font, FontRenderContext frc, int flags) {
+        return getGlyphLayout(text, font, frc, flags).getGlyphVector();
+    }
+
+    /**
+     * Returns the {@link TextLayout} of the text in the given font. Text layouts are immutable, the
+     * same instance is returned for the same text, font and context.
+     */
+    public TextLayout getTextLayout(String text, Font font, FontRenderContext frc) {
+        Key key = new Key(text, font, frc, TEXT_LAYOUT);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits.increment();
+            return (TextLayout) entry.value;
+        }
+
+        misses.increment();
+        TextLayout layout = new TextLayout(text, font, frc);
+        put(key, layout, text.length());
+        return layout;
+    }
+
+    private void put(Key key, Object value, int entryGlyphs) {
+        if (maxGlyphs <= 0 || entryGlyphs > maxGlyphs) {
+            return;
+        }
+        // make sure at least one entry is accounted, glyph vectors can be empty
+        int weight = Math.max(1, entryGlyphs);
+        if (entries.putIfAbsent(key, new Entry(value, weight)) == null
+                && glyphs.addAndGet(weight) > maxGlyphs) {
+            evict();
+        }
+    }
+
+    private synchronized void evict() {
+        long target = maxGlyphs - maxGlyphs / 4;
+        Iterator<Entry> it = entries.values().iterator();
+        while (glyphs.get() > target && it.hasNext()) {
+            Entry entry = it.next();
+            it.remove();
+            glyphs.addAndGet(-entry.glyphs);
+        }
+    }
+
+    /** Removes all the cached layouts */
+    public synchronized void clear() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            it.remove();
+            glyphs.addAndGet(-entry.glyphs);
+        }
+    }
+
+    /** The number of cached layouts */
+    public int size() {
+        return entries.size();
+    }
+
+    /** The number of glyphs in the cached layouts */
+    public long getGlyphCount() {
+        return glyphs.get();
+    }
+
+    /** The number of lookups that found a cached layout */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /** The number of lookups that had to lay out the text */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** The ratio of lookups that found a cached layout, or zero if there were no lookups */
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total > 0 ? (double) h / total : 0;
+    }
+
+    /** Resets the hit and miss counters */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+    }
+}
@@ -0,0 +1,431 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.style;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.swing.Icon;
+
+/**
+ * A bounded cache of pre-rasterized point symbols, that allows painting marks and icons (well
+ * known marks, TTF marks, SVG graphics and the like) by copying a small image, instead of filling
+ * and stroking their vector shapes at each point.
+ *
+ * <p>Symbols are keyed by their painting parameters (shape or icon, size, fill, stroke, opacity,
+ * anchor, displacement and rendering hints), so that the rasters are shared across styles and
+ * requests, as long as the shapes and icons are shared or comparable by value. Rotations are
+ * grouped in buckets of one degree, and each symbol is rasterized at {@link #SUBPIXEL_STEPS}
+ * sub-pixel positions along each axis, so the painted symbol is at most a fraction of a pixel off
+ * the vector rendering. Only styles painted with plain colors and source over composites can be
+ * cached.
+ *
+ * <p>The cache size is accounted in bytes, and can be set with the {@link #MAX_BYTES_KEY} system
+ * variable; when full, arbitrary entries are evicted until a quarter of the space is free.
+ *
+ * @since 20
+ */
+public class RasterSymbolCache {
+
+    /** System variable setting the max number of bytes used by the default cache */
+    public static final String MAX_BYTES_KEY = "org.geotools.render.symbolCacheSize";
+
+    /** The number of sub-pixel positions, along each axis, each symbol is rasterized at */
+    public static final int SUBPIXEL_STEPS = 4;
+
+    static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+    static final double ROTATION_STEP = Math.toRadians(1);
+
+    static final RasterSymbolCache DEFAULT_INSTANCE =
+            new RasterSymbolCache(Long.getLong(MAX_BYTES_KEY, DEFAULT_MAX_BYTES));
+
+    static final RenderingHints.Key[] HINT_KEYS = {
+        RenderingHints.KEY_ANTIALIASING,
+        RenderingHints.KEY_STROKE_CONTROL,
+        RenderingHints.KEY_RENDERING,
+        RenderingHints.KEY_INTERPOLATION
+    };
+
+    /** A point symbol that can be painted from the cache, at any location */
+    public final class Symbol {
+
+        final Object[] key;
+
+        final int hash;
+
+        final MarkStyle2D mark;
+
+        final IconStyle2D icon;
+
+        final double rotation;
+
+        final RenderingHints hints;
+
+        Symbol(Object[] key, MarkStyle2D mark, IconStyle2D icon, double rotation, Map<?, ?> hints) {
+            this.key = key;
+            this.hash = Arrays.hashCode(key);
+            this.mark = mark;
+            this.icon = icon;
+            this.rotation = rotation;
+            this.hints = new RenderingHints(null);
+            for (RenderingHints.Key hintKey : HINT_KEYS) {
+                Object value = hints.get(hintKey);
+                if (value != null) {
+                    this.hints.put(hintKey, value);
+                }
+            }
+        }
+
+        /**
+         * Paints the symbol at the given location, the graphics transform is supposed to be an
+         * integer translation at most, and the composite to be {@link AlphaComposite#SrcOver}
+         */
+        public void paint(Graphics2D graphics, double x, double y) {
+            double fx = Math.floor(x);
+            double fy = Math.floor(y);
+            int sx = (int) ((x - fx) * SUBPIXEL_STEPS);
+            int sy = (int) ((y - fy) * SUBPIXEL_STEPS);
+            Raster raster = getRaster(new RasterKey(this, sx, sy));
+            if (raster != null) {
+                graphics.drawImage(
+                        raster.image, (int) fx + raster.offsetX, (int) fy + raster.offsetY, null);
+            }
+        }
+
+        /** Paints the symbol in a new image, the anchor location is at (x, y) from its origin */
+        Raster rasterize(double x, double y) {
+            Rectangle2D bounds;
+            Shape shape = null;
+            AffineTransform at = null;
+            if (mark != null) {
+                shape = mark.getTransformedShape((float) x, (float) y, 0, (float) rotation);
+                bounds = shape.getBounds2D();
+                if (mark.getContour() != null) {
+                    bounds.add(mark.getStroke().createStrokedShape(shape).getBounds2D());
+                }
+            } else {
+                Icon ic = icon.getIcon();
+                at = new AffineTransform();
+                at.translate(x + icon.getDisplacementX(), y + icon.getDisplacementY());
+                at.rotate(rotation);
+                at.translate(
+                        -(ic.getIconWidth() * icon.getAnchorPointX()),
+                        (ic.getIconHeight() * (icon.getAnchorPointY() - 1)));
+                Rectangle iconBounds = new Rectangle(ic.getIconWidth(), ic.getIconHeight());
+                bounds = at.createTransformedShape(iconBounds).getBounds2D();
+            }
+            if (bounds.isEmpty()) {
+                return null;
+            }
+
+            // leave a pixel around for antialiasing
+            int minX = (int) Math.floor(bounds.getMinX()) - 1;
+            int minY = (int) Math.floor(bounds.getMinY()) - 1;
+            int width = (int) Math.ceil(bounds.getMaxX()) + 1 - minX;
+            int height = (int) Math.ceil(bounds.getMaxY()) + 1 - minY;
+            BufferedImage image =
+                    new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g = image.createGraphics();
+            try {
+                g.setRenderingHints(hints);
+                g.translate(-minX, -minY);
+                if (mark != null) {
+                    if (mark.getFill() != null) {
+                        g.setPaint(mark.getFill());
+                        g.setComposite(composite(mark.getFillComposite()));
+                        g.fill(shape);
+                    }
+                    if (mark.getContour() != null) {
+                        g.setPaint(mark.getContour());
+                        g.setStroke(mark.getStroke());
+                        g.setComposite(composite(mark.getContourComposite()));
+                        g.draw(shape);
+                    }
+                } else {
+                    g.transform(at);
+                    g.setComposite(composite(icon.getComposite()));
+                    icon.getIcon().paintIcon(null, g, 0, 0);
+                }
+            } finally {
+                g.dispose();
+            }
+            return new Raster(image, minX, minY);
+        }
+
+        private Composite composite(Composite composite) {
+            return composite != null ? composite : AlphaComposite.SrcOver;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Symbol)) {
+                return false;
+            }
+            Symbol other = (Symbol) obj;
+            return hash == other.hash && Arrays.equals(key, other.key);
+        }
+    }
+
+    static final class RasterKey {
+        final Symbol symbol;
+
+        final int sx;
+
+        final int sy;
+
+        RasterKey(Symbol symbol, int sx, int sy) {
+            this.symbol = symbol;
+            this.sx = sx;
+            this.sy = sy;
+        }
+
+        @Override
+        public int hashCode() {
+            return (symbol.hash * 31 + sx) * 31 + sy;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof RasterKey)) {
+                return false;
+            }
+            RasterKey other = (RasterKey) obj;
+            return sx == other.sx && sy == other.sy && symbol.equals(other.symbol);
+        }
+    }
+
+    /** A rasterized symbol, with the offset of the image origin from the anchor pixel */
+    static final class Raster {
+        final BufferedImage image;
+
+        final int offsetX;
+
+        final int offsetY;
+
+        final long bytes;
+
+        Raster(BufferedImage image, int offsetX, int offsetY) {
+            this.image = image;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+            this.bytes = 4L * image.getWidth() * image.getHeight();
+        }
+    }
+
+    final Map<RasterKey, Raster> entries = new ConcurrentHashMap<>();
+
+    final long maxBytes;
+
+    final AtomicLong bytes = new AtomicLong();
+
+    final LongAdder hits = new LongAdder();
+
+    final LongAdder misses = new LongAdder();
+
+    /** Returns the default, system wide cache */
+    public static RasterSymbolCache getDefaultInstance() {
+        return DEFAULT_INSTANCE;
+    }
+
+    /**
+     * Builds a new cache
+     *
+     * @param maxBytes the max number of bytes used by the cached rasters, zero or less disables
+     *     caching
+     */
+    public RasterSymbolCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns a symbol that can paint the style from the cache, or null if the style cannot be
+     * cached, in which case it has to be painted as usual
+     *
+     * @param style the point style, only {@link MarkStyle2D} and {@link IconStyle2D} are supported
+     * @param hints the rendering hints of the target graphics
+     */
+    public Symbol getSymbol(PointStyle2D style, Map<?, ?> hints) {
+        if (maxBytes <= 0) {
+            return null;
+        }
+        int bucket = (int) Math.round(style.getRotation() / ROTATION_STEP) % 360;
+        double rotation = bucket * ROTATION_STEP;
+        Object antialiasing = hints.get(RenderingHints.KEY_ANTIALIASING);
+        Object strokeControl = hints.get(RenderingHints.KEY_STROKE_CONTROL);
+        Object rendering = hints.get(RenderingHints.KEY_RENDERING);
+        Object interpolation = hints.get(RenderingHints.KEY_INTERPOLATION);
+        if (style instanceof MarkStyle2D) {
+            MarkStyle2D mark = (MarkStyle2D) style;
+            if (mark.getShape() == null
+                    || !isPlain(mark.getFill(), mark.getFillComposite())
+                    || !isPlain(mark.getContour(), mark.getContourComposite())
+                    || (mark.getContour() != null && !(mark.getStroke() instanceof BasicStroke))) {
+                return null;
+            }
+            Stroke stroke = mark.getContour() != null ? mark.getStroke() : null;
+            Object[] key = {
+                mark.getShape(),
+                mark.getSize(),
+                MarkStyle2D.isMaxMarkSizeEnabled(),
+                bucket,
+                mark.getFill(),
+                mark.getFillComposite(),
+                mark.getContour(),
+                mark.getContourComposite(),
+                stroke,
+                mark.getDisplacementX(),
+                mark.getDisplacementY(),
+                mark.getAnchorPointX(),
+                mark.getAnchorPointY(),
+                antialiasing,
+                strokeControl,
+                rendering,
+                interpolation
+            };
+            return new Symbol(key, mark, null, rotation, hints);
+        } else if (style instanceof IconStyle2D) {
+            IconStyle2D icon = (IconStyle2D) style;
+            Icon ic = icon.getIcon();
+            if (ic == null
+                    || ic.getIconWidth() <= 0
+                    || ic.getIconHeight() <= 0
+                    || !isPlain(null, icon.getComposite())) {
+                return null;
+            }
+            Object[] key = {
+                ic,
+                bucket,
+                icon.getComposite(),
+                icon.getDisplacementX(),
+                icon.getDisplacementY(),
+                icon.getAnchorPointX(),
+                icon.getAnchorPointY(),
+                antialiasing,
+                strokeControl,
+                rendering,
+                interpolation
+            };
+            return new Symbol(key, null, icon, rotation, hints);
+        }
+        return null;
+    }
+
+    /** Checks the paint is a plain color, composited with a source over rule */
+    private boolean isPlain(Paint paint, Composite composite) {
+        if (paint != null && !(paint instanceof Color)) {
+            return false;
+        }
+        return composite == null
+                || (composite instanceof AlphaComposite
+                        && ((AlphaComposite) composite).getRule() == AlphaComposite.SRC_OVER);
+    }
+
+    Raster getRaster(RasterKey key) {
+        Raster raster = entries.get(key);
+        if (raster != null) {
+            hits.increment();
+            return raster;
+        }
+
+        misses.increment();
+        double x = (key.sx + 0.5) / SUBPIXEL_STEPS;
+        double y = (key.sy + 0.5) / SUBPIXEL_STEPS;
+        raster = key.symbol.rasterize(x, y);
+        if (raster != null
+                && raster.bytes <= maxBytes
+                && entries.putIfAbsent(key, raster) == null
+                && bytes.addAndGet(raster.bytes) > maxBytes) {
+            evict();
+        }
+        return raster;
+    }
+
+    private synchronized void evict() {
+        long target = maxBytes - maxBytes / 4;
+        Iterator<Raster> it = entries.values().iterator();
+        while (bytes.get() > target && it.hasNext()) {
+            Raster raster = it.next();
+            it.remove();
+            bytes.addAndGet(-raster.bytes);
+        }
+    }
+
+    /** Removes all the cached rasters */
+    public synchronized void clear() {
+        Iterator<Raster> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Raster raster = it.next();
+            it.remove();
+            bytes.addAndGet(-raster.bytes);
+        }
+    }
+
+    /** The number of cached rasters */
+    public int size() {
+        return entries.size();
+    }
+
+    /** The number of bytes used by the cached rasters */
+    public long getByteCount() {
+        return bytes.get();
+    }
+
+    /** The number of lookups that found a cached raster */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /** The number of lookups that had to rasterize the symbol */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** The ratio of lookups that found a cached raster, or zero if there were no lookups */
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total > 0 ? (double) h / total : 0;
+    }
+
+    /** Resets the hit and miss counters */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+    }
+}
@@ -72,4 +72,22 @@ class RescaledIcon implements Icon {
             g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, oldInterpolation);
         }
     }
+
+    /**
+     * Rescaled icons are equal if their delegates are and the scale is the same, so that icons
+     * comparable by value keep being so once rescaled (see {@link RasterSymbolCache})
+     */
+    @Override
+    public int hashCode() {
+        return icon.hashCode() * 31 + Double.hashCode(scale);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof RescaledIcon)) {
+            return false;
+        }
+        RescaledIcon other = (RescaledIcon) obj;
+        return Double.compare(scale, other.scale) == 0 && icon.equals(other.icon);
+    }
 }
@@ -28,6 +28,9 @@ import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import javax.swing.ImageIcon;
 import javax.swing.JFrame;
@@ -59,11 +62,42 @@ public class TTFMarkFactory implements MarkFactory {
             new FontRenderContext(new AffineTransform(), false, false);
 
     /**
-     * The factory is completely stateless, this single instance can be safely used across multiple
-     * threads
+     * The shapes built so far, they are shared so that the rasters of the symbols using them can be
+     * cached (see {@link RasterSymbolCache})
+     */
+    private static final Map<ShapeKey, Shape> SHAPES = new ConcurrentHashMap<>();
+
+    /**
+     * The factory is stateless, besides a thread safe cache of the shapes, this single instance can
+     * be safely used across multiple threads
      */
     public static TTFMarkFactory INSTANCE = new TTFMarkFactory();
 
+    private static final class ShapeKey {
+        final Font font;
+
+        final char character;
+
+        ShapeKey(Font font, char character) {
+            this.font = font;
+            this.character = character;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(font, character);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ShapeKey)) {
+                return false;
+            }
+            ShapeKey other = (ShapeKey) obj;
+            return character == other.character && font.equals(other.font);
+        }
+    }
+
     public Shape getShape(Graphics2D graphics, Expression symbolUrl, Feature feature)
             throws Exception {
         String markUrl = symbolUrl.evaluate(feature, String.class);
@@ -104,7 +138,11 @@ public class TTFMarkFactory implements MarkFactory {
         if (font == null) {
             throw new IllegalArgumentException("Unknown font " + fontFamilyName);
         }
+        return SHAPES.computeIfAbsent(
+                new ShapeKey(font, character), k -> buildShape(k.font, k.character));
+    }
 
+    private Shape buildShape(Font font, char character) {
         // handle charmap code reporting issues
         if (!font.canDisplay(character)) {
             char alternative = (char) (0xF000 | character);
@@ -0,0 +1,64 @@
+package org.geotools.renderer.label;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class LabelIndexTest {
+
+    @Test
+    public void testWithinDistance() {
+        LabelIndex index = new LabelIndex();
+        assertFalse(index.labelsWithinDistance(new Rectangle2D.Double(0, 0, 10, 10), 0));
+        index.addLabel(null, new Rectangle2D.Double(10, 10, 20, 10));
+
+        assertTrue(index.labelsWithinDistance(new Rectangle2D.Double(25, 15, 10, 10), 0));
+        assertFalse(index.labelsWithinDistance(new Rectangle2D.Double(35, 15, 10, 10), 0));
+        assertTrue(index.labelsWithinDistance(new Rectangle2D.Double(35, 15, 10, 10), 5));
+        // negative distances disable the check
+        assertFalse(index.labelsWithinDistance(new Rectangle2D.Double(25, 15, 10, 10), -1));
+    }
+
+    @Test
+    public void testReservedAndLargeAreas() {
+        LabelIndex index = new LabelIndex(16);
+        index.reserveArea(Arrays.asList(new Rectangle2D.Double(-5000, -5000, 10000, 100)));
+        index.addLabel(null, new Rectangle2D.Double(500, 500, 10, 10));
+
+        assertTrue(index.labelsWithinDistance(new Rectangle2D.Double(4000, -4950, 5, 5), 0));
+        assertTrue(index.labelsWithinDistance(new Rectangle2D.Double(505, 505, 2, 2), 0));
+        // a query covering many cells
+        assertTrue(index.labelsWithinDistance(new Rectangle2D.Double(0, 0, 3000, 3000), 0));
+        assertFalse(index.labelsWithinDistance(new Rectangle2D.Double(0, 0, 400, 400), 0));
+    }
+
+    @Test
+    public void testRotatedLabels() {
+        LabelIndex index = new LabelIndex();
+        // a long thin label along the diagonal
+        Rectangle2D bounds = new Rectangle2D.Double(-50, -2, 100, 4);
+        AffineTransform tx = AffineTransform.getTranslateInstance(100, 100);
+        tx.rotate(Math.PI / 4);
+        index.addLabel(null, bounds, tx);
+
+        // inside the axis aligned bounds, but far from the label itself
+        assertFalse(index.labelsWithinDistance(new Rectangle2D.Double(125, 70, 5, 5), 0));
+        assertTrue(index.labelsWithinDistance(new Rectangle2D.Double(98, 98, 4, 4), 0));
+
+        // crossing label
+        AffineTransform crossing = AffineTransform.getTranslateInstance(100, 100);
+        crossing.rotate(-Math.PI / 4);
+        assertTrue(index.labelsWithinDistance(bounds, crossing, 0));
+
+        // parallel label, close only when accounting for the distance
+        Rectangle2D small = new Rectangle2D.Double(-10, -2, 20, 4);
+        AffineTransform parallel = AffineTransform.getTranslateInstance(140, 60);
+        parallel.rotate(Math.PI / 4);
+        assertFalse(index.labelsWithinDistance(small, parallel, 0));
+        assertTrue(index.labelsWithinDistance(small, parallel, 60));
+    }
+}
@@ -21,6 +21,7 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.classextension.EasyMock.createNiceMock;
 import static org.easymock.classextension.EasyMock.replay;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -38,10 +39,14 @@ import java.awt.image.RenderedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.media.jai.Interpolation;
 import javax.media.jai.JAI;
@@ -64,6 +69,7 @@ import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
 import org.geotools.geometry.GeneralEnvelope;
 import org.geotools.geometry.jts.LiteCoordinateSequence;
 import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.image.test.ImageAssert;
 import org.geotools.map.DefaultMapContext;
 import org.geotools.map.FeatureLayer;
 import org.geotools.map.GridCoverageLayer;
@@ -83,6 +89,7 @@ import org.geotools.styling.StyleBuilder;
 import org.geotools.styling.StyleFactoryImpl;
 import org.geotools.styling.StyleImpl;
 import org.geotools.styling.Symbolizer;
+import org.geotools.styling.TextSymbolizer;
 import org.geotools.test.TestData;
 import org.junit.Assert;
 import org.junit.Before;
@@ -309,6 +316,154 @@ public class StreamingRendererTest {
         assertTrue(errors > 0);
     }
 
+    @Test
+    public void testMetrics() throws Exception {
+        MapContent mc = new MapContent();
+        Style lineStyle = createLineStyle();
+        mc.addLayer(new FeatureLayer(createLineCollection(), lineStyle));
+        DefaultFeatureCollection points = new DefaultFeatureCollection();
+        points.add(createPoint(-175, 5));
+        points.add(createPoint(-172, 6));
+        mc.addLayer(new FeatureLayer(points, createPointStyle()));
+
+        StreamingRenderer sr = new StreamingRenderer();
+        sr.setMapContent(mc);
+        final List<RenderingMetrics> collected = new ArrayList<>();
+        RenderingMetricsListener listener = m -> collected.add(m);
+        sr.addMetricsListener(listener);
+
+        ReferencedEnvelope re =
+                new ReferencedEnvelope(-180, -170, -10, 110, DefaultGeographicCRS.WGS84);
+        BufferedImage image = new BufferedImage(200, 200, BufferedImage.TYPE_4BYTE_ABGR);
+        sr.paint((Graphics2D) image.getGraphics(), new Rectangle(200, 200), re);
+
+        assertEquals(1, collected.size());
+        RenderingMetrics metrics = collected.get(0);
+        assertTrue(metrics.getTotalNanos() > 0);
+        assertEquals(2, metrics.getLayers().size());
+
+        RenderingMetrics.LayerMetrics lines = metrics.getLayers().get(0);
+        assertSame(mc.layers().get(0), lines.getLayer());
+        assertEquals(3, lines.getFeaturesRead());
+        assertEquals(1, lines.getStyles().size());
+        RenderingMetrics.StyleMetrics style = lines.getStyles().get(0);
+        assertSame(lineStyle.featureTypeStyles().get(0), style.getStyle());
+        assertTrue(style.getFeaturesPainted() > 0);
+        assertTrue(style.getNanos(RenderingMetrics.Phase.PAINT) > 0);
+        assertEquals(0, style.getNanos(RenderingMetrics.Phase.QUERY));
+
+        RenderingMetrics.LayerMetrics pointLayer = metrics.getLayers().get(1);
+        assertEquals(2, pointLayer.getFeaturesRead());
+        assertEquals(2, pointLayer.getFeaturesPainted());
+        assertTrue(metrics.getNanos(RenderingMetrics.Phase.DECODE) > 0);
+        assertNotNull(metrics.toString());
+
+        // no more metrics once the listener is gone
+        sr.removeMetricsListener(listener);
+        sr.paint((Graphics2D) image.getGraphics(), new Rectangle(200, 200), re);
+        assertEquals(1, collected.size());
+        mc.dispose();
+    }
+
+    @Test
+    public void testParallelLayers() throws Exception {
+        MapContent mc = new MapContent();
+        mc.addLayer(new FeatureLayer(createLineCollection(), createLineStyle()));
+        DefaultFeatureCollection points = new DefaultFeatureCollection();
+        points.add(createPoint(-175, 5));
+        points.add(createPoint(-172, 6));
+        StyleBuilder sb = new StyleBuilder();
+        TextSymbolizer text = sb.createTextSymbolizer();
+        text.setLabel(sb.literalExpression("Label"));
+        Style pointStyle = sb.createStyle(sb.createPointSymbolizer());
+        pointStyle.featureTypeStyles().get(0).rules().get(0).symbolizers().add(text);
+        mc.addLayer(new FeatureLayer(points, pointStyle));
+        mc.addLayer(new FeatureLayer(createLineCollection(), createLineStyle()));
+        ReferencedEnvelope re =
+                new ReferencedEnvelope(-180, -170, -10, 110, DefaultGeographicCRS.WGS84);
+
+        StreamingRenderer sr = new StreamingRenderer();
+        sr.setMapContent(mc);
+        final AtomicInteger rendered = new AtomicInteger();
+        sr.addRenderListener(
+                new RenderListener() {
+                    public void featureRenderer(SimpleFeature feature) {
+                        rendered.incrementAndGet();
+                    }
+
+                    public void errorOccurred(Exception e) {}
+                });
+        BufferedImage expected = new BufferedImage(200, 200, BufferedImage.TYPE_4BYTE_ABGR);
+        sr.paint((Graphics2D) expected.getGraphics(), new Rectangle(200, 200), re);
+        int renderedSequentially = rendered.getAndSet(0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            sr.setLayerThreadPool(pool);
+            final List<RenderingMetrics> collected = new ArrayList<>();
+            sr.addMetricsListener(m -> collected.add(m));
+            BufferedImage image = new BufferedImage(200, 200, BufferedImage.TYPE_4BYTE_ABGR);
+            sr.paint((Graphics2D) image.getGraphics(), new Rectangle(200, 200), re);
+
+            ImageAssert.assertEquals(expected, image, 0);
+            assertEquals(renderedSequentially, rendered.get());
+            // the metrics of the layers rendered in parallel are reported in layer order
+            RenderingMetrics metrics = collected.get(0);
+            assertEquals(3, metrics.getLayers().size());
+            assertSame(mc.layers().get(1), metrics.getLayers().get(1).getLayer());
+            assertEquals("2", metrics.getLayers().get(1).getLayerId());
+            assertEquals(2, metrics.getLayers().get(1).getFeaturesRead());
+        } finally {
+            pool.shutdown();
+            mc.dispose();
+        }
+    }
+
+    @Test
+    public void testScreenSimplification() throws Exception {
+        DefaultFeatureCollection lines = new DefaultFeatureCollection();
+        lines.add(createLine(-100, -50, 0, -50));
+        // way smaller than a pixel, ends up at 280,39 on screen
+        lines.add(createLine(100, 50, 100.01, 50.01));
+        MapContent mc = new MapContent();
+        mc.addLayer(new FeatureLayer(lines, createLineStyle()));
+        ReferencedEnvelope re =
+                new ReferencedEnvelope(-180, 180, -90, 90, DefaultGeographicCRS.WGS84);
+
+        try {
+            StreamingRenderer sr = new StreamingRenderer();
+            sr.setMapContent(mc);
+            Map<Object, Object> hints = new HashMap<>();
+            hints.put(StreamingRenderer.SCREEN_SIMPLIFICATION_KEY, true);
+            sr.setRendererHints(hints);
+            BufferedImage image = new BufferedImage(360, 180, BufferedImage.TYPE_4BYTE_ABGR);
+            sr.paint((Graphics2D) image.getGraphics(), new Rectangle(360, 180), re);
+            // the tiny line has been painted as a single pixel
+            assertTrue(maxAlpha(image, 280, 39, 1) > 0);
+            assertTrue(maxAlpha(image, 130, 140, 1) > 0);
+
+            hints.put(StreamingRenderer.SUBPIXEL_CULLING_KEY, true);
+            sr.setRendererHints(hints);
+            image = new BufferedImage(360, 180, BufferedImage.TYPE_4BYTE_ABGR);
+            sr.paint((Graphics2D) image.getGraphics(), new Rectangle(360, 180), re);
+            // now it has been culled, while the other one is still there
+            assertEquals(0, maxAlpha(image, 280, 39, 2));
+            assertTrue(maxAlpha(image, 130, 140, 1) > 0);
+        } finally {
+            mc.dispose();
+        }
+    }
+
+    private int maxAlpha(BufferedImage image, int x, int y, int radius) {
+        int max = 0;
+        for (int i = x - radius; i <= x + radius; i++) {
+            for (int j = y - radius; j <= y + radius; j++) {
+                max = Math.max(max, image.getRaster().getSample(i, j, 3));
+            }
+        }
+        return max;
+    }
+
     @Test
     public void testInfiniteLoopAvoidance() throws Exception {
         final Exception sentinel =
@@ -19,8 +19,13 @@ package org.geotools.renderer.lite;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.Point;
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.WritableRaster;
 import java.net.URL;
@@ -32,6 +37,8 @@ import org.geotools.geometry.jts.Decimator;
 import org.geotools.geometry.jts.JTSFactoryFinder;
 import org.geotools.geometry.jts.LiteShape2;
 import org.geotools.referencing.operation.transform.ProjectiveTransform;
+import org.geotools.renderer.style.MarkStyle2D;
+import org.geotools.renderer.style.RasterSymbolCache;
 import org.geotools.styling.ExternalGraphic;
 import org.geotools.styling.GraphicImpl;
 import org.geotools.styling.GraphicLegend;
@@ -244,4 +251,53 @@ public class StyledShapePainterTest extends TestCase {
         assertEquals(0, image.getRaster().getSample(90, 30, 1));
         assertEquals(0, image.getRaster().getSample(90, 30, 2));
     }
+
+    @Test
+    public void testSymbolCache() throws Exception {
+        MarkStyle2D mark = new MarkStyle2D();
+        mark.setShape(new Ellipse2D.Double(-.5, -.5, 1., 1.));
+        mark.setSize(12);
+        mark.setFill(Color.RED);
+        mark.setFillComposite(AlphaComposite.SrcOver);
+        mark.setContour(Color.BLUE);
+        mark.setContourComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f));
+        mark.setStroke(new BasicStroke(2));
+        Point point = new GeometryFactory().createPoint(new Coordinate(20.625, 30.125));
+        LiteShape2 shape = new LiteShape2(point, null, null, false);
+
+        StyledShapePainter painter = new StyledShapePainter();
+        BufferedImage expected = new BufferedImage(50, 50, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = expected.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        painter.paint(g2, shape, mark, 1, false);
+        g2.dispose();
+
+        RasterSymbolCache cache = new RasterSymbolCache(1024 * 1024);
+        painter.setSymbolCache(cache);
+        BufferedImage actual = new BufferedImage(50, 50, BufferedImage.TYPE_INT_ARGB);
+        g2 = actual.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        painter.paint(g2, shape, mark, 1, false);
+        g2.dispose();
+        assertEquals(1, cache.size());
+
+        // same output, besides compositing rounding
+        WritableRaster er = expected.getRaster();
+        WritableRaster ar = actual.getRaster();
+        for (int x = 0; x < 50; x++) {
+            for (int y = 0; y < 50; y++) {
+                for (int b = 0; b < 4; b++) {
+                    assertTrue(Math.abs(er.getSample(x, y, b) - ar.getSample(x, y, b)) <= 3);
+                }
+            }
+        }
+
+        // the rasters cannot be used with a scaled graphics
+        cache.clear();
+        g2 = actual.createGraphics();
+        g2.scale(2, 2);
+        painter.paint(g2, shape, mark, 1, false);
+        g2.dispose();
+        assertEquals(0, cache.size());
+    }
 }
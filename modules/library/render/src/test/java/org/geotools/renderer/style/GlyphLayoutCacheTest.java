@@ -0,0 +1,105 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.style;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import org.geotools.renderer.style.GlyphLayoutCache.GlyphLayout;
+import org.junit.Test;
+
+public class GlyphLayoutCacheTest {
+
+    static final FontRenderContext FRC = new FontRenderContext(new AffineTransform(), true, true);
+
+    static final Font FONT = new Font("SansSerif", Font.PLAIN, 12);
+
+    @Test
+    public void testHitsAndMisses() {
+        GlyphLayoutCache cache = new GlyphLayoutCache(1000);
+        GlyphLayout layout = cache.getGlyphLayout("Main Street", FONT, FRC, 0);
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(11, layout.getGlyphVector().getNumGlyphs());
+        assertEquals(
+                layout.getGlyphVector().getLogicalBounds().getWidth(),
+                layout.getLogicalBounds().getWidth(),
+                0d);
+        assertSame(layout.getOutline(), layout.getOutline());
+
+        assertSame(layout, cache.getGlyphLayout("Main Street", FONT, FRC, 0));
+        assertEquals(1, cache.getHits());
+        assertEquals(0.5, cache.getHitRatio(), 0d);
+
+        // a different size, flags or context is a different entry
+        assertNotSame(layout, cache.getGlyphLayout("Main Street", FONT.deriveFont(14f), FRC, 0));
+        assertNotSame(
+                layout,
+                cache.getGlyphLayout("Main Street", FONT, FRC, GlyphLayoutCache.NO_LAYOUT));
+        FontRenderContext aliased = new FontRenderContext(new AffineTransform(), false, true);
+        assertNotSame(layout, cache.getGlyphLayout("Main Street", FONT, aliased, 0));
+        assertEquals(4, cache.size());
+        assertEquals(44, cache.getGlyphCount());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getGlyphCount());
+    }
+
+    @Test
+    public void testTextLayout() {
+        GlyphLayoutCache cache = new GlyphLayoutCache(1000);
+        TextLayout layout = cache.getTextLayout("Rome", FONT, FRC);
+        assertSame(layout, cache.getTextLayout("Rome", FONT, FRC));
+        // not mixed up with the glyph vectors of the same text
+        GlyphVector gv = cache.getGlyphVector("Rome", FONT, FRC, 0);
+        assertEquals(4, gv.getNumGlyphs());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testEviction() {
+        GlyphLayoutCache cache = new GlyphLayoutCache(100);
+        for (int i = 0; i < 100; i++) {
+            cache.getGlyphLayout("Label " + i, FONT, FRC, 0);
+            assertTrue(cache.getGlyphCount() <= 100);
+        }
+        assertTrue(cache.size() > 0);
+        assertTrue(cache.size() < 100);
+
+        // too large to be cached
+        cache.clear();
+        cache.getGlyphLayout(new String(new char[200]).replace('\0', 'a'), FONT, FRC, 0);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testDisabled() {
+        GlyphLayoutCache cache = new GlyphLayoutCache(0);
+        GlyphLayout layout = cache.getGlyphLayout("Main Street", FONT, FRC, 0);
+        assertNotSame(layout, cache.getGlyphLayout("Main Street", FONT, FRC, 0));
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getMisses());
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.renderer.style;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.GradientPaint;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import javax.swing.Icon;
+import org.geotools.renderer.style.RasterSymbolCache.Symbol;
+import org.junit.Test;
+
+public class RasterSymbolCacheTest {
+
+    /** A vector icon equal to the others of the same size, like the SVG ones */
+    static class TestIcon implements Icon {
+        final int width;
+
+        final int height;
+
+        TestIcon(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public void paintIcon(Component c, Graphics g, int x, int y) {
+            g.setColor(Color.BLUE);
+            g.fillRect(x, y, width, height / 2);
+            g.setColor(Color.GREEN);
+            g.fillOval(x, y + height / 2, width, height / 2);
+        }
+
+        @Override
+        public int getIconWidth() {
+            return width;
+        }
+
+        @Override
+        public int getIconHeight() {
+            return height;
+        }
+
+        @Override
+        public int hashCode() {
+            return width * 31 + height;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TestIcon
+                    && ((TestIcon) obj).width == width
+                    && ((TestIcon) obj).height == height;
+        }
+    }
+
+    private MarkStyle2D createMark(float rotation) {
+        MarkStyle2D mark = new MarkStyle2D();
+        mark.setShape(WellKnownMarkFactory.circle);
+        mark.setSize(10);
+        mark.setRotation(rotation);
+        mark.setFill(Color.RED);
+        mark.setFillComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f));
+        mark.setContour(Color.BLACK);
+        mark.setStroke(new BasicStroke(1));
+        return mark;
+    }
+
+    private Graphics2D createGraphics(BufferedImage image) {
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(
+                RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        return graphics;
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        RasterSymbolCache cache = new RasterSymbolCache(1024 * 1024);
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = createGraphics(image);
+        Map<?, ?> hints = graphics.getRenderingHints();
+
+        Symbol symbol = cache.getSymbol(createMark(0), hints);
+        symbol.paint(graphics, 20.1, 20.1);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.size());
+        assertTrue(cache.getByteCount() > 0);
+
+        // same sub-pixel position, and a different mark object with the same parameters
+        cache.getSymbol(createMark(0), hints).paint(graphics, 50.2, 60.2);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+
+        // a different sub-pixel position
+        symbol.paint(graphics, 50.7, 60.2);
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+        assertEquals(1d / 3, cache.getHitRatio(), 1e-9);
+
+        // rotations within the same bucket share the raster
+        cache.getSymbol(createMark(0.001f), hints).paint(graphics, 20.1, 20.1);
+        assertEquals(2, cache.getHits());
+        cache.getSymbol(createMark(0.5f), hints).paint(graphics, 20.1, 20.1);
+        assertEquals(3, cache.getMisses());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getByteCount());
+        graphics.dispose();
+    }
+
+    @Test
+    public void testSameAsVector() {
+        RasterSymbolCache cache = new RasterSymbolCache(1024 * 1024);
+        MarkStyle2D mark = createMark(0.3f);
+        // pick a location at the center of a sub-pixel bucket, and a rotation bucket
+        mark.setRotation((float) Math.toRadians(17));
+        double x = 20.625;
+        double y = 30.125;
+
+        BufferedImage expected = new BufferedImage(50, 50, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = createGraphics(expected);
+        Shape shape = mark.getTransformedShape((float) x, (float) y);
+        graphics.setPaint(mark.getFill());
+        graphics.setComposite(mark.getFillComposite());
+        graphics.fill(shape);
+        graphics.setPaint(mark.getContour());
+        graphics.setStroke(mark.getStroke());
+        graphics.setComposite(AlphaComposite.SrcOver);
+        graphics.draw(shape);
+        graphics.dispose();
+
+        BufferedImage actual = new BufferedImage(50, 50, BufferedImage.TYPE_INT_ARGB);
+        graphics = createGraphics(actual);
+        cache.getSymbol(mark, graphics.getRenderingHints()).paint(graphics, x, y);
+        graphics.dispose();
+
+        assertSimilar(expected, actual);
+    }
+
+    private void assertSimilar(BufferedImage expected, BufferedImage actual) {
+        // allow for rounding differences in the compositing
+        for (int i = 0; i < expected.getWidth(); i++) {
+            for (int j = 0; j < expected.getHeight(); j++) {
+                for (int b = 0; b < 4; b++) {
+                    int e = expected.getRaster().getSample(i, j, b);
+                    int a = actual.getRaster().getSample(i, j, b);
+                    assertTrue("Difference at " + i + ", " + j, Math.abs(e - a) <= 3);
+                }
+            }
+        }
+    }
+
+    private IconStyle2D createIcon(Icon icon, float rotation) {
+        IconStyle2D style = new IconStyle2D(icon, null);
+        style.setRotation(rotation);
+        style.setAnchorPointX(0.25f);
+        style.setAnchorPointY(0.75f);
+        style.setDisplacementX(3);
+        style.setDisplacementY(-2);
+        return style;
+    }
+
+    @Test
+    public void testIconSameAsVector() {
+        RasterSymbolCache cache = new RasterSymbolCache(1024 * 1024);
+        IconStyle2D icon = createIcon(new TestIcon(12, 8), (float) Math.toRadians(17));
+        // a location at the center of a sub-pixel bucket
+        double x = 20.625;
+        double y = 30.125;
+
+        // same transformation as the StyledShapePainter
+        BufferedImage expected = new BufferedImage(50, 50, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = createGraphics(expected);
+        AffineTransform at = new AffineTransform();
+        at.translate(x + icon.getDisplacementX(), y + icon.getDisplacementY());
+        at.rotate(icon.getRotation());
+        at.translate(
+                -(icon.getIcon().getIconWidth() * icon.getAnchorPointX()),
+                (icon.getIcon().getIconHeight() * (icon.getAnchorPointY() - 1)));
+        graphics.transform(at);
+        icon.getIcon().paintIcon(null, graphics, 0, 0);
+        graphics.dispose();
+
+        BufferedImage actual = new BufferedImage(50, 50, BufferedImage.TYPE_INT_ARGB);
+        graphics = createGraphics(actual);
+        cache.getSymbol(icon, graphics.getRenderingHints()).paint(graphics, x, y);
+        graphics.dispose();
+
+        assertSimilar(expected, actual);
+    }
+
+    @Test
+    public void testEqualIconsShareRaster() {
+        RasterSymbolCache cache = new RasterSymbolCache(1024 * 1024);
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = createGraphics(image);
+        Map<?, ?> hints = graphics.getRenderingHints();
+
+        // icons built separately for each feature, rescaled as the style factory does
+        cache.getSymbol(createIcon(new TestIcon(12, 8), 0), hints).paint(graphics, 20, 20);
+        cache.getSymbol(createIcon(new TestIcon(12, 8), 0), hints).paint(graphics, 40, 40);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+
+        Icon rescaled1 = new RescaledIcon(new TestIcon(12, 8), 2);
+        Icon rescaled2 = new RescaledIcon(new TestIcon(12, 8), 2);
+        cache.getSymbol(createIcon(rescaled1, 0), hints).paint(graphics, 20, 20);
+        cache.getSymbol(createIcon(rescaled2, 0), hints).paint(graphics, 40, 40);
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.getHits());
+
+        // a different scale is a different raster
+        Icon rescaled3 = new RescaledIcon(new TestIcon(12, 8), 3);
+        cache.getSymbol(createIcon(rescaled3, 0), hints).paint(graphics, 20, 20);
+        assertEquals(3, cache.getMisses());
+        assertEquals(3, cache.size());
+        graphics.dispose();
+    }
+
+    @Test
+    public void testNotCacheable() {
+        RasterSymbolCache cache = new RasterSymbolCache(1024 * 1024);
+        Map<?, ?> hints = new RenderingHints(null);
+        MarkStyle2D mark = createMark(0);
+        mark.setFill(new GradientPaint(0, 0, Color.RED, 10, 10, Color.BLUE));
+        assertNull(cache.getSymbol(mark, hints));
+
+        mark = createMark(0);
+        mark.setFillComposite(AlphaComposite.getInstance(AlphaComposite.XOR));
+        assertNull(cache.getSymbol(mark, hints));
+
+        assertNull(cache.getSymbol(new GraphicStyle2D(null, 0, 0), hints));
+        assertNull(new RasterSymbolCache(0).getSymbol(createMark(0), hints));
+        assertNotNull(cache.getSymbol(createMark(0), hints));
+    }
+
+    @Test
+    public void testEviction() {
+        // room for a few 10x10 marks only
+        RasterSymbolCache cache = new RasterSymbolCache(2000);
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = createGraphics(image);
+        for (int i = 0; i < 90; i++) {
+            cache.getSymbol(createMark((float) Math.toRadians(i)), graphics.getRenderingHints())
+                    .paint(graphics, 50, 50);
+            assertTrue(cache.getByteCount() <= 2000);
+        }
+        assertTrue(cache.size() > 0);
+        assertEquals(90, cache.getMisses());
+        graphics.dispose();
+    }
+}
@@ -73,6 +73,13 @@ public class TTFMarkFactoryTest extends TestCase {
         assertTrue(shape.getBounds2D().getHeight() <= 1);
     }
 
+    /** Shapes are shared, so that the symbols using them can be cached */
+    public void testSharedShapes() throws Exception {
+        Shape shape = ttf.getShape(null, ff.literal("ttf://Serif#56"), null);
+        assertSame(shape, new TTFMarkFactory().getShape(null, ff.literal("ttf://Serif#56"), null));
+        assertNotSame(shape, ttf.getShape(null, ff.literal("ttf://Serif#57"), null));
+    }
+
     /**
      * Checks valid paths
      *
@@ -0,0 +1,307 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.geopkg;
+
+import static java.lang.String.format;
+
+import com.vividsolutions.jts.geom.Geometry;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.factory.Hints;
+import org.geotools.geopkg.geom.GeoPkgGeomWriter;
+import org.geotools.jdbc.JDBCDataStore;
+import org.geotools.jdbc.PreparedStatementSQLDialect;
+import org.geotools.util.Converters;
+import org.geotools.util.logging.Logging;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+
+/**
+ * Bulk loads features and tiles in a geopackage. The expensive part of the work, encoding
+ * geometries or compressing tiles, is run on an executor, while the calling thread acts as the
+ * single writer, inserting the results in order with JDBC batches, all in one transaction.
+ *
+ * <p>The number of batches being encoded at any given time is bounded, so that a fast producer
+ * cannot fill the memory while the writer catches up.
+ */
+class BulkWriter {
+
+    static final Logger LOGGER = Logging.getLogger(BulkWriter.class);
+
+    /** Number of features encoded by a single task, and inserted by a single JDBC batch */
+    static final int FEATURE_BATCH_SIZE = 1000;
+
+    /** Number of tiles inserted by a single JDBC batch */
+    static final int TILE_BATCH_SIZE = 100;
+
+    final GeoPackage geopkg;
+
+    final ExecutorService executor;
+
+    final int maxPending;
+
+    BulkWriter(GeoPackage geopkg, ExecutorService executor) {
+        this.geopkg = geopkg;
+        this.executor = executor;
+        // enough to keep every worker busy while the caller inserts, more would just use memory
+        int workers = Runtime.getRuntime().availableProcessors();
+        if (executor instanceof ThreadPoolExecutor) {
+            workers = Math.min(workers, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+        }
+        this.maxPending = workers * 2;
+    }
+
+    /**
+     * Appends the features to the (already created) table of the entry
+     *
+     * @param entry The feature entry, with its table name, geometry column and srid
+     * @param collection The features to add
+     */
+    void write(FeatureEntry entry, SimpleFeatureCollection collection) throws IOException {
+        JDBCDataStore dataStore = geopkg.dataStore();
+        PreparedStatementSQLDialect dialect =
+                (PreparedStatementSQLDialect) dataStore.getSQLDialect();
+        SimpleFeatureType target = dataStore.getSchema(entry.getTableName());
+
+        // the columns we are going to fill, source attributes missing in the table are skipped
+        List<String> names = new ArrayList<>();
+        List<AttributeDescriptor> descriptors = new ArrayList<>();
+        for (AttributeDescriptor ad : collection.getSchema().getAttributeDescriptors()) {
+            AttributeDescriptor td = target.getDescriptor(ad.getLocalName());
+            if (td != null) {
+                names.add(ad.getLocalName());
+                descriptors.add(td);
+            }
+        }
+        final AttributeDescriptor[] columns = descriptors.toArray(new AttributeDescriptor[0]);
+
+        StringBuffer sql = new StringBuffer("INSERT INTO ");
+        dialect.encodeTableName(entry.getTableName(), sql);
+        sql.append(" (");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            dialect.encodeColumnName(null, columns[i].getLocalName(), sql);
+        }
+        sql.append(") VALUES (");
+        for (int i = 0; i < columns.length; i++) {
+            sql.append(i > 0 ? ", ?" : "?");
+        }
+        sql.append(")");
+
+        final int srid = entry.getSrid() != null ? entry.getSrid() : 0;
+        final GeoPkgGeomWriter.Configuration config = geopkg.getWriterConfiguration();
+        try (Connection cx = geopkg.getDataSource().getConnection()) {
+            boolean autoCommit = cx.getAutoCommit();
+            cx.setAutoCommit(false);
+            Deque<Future<Object[][]>> pending = new ArrayDeque<>();
+            try (PreparedStatement ps = cx.prepareStatement(sql.toString());
+                    SimpleFeatureIterator it = collection.features()) {
+                while (it.hasNext()) {
+                    // grab the values on this thread, feature objects might be recycled
+                    final List<Object[]> batch = new ArrayList<>(FEATURE_BATCH_SIZE);
+                    while (it.hasNext() && batch.size() < FEATURE_BATCH_SIZE) {
+                        SimpleFeature f = it.next();
+                        Object[] values = new Object[columns.length];
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = f.getAttribute(names.get(i));
+                        }
+                        batch.add(values);
+                    }
+                    pending.add(executor.submit(() -> encode(batch, columns, srid, config)));
+                    if (pending.size() >= maxPending) {
+                        insert(pending.poll(), ps, columns, dialect, cx);
+                    }
+                }
+                while (!pending.isEmpty()) {
+                    insert(pending.poll(), ps, columns, dialect, cx);
+                }
+                cx.commit();
+            } catch (Exception e) {
+                rollback(cx, pending);
+                throw e;
+            } finally {
+                cx.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /** Encodes geometries and converts values to the column types, run on the executor */
+    static Object[][] encode(
+            List<Object[]> batch,
+            AttributeDescriptor[] columns,
+            int srid,
+            GeoPkgGeomWriter.Configuration config)
+            throws IOException {
+        Object[][] rows = new Object[batch.size()][];
+        for (int r = 0; r < rows.length; r++) {
+            Object[] values = batch.get(r);
+            for (int i = 0; i < columns.length; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                AttributeDescriptor column = columns[i];
+                if (column instanceof GeometryDescriptor) {
+                    Geometry g = (Geometry) value;
+                    if (g.isEmpty()) {
+                        values[i] = null;
+                    } else {
+                        Integer dimension =
+                                (Integer) column.getUserData().get(Hints.COORDINATE_DIMENSION);
+                        g.setSRID(srid);
+                        values[i] =
+                                new GeoPkgGeomWriter(dimension != null ? dimension : 2, config)
+                                        .write(g);
+                    }
+                } else {
+                    Class<?> binding = column.getType().getBinding();
+                    if (!binding.isInstance(value)) {
+                        Object converted = Converters.convert(value, binding);
+                        values[i] = converted != null ? converted : value;
+                    }
+                }
+            }
+            rows[r] = values;
+        }
+        return rows;
+    }
+
+    void insert(
+            Future<Object[][]> future,
+            PreparedStatement ps,
+            AttributeDescriptor[] columns,
+            PreparedStatementSQLDialect dialect,
+            Connection cx)
+            throws IOException, SQLException {
+        for (Object[] row : get(future)) {
+            for (int i = 0; i < columns.length; i++) {
+                Object value = row[i];
+                if (columns[i] instanceof GeometryDescriptor) {
+                    if (value == null) {
+                        ps.setNull(i + 1, Types.BLOB);
+                    } else {
+                        ps.setBytes(i + 1, (byte[]) value);
+                    }
+                } else {
+                    // the dialect takes care of the last mile, e.g., booleans stored as integers
+                    dialect.setValue(value, columns[i].getType().getBinding(), ps, i + 1, cx);
+                }
+            }
+            ps.addBatch();
+        }
+        ps.executeBatch();
+    }
+
+    /**
+     * Appends the tiles to the (already created) table of the entry. Each tile is produced by its
+     * callable on the executor, the results are inserted in the same order as the iterator.
+     *
+     * @param entry The tile entry
+     * @param tiles The tile producers
+     */
+    void write(TileEntry entry, Iterator<? extends Callable<Tile>> tiles) throws IOException {
+        String sql =
+                format(
+                        "INSERT INTO %s (zoom_level, tile_column, tile_row, tile_data) "
+                                + "VALUES (?,?,?,?)",
+                        entry.getTableName());
+        try (Connection cx = geopkg.getDataSource().getConnection()) {
+            boolean autoCommit = cx.getAutoCommit();
+            cx.setAutoCommit(false);
+            Deque<Future<Tile>> pending = new ArrayDeque<>();
+            try (PreparedStatement ps = cx.prepareStatement(sql)) {
+                int batched = 0;
+                while (tiles.hasNext() || !pending.isEmpty()) {
+                    if (tiles.hasNext() && pending.size() < maxPending) {
+                        pending.add(executor.submit(tiles.next()));
+                        continue;
+                    }
+                    Tile tile = get(pending.poll());
+                    ps.setInt(1, tile.getZoom());
+                    ps.setInt(2, tile.getColumn());
+                    ps.setInt(3, tile.getRow());
+                    ps.setBytes(4, tile.getData());
+                    ps.addBatch();
+                    if (++batched == TILE_BATCH_SIZE) {
+                        ps.executeBatch();
+                        batched = 0;
+                    }
+                }
+                if (batched > 0) {
+                    ps.executeBatch();
+                }
+                cx.commit();
+            } catch (Exception e) {
+                rollback(cx, pending);
+                throw e;
+            } finally {
+                cx.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    static <T> T get(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the bulk load encoders", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    static void rollback(Connection cx, Deque<? extends Future<?>> pending) {
+        for (Future<?> future : pending) {
+            future.cancel(true);
+        }
+        try {
+            cx.rollback();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error rolling back the bulk load", e);
+        }
+    }
+}
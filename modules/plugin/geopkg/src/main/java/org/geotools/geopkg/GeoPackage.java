@@ -34,10 +34,13 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.sql.DataSource;
@@ -307,6 +310,27 @@ public class GeoPackage {
                         return reader.getHeader().getFlags().isEmpty();
                     }
                 });
+
+        // envelope intersection, (geom, minx, miny, maxx, maxy)
+        Function.create(
+                cx,
+                "ST_EnvIntersects",
+                new GeometryFunction(5) {
+                    @Override
+                    public Object execute(GeoPkgGeomReader reader) throws IOException {
+                        try {
+                            Envelope envelope = reader.getEnvelope();
+                            return envelope.intersects(
+                                    new Envelope(
+                                            value_double(1),
+                                            value_double(3),
+                                            value_double(2),
+                                            value_double(4)));
+                        } catch (SQLException e) {
+                            throw new IOException(e);
+                        }
+                    }
+                });
     }
 
     /**
@@ -728,6 +752,38 @@ public class GeoPackage {
         entry.init(e);
     }
 
+    /**
+     * Adds a new feature dataset to the geopackage in bulk load mode.
+     *
+     * <p>Geometries are encoded on the provided executor while the calling thread inserts the
+     * encoded rows in JDBC batches, in a single transaction. The spatial index is built at the end
+     * of the load, in one pass, rather than being maintained while inserting.
+     *
+     * @param entry Contains metadata about the feature entry.
+     * @param collection The simple feature collection to add to the geopackage.
+     * @param executor The executor encoding the features, the caller owns it and shuts it down.
+     * @throws IOException Any errors occurring while adding the new feature dataset.
+     */
+    public void add(
+            FeatureEntry entry, SimpleFeatureCollection collection, ExecutorService executor)
+            throws IOException {
+        FeatureEntry e = new FeatureEntry();
+        e.init(entry);
+
+        if (e.getBounds() == null) {
+            e.setBounds(collection.getBounds());
+        }
+
+        create(e, collection.getSchema());
+
+        new BulkWriter(this, executor).write(e, collection);
+
+        if (e.getGeometryColumn() != null) {
+            createSpatialIndex(e);
+        }
+        entry.init(e);
+    }
+
     /**
      * Adds a new feature dataset to the geopackage.
      *
@@ -1306,6 +1362,23 @@ public class GeoPackage {
         }
     }
 
+    /**
+     * Adds tiles to the geopackage in bulk load mode.
+     *
+     * <p>Each tile is produced by its callable on the provided executor, this is where rendering
+     * and image compression should happen (see {@link Tile#encoder}), while the calling thread
+     * inserts the results in JDBC batches, in a single transaction, and in iteration order.
+     *
+     * @param entry The tile metadata entry.
+     * @param tiles The tile producers.
+     * @param executor The executor running the producers, the caller owns it and shuts it down.
+     */
+    public void add(
+            TileEntry entry, Iterator<? extends Callable<Tile>> tiles, ExecutorService executor)
+            throws IOException {
+        new BulkWriter(this, executor).write(entry, tiles);
+    }
+
     /**
      * Retrieve tiles within certain zooms and column/row boundaries
      *
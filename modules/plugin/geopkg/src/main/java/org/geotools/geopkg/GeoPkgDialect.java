@@ -123,8 +123,9 @@ public class GeoPkgDialect extends PreparedStatementSQLDialect {
     @Override
     public Envelope decodeGeometryEnvelope(ResultSet rs, int column, Connection cx)
             throws SQLException, IOException {
-        Geometry g = geometry(rs.getBytes(column));
-        return g != null ? g.getEnvelopeInternal() : null;
+        // the envelope is usually in the blob header, no need to parse the geometry then
+        byte[] bytes = rs.getBytes(column);
+        return bytes != null ? new GeoPkgGeomReader(bytes).getEnvelope() : null;
     }
 
     @Override
@@ -16,7 +16,12 @@
  */
 package org.geotools.geopkg;
 
+import java.awt.image.RenderedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.Callable;
+import javax.imageio.ImageIO;
 
 /**
  * A single tile from a geopackage tiles layer.
@@ -39,6 +44,28 @@ public class Tile {
         this.data = data;
     }
 
+    /**
+     * Returns a task encoding the image in the given format, for bulk loads running the image
+     * compression in parallel.
+     *
+     * @param zoom The tile zoom level
+     * @param column The tile column
+     * @param row The tile row
+     * @param image The tile image
+     * @param format The image format, as known to ImageIO, e.g. "png" or "jpeg"
+     * @see GeoPackage#add(TileEntry, java.util.Iterator, java.util.concurrent.ExecutorService)
+     */
+    public static Callable<Tile> encoder(
+            int zoom, int column, int row, RenderedImage image, String format) {
+        return () -> {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            if (!ImageIO.write(image, format, bos)) {
+                throw new IOException("Could not find an image writer for format " + format);
+            }
+            return new Tile(zoom, column, row, bos.toByteArray());
+        };
+    }
+
     public Integer getZoom() {
         return zoom;
     }
@@ -31,12 +31,15 @@ import com.vividsolutions.jts.geom.Point;
 import com.vividsolutions.jts.geom.Polygon;
 import com.vividsolutions.jts.io.ByteArrayInStream;
 import com.vividsolutions.jts.io.ByteOrderDataInStream;
+import com.vividsolutions.jts.io.ByteOrderValues;
 import com.vividsolutions.jts.io.InStream;
 import com.vividsolutions.jts.io.InputStreamInStream;
 import com.vividsolutions.jts.io.ParseException;
 import com.vividsolutions.jts.io.WKBReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import org.geotools.factory.Hints;
 import org.geotools.geometry.jts.JTS;
 
@@ -52,6 +55,12 @@ public class GeoPkgGeomReader {
 
     protected InStream input;
 
+    /** The BLOB, when available, decoded in place without going through {@link #input} */
+    private byte[] bytes;
+
+    /** Position of the WKB geometry in {@link #bytes}, valid once the header is read */
+    private int wkbOffset;
+
     protected GeometryHeader header = null;
 
     protected Geometry geometry = null;
@@ -72,6 +81,7 @@ public class GeoPkgGeomReader {
 
     public GeoPkgGeomReader(byte[] bytes) {
         this.input = new ByteArrayInStream(bytes);
+        this.bytes = bytes;
     }
 
     public GeometryHeader getHeader() throws IOException {
@@ -91,6 +101,7 @@ public class GeoPkgGeomReader {
             if (simplificationDistance != null
                     && geometryType != null
                     && header.getFlags().getEnvelopeIndicator() != EnvelopeType.NONE
+                    && !header.getFlags().isEmpty()
                     && envelope.getWidth() < simplificationDistance.doubleValue()
                     && envelope.getHeight() < simplificationDistance.doubleValue()) {
                 Geometry simplified =
@@ -157,8 +168,14 @@ public class GeoPkgGeomReader {
         }
     }
 
+    /**
+     * Returns the geometry envelope, decoding only the header if it carries one, or the whole
+     * geometry otherwise. Empty geometries have a null envelope.
+     */
     public Envelope getEnvelope() throws IOException {
-        if (getHeader().getFlags().getEnvelopeIndicator() == EnvelopeType.NONE) {
+        if (getHeader().getFlags().isEmpty()) {
+            return new Envelope();
+        } else if (getHeader().getFlags().getEnvelopeIndicator() == EnvelopeType.NONE) {
             return get().getEnvelopeInternal();
         } else {
             return getHeader().getEnvelope();
@@ -168,6 +185,13 @@ public class GeoPkgGeomReader {
     protected Geometry read() throws IOException { // header must be read!
         // read the geometry
         try {
+            if (bytes != null) {
+                Geometry g =
+                        new WKBBufferReader(factory)
+                                .read(bytes, wkbOffset, bytes.length - wkbOffset);
+                g.setSRID(header.getSrid());
+                return g;
+            }
             WKBReader wkbReader = new WKBReader(factory);
             Geometry g = wkbReader.read(input);
             g.setSRID(header.getSrid());
@@ -206,6 +230,9 @@ public class GeoPkgGeomReader {
     *       1 = Little Endian (least significant bit first)
     */
     protected GeometryHeader readHeader() throws IOException {
+        if (bytes != null) {
+            return readHeader(bytes);
+        }
         GeometryHeader h = new GeometryHeader();
 
         // read first 4 bytes
@@ -247,6 +274,36 @@ public class GeoPkgGeomReader {
         return h;
     }
 
+    /** Parses the header straight from the BLOB, recording where the WKB section starts */
+    private GeometryHeader readHeader(byte[] bytes) throws IOException {
+        try {
+            GeometryHeader h = new GeometryHeader();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            h.setVersion(bytes[2]);
+            h.setFlags(new GeometryHeaderFlags(bytes[3]));
+            buffer.order(
+                    h.getFlags().getEndianess() == ByteOrderValues.LITTLE_ENDIAN
+                            ? ByteOrder.LITTLE_ENDIAN
+                            : ByteOrder.BIG_ENDIAN);
+            h.setSrid(buffer.getInt(4));
+            int position = 8;
+            EnvelopeType envelopeType = h.getFlags().getEnvelopeIndicator();
+            if (envelopeType != EnvelopeType.NONE) {
+                double x1 = buffer.getDouble(position);
+                double x2 = buffer.getDouble(position + 8);
+                double y1 = buffer.getDouble(position + 16);
+                double y2 = buffer.getDouble(position + 24);
+                h.setEnvelope(new Envelope(x1, x2, y1, y2));
+                // z and m ranges, if any, are ignored
+                position += envelopeType.getLength();
+            }
+            wkbOffset = position;
+            return h;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Truncated GeoPackage geometry header", e);
+        }
+    }
+
     /** @return the factory */
     public GeometryFactory getFactory() {
         return factory;
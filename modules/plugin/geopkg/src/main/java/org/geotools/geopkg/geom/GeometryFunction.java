@@ -28,17 +28,41 @@ import org.sqlite.Function;
  */
 public abstract class GeometryFunction extends Function {
 
+    private final int arguments;
+
+    public GeometryFunction() {
+        this(1);
+    }
+
+    /**
+     * Builds a function taking the geometry as first argument, followed by other arguments the
+     * implementation can access with the {@link Function} value methods
+     *
+     * @param arguments the total number of arguments
+     */
+    public GeometryFunction(int arguments) {
+        this.arguments = arguments;
+    }
+
     public abstract Object execute(GeoPkgGeomReader reader) throws IOException;
 
     @Override
     protected void xFunc() throws SQLException {
-        if (args() != 1) {
-            throw new SQLException("Geometry Function expects one argument.");
+        if (args() != arguments) {
+            throw new SQLException(
+                    "Geometry Function expects "
+                            + (arguments == 1 ? "one argument." : arguments + " arguments."));
+        }
+
+        byte[] blob = value_blob(0);
+        if (blob == null) {
+            result();
+            return;
         }
 
         Object res;
         try {
-            res = execute(new GeoPkgGeomReader(value_blob(0)));
+            res = execute(new GeoPkgGeomReader(blob));
         } catch (IOException e) {
             throw new SQLException(e);
         }
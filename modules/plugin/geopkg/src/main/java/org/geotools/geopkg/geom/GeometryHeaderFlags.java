@@ -83,11 +83,11 @@ public class GeometryHeaderFlags {
     }
 
     public boolean isEmpty() {
-        return (b & MASK_EMPTY) == 1;
+        return (b & MASK_EMPTY) != 0;
     }
 
     public void setEmpty(boolean empty) {
-        b |= ((byte) (empty ? 1 : 0) & MASK_EMPTY);
+        b = (byte) (empty ? b | MASK_EMPTY : b & ~MASK_EMPTY);
     }
 
     public GeopackageBinaryType getBinaryType() {
@@ -0,0 +1,207 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.geopkg.geom;
+
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.CoordinateSequenceFactory;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.PrecisionModel;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKBConstants;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.geotools.geometry.jts.JTS;
+import org.geotools.geometry.jts.LiteCoordinateSequence;
+import org.geotools.geometry.jts.LiteCoordinateSequenceFactory;
+
+/**
+ * Decodes the WKB section of a GeoPackage geometry BLOB straight from the byte array, without
+ * copying it or going through a stream. Ordinates are read in bulk, and handed over as is to the
+ * {@link LiteCoordinateSequence} instances when the factory uses a {@link
+ * LiteCoordinateSequenceFactory}.
+ *
+ * <p>Both the ISO type codes mandated by the GeoPackage specification (e.g. 1001 for a point with
+ * Z) and the extended ones written by JTS (high bit flags) are understood. M values are dropped.
+ */
+final class WKBBufferReader {
+
+    static final int EWKB_Z = 0x80000000;
+
+    static final int EWKB_M = 0x40000000;
+
+    static final int EWKB_SRID = 0x20000000;
+
+    private final GeometryFactory factory;
+
+    private final CoordinateSequenceFactory csFactory;
+
+    private final PrecisionModel precisionModel;
+
+    private ByteBuffer buffer;
+
+    /** Number of ordinates per coordinate in the input */
+    private int inputDimension;
+
+    /** Number of ordinates per coordinate kept in the output (M is dropped) */
+    private int outputDimension;
+
+    WKBBufferReader(GeometryFactory factory) {
+        this.factory = factory;
+        this.csFactory = factory.getCoordinateSequenceFactory();
+        this.precisionModel = factory.getPrecisionModel();
+    }
+
+    /**
+     * Reads the geometry stored in the given section of the array
+     *
+     * @param bytes the array holding the geometry
+     * @param offset the position of the first WKB byte
+     * @param length the number of WKB bytes
+     */
+    Geometry read(byte[] bytes, int offset, int length) throws ParseException {
+        buffer = ByteBuffer.wrap(bytes, offset, length);
+        try {
+            return readGeometry();
+        } catch (BufferUnderflowException e) {
+            throw new ParseException("Unexpected end of WKB data");
+        } finally {
+            buffer = null;
+        }
+    }
+
+    private Geometry readGeometry() throws ParseException {
+        byte order = buffer.get();
+        buffer.order(order == WKBConstants.wkbNDR ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+
+        int typeInt = buffer.getInt();
+        boolean hasZ = (typeInt & EWKB_Z) != 0;
+        boolean hasM = (typeInt & EWKB_M) != 0;
+        if ((typeInt & EWKB_SRID) != 0) {
+            // the GeoPackage header srid takes precedence, skip it
+            buffer.getInt();
+        }
+        int isoType = typeInt & 0x0FFFFFFF;
+        int dimensionCode = isoType / 1000;
+        hasZ |= dimensionCode == 1 || dimensionCode == 3;
+        hasM |= dimensionCode == 2 || dimensionCode == 3;
+        inputDimension = 2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0);
+        outputDimension = hasZ ? 3 : 2;
+
+        switch (isoType % 1000) {
+            case WKBConstants.wkbPoint:
+                return readPoint();
+            case WKBConstants.wkbLineString:
+                return factory.createLineString(readCoordinateSequence(buffer.getInt()));
+            case WKBConstants.wkbPolygon:
+                return readPolygon();
+            case WKBConstants.wkbMultiPoint:
+                return factory.createMultiPoint(readGeometries(new Point[buffer.getInt()]));
+            case WKBConstants.wkbMultiLineString:
+                return factory.createMultiLineString(
+                        readGeometries(new LineString[buffer.getInt()]));
+            case WKBConstants.wkbMultiPolygon:
+                return factory.createMultiPolygon(readGeometries(new Polygon[buffer.getInt()]));
+            case WKBConstants.wkbGeometryCollection:
+                return factory.createGeometryCollection(
+                        readGeometries(new Geometry[buffer.getInt()]));
+            default:
+                throw new ParseException("Unknown WKB type " + typeInt);
+        }
+    }
+
+    private Point readPoint() {
+        CoordinateSequence cs = readCoordinateSequence(1);
+        if (Double.isNaN(cs.getOrdinate(0, 0)) && Double.isNaN(cs.getOrdinate(0, 1))) {
+            // common encoding for an empty point
+            return factory.createPoint((CoordinateSequence) null);
+        }
+        return factory.createPoint(cs);
+    }
+
+    private Polygon readPolygon() {
+        int numRings = buffer.getInt();
+        if (numRings <= 0) {
+            return factory.createPolygon(null, null);
+        }
+        LinearRing shell = factory.createLinearRing(readCoordinateSequence(buffer.getInt()));
+        LinearRing[] holes = new LinearRing[numRings - 1];
+        for (int i = 0; i < holes.length; i++) {
+            holes[i] = factory.createLinearRing(readCoordinateSequence(buffer.getInt()));
+        }
+        return factory.createPolygon(shell, holes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Geometry> T[] readGeometries(T[] geometries) throws ParseException {
+        Class<?> type = geometries.getClass().getComponentType();
+        for (int i = 0; i < geometries.length; i++) {
+            Geometry g = readGeometry();
+            if (!type.isInstance(g)) {
+                throw new ParseException(
+                        "Invalid geometry type encountered in " + type.getSimpleName());
+            }
+            geometries[i] = (T) g;
+        }
+        return geometries;
+    }
+
+    /** Reads the ordinates of a coordinate sequence in bulk from the byte buffer */
+    private CoordinateSequence readCoordinateSequence(int size) {
+        int length = size * inputDimension;
+        if (size < 0 || length > buffer.remaining() / 8) {
+            throw new BufferUnderflowException();
+        }
+        double[] ordinates = new double[length];
+        buffer.asDoubleBuffer().get(ordinates);
+        buffer.position(buffer.position() + length * 8);
+        if (outputDimension != inputDimension) {
+            // drop the M values, compacting in place
+            for (int i = 0, k = 0; i < size; i++, k += inputDimension) {
+                System.arraycopy(ordinates, k, ordinates, i * outputDimension, outputDimension);
+            }
+            length = size * outputDimension;
+        }
+        if (!precisionModel.isFloating()) {
+            for (int i = 0; i < length; i += outputDimension) {
+                ordinates[i] = precisionModel.makePrecise(ordinates[i]);
+                ordinates[i + 1] = precisionModel.makePrecise(ordinates[i + 1]);
+            }
+        }
+        if (csFactory instanceof LiteCoordinateSequenceFactory) {
+            if (length != ordinates.length) {
+                double[] trimmed = new double[length];
+                System.arraycopy(ordinates, 0, trimmed, 0, length);
+                ordinates = trimmed;
+            }
+            return new LiteCoordinateSequence(ordinates, outputDimension);
+        }
+        CoordinateSequence seq = JTS.createCS(csFactory, size, outputDimension);
+        int targetDim = Math.min(seq.getDimension(), outputDimension);
+        for (int i = 0, k = 0; i < size; i++, k += outputDimension) {
+            for (int j = 0; j < targetDim; j++) {
+                seq.setOrdinate(i, j, ordinates[k + j]);
+            }
+        }
+        return seq;
+    }
+}
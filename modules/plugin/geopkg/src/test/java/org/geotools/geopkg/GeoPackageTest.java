@@ -28,6 +28,7 @@ import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.Point;
 import com.vividsolutions.jts.geom.PrecisionModel;
+import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
@@ -44,8 +45,12 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import javax.imageio.ImageIO;
 import javax.media.jai.PlanarImage;
@@ -56,7 +61,9 @@ import org.geotools.coverage.grid.GridEnvelope2D;
 import org.geotools.coverage.grid.GridGeometry2D;
 import org.geotools.coverage.grid.io.AbstractGridFormat;
 import org.geotools.data.DefaultTransaction;
+import org.geotools.data.Query;
 import org.geotools.data.Transaction;
+import org.geotools.data.collection.ListFeatureCollection;
 import org.geotools.data.memory.MemoryFeatureCollection;
 import org.geotools.data.shapefile.ShapefileDataStore;
 import org.geotools.data.simple.SimpleFeatureCollection;
@@ -325,6 +332,81 @@ public class GeoPackageTest {
         ra.close();
     }
 
+    @Test
+    public void testBulkAddFeatureEntry() throws Exception {
+        ShapefileDataStore shp = new ShapefileDataStore(setUpShapefile());
+
+        FeatureEntry entry = new FeatureEntry();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            geopkg.add(entry, shp.getFeatureSource().getFeatures(), executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTableExists("bugsites");
+        assertFeatureEntry(entry);
+        assertTrue(geopkg.hasSpatialIndex(entry));
+
+        try (SimpleFeatureReader re = Features.simple(shp.getFeatureReader());
+                SimpleFeatureReader ra = geopkg.reader(entry, null, null)) {
+            while (re.hasNext()) {
+                assertTrue(ra.hasNext());
+                assertSimilar(re.next(), ra.next());
+            }
+            assertFalse(ra.hasNext());
+        }
+        shp.dispose();
+    }
+
+    @Test
+    public void testBulkAddManyFeatures() throws Exception {
+        SimpleFeatureTypeBuilder tb = new SimpleFeatureTypeBuilder();
+        tb.setName("bulk");
+        tb.setCRS(DefaultGeographicCRS.WGS84);
+        tb.add("geom", Point.class);
+        tb.add("num", Integer.class);
+        tb.add("name", String.class);
+        SimpleFeatureType type = tb.buildFeatureType();
+
+        // several encoding batches, with two workers at most four of them are in flight, so the
+        // writer has to wait on the oldest ones while the others are still being encoded
+        int count = BulkWriter.FEATURE_BATCH_SIZE * 6 + 123;
+        GeometryFactory gf = new GeometryFactory();
+        SimpleFeatureBuilder fb = new SimpleFeatureBuilder(type);
+        ListFeatureCollection collection = new ListFeatureCollection(type);
+        for (int i = 0; i < count; i++) {
+            fb.add(gf.createPoint(new Coordinate(i % 360 - 180, i % 180 - 90)));
+            fb.add(i);
+            fb.add(i % 10 == 0 ? null : "f" + i);
+            collection.add(fb.buildFeature("bulk." + i));
+        }
+
+        FeatureEntry entry = new FeatureEntry();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            geopkg.add(entry, collection, executor);
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(geopkg.hasSpatialIndex(entry));
+
+        // all the features, in insertion order
+        try (SimpleFeatureReader r = geopkg.reader(entry, null, null)) {
+            int i = 0;
+            while (r.hasNext()) {
+                SimpleFeature f = r.next();
+                assertEquals(i, ((Number) f.getAttribute("num")).intValue());
+                assertEquals(i % 10 == 0 ? null : "f" + i, f.getAttribute("name"));
+                Point p = (Point) f.getDefaultGeometry();
+                assertEquals(i % 360 - 180, p.getX(), 0d);
+                assertEquals(i % 180 - 90, p.getY(), 0d);
+                i++;
+            }
+            assertEquals(count, i);
+        }
+    }
+
     @Test
     public void test3DGeometry() throws Exception {
         // create feature with 3d geometry
@@ -411,6 +493,48 @@ public class GeoPackageTest {
         }
     }
 
+    @Test
+    public void testEnvIntersectsFunction() throws Exception {
+        ShapefileDataStore shp = new ShapefileDataStore(setUpShapefile());
+        ReferencedEnvelope bounds = shp.getFeatureSource().getBounds();
+        int count = shp.getFeatureSource().getCount(Query.ALL);
+
+        FeatureEntry entry = new FeatureEntry();
+        geopkg.add(entry, shp.getFeatureSource(), null);
+        shp.dispose();
+
+        try (Connection cx = geopkg.getDataSource().getConnection();
+                Statement st = cx.createStatement()) {
+            String sql =
+                    "SELECT COUNT(*) FROM bugsites "
+                            + "WHERE ST_EnvIntersects(the_geom, %f, %f, %f, %f)";
+            try (ResultSet rs =
+                    st.executeQuery(
+                            String.format(
+                                    Locale.ENGLISH,
+                                    sql,
+                                    bounds.getMinX() - 1,
+                                    bounds.getMinY() - 1,
+                                    bounds.getMaxX() + 1,
+                                    bounds.getMaxY() + 1))) {
+                assertTrue(rs.next());
+                assertEquals(count, rs.getInt(1));
+            }
+            try (ResultSet rs =
+                    st.executeQuery(
+                            String.format(
+                                    Locale.ENGLISH,
+                                    sql,
+                                    bounds.getMaxX() + 1,
+                                    bounds.getMaxY() + 1,
+                                    bounds.getMaxX() + 2,
+                                    bounds.getMaxY() + 2))) {
+                assertTrue(rs.next());
+                assertEquals(0, rs.getInt(1));
+            }
+        }
+    }
+
     @Test
     public void testBooleanWrite() throws Exception {
         ShapefileDataStore shp = new ShapefileDataStore(setUpBoolShapefile());
@@ -581,6 +705,47 @@ public class GeoPackageTest {
         }
     }
 
+    @Test
+    public void testBulkAddTiles() throws Exception {
+        TileEntry e = new TileEntry();
+        e.setTableName("foo");
+        e.setBounds(new ReferencedEnvelope(-180, 180, -90, 90, DefaultGeographicCRS.WGS84));
+        e.getTileMatricies().add(new TileMatrix(0, 1, 1, 256, 256, 0.1, 0.1));
+        e.getTileMatricies().add(new TileMatrix(1, 2, 2, 256, 256, 0.1, 0.1));
+        geopkg.create(e);
+
+        List<Callable<Tile>> encoders = new ArrayList<>();
+        encoders.add(Tile.encoder(0, 0, 0, tileImage(Color.RED), "png"));
+        encoders.add(Tile.encoder(1, 0, 0, tileImage(Color.GREEN), "png"));
+        encoders.add(Tile.encoder(1, 0, 1, tileImage(Color.BLUE), "png"));
+        encoders.add(Tile.encoder(1, 1, 0, tileImage(Color.YELLOW), "jpeg"));
+        encoders.add(Tile.encoder(1, 1, 1, tileImage(Color.BLACK), "jpeg"));
+        List<Tile> tiles = new ArrayList<>();
+        for (Callable<Tile> encoder : encoders) {
+            tiles.add(encoder.call());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            geopkg.add(e, encoders.iterator(), executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        try (TileReader r = geopkg.reader(e, null, null, null, null, null, null)) {
+            assertTiles(tiles, r);
+        }
+    }
+
+    private BufferedImage tileImage(Color color) {
+        BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = image.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, 256, 256);
+        g.dispose();
+        return image;
+    }
+
     @Test
     public void testIndependentTileMatrix() throws Exception {
         TileEntry e = new TileEntry();
@@ -19,9 +19,19 @@ package org.geotools.geopkg.geom;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 import org.geotools.geometry.jts.GeometryBuilder;
+import org.geotools.geometry.jts.LiteCoordinateSequence;
+import org.geotools.geometry.jts.LiteCoordinateSequenceFactory;
 import org.junit.Test;
 
 public class GeoPkgIOTest {
@@ -44,4 +54,65 @@ public class GeoPkgIOTest {
         assertEquals(0x50, bytes[1]);
         assertEquals(0x00, bytes[2]);
     }
+
+    @Test
+    public void testReadCollection() throws IOException {
+        GeometryBuilder builder = new GeometryBuilder();
+        Geometry g1 =
+                builder.geometryCollection(
+                        builder.point(1, 2),
+                        builder.lineString(0, 0, 1, 1, 2, 0),
+                        builder.multiPolygon(builder.box(0, 0, 1, 1), builder.box(5, 5, 6, 6)));
+        byte[] bytes = new GeoPkgGeomWriter().write(g1);
+
+        Geometry g2 = new GeoPkgGeomReader(bytes).get();
+        assertTrue(g1.equalsExact(g2));
+    }
+
+    @Test
+    public void testReadIsoLittleEndian() throws IOException {
+        // a ISO WKB linestring ZM (3002), little endian header and body
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 32 + 9 + 2 * 32);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(new byte[] {0x47, 0x50, 0x00, 0x03});
+        buffer.putInt(4326);
+        buffer.putDouble(0).putDouble(10).putDouble(1).putDouble(11);
+        buffer.put((byte) 1).putInt(3002).putInt(2);
+        buffer.putDouble(0).putDouble(1).putDouble(100).putDouble(-1);
+        buffer.putDouble(10).putDouble(11).putDouble(200).putDouble(-2);
+
+        GeoPkgGeomReader reader = new GeoPkgGeomReader(buffer.array());
+        reader.setFactory(new GeometryFactory(new LiteCoordinateSequenceFactory()));
+        LineString ls = (LineString) reader.get();
+        assertEquals(4326, ls.getSRID());
+        // the M values have been dropped, the Z ones kept
+        LiteCoordinateSequence cs = (LiteCoordinateSequence) ls.getCoordinateSequence();
+        assertEquals(3, cs.getDimension());
+        assertEquals(2, cs.size());
+        assertEquals(10, cs.getOrdinate(1, 0), 0d);
+        assertEquals(11, cs.getOrdinate(1, 1), 0d);
+        assertEquals(200, cs.getOrdinate(1, 2), 0d);
+        assertEquals(new Envelope(0, 10, 1, 11), reader.getEnvelope());
+    }
+
+    @Test
+    public void testEnvelopeFromHeader() throws IOException {
+        Polygon g1 = new GeometryBuilder().box(0, 0, 10, 20);
+        byte[] bytes = new GeoPkgGeomWriter().write(g1);
+        // truncate the WKB part, the envelope must come from the header alone
+        bytes = Arrays.copyOf(bytes, 45);
+
+        assertEquals(g1.getEnvelopeInternal(), new GeoPkgGeomReader(bytes).getEnvelope());
+    }
+
+    @Test
+    public void testEmptyEnvelope() throws IOException {
+        Geometry g1 = new GeometryFactory().createMultiPoint(new Point[0]);
+        byte[] bytes = new GeoPkgGeomWriter().write(g1);
+
+        GeoPkgGeomReader reader = new GeoPkgGeomReader(bytes);
+        assertTrue(reader.getHeader().getFlags().isEmpty());
+        assertTrue(reader.getEnvelope().isNull());
+        assertTrue(reader.get().isEmpty());
+    }
 }
@@ -0,0 +1,436 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.postgis;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.io.ByteOrderValues;
+import com.vividsolutions.jts.io.WKBWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Wrapper;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.data.jdbc.datasource.DataSourceFinder;
+import org.geotools.data.jdbc.datasource.UnWrapper;
+import org.geotools.geometry.jts.CurvedGeometry;
+import org.geotools.geometry.jts.WKTWriter2;
+import org.geotools.jdbc.BulkInsertRows;
+import org.geotools.util.Converters;
+import org.geotools.util.Version;
+import org.geotools.util.logging.Logging;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Bulk loads rows with the PostgreSQL <code>COPY ... FROM STDIN</code> command. The binary format
+ * is used when all the column types have a known binary representation, the text format otherwise.
+ * Geometries are sent as EWKB, or as EWKT when they contain curves.
+ */
+class PostGISCopy {
+
+    static final Logger LOGGER = Logging.getLogger(PostGISCopy.class);
+
+    /** Signature and header of the binary copy format */
+    static final byte[] BINARY_HEADER = {
+        'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0, 0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    /** Size of the chunks sent to the server */
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    /** Column types handled by the binary format */
+    enum BinaryType {
+        INT2,
+        INT4,
+        INT8,
+        FLOAT4,
+        FLOAT8,
+        BOOL,
+        TEXT,
+        BYTEA,
+        UUID,
+        GEOMETRY
+    }
+
+    /** Returns true if all the attribute values can be encoded in at least the text format */
+    static boolean canCopy(SimpleFeatureType featureType) {
+        for (AttributeDescriptor att : featureType.getAttributeDescriptors()) {
+            Class<?> binding = att.getType().getBinding();
+            if (!Geometry.class.isAssignableFrom(binding)
+                    && !Number.class.isAssignableFrom(binding)
+                    && !CharSequence.class.isAssignableFrom(binding)
+                    && !Date.class.isAssignableFrom(binding)
+                    && binding != Boolean.class
+                    && binding != Character.class
+                    && binding != UUID.class
+                    && binding != byte[].class) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Finds the binary type of a column, or null if the binary format cannot be used */
+    static BinaryType getBinaryType(BulkInsertRows.Column column) {
+        String type = column.getNativeTypeName();
+        if (type == null) {
+            // primary key columns, no native type name
+            Class<?> binding = column.getBinding();
+            if (binding == Short.class) {
+                return BinaryType.INT2;
+            } else if (binding == Integer.class) {
+                return BinaryType.INT4;
+            } else if (binding == Long.class) {
+                return BinaryType.INT8;
+            } else if (binding == String.class) {
+                return BinaryType.TEXT;
+            } else if (binding == UUID.class) {
+                return BinaryType.UUID;
+            }
+            return null;
+        }
+        switch (type.toLowerCase(Locale.ENGLISH)) {
+            case "int2":
+                return BinaryType.INT2;
+            case "int4":
+            case "serial":
+                return BinaryType.INT4;
+            case "int8":
+            case "bigserial":
+                return BinaryType.INT8;
+            case "float4":
+                return BinaryType.FLOAT4;
+            case "float8":
+                return BinaryType.FLOAT8;
+            case "bool":
+                return BinaryType.BOOL;
+            case "text":
+            case "varchar":
+                return BinaryType.TEXT;
+            case "bytea":
+                return BinaryType.BYTEA;
+            case "uuid":
+                return BinaryType.UUID;
+            case "geometry":
+                return BinaryType.GEOMETRY;
+            default:
+                return null;
+        }
+    }
+
+    PostGISDialect dialect;
+
+    BulkInsertRows rows;
+
+    List<BulkInsertRows.Column> columns;
+
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(CHUNK_SIZE * 2);
+
+    DataOutputStream out = new DataOutputStream(buffer);
+
+    PostGISCopy(PostGISDialect dialect, BulkInsertRows rows) {
+        this.dialect = dialect;
+        this.rows = rows;
+        this.columns = rows.getColumns();
+    }
+
+    /** Sends the rows to the database */
+    void copy(Connection cx) throws IOException, SQLException {
+        BinaryType[] types = getBinaryTypes();
+
+        StringBuffer sql = new StringBuffer("COPY ");
+        sql.append(rows.getTableName()).append(" (");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            dialect.encodeColumnName(null, columns.get(i).getName(), sql);
+        }
+        sql.append(") FROM STDIN");
+        if (types != null) {
+            Version version = dialect.getPostgreSQLVersion(cx);
+            if (version == null || version.compareTo(PostGISDialect.PGSQL_V_9_0) < 0) {
+                sql.append(" WITH BINARY");
+            } else {
+                sql.append(" (FORMAT binary)");
+            }
+        }
+        LOGGER.fine(sql.toString());
+
+        CopyIn copyIn = unwrapConnection(cx).getCopyAPI().copyIn(sql.toString());
+        boolean complete = false;
+        try {
+            if (types != null) {
+                out.write(BINARY_HEADER);
+            }
+            for (int r = 0; r < rows.size(); r++) {
+                if (types != null) {
+                    writeBinaryRow(r, types);
+                } else {
+                    writeTextRow(r);
+                }
+                if (buffer.size() >= CHUNK_SIZE) {
+                    flush(copyIn);
+                }
+            }
+            if (types != null) {
+                out.writeShort(-1);
+            }
+            flush(copyIn);
+            long copied = copyIn.endCopy();
+            complete = true;
+            if (copied != rows.size()) {
+                throw new IOException(
+                        "Failed to insert some features, copied " + copied + "/" + rows.size());
+            }
+        } finally {
+            if (!complete && copyIn.isActive()) {
+                try {
+                    copyIn.cancelCopy();
+                } catch (SQLException e) {
+                    LOGGER.log(Level.FINE, "Failed to cancel the copy", e);
+                }
+            }
+        }
+    }
+
+    /** Returns the binary column types, or null if the text format has to be used */
+    BinaryType[] getBinaryTypes() {
+        BinaryType[] types = new BinaryType[columns.size()];
+        for (int c = 0; c < types.length; c++) {
+            types[c] = getBinaryType(columns.get(c));
+            if (types[c] == null) {
+                return null;
+            }
+            if (types[c] == BinaryType.GEOMETRY) {
+                // curves cannot be expressed in WKB by JTS
+                for (int r = 0; r < rows.size(); r++) {
+                    if (rows.getValues(r)[c] instanceof CurvedGeometry) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return types;
+    }
+
+    private void flush(CopyIn copyIn) throws SQLException {
+        if (buffer.size() > 0) {
+            copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+            buffer.reset();
+        }
+    }
+
+    void writeBinaryRow(int row, BinaryType[] types) throws IOException {
+        Object[] values = rows.getValues(row);
+        out.writeShort(values.length);
+        for (int c = 0; c < values.length; c++) {
+            Object value = values[c];
+            if (value == null
+                    || (types[c] == BinaryType.GEOMETRY && ((Geometry) value).isEmpty())) {
+                out.writeInt(-1);
+                continue;
+            }
+            switch (types[c]) {
+                case INT2:
+                    out.writeInt(2);
+                    out.writeShort(convert(value, Number.class, c).shortValue());
+                    break;
+                case INT4:
+                    out.writeInt(4);
+                    out.writeInt(convert(value, Number.class, c).intValue());
+                    break;
+                case INT8:
+                    out.writeInt(8);
+                    out.writeLong(convert(value, Number.class, c).longValue());
+                    break;
+                case FLOAT4:
+                    out.writeInt(4);
+                    out.writeFloat(convert(value, Number.class, c).floatValue());
+                    break;
+                case FLOAT8:
+                    out.writeInt(8);
+                    out.writeDouble(convert(value, Number.class, c).doubleValue());
+                    break;
+                case BOOL:
+                    out.writeInt(1);
+                    out.writeByte(convert(value, Boolean.class, c) ? 1 : 0);
+                    break;
+                case TEXT:
+                    writeBytes(value.toString().getBytes(StandardCharsets.UTF_8));
+                    break;
+                case BYTEA:
+                    writeBytes(convert(value, byte[].class, c));
+                    break;
+                case UUID:
+                    UUID uuid = convert(value, UUID.class, c);
+                    out.writeInt(16);
+                    out.writeLong(uuid.getMostSignificantBits());
+                    out.writeLong(uuid.getLeastSignificantBits());
+                    break;
+                case GEOMETRY:
+                    Geometry g = (Geometry) value;
+                    writeBytes(toEWKB(g, rows.getSRID(row, c), rows.getDimension(row, c)));
+                    break;
+            }
+        }
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    void writeTextRow(int row) throws IOException {
+        Object[] values = rows.getValues(row);
+        StringBuilder sb = new StringBuilder();
+        for (int c = 0; c < values.length; c++) {
+            if (c > 0) {
+                sb.append('\t');
+            }
+            Object value = values[c];
+            if (value == null || (value instanceof Geometry && ((Geometry) value).isEmpty())) {
+                sb.append("\\N");
+            } else if (value instanceof Geometry) {
+                Geometry g = (Geometry) value;
+                int srid = rows.getSRID(row, c);
+                int dimension = rows.getDimension(row, c);
+                if (g instanceof CurvedGeometry) {
+                    if (srid > 0) {
+                        sb.append("SRID=").append(srid).append(';');
+                    }
+                    sb.append(new WKTWriter2(dimension > 2 ? 3 : 2).write(g));
+                } else {
+                    sb.append(WKBWriter.toHex(toEWKB(g, srid, dimension)));
+                }
+            } else if (value instanceof byte[]) {
+                escape("\\x" + WKBWriter.toHex((byte[]) value), sb);
+            } else if (value instanceof Date
+                    && !(value instanceof java.sql.Date)
+                    && !(value instanceof java.sql.Time)
+                    && !(value instanceof Timestamp)) {
+                sb.append(new Timestamp(((Date) value).getTime()));
+            } else {
+                escape(value.toString(), sb);
+            }
+        }
+        sb.append('\n');
+        out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Escapes the characters having a special meaning in the text copy format */
+    static void escape(String value, StringBuilder sb) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+
+    /** Encodes the geometry as WKB, adding the SRID to the header if positive */
+    static byte[] toEWKB(Geometry g, int srid, int dimension) {
+        if (g instanceof LinearRing) {
+            // postgis does not handle linear rings, convert to just a line string
+            g = g.getFactory().createLineString(((LinearRing) g).getCoordinateSequence());
+        }
+        byte[] wkb = new WKBWriter(dimension > 2 ? 3 : 2, ByteOrderValues.BIG_ENDIAN).write(g);
+        if (srid <= 0) {
+            return wkb;
+        }
+        // splice in the SRID after the byte order and type, and flag its presence in the type
+        byte[] ewkb = new byte[wkb.length + 4];
+        ewkb[0] = wkb[0];
+        int type = ByteOrderValues.getInt(wkb, 1, ByteOrderValues.BIG_ENDIAN) | 0x20000000;
+        ByteOrderValues.putInt(type, ewkb, 1, ByteOrderValues.BIG_ENDIAN);
+        ByteOrderValues.putInt(srid, ewkb, 5, ByteOrderValues.BIG_ENDIAN);
+        System.arraycopy(wkb, 5, ewkb, 9, wkb.length - 5);
+        return ewkb;
+    }
+
+    private <T> T convert(Object value, Class<T> target, int column) throws IOException {
+        if (target.isInstance(value)) {
+            return target.cast(value);
+        }
+        T converted = Converters.convert(value, target);
+        if (converted == null) {
+            throw new IOException(
+                    "Cannot convert " + value + " to " + target.getSimpleName() + " for column "
+                            + columns.get(column).getName());
+        }
+        return converted;
+    }
+
+    /** Obtains the native PostgreSQL connection given a possibly wrapped database connection */
+    static PGConnection unwrapConnection(Connection cx) throws SQLException {
+        if (cx instanceof PGConnection) {
+            return (PGConnection) cx;
+        }
+        try {
+            Connection testCon = cx;
+            Connection toUnwrap;
+            do {
+                UnWrapper unwrapper = DataSourceFinder.getUnWrapper(testCon);
+                if (unwrapper == null) {
+                    break;
+                }
+                toUnwrap = testCon;
+                testCon = unwrapper.unwrap(testCon);
+                if (testCon instanceof PGConnection) {
+                    return (PGConnection) testCon;
+                }
+            } while (testCon != null && testCon != toUnwrap);
+
+            Wrapper w = cx;
+            if (w.isWrapperFor(PGConnection.class)) {
+                return w.unwrap(PGConnection.class);
+            }
+        } catch (IOException e) {
+            throw new SQLException("Could not obtain the native PostgreSQL connection", e);
+        } catch (Throwable t) { // NOSONAR
+            // old DBCP versions will throw an Error on java 6 unwrapping
+            LOGGER.log(Level.FINER, "Failed to unwrap connection using java 6 facilities", t);
+        }
+        throw new SQLException(
+                "Could not obtain the native PostgreSQL connection for " + cx.getClass());
+    }
+}
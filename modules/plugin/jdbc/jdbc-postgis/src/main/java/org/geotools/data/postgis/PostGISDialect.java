@@ -62,6 +62,7 @@ import org.geotools.geometry.jts.MultiSurface;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.geometry.jts.WKTWriter2;
 import org.geotools.jdbc.BasicSQLDialect;
+import org.geotools.jdbc.BulkInsertRows;
 import org.geotools.jdbc.ColumnMetadata;
 import org.geotools.jdbc.JDBCDataStore;
 import org.geotools.referencing.CRS;
@@ -173,6 +174,10 @@ public class PostGISDialect extends BasicSQLDialect {
 
     boolean simplifyEnabled = true;
 
+    boolean twkbEnabled = false;
+
+    boolean copyEnabled = false;
+
     Version version, pgsqlVersion;
 
     public boolean isLooseBBOXEnabled() {
@@ -222,6 +227,37 @@ public class PostGISDialect extends BasicSQLDialect {
         this.simplifyEnabled = simplifyEnabled;
     }
 
+    public boolean isTWKBEnabled() {
+        return twkbEnabled;
+    }
+
+    /**
+     * Enables/disables the transfer of simplified geometries in the TWKB format, quantized to a
+     * precision derived from the simplification distance. Requires PostGIS 2.2 or newer, older
+     * versions fall back on WKB.
+     *
+     * @param twkbEnabled
+     * @since 20
+     */
+    public void setTWKBEnabled(boolean twkbEnabled) {
+        this.twkbEnabled = twkbEnabled;
+    }
+
+    public boolean isCopyEnabled() {
+        return copyEnabled;
+    }
+
+    /**
+     * Enables/disables bulk loading of inserted features with the COPY command
+     *
+     * @param copyEnabled
+     * @see PostgisNGDataStoreFactory#BULK_COPY
+     * @since 20
+     */
+    public void setCopyEnabled(boolean copyEnabled) {
+        this.copyEnabled = copyEnabled;
+    }
+
     @Override
     public void initializeConnection(Connection cx) throws SQLException {
         super.initializeConnection(cx);
@@ -344,7 +380,17 @@ public class PostGISDialect extends BasicSQLDialect {
                 encodeColumnName(prefix, gatt.getLocalName(), sql);
                 sql.append("),'base64')");
             } else {
-                if (NON_CURVED_GEOMETRY_CLASSES.contains(gatt.getType().getBinding())) {
+                if (NON_CURVED_GEOMETRY_CLASSES.contains(gatt.getType().getBinding())
+                        && twkbEnabled
+                        && version.compareTo(V_2_2_0) >= 0) {
+                    // the marker byte tells the reader apart TWKB from WKB
+                    sql.append("encode(decode('");
+                    sql.append(Integer.toHexString(WKBAttributeIO.TWKB_MARKER));
+                    sql.append("','hex') || ST_AsTWKB(ST_Simplify(" + getForce2DFunction() + "(");
+                    encodeColumnName(prefix, gatt.getLocalName(), sql);
+                    sql.append("), " + distance + preserveCollapsed + "), ");
+                    sql.append(getTWKBPrecision(distance) + "),'base64')");
+                } else if (NON_CURVED_GEOMETRY_CLASSES.contains(gatt.getType().getBinding())) {
                     sql.append("encode(ST_AsBinary(ST_Simplify(" + getForce2DFunction() + "(");
                     encodeColumnName(prefix, gatt.getLocalName(), sql);
                     sql.append("), " + distance + preserveCollapsed + ")),'base64')");
@@ -364,6 +410,18 @@ public class PostGISDialect extends BasicSQLDialect {
         }
     }
 
+    /**
+     * Returns the number of decimal digits TWKB coordinates get quantized to, keeping the rounding
+     * error to a tenth of the simplification distance, within the range supported by the format
+     */
+    static int getTWKBPrecision(Double distance) {
+        if (distance == null || !(distance > 0) || Double.isInfinite(distance)) {
+            return 7;
+        }
+        int precision = (int) Math.ceil(-Math.log10(distance)) + 1;
+        return Math.max(-7, Math.min(7, precision));
+    }
+
     @Override
     public void encodeGeometryEnvelope(String tableName, String geometryColumn, StringBuffer sql) {
         sql.append("ST_AsText(" + getForce2DFunction() + "(ST_Envelope(");
@@ -923,6 +981,45 @@ public class PostGISDialect extends BasicSQLDialect {
         return "nextval('" + sequenceName + "')";
     }
 
+    @Override
+    public List<Object> getNextSequenceValues(
+            String schemaName, String sequenceName, int count, Connection cx)
+            throws SQLException {
+        Statement st = cx.createStatement();
+        try {
+            String sql =
+                    "SELECT "
+                            + encodeNextSequenceValue(schemaName, sequenceName)
+                            + " FROM generate_series(1, "
+                            + count
+                            + ")";
+
+            dataStore.getLogger().fine(sql);
+            ResultSet rs = st.executeQuery(sql);
+            try {
+                List<Object> values = new ArrayList<>(count);
+                while (rs.next()) {
+                    values.add(rs.getLong(1));
+                }
+                return values.size() == count ? values : null;
+            } finally {
+                dataStore.closeSafe(rs);
+            }
+        } finally {
+            dataStore.closeSafe(st);
+        }
+    }
+
+    @Override
+    public boolean isCopySupported(SimpleFeatureType featureType) {
+        return copyEnabled && PostGISCopy.canCopy(featureType);
+    }
+
+    @Override
+    public void copyRows(BulkInsertRows rows, Connection cx) throws IOException, SQLException {
+        new PostGISCopy(this, rows).copy(cx);
+    }
+
     @Override
     public boolean lookupGeneratedValuesPostInsert() {
         return true;
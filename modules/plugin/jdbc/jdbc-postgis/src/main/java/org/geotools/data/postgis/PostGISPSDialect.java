@@ -27,8 +27,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.List;
 import java.util.Map;
 import org.geotools.factory.Hints;
+import org.geotools.jdbc.BulkInsertRows;
 import org.geotools.jdbc.ColumnMetadata;
 import org.geotools.jdbc.JDBCDataStore;
 import org.geotools.jdbc.PreparedFilterToSQL;
@@ -147,6 +149,29 @@ public class PostGISPSDialect extends PreparedStatementSQLDialect {
         return delegate.encodeNextSequenceValue(schemaName, sequenceName);
     }
 
+    @Override
+    public List<Object> getNextSequenceValues(
+            String schemaName, String sequenceName, int count, Connection cx)
+            throws SQLException {
+        return delegate.getNextSequenceValues(schemaName, sequenceName, count, cx);
+    }
+
+    @Override
+    public int getMultiRowInsertLimit(int columnCount) {
+        // the wire protocol limits the parameters of a statement to 32767
+        return Math.max(1, Short.MAX_VALUE / Math.max(1, columnCount));
+    }
+
+    @Override
+    public boolean isCopySupported(SimpleFeatureType featureType) {
+        return delegate.isCopySupported(featureType);
+    }
+
+    @Override
+    public void copyRows(BulkInsertRows rows, Connection cx) throws IOException, SQLException {
+        delegate.copyRows(rows, cx);
+    }
+
     public String getSequenceForColumn(
             String schemaName, String tableName, String columnName, Connection cx)
             throws SQLException {
@@ -124,6 +124,31 @@ public class PostgisNGDataStoreFactory extends JDBCDataStoreFactory {
                     false,
                     Boolean.TRUE);
 
+    /** Enables transferring simplified geometries as quantized TWKB */
+    public static final Param TWKB =
+            new Param(
+                    "Use TWKB for simplified geometries",
+                    Boolean.class,
+                    "When enabled, geometries simplified on the fly are transferred using the "
+                            + "compact TWKB format, with coordinates quantized according to the "
+                            + "simplification distance (requires PostGIS 2.2+)",
+                    false,
+                    Boolean.FALSE,
+                    new KVP(Param.LEVEL, "advanced"));
+
+    /** Enables bulk loading of inserted features with the COPY command */
+    public static final Param BULK_COPY =
+            new Param(
+                    "bulk copy",
+                    Boolean.class,
+                    "When enabled, batches of inserted features are streamed to the database "
+                            + "with the COPY command instead of INSERT statements. Requires a "
+                            + "batch insert size greater than one, tables with triggers or rules "
+                            + "reacting to INSERT statements might behave differently",
+                    false,
+                    Boolean.FALSE,
+                    new KVP(Param.LEVEL, "advanced"));
+
     @Override
     protected SQLDialect createSQLDialect(JDBCDataStore dataStore) {
         return new PostGISDialect(dataStore);
@@ -193,6 +218,14 @@ public class PostgisNGDataStoreFactory extends JDBCDataStoreFactory {
         Boolean simplify = (Boolean) SIMPLIFY.lookUp(params);
         dialect.setSimplifyEnabled(simplify == null || simplify);
 
+        // check TWKB transfer of simplified geometries (off by default)
+        Boolean twkb = (Boolean) TWKB.lookUp(params);
+        dialect.setTWKBEnabled(Boolean.TRUE.equals(twkb));
+
+        // check bulk loading with COPY (off by default)
+        Boolean copy = (Boolean) BULK_COPY.lookUp(params);
+        dialect.setCopyEnabled(Boolean.TRUE.equals(copy));
+
         // encode BBOX filter with wrapping ST_Envelope (GEOT-5167)
         Boolean encodeBBOXAsEnvelope = false;
         String largeGeometriesOptimized =
@@ -220,6 +253,8 @@ public class PostgisNGDataStoreFactory extends JDBCDataStoreFactory {
         parameters.put(MAX_OPEN_PREPARED_STATEMENTS.key, MAX_OPEN_PREPARED_STATEMENTS);
         parameters.put(ENCODE_FUNCTIONS.key, ENCODE_FUNCTIONS);
         parameters.put(SIMPLIFY.key, SIMPLIFY);
+        parameters.put(TWKB.key, TWKB);
+        parameters.put(BULK_COPY.key, BULK_COPY);
         parameters.put(CREATE_DB_IF_MISSING.key, CREATE_DB_IF_MISSING);
         parameters.put(CREATE_PARAMS.key, CREATE_PARAMS);
     }
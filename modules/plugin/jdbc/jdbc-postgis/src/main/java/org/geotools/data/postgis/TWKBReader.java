@@ -0,0 +1,329 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.postgis;
+
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.CoordinateSequenceFactory;
+import com.vividsolutions.jts.geom.CoordinateSequences;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.io.ParseException;
+import org.geotools.geometry.jts.JTS;
+import org.geotools.geometry.jts.LiteCoordinateSequence;
+import org.geotools.geometry.jts.LiteCoordinateSequenceFactory;
+
+/**
+ * Reads geometries encoded in the <a href="https://github.com/TWKB/Specification">Tiny Well-known
+ * Binary</a> format, as produced by the PostGIS <code>ST_AsTWKB</code> function.
+ *
+ * <p>Coordinates are decoded straight from the source byte array into packed ordinate arrays, which
+ * are handed over to {@link LiteCoordinateSequence} instances when the geometry factory uses a
+ * {@link LiteCoordinateSequenceFactory}. Measures are parsed and skipped. This class is not
+ * thread-safe, each thread should create its own instance.
+ */
+class TWKBReader {
+
+    static final int POINT = 1;
+
+    static final int LINESTRING = 2;
+
+    static final int POLYGON = 3;
+
+    static final int MULTIPOINT = 4;
+
+    static final int MULTILINESTRING = 5;
+
+    static final int MULTIPOLYGON = 6;
+
+    static final int GEOMETRYCOLLECTION = 7;
+
+    static final int HAS_BBOX = 0x01;
+
+    static final int HAS_SIZE = 0x02;
+
+    static final int HAS_IDLIST = 0x04;
+
+    static final int HAS_EXTENDED_DIMS = 0x08;
+
+    static final int IS_EMPTY = 0x10;
+
+    private GeometryFactory factory;
+
+    private CoordinateSequenceFactory csFactory;
+
+    private byte[] bytes;
+
+    private int position;
+
+    private int limit;
+
+    /** Number of ordinates per point in the input, including measures */
+    private int inputDimension;
+
+    /** Number of ordinates per point in the output (2 or 3) */
+    private int outputDimension;
+
+    /** Scale factors turning the stored integers back into ordinates, one per input dimension */
+    private double[] scales = new double[4];
+
+    /** The last decoded point, values are delta encoded against it */
+    private long[] last = new long[4];
+
+    public TWKBReader(GeometryFactory factory) {
+        this.factory = factory;
+        this.csFactory = factory.getCoordinateSequenceFactory();
+    }
+
+    /**
+     * Reads a geometry from a section of a byte array
+     *
+     * @param bytes the byte array to read from
+     * @param offset the position of the first byte of the geometry
+     * @param length the number of bytes available
+     * @throws ParseException if the TWKB is ill-formed or truncated
+     */
+    public Geometry read(byte[] bytes, int offset, int length) throws ParseException {
+        this.bytes = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+        try {
+            return readGeometry();
+        } finally {
+            this.bytes = null;
+        }
+    }
+
+    private Geometry readGeometry() throws ParseException {
+        int typeAndPrecision = readByte();
+        int type = typeAndPrecision & 0x0F;
+        int precision = unzigzag(typeAndPrecision >> 4);
+        int metadata = readByte();
+
+        int zPrecision = 0;
+        int mPrecision = 0;
+        boolean hasZ = false;
+        boolean hasM = false;
+        if ((metadata & HAS_EXTENDED_DIMS) != 0) {
+            int extended = readByte();
+            hasZ = (extended & 0x01) != 0;
+            hasM = (extended & 0x02) != 0;
+            zPrecision = (extended >> 2) & 0x07;
+            mPrecision = (extended >> 5) & 0x07;
+        }
+        inputDimension = 2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0);
+        outputDimension = hasZ ? 3 : 2;
+        scales[0] = scales[1] = Math.pow(10, -precision);
+        if (hasZ) {
+            scales[2] = Math.pow(10, -zPrecision);
+        }
+        if (hasM) {
+            scales[inputDimension - 1] = Math.pow(10, -mPrecision);
+        }
+
+        if ((metadata & HAS_SIZE) != 0) {
+            // we read the whole geometry anyways, the size is not useful
+            readUnsignedVarInt();
+        }
+        if ((metadata & IS_EMPTY) != 0) {
+            return createEmpty(type);
+        }
+        if ((metadata & HAS_BBOX) != 0) {
+            for (int i = 0; i < inputDimension * 2; i++) {
+                readVarLong();
+            }
+        }
+        boolean hasIdList = (metadata & HAS_IDLIST) != 0;
+
+        for (int i = 0; i < inputDimension; i++) {
+            last[i] = 0;
+        }
+        switch (type) {
+            case POINT:
+                return factory.createPoint(readCoordinateSequence(1));
+            case LINESTRING:
+                return readLineString();
+            case POLYGON:
+                return readPolygon();
+            case MULTIPOINT:
+                {
+                    Point[] points = new Point[readCount(hasIdList)];
+                    for (int i = 0; i < points.length; i++) {
+                        points[i] = factory.createPoint(readCoordinateSequence(1));
+                    }
+                    return factory.createMultiPoint(points);
+                }
+            case MULTILINESTRING:
+                {
+                    LineString[] lines = new LineString[readCount(hasIdList)];
+                    for (int i = 0; i < lines.length; i++) {
+                        lines[i] = readLineString();
+                    }
+                    return factory.createMultiLineString(lines);
+                }
+            case MULTIPOLYGON:
+                {
+                    Polygon[] polygons = new Polygon[readCount(hasIdList)];
+                    for (int i = 0; i < polygons.length; i++) {
+                        polygons[i] = readPolygon();
+                    }
+                    return factory.createMultiPolygon(polygons);
+                }
+            case GEOMETRYCOLLECTION:
+                {
+                    Geometry[] geometries = new Geometry[readCount(hasIdList)];
+                    for (int i = 0; i < geometries.length; i++) {
+                        // each member carries its own header
+                        geometries[i] = readGeometry();
+                    }
+                    return factory.createGeometryCollection(geometries);
+                }
+            default:
+                throw new ParseException("Unknown TWKB type " + type);
+        }
+    }
+
+    private Geometry createEmpty(int type) throws ParseException {
+        switch (type) {
+            case POINT:
+                return factory.createPoint((CoordinateSequence) null);
+            case LINESTRING:
+                return factory.createLineString((CoordinateSequence) null);
+            case POLYGON:
+                return factory.createPolygon((LinearRing) null, null);
+            case MULTIPOINT:
+                return factory.createMultiPoint(new Point[0]);
+            case MULTILINESTRING:
+                return factory.createMultiLineString(null);
+            case MULTIPOLYGON:
+                return factory.createMultiPolygon(null);
+            case GEOMETRYCOLLECTION:
+                return factory.createGeometryCollection(null);
+            default:
+                throw new ParseException("Unknown TWKB type " + type);
+        }
+    }
+
+    /** Reads the number of members of a multi geometry, skipping the id list if present */
+    private int readCount(boolean hasIdList) throws ParseException {
+        int count = readUnsignedVarInt();
+        if (hasIdList) {
+            for (int i = 0; i < count; i++) {
+                readVarLong();
+            }
+        }
+        return count;
+    }
+
+    private LineString readLineString() throws ParseException {
+        int size = readUnsignedVarInt();
+        CoordinateSequence cs = readCoordinateSequence(size);
+        if (cs.size() == 1) {
+            cs = CoordinateSequences.extend(csFactory, cs, 2);
+        }
+        return factory.createLineString(cs);
+    }
+
+    private Polygon readPolygon() throws ParseException {
+        int numRings = readUnsignedVarInt();
+        if (numRings == 0) {
+            return factory.createPolygon((LinearRing) null, null);
+        }
+        LinearRing shell = readLinearRing();
+        LinearRing[] holes = new LinearRing[numRings - 1];
+        for (int i = 0; i < holes.length; i++) {
+            holes[i] = readLinearRing();
+        }
+        return factory.createPolygon(shell, holes);
+    }
+
+    private LinearRing readLinearRing() throws ParseException {
+        int size = readUnsignedVarInt();
+        CoordinateSequence cs = readCoordinateSequence(size);
+        // quantization can collapse rings, repair them as the WKB reader does
+        if (!CoordinateSequences.isRing(cs)) {
+            cs = CoordinateSequences.ensureValidRing(csFactory, cs);
+        }
+        return factory.createLinearRing(cs);
+    }
+
+    private CoordinateSequence readCoordinateSequence(int size) throws ParseException {
+        if (size < 0 || size > limit - position) {
+            // each point takes at least one byte per ordinate
+            throw new ParseException("Unexpected end of TWKB data");
+        }
+        double[] ordinates = new double[size * outputDimension];
+        for (int i = 0, k = 0; i < size; i++) {
+            for (int d = 0; d < inputDimension; d++) {
+                last[d] += readVarLong();
+                if (d < outputDimension) {
+                    ordinates[k++] = last[d] * scales[d];
+                }
+            }
+        }
+        if (csFactory instanceof LiteCoordinateSequenceFactory) {
+            return new LiteCoordinateSequence(ordinates, outputDimension);
+        }
+        CoordinateSequence cs = JTS.createCS(csFactory, size, outputDimension);
+        int targetDim = Math.min(cs.getDimension(), outputDimension);
+        for (int i = 0, k = 0; i < size; i++, k += outputDimension) {
+            for (int d = 0; d < targetDim; d++) {
+                cs.setOrdinate(i, d, ordinates[k + d]);
+            }
+        }
+        return cs;
+    }
+
+    private int readByte() throws ParseException {
+        if (position >= limit) {
+            throw new ParseException("Unexpected end of TWKB data");
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    private int readUnsignedVarInt() throws ParseException {
+        long value = readUnsignedVarLong();
+        if (value > Integer.MAX_VALUE) {
+            throw new ParseException("Invalid TWKB count " + value);
+        }
+        return (int) value;
+    }
+
+    private long readUnsignedVarLong() throws ParseException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new ParseException("Invalid TWKB varint");
+    }
+
+    private long readVarLong() throws ParseException {
+        long value = readUnsignedVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -19,14 +19,13 @@ package org.geotools.data.postgis;
 
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryFactory;
-import com.vividsolutions.jts.io.ByteArrayInStream;
 import com.vividsolutions.jts.io.WKBWriter;
 import java.io.IOException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
-import org.geotools.data.Base64;
+import java.util.Arrays;
 import org.geotools.data.DataSourceException;
 
 /**
@@ -37,52 +36,103 @@ import org.geotools.data.DataSourceException;
  * @since 2.4.1
  */
 public class WKBAttributeIO {
+
+    /**
+     * Marker byte prepended to TWKB payloads, it cannot be confused with the byte order flag a WKB
+     * payload starts with
+     */
+    static final byte TWKB_MARKER = 'T';
+
+    /** Lookup table from base64 characters to their 6 bits value, -1 for non alphabet chars */
+    static final byte[] BASE64_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(BASE64_VALUES, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_VALUES[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
     WKBReader wkbr;
-    ByteArrayInStream inStream = new ByteArrayInStream(new byte[0]);
+    TWKBReader twkbr;
     GeometryFactory gf;
 
+    /** Reusable buffer the base64 encoded geometries get decoded into */
+    byte[] buffer = new byte[1024];
+
     public WKBAttributeIO() {
         this(new GeometryFactory());
     }
 
     public WKBAttributeIO(GeometryFactory gf) {
-        wkbr = new WKBReader(gf);
+        setGeometryFactory(gf);
     }
 
     public void setGeometryFactory(GeometryFactory gf) {
-        wkbr = new WKBReader(gf);
+        if (this.gf != gf) {
+            this.gf = gf;
+            wkbr = new WKBReader(gf);
+            twkbr = new TWKBReader(gf);
+        }
     }
 
     /**
-     * This method will convert a Well Known Binary representation to a JTS Geometry object.
-     *
-     * @param wkb te wkb encoded byte array
-     * @return a JTS Geometry object that is equivalent to the WTB representation passed in by param
-     *     wkb
-     * @throws IOException if more than one geometry object was found in the WTB representation, or
-     *     if the parser could not parse the WKB representation.
+     * Decodes a base64 encoded WKB or TWKB geometry into the reusable buffer, and parses it from
+     * there
      */
-    private Geometry wkb2Geometry(byte[] wkbBytes) throws IOException {
-        if (wkbBytes
-                == null) // DJB: null value from database --> null geometry (the same behavior as
-            // WKT).  NOTE: sending back a GEOMETRYCOLLECTION(EMPTY) is also a
-            // possibility, but this is not the same as NULL
-            return null;
+    Geometry decodeGeometry(byte[] base64) throws IOException {
+        int length = decodeBase64(base64);
         try {
-            inStream.setBytes(wkbBytes);
-            return wkbr.read(inStream);
+            if (length > 0 && buffer[0] == TWKB_MARKER) {
+                return twkbr.read(buffer, 1, length - 1);
+            }
+            return wkbr.read(buffer, 0, length);
         } catch (Exception e) {
             throw new DataSourceException("An exception occurred while parsing WKB data", e);
         }
     }
 
+    /**
+     * Decodes base64 data into {@link #buffer}, growing it as needed. Line breaks and other non
+     * alphabet characters are skipped, as PostgreSQL wraps the base64 output every 76 characters.
+     *
+     * @return the number of decoded bytes
+     */
+    int decodeBase64(byte[] base64) {
+        int maxLength = base64.length / 4 * 3 + 3;
+        if (buffer.length < maxLength) {
+            buffer = new byte[Math.max(maxLength, buffer.length * 2)];
+        }
+        byte[] target = buffer;
+        int length = 0;
+        int bits = 0;
+        int accumulated = 0;
+        for (byte b : base64) {
+            if (b == '=') {
+                break;
+            }
+            int value = b < 0 ? -1 : BASE64_VALUES[b];
+            if (value < 0) {
+                continue;
+            }
+            accumulated = (accumulated << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                target[length++] = (byte) (accumulated >> bits);
+            }
+        }
+        return length;
+    }
+
     /** @see org.geotools.data.jdbc.attributeio.AttributeIO#read(java.sql.ResultSet, int) */
     public Object read(ResultSet rs, String columnName) throws IOException {
         try {
             byte bytes[] = rs.getBytes(columnName);
             if (bytes == null) // ie. its a null column -> return a null geometry!
             return null;
-            return wkb2Geometry(Base64.decode(bytes));
+            return decodeGeometry(bytes);
         } catch (SQLException e) {
             throw new DataSourceException("SQL exception occurred while reading the geometry.", e);
         }
@@ -94,7 +144,7 @@ public class WKBAttributeIO {
             byte bytes[] = rs.getBytes(columnIndex);
             if (bytes == null) // ie. its a null column -> return a null geometry!
             return null;
-            return wkb2Geometry(Base64.decode(bytes));
+            return decodeGeometry(bytes);
         } catch (SQLException e) {
             throw new DataSourceException("SQL exception occurred while reading the geometry.", e);
         }
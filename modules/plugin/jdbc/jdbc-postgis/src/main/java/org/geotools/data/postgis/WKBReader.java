@@ -59,6 +59,9 @@ import com.vividsolutions.jts.io.InStream;
 import com.vividsolutions.jts.io.ParseException;
 import com.vividsolutions.jts.io.WKBWriter;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.List;
 import org.geotools.geometry.jts.CircularArc;
@@ -66,6 +69,8 @@ import org.geotools.geometry.jts.CompoundCurve;
 import org.geotools.geometry.jts.CompoundRing;
 import org.geotools.geometry.jts.CurvedGeometryFactory;
 import org.geotools.geometry.jts.JTS;
+import org.geotools.geometry.jts.LiteCoordinateSequence;
+import org.geotools.geometry.jts.LiteCoordinateSequenceFactory;
 
 /**
  * Reads a {@link Geometry}from a byte stream in Postgis Extended Well-Known Binary format. Supports
@@ -137,6 +142,9 @@ public class WKBReader {
 
     private double[] ordValues;
 
+    /** The buffer wrapping the byte array being parsed, when reading directly from an array */
+    private ByteBuffer buffer;
+
     public WKBReader() {
         this(new GeometryFactory());
     }
@@ -174,21 +182,53 @@ public class WKBReader {
      */
     public Geometry read(InStream is) throws IOException, ParseException {
         dis.setInStream(is);
+        buffer = null;
         Geometry g = readGeometry();
         return g;
     }
 
+    /**
+     * Reads a {@link Geometry} in binary WKB format from a section of a byte array, without copying
+     * it. Ordinates are transferred in bulk, and if the geometry factory uses a {@link
+     * LiteCoordinateSequenceFactory} the packed ordinate arrays are handed over to the {@link
+     * LiteCoordinateSequence} instances as is.
+     *
+     * @param bytes the byte array to read from
+     * @param offset the position of the first byte of the geometry
+     * @param length the number of bytes available
+     * @return the Geometry read
+     * @throws IOException if the data is truncated
+     * @throws ParseException if the WKB is ill-formed
+     */
+    public Geometry read(byte[] bytes, int offset, int length) throws IOException, ParseException {
+        buffer = ByteBuffer.wrap(bytes, offset, length);
+        try {
+            return readGeometry();
+        } catch (BufferUnderflowException e) {
+            throw new ParseException("Unexpected end of WKB data");
+        } finally {
+            buffer = null;
+        }
+    }
+
     protected Geometry readGeometry() throws IOException, ParseException {
         // determine byte order
-        byte byteOrderWKB = dis.readByte();
+        byte byteOrderWKB = readByte();
         // always set byte order, since it may change from geometry to geometry
         int byteOrder =
                 byteOrderWKB == WKBConstants.wkbNDR
                         ? ByteOrderValues.LITTLE_ENDIAN
                         : ByteOrderValues.BIG_ENDIAN;
-        dis.setOrder(byteOrder);
+        if (buffer != null) {
+            buffer.order(
+                    byteOrder == ByteOrderValues.LITTLE_ENDIAN
+                            ? ByteOrder.LITTLE_ENDIAN
+                            : ByteOrder.BIG_ENDIAN);
+        } else {
+            dis.setOrder(byteOrder);
+        }
 
-        int typeInt = dis.readInt();
+        int typeInt = readInt();
         int geometryType = typeInt & 0xff;
         // determine if Z values are present
         boolean hasZ = (typeInt & 0x80000000) != 0;
@@ -198,7 +238,7 @@ public class WKBReader {
 
         int SRID = 0;
         if (hasSRID) {
-            SRID = dis.readInt();
+            SRID = readInt();
         }
 
         // only allocate ordValues buffer if necessary
@@ -269,19 +309,19 @@ public class WKBReader {
     }
 
     private LineString readLineString() throws IOException {
-        int size = dis.readInt();
+        int size = readInt();
         CoordinateSequence pts = readCoordinateSequenceLineString(size);
         return factory.createLineString(pts);
     }
 
     private Geometry readCircularString() throws IOException {
-        int size = dis.readInt();
+        int size = readInt();
         CoordinateSequence pts = readCoordinateSequenceCircularString(size);
         return factory.createCurvedGeometry(pts);
     }
 
     private Geometry readCompoundCurve() throws IOException, ParseException {
-        int numGeom = dis.readInt();
+        int numGeom = readInt();
         List<LineString> geoms = new ArrayList<>();
         for (int i = 0; i < numGeom; i++) {
             Geometry g = readGeometry();
@@ -293,13 +333,13 @@ public class WKBReader {
     }
 
     private LinearRing readLinearRing() throws IOException {
-        int size = dis.readInt();
+        int size = readInt();
         CoordinateSequence pts = readCoordinateSequenceRing(size);
         return factory.createLinearRing(pts);
     }
 
     protected Polygon readPolygon() throws IOException {
-        int numRings = dis.readInt();
+        int numRings = readInt();
         LinearRing[] holes = null;
         if (numRings > 1) holes = new LinearRing[numRings - 1];
 
@@ -311,7 +351,7 @@ public class WKBReader {
     }
 
     protected Polygon readCurvePolygon() throws IOException, ParseException {
-        int numRings = dis.readInt();
+        int numRings = readInt();
         LinearRing[] holes = null;
         if (numRings > 1) holes = new LinearRing[numRings - 1];
 
@@ -357,7 +397,7 @@ public class WKBReader {
     }
 
     private MultiPoint readMultiPoint() throws IOException, ParseException {
-        int numGeom = dis.readInt();
+        int numGeom = readInt();
         Point[] geoms = new Point[numGeom];
         for (int i = 0; i < numGeom; i++) {
             Geometry g = readGeometry();
@@ -369,7 +409,7 @@ public class WKBReader {
     }
 
     private MultiLineString readMultiLineString() throws IOException, ParseException {
-        int numGeom = dis.readInt();
+        int numGeom = readInt();
         LineString[] geoms = new LineString[numGeom];
         for (int i = 0; i < numGeom; i++) {
             Geometry g = readGeometry();
@@ -381,7 +421,7 @@ public class WKBReader {
     }
 
     private MultiPolygon readMultiPolygon() throws IOException, ParseException {
-        int numGeom = dis.readInt();
+        int numGeom = readInt();
         Polygon[] geoms = new Polygon[numGeom];
         for (int i = 0; i < numGeom; i++) {
             Geometry g = readGeometry();
@@ -393,7 +433,7 @@ public class WKBReader {
     }
 
     private GeometryCollection readGeometryCollection() throws IOException, ParseException {
-        int numGeom = dis.readInt();
+        int numGeom = readInt();
         Geometry[] geoms = new Geometry[numGeom];
         for (int i = 0; i < numGeom; i++) {
             geoms[i] = readGeometry();
@@ -402,6 +442,9 @@ public class WKBReader {
     }
 
     private CoordinateSequence readCoordinateSequence(int size) throws IOException {
+        if (buffer != null) {
+            return readPackedCoordinateSequence(size);
+        }
         CoordinateSequence seq = JTS.createCS(csFactory, size, inputDimension);
         int targetDim = seq.getDimension();
         if (targetDim > inputDimension) targetDim = inputDimension;
@@ -414,6 +457,34 @@ public class WKBReader {
         return seq;
     }
 
+    /** Reads the ordinates of a coordinate sequence in bulk from the byte buffer */
+    private CoordinateSequence readPackedCoordinateSequence(int size) {
+        int length = size * inputDimension;
+        if (length < 0 || length > buffer.remaining() / 8) {
+            throw new BufferUnderflowException();
+        }
+        double[] ordinates = new double[length];
+        buffer.asDoubleBuffer().get(ordinates);
+        buffer.position(buffer.position() + length * 8);
+        if (!precisionModel.isFloating()) {
+            for (int i = 0; i < length; i += inputDimension) {
+                ordinates[i] = precisionModel.makePrecise(ordinates[i]);
+                ordinates[i + 1] = precisionModel.makePrecise(ordinates[i + 1]);
+            }
+        }
+        if (csFactory instanceof LiteCoordinateSequenceFactory) {
+            return new LiteCoordinateSequence(ordinates, inputDimension);
+        }
+        CoordinateSequence seq = JTS.createCS(csFactory, size, inputDimension);
+        int targetDim = Math.min(seq.getDimension(), inputDimension);
+        for (int i = 0, k = 0; i < size; i++, k += inputDimension) {
+            for (int j = 0; j < targetDim; j++) {
+                seq.setOrdinate(i, j, ordinates[k + j]);
+            }
+        }
+        return seq;
+    }
+
     private CoordinateSequence readCoordinateSequenceCircularString(int size) throws IOException {
         CoordinateSequence seq = readCoordinateSequence(size);
         if (isStrict) return seq;
@@ -442,13 +513,25 @@ public class WKBReader {
     private void readCoordinate() throws IOException {
         for (int i = 0; i < inputDimension; i++) {
             if (i <= 1) {
-                ordValues[i] = precisionModel.makePrecise(dis.readDouble());
+                ordValues[i] = precisionModel.makePrecise(readDouble());
             } else {
-                ordValues[i] = dis.readDouble();
+                ordValues[i] = readDouble();
             }
         }
     }
 
+    private byte readByte() throws IOException {
+        return buffer != null ? buffer.get() : dis.readByte();
+    }
+
+    private int readInt() throws IOException {
+        return buffer != null ? buffer.getInt() : dis.readInt();
+    }
+
+    private double readDouble() throws IOException {
+        return buffer != null ? buffer.getDouble() : dis.readDouble();
+    }
+
     /**
      * Casts the provided geometry factory to a curved one if possible, or wraps it into one with
      * infinite tolerance (the linearization will happen using the default base segments number set
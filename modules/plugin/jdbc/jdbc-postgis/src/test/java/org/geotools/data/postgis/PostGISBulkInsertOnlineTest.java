@@ -0,0 +1,121 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.postgis;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.geotools.data.Query;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureStore;
+import org.geotools.feature.DefaultFeatureCollection;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.jdbc.JDBCTestSetup;
+import org.geotools.jdbc.JDBCTestSupport;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.identity.FeatureId;
+
+/**
+ * Checks features inserted in batches, with the COPY command, come back with their generated keys,
+ * null values and geometries
+ */
+public class PostGISBulkInsertOnlineTest extends JDBCTestSupport {
+
+    /** More than the batch insert size used by the tests, so that several batches are needed */
+    static final int COUNT = 250;
+
+    @Override
+    protected JDBCTestSetup createTestSetup() {
+        return new PostGISTestSetup();
+    }
+
+    @Override
+    protected HashMap createDataStoreFactoryParams() throws Exception {
+        HashMap params = super.createDataStoreFactoryParams();
+        params.put(PostgisNGDataStoreFactory.BULK_COPY.key, isCopyEnabled());
+        return params;
+    }
+
+    /** Whether the store under test loads the features with the COPY command */
+    protected boolean isCopyEnabled() {
+        return true;
+    }
+
+    public void testBulkInsertPath() throws Exception {
+        assertEquals(
+                isCopyEnabled(), dialect.isCopySupported(dataStore.getSchema(tname("ft1"))));
+    }
+
+    public void testInsert() throws Exception {
+        SimpleFeatureStore store = (SimpleFeatureStore) dataStore.getFeatureSource(tname("ft1"));
+        SimpleFeatureBuilder fb = new SimpleFeatureBuilder(store.getSchema());
+        GeometryFactory gf = new GeometryFactory();
+        DefaultFeatureCollection features = new DefaultFeatureCollection(null, store.getSchema());
+        for (int i = 0; i < COUNT; i++) {
+            fb.set(aname("geometry"), i % 5 == 0 ? null : gf.createPoint(new Coordinate(i, -i)));
+            fb.set(aname("intProperty"), i % 3 == 0 ? null : i);
+            fb.set(aname("doubleProperty"), i / 2d);
+            fb.set(aname("stringProperty"), i % 4 == 0 ? null : "s" + i);
+            features.add(fb.buildFeature(null));
+        }
+
+        List<FeatureId> fids = store.addFeatures(features);
+        assertEquals(COUNT, fids.size());
+        Set<String> ids = new HashSet<>();
+        for (FeatureId fid : fids) {
+            assertTrue(ids.add(fid.getID()));
+        }
+        // the setup inserted three features already
+        assertEquals(COUNT + 3, store.getCount(Query.ALL));
+
+        // read back each feature through its generated key
+        FilterFactory ff = dataStore.getFilterFactory();
+        for (int i = 0; i < COUNT; i++) {
+            FeatureId fid = fids.get(i);
+            try (SimpleFeatureIterator it =
+                    store.getFeatures(ff.id(Collections.singleton(fid))).features()) {
+                assertTrue(it.hasNext());
+                SimpleFeature f = it.next();
+                assertEquals(fid.getID(), f.getID());
+                Point p = (Point) f.getAttribute(aname("geometry"));
+                if (i % 5 == 0) {
+                    assertNull(p);
+                } else {
+                    assertEquals(i, p.getX(), 0d);
+                    assertEquals(-i, p.getY(), 0d);
+                }
+                Number intValue = (Number) f.getAttribute(aname("intProperty"));
+                if (i % 3 == 0) {
+                    assertNull(intValue);
+                } else {
+                    assertEquals(i, intValue.intValue());
+                }
+                Number doubleValue = (Number) f.getAttribute(aname("doubleProperty"));
+                assertEquals(i / 2d, doubleValue.doubleValue(), 0d);
+                assertEquals(
+                        i % 4 == 0 ? null : "s" + i, f.getAttribute(aname("stringProperty")));
+                assertFalse(it.hasNext());
+            }
+        }
+    }
+}
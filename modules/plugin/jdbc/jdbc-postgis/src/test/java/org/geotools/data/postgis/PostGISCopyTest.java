@@ -0,0 +1,81 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.postgis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.io.WKBReader;
+import com.vividsolutions.jts.io.WKTReader;
+import java.util.Date;
+import java.util.UUID;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.junit.Test;
+
+public class PostGISCopyTest {
+
+    @Test
+    public void testEscape() {
+        StringBuilder sb = new StringBuilder();
+        PostGISCopy.escape("a\tb\nc\rd\\e", sb);
+        assertEquals("a\\tb\\nc\\rd\\\\e", sb.toString());
+    }
+
+    @Test
+    public void testCanCopy() {
+        SimpleFeatureTypeBuilder tb = new SimpleFeatureTypeBuilder();
+        tb.setName("test");
+        tb.add("geom", LineString.class, 4326);
+        tb.add("name", String.class);
+        tb.add("count", Integer.class);
+        tb.add("flag", Boolean.class);
+        tb.add("date", Date.class);
+        tb.add("id", UUID.class);
+        assertTrue(PostGISCopy.canCopy(tb.buildFeatureType()));
+
+        tb.setName("test");
+        tb.add("name", String.class);
+        tb.add("map", java.util.Map.class);
+        assertFalse(PostGISCopy.canCopy(tb.buildFeatureType()));
+    }
+
+    @Test
+    public void testEWKB() throws Exception {
+        Geometry geometry = new WKTReader().read("POLYGON((0 0, 10 0, 10 10, 0 0))");
+        WKBReader reader = new WKBReader();
+
+        Geometry plain = reader.read(PostGISCopy.toEWKB(geometry, -1, 2));
+        assertTrue(geometry.equalsExact(plain));
+        assertEquals(0, plain.getSRID());
+
+        Geometry extended = reader.read(PostGISCopy.toEWKB(geometry, 4326, 2));
+        assertTrue(geometry.equalsExact(extended));
+        assertEquals(4326, extended.getSRID());
+    }
+
+    @Test
+    public void testEWKBLinearRing() throws Exception {
+        Geometry ring = new WKTReader().read("LINEARRING(0 0, 10 0, 10 10, 0 0)");
+        Geometry decoded = new WKBReader().read(PostGISCopy.toEWKB(ring, 3857, 2));
+        assertTrue(decoded instanceof LineString);
+        assertEquals(3857, decoded.getSRID());
+        assertEquals(ring.getCoordinates().length, decoded.getCoordinates().length);
+    }
+}
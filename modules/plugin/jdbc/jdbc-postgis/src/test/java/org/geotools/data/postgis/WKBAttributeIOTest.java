@@ -0,0 +1,131 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.postgis;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.io.WKBWriter;
+import com.vividsolutions.jts.io.WKTReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.geotools.geometry.jts.LiteCoordinateSequence;
+import org.geotools.geometry.jts.LiteCoordinateSequenceFactory;
+import org.junit.Test;
+
+public class WKBAttributeIOTest {
+
+    GeometryFactory liteFactory = new GeometryFactory(new LiteCoordinateSequenceFactory());
+
+    @Test
+    public void testDecodeBase64() throws Exception {
+        WKBAttributeIO io = new WKBAttributeIO();
+        byte[] data = new byte[5000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        for (int length = 0; length < 10; length++) {
+            byte[] expected = new byte[length];
+            System.arraycopy(data, 0, expected, 0, length);
+            assertDecoded(io, expected);
+        }
+        // mime encoding adds line breaks, as PostgreSQL does
+        assertDecoded(io, data);
+    }
+
+    private void assertDecoded(WKBAttributeIO io, byte[] expected) {
+        int length = io.decodeBase64(encode(expected));
+        assertEquals(expected.length, length);
+        byte[] actual = new byte[length];
+        System.arraycopy(io.buffer, 0, actual, 0, length);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void testReadWKB() throws Exception {
+        String wkt =
+                "MULTIPOLYGON(((0 0, 10 0, 10 10, 0 10, 0 0), (1 1, 2 1, 2 2, 1 1)),"
+                        + "((20 20, 30 20, 30 30, 20 20)))";
+        Geometry expected = new WKTReader().read(wkt);
+        WKBAttributeIO io = new WKBAttributeIO(liteFactory);
+        for (int byteOrder : new int[] {0, 1}) {
+            byte[] wkb = new WKBWriter(2, byteOrder).write(expected);
+            Geometry actual = io.decodeGeometry(encode(wkb));
+            assertTrue(actual instanceof MultiPolygon);
+            assertTrue(expected.equalsExact(actual));
+            Polygon polygon = (Polygon) actual.getGeometryN(0);
+            assertTrue(
+                    polygon.getExteriorRing().getCoordinateSequence()
+                            instanceof LiteCoordinateSequence);
+        }
+    }
+
+    @Test
+    public void testReadTWKBLineString() throws Exception {
+        // LINESTRING(1 2, 3 5) with one decimal digit of precision
+        byte[] twkb = {'T', 0x22, 0x00, 0x02, 0x14, 0x28, 0x28, 0x3C};
+        WKBAttributeIO io = new WKBAttributeIO(liteFactory);
+        Geometry actual = io.decodeGeometry(encode(twkb));
+        assertTrue(actual instanceof LineString);
+        assertTrue(new WKTReader().read("LINESTRING(1 2, 3 5)").equalsExact(actual, 1e-9));
+        assertTrue(
+                ((LineString) actual).getCoordinateSequence() instanceof LiteCoordinateSequence);
+    }
+
+    @Test
+    public void testReadTWKBPolygon() throws Exception {
+        // POLYGON((0 0, 10 0, 10 10, 0 0)), deltas are zigzag encoded
+        byte[] twkb = {
+            'T', 0x03, 0x00, 0x01, 0x04, 0x00, 0x00, 0x14, 0x00, 0x00, 0x14, 0x13, 0x13
+        };
+        Geometry actual = new WKBAttributeIO().decodeGeometry(encode(twkb));
+        assertTrue(new WKTReader().read("POLYGON((0 0, 10 0, 10 10, 0 0))").equalsExact(actual));
+    }
+
+    @Test
+    public void testReadTWKBPoint() throws Exception {
+        // POINT(300 -1), the x delta needs a two bytes varint
+        byte[] twkb = {'T', 0x01, 0x00, (byte) 0xD8, 0x04, 0x01};
+        Geometry actual = new WKBAttributeIO().decodeGeometry(encode(twkb));
+        assertTrue(new WKTReader().read("POINT(300 -1)").equalsExact(actual));
+
+        byte[] empty = {'T', 0x01, 0x10};
+        assertTrue(new WKBAttributeIO().decodeGeometry(encode(empty)).isEmpty());
+    }
+
+    @Test
+    public void testTWKBPrecision() {
+        assertEquals(7, PostGISDialect.getTWKBPrecision(null));
+        assertEquals(7, PostGISDialect.getTWKBPrecision(0d));
+        assertEquals(7, PostGISDialect.getTWKBPrecision(1e-9));
+        assertEquals(3, PostGISDialect.getTWKBPrecision(0.01));
+        assertEquals(3, PostGISDialect.getTWKBPrecision(0.05));
+        assertEquals(1, PostGISDialect.getTWKBPrecision(1d));
+        assertEquals(-2, PostGISDialect.getTWKBPrecision(1000d));
+        assertEquals(-7, PostGISDialect.getTWKBPrecision(1e12));
+    }
+
+    private byte[] encode(byte[] bytes) {
+        return Base64.getMimeEncoder().encodeToString(bytes).getBytes(StandardCharsets.US_ASCII);
+    }
+}
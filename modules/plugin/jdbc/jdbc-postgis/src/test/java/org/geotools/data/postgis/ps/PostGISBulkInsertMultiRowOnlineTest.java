@@ -0,0 +1,38 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.postgis.ps;
+
+import org.geotools.data.postgis.PostGISBulkInsertOnlineTest;
+import org.geotools.jdbc.JDBCTestSetup;
+
+/** Runs the bulk insert checks against multi-row INSERT statements, with COPY disabled */
+public class PostGISBulkInsertMultiRowOnlineTest extends PostGISBulkInsertOnlineTest {
+
+    @Override
+    protected JDBCTestSetup createTestSetup() {
+        return new PostGISPSTestSetup();
+    }
+
+    @Override
+    protected boolean isCopyEnabled() {
+        return false;
+    }
+
+    public void testMultiRowInsertPath() throws Exception {
+        assertTrue(dialect.getMultiRowInsertLimit(5) >= 2);
+    }
+}
@@ -1,6 +1,7 @@
 package org.geotools.data.shapefile;
 
 import static org.geotools.data.shapefile.files.ShpFileType.FIX;
+import static org.geotools.data.shapefile.files.ShpFileType.HRX;
 import static org.geotools.data.shapefile.files.ShpFileType.QIX;
 import static org.geotools.data.shapefile.files.ShpFileType.SHP;
 import static org.geotools.data.shapefile.files.ShpFileType.SHX;
@@ -29,6 +30,7 @@ import org.geotools.data.shapefile.index.TreeException;
 import org.geotools.data.shapefile.index.quadtree.QuadTree;
 import org.geotools.data.shapefile.index.quadtree.StoreException;
 import org.geotools.data.shapefile.index.quadtree.fs.FileSystemIndexStore;
+import org.geotools.data.shapefile.index.rtree.PackedRTree;
 import org.geotools.data.shapefile.shp.IndexFile;
 import org.geotools.util.NullProgressListener;
 import org.geotools.util.URLs;
@@ -47,10 +49,15 @@ class IndexManager {
 
     static final int DEFAULT_MAX_QIX_CACHE_SIZE;
 
+    static final ShpFileType DEFAULT_SPATIAL_INDEX_TYPE;
+
     ShpFiles shpFiles;
 
     int maxQixCacheSize = DEFAULT_MAX_QIX_CACHE_SIZE;
 
+    /** The type of spatial index created when none is found, either QIX or HRX */
+    ShpFileType spatialIndexType = DEFAULT_SPATIAL_INDEX_TYPE;
+
     CachedQuadTree cachedTree;
 
     ShapefileDataStore store;
@@ -76,6 +83,17 @@ class IndexManager {
             LOGGER.log(Level.SEVERE, "Could not set the max qix cache size", t);
         }
         DEFAULT_MAX_QIX_CACHE_SIZE = max;
+
+        ShpFileType type = QIX;
+        String stype = System.getProperty("org.geotools.shapefile.spatialIndexType");
+        if (stype != null) {
+            if (HRX.extension.equalsIgnoreCase(stype)) {
+                type = HRX;
+            } else if (!QIX.extension.equalsIgnoreCase(stype)) {
+                LOGGER.log(Level.SEVERE, "Unknown spatial index type " + stype + ", using qix");
+            }
+        }
+        DEFAULT_SPATIAL_INDEX_TYPE = type;
     }
 
     public IndexManager(ShpFiles shpFiles, ShapefileDataStore store) {
@@ -92,12 +110,16 @@ class IndexManager {
     public boolean createSpatialIndex(boolean force) {
         // create index as needed
         try {
-            if (shpFiles.isLocal() && (isIndexStale(QIX) || force)) {
+            ShpFileType indexType = getSpatialIndexType();
+            if (shpFiles.isLocal()
+                    && !shpFiles.isSharedReadOnly()
+                    && (isIndexStale(indexType) || force)) {
                 ShapefileDataStoreFactory.LOGGER.fine(
                         "Creating spatial index for " + shpFiles.get(SHP));
 
                 ShapeFileIndexer indexer = new ShapeFileIndexer();
                 indexer.setShapeFileName(shpFiles);
+                indexer.setIndexType(indexType);
                 indexer.index(false, new NullProgressListener());
 
                 return true;
@@ -117,7 +139,9 @@ class IndexManager {
         if (isIndexUseable(FIX)) {
             return true;
         } else {
-            if (shpFiles.isLocal() && (shpFiles.exists(FIX) || createIfMissing)) {
+            if (shpFiles.isLocal()
+                    && !shpFiles.isSharedReadOnly()
+                    && (shpFiles.exists(FIX) || createIfMissing)) {
                 return createFidIndex();
             } else {
                 return false;
@@ -175,7 +199,22 @@ class IndexManager {
      * @return
      */
     boolean isSpatialIndexAvailable() {
-        return shpFiles.isLocal() && shpFiles.exists(QIX);
+        return shpFiles.isLocal() && (shpFiles.exists(HRX) || shpFiles.exists(QIX));
+    }
+
+    /**
+     * Returns the type of the spatial index in use, the packed R-tree is preferred over the
+     * quadtree when both are present, if none is the configured one will be created
+     */
+    ShpFileType getSpatialIndexType() {
+        if (shpFiles.isLocal()) {
+            if (shpFiles.exists(HRX)) {
+                return HRX;
+            } else if (shpFiles.exists(QIX)) {
+                return QIX;
+            }
+        }
+        return spatialIndexType;
     }
 
     /**
@@ -303,6 +342,10 @@ class IndexManager {
         // check if the spatial index needs recreating
         createSpatialIndex(false);
 
+        if (getSpatialIndexType() == HRX) {
+            return queryPackedRTree(bbox);
+        }
+
         if (cachedTree == null) {
             boolean canCache = false;
             URL treeURL = shpFiles.acquireRead(QIX, writer);
@@ -381,6 +424,50 @@ class IndexManager {
         }
     }
 
+    /** Queries the packed R-tree, returns null if all records need to be read */
+    CloseableIterator<Data> queryPackedRTree(Envelope bbox) throws IOException {
+        PackedRTree tree = openPackedRTree();
+        if (tree == null) {
+            return null;
+        }
+        CloseableIterator<Data> result = null;
+        try {
+            if (!bbox.contains(tree.getBounds())) {
+                // closing the iterator closes the tree
+                result = tree.search(bbox);
+            }
+        } finally {
+            if (result == null) {
+                tree.close();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Convenience method for opening the packed R-tree index.
+     *
+     * @return A new PackedRTree, or null if the index is not available
+     * @throws IOException
+     */
+    protected PackedRTree openPackedRTree() throws IOException {
+        if (!shpFiles.isLocal()) {
+            return null;
+        }
+        URL treeURL = shpFiles.acquireRead(HRX, writer);
+        try {
+            File treeFile = URLs.urlToFile(treeURL);
+
+            if (!treeFile.exists() || (treeFile.length() == 0)) {
+                return null;
+            }
+
+            return new PackedRTree(treeFile);
+        } finally {
+            shpFiles.unlockRead(treeURL, writer);
+        }
+    }
+
     public void dispose() {
         this.cachedTree = null;
     }
@@ -0,0 +1,66 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.shapefile;
+
+import java.io.IOException;
+import org.geotools.data.shapefile.dbf.DbaseFileReader;
+import org.geotools.data.shapefile.dbf.IndexedDbaseFileReader;
+import org.geotools.data.shapefile.fid.IndexedFidReader;
+import org.geotools.data.shapefile.shp.ShapefileReader;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * A shapefile feature reader reading sequentially a range of records, after moving once to the
+ * first one of them
+ */
+class RangeShapefileFeatureReader extends ShapefileFeatureReader {
+
+    /** The number of records still to be read */
+    int remaining;
+
+    /**
+     * Create the range reader
+     *
+     * @param start The position of the first record to be read (zero based)
+     * @param end The position after the last record to be read
+     */
+    public RangeShapefileFeatureReader(
+            SimpleFeatureType schema,
+            ShapefileReader shp,
+            DbaseFileReader dbf,
+            IndexedFidReader fidReader,
+            int start,
+            int end)
+            throws IOException {
+        super(schema, shp, dbf, fidReader);
+        this.remaining = end - start;
+        shp.goToRecord(start);
+        if (dbf != null) {
+            ((IndexedDbaseFileReader) dbf).goTo(start + 1);
+        }
+    }
+
+    @Override
+    boolean filesHaveMore() throws IOException {
+        // the dbf reader does not know it started in the middle, only check the shp one
+        if (remaining > 0 && shp.hasNext()) {
+            remaining--;
+            return true;
+        }
+        return false;
+    }
+}
@@ -39,7 +39,9 @@ import org.geotools.data.shapefile.index.quadtree.QuadTree;
 import org.geotools.data.shapefile.index.quadtree.StoreException;
 import org.geotools.data.shapefile.index.quadtree.fs.FileSystemIndexStore;
 import org.geotools.data.shapefile.index.quadtree.fs.IndexHeader;
+import org.geotools.data.shapefile.index.rtree.PackedRTreeWriter;
 import org.geotools.data.shapefile.shp.IndexFile;
+import org.geotools.data.shapefile.shp.ShapeType;
 import org.geotools.data.shapefile.shp.ShapefileHeader;
 import org.geotools.data.shapefile.shp.ShapefileReader;
 import org.geotools.data.shapefile.shp.ShapefileReader.Record;
@@ -62,6 +64,7 @@ class ShapeFileIndexer implements FileWriter {
     private String byteOrder;
     private boolean interactive = false;
     private ShpFiles shpFiles;
+    private ShpFileType indexType = ShpFileType.QIX;
 
     public static void main(String[] args) throws IOException {
         if ((args.length < 1) || (((args.length - 1) % 2) != 0)) {
@@ -75,9 +78,11 @@ class ShapeFileIndexer implements FileWriter {
 
         for (int i = 0; i < args.length; i++) {
             if (args[i].equals("-t")) {
-                // idx.setIdxType(IndexType.valueOf(args[++i]));
-                // just skip it for backwards compatibility
-                i++;
+                String type = args[++i];
+                if (type.equalsIgnoreCase("HRX") || type.equalsIgnoreCase("RTREE")) {
+                    idx.setIndexType(ShpFileType.HRX);
+                }
+                // anything else builds a quadtree, for backwards compatibility
             } else if (args[i].equals("-M")) {
                 idx.setMax(Integer.parseInt(args[++i]));
             } else if (args[i].equals("-s")) {
@@ -112,7 +117,7 @@ class ShapeFileIndexer implements FileWriter {
     private static void usage() {
         System.out.println(
                 "Usage: ShapeFileIndexer "
-                        + "-t <QIX> "
+                        + "-t <QIX | HRX> "
                         + "[-M <max tree depth>] "
                         + "[-b <byte order NL | NM>] "
                         + "<shape file>"
@@ -121,7 +126,7 @@ class ShapeFileIndexer implements FileWriter {
         System.out.println();
 
         System.out.println("Options:");
-        System.out.println("\t-t Index type: RTREE or QUADTREE");
+        System.out.println("\t-t Index type: QIX (quadtree) or HRX (packed Hilbert R-tree)");
         System.out.println();
         System.out.println("Following options apllies only to QUADTREE:");
         System.out.println("\t-b byte order to use: NL = LSB; " + "NM = MSB (default)");
@@ -156,32 +161,36 @@ class ShapeFileIndexer implements FileWriter {
         ShapefileReader reader = null;
 
         // Temporary file for building...
-        StorageFile storage = shpFiles.getStorageFile(ShpFileType.QIX);
+        StorageFile storage = shpFiles.getStorageFile(indexType);
         File treeFile = storage.getFile();
 
         try {
             reader = new ShapefileReader(shpFiles, true, false, new GeometryFactory());
 
-            if (max == -1) {
-                // compute a reasonable index max depth, considering a fully developed
-                // 10 levels one already contains 200k index nodes, good for indexing up
-                // to 3M features without consuming too much memory
-                int features = reader.getCount(0);
-                max = 1;
-                int nodes = 1;
-                while (nodes * leafSize < features) {
-                    max++;
-                    nodes *= 4;
-                }
-                if (max < 10) {
-                    max = 10;
+            if (indexType == ShpFileType.HRX) {
+                cnt = this.buildPackedRTree(reader, treeFile, verbose);
+            } else {
+                if (max == -1) {
+                    // compute a reasonable index max depth, considering a fully developed
+                    // 10 levels one already contains 200k index nodes, good for indexing up
+                    // to 3M features without consuming too much memory
+                    int features = reader.getCount(0);
+                    max = 1;
+                    int nodes = 1;
+                    while (nodes * leafSize < features) {
+                        max++;
+                        nodes *= 4;
+                    }
+                    if (max < 10) {
+                        max = 10;
+                    }
+
+                    reader.close();
+                    reader = new ShapefileReader(shpFiles, true, false, new GeometryFactory());
                 }
 
-                reader.close();
-                reader = new ShapefileReader(shpFiles, true, false, new GeometryFactory());
+                cnt = this.buildQuadTree(reader, treeFile, verbose);
             }
-
-            cnt = this.buildQuadTree(reader, treeFile, verbose);
         } finally {
             if (reader != null) reader.close();
         }
@@ -254,6 +263,42 @@ class ShapeFileIndexer implements FileWriter {
         return cnt;
     }
 
+    /**
+     * Builds a packed Hilbert R-tree with a single sequential scan of the shapefile, using the
+     * leaf size as the node size
+     */
+    private int buildPackedRTree(ShapefileReader reader, File file, boolean verbose)
+            throws IOException {
+        LOGGER.fine(
+                "Building packed Hilbert R-tree spatial index for file " + file.getAbsolutePath());
+
+        IndexFile shpIndex = new IndexFile(shpFiles, false);
+        int cnt = 0;
+        try {
+            int nodeSize = leafSize > 1 ? leafSize : 16;
+            PackedRTreeWriter tree = new PackedRTreeWriter(shpIndex.getRecordCount(), nodeSize);
+            while (reader.hasNext()) {
+                Record rec = reader.nextRecord();
+                int offset = shpIndex.getOffsetInBytes(cnt++);
+                if (rec.type == ShapeType.NULL) {
+                    tree.addNull(offset);
+                } else {
+                    tree.add(offset, rec.minX, rec.minY, rec.maxX, rec.maxY);
+                }
+
+                if (verbose && ((cnt % 1000) == 0)) {
+                    System.out.print('.');
+                }
+                if (cnt % 100000 == 0) System.out.print('\n');
+            }
+            if (verbose) System.out.println("done");
+            tree.write(file);
+        } finally {
+            shpIndex.close();
+        }
+        return cnt;
+    }
+
     private Node optimizeTree(
             QuadTree tree, Node node, int level, ShapefileReader reader, IndexFile index)
             throws StoreException, IOException {
@@ -414,6 +459,23 @@ class ShapeFileIndexer implements FileWriter {
         return getClass().getName();
     }
 
+    /**
+     * Sets the type of spatial index to build, either {@link ShpFileType#QIX} (the default) or
+     * {@link ShpFileType#HRX}
+     *
+     * @param indexType
+     */
+    public void setIndexType(ShpFileType indexType) {
+        if (indexType != ShpFileType.QIX && indexType != ShpFileType.HRX) {
+            throw new IllegalArgumentException("Not a spatial index type: " + indexType);
+        }
+        this.indexType = indexType;
+    }
+
+    public ShpFileType getIndexType() {
+        return indexType;
+    }
+
     public int getLeafSize() {
         return leafSize;
     }
@@ -166,8 +166,9 @@ public class ShapefileDataStore extends ContentDataStore implements FileDataStor
         this.timeZone = timeZone;
     }
 
+    /** Returns true if the files are memory mapped, which is always the case in shared mode */
     public boolean isMemoryMapped() {
-        return memoryMapped;
+        return memoryMapped || shpFiles.isSharedReadOnly();
     }
 
     public void setMemoryMapped(boolean memoryMapped) {
@@ -180,6 +181,26 @@ public class ShapefileDataStore extends ContentDataStore implements FileDataStor
 
     public void setBufferCachingEnabled(boolean bufferCachingEnabled) {
         this.bufferCachingEnabled = bufferCachingEnabled;
+        shpFiles.setMemoryMapCacheEnabled(bufferCachingEnabled);
+    }
+
+    public boolean isSharedReadOnly() {
+        return shpFiles.isSharedReadOnly();
+    }
+
+    /**
+     * Enables the shared read only mode, meant for shapefiles read by many threads at the same time
+     * and never modified while the store is in use. All readers share a single memory mapped view
+     * of the files and no file locks are taken. The store becomes read only and the missing index
+     * files are not created.
+     *
+     * @param sharedReadOnly
+     * @throws IllegalStateException if the files are not local, or are being accessed
+     * @see ShpFiles#setSharedReadOnly(boolean)
+     * @since 20
+     */
+    public void setSharedReadOnly(boolean sharedReadOnly) {
+        shpFiles.setSharedReadOnly(sharedReadOnly);
     }
 
     public boolean isIndexed() {
@@ -498,6 +519,8 @@ public class ShapefileDataStore extends ContentDataStore implements FileDataStor
                 + memoryMapped
                 + ", bufferCachingEnabled="
                 + bufferCachingEnabled
+                + ", sharedReadOnly="
+                + shpFiles.isSharedReadOnly()
                 + ", indexed="
                 + indexed
                 + ", fidIndexed="
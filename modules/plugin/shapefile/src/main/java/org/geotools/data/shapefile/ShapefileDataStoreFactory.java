@@ -84,6 +84,18 @@ public class ShapefileDataStoreFactory implements FileDataStoreFactorySpi {
                     true,
                     new KVP(Param.LEVEL, "advanced"));
 
+    /** Optional - share a single read only view of the files among all readers */
+    public static final Param SHARED_READ_ONLY =
+            new Param(
+                    "shared read only",
+                    Boolean.class,
+                    "share a single memory mapped, unlocked view of the files among all readers, "
+                            + "for files that are never modified while in use. "
+                            + "The store becomes read only",
+                    false,
+                    false,
+                    new KVP(Param.LEVEL, "advanced"));
+
     /** Optional - discriminator for directory stores */
     public static final Param FILE_TYPE =
             new Param(
@@ -189,6 +201,7 @@ public class ShapefileDataStoreFactory implements FileDataStoreFactorySpi {
             DBFTIMEZONE,
             MEMORY_MAPPED,
             CACHE_MEMORY_MAPS,
+            SHARED_READ_ONLY,
             FILE_TYPE,
             FSTYPE
         };
@@ -206,6 +219,7 @@ public class ShapefileDataStoreFactory implements FileDataStoreFactorySpi {
         URL url = lookup(URLP, params, URL.class);
         Boolean isMemoryMapped = lookup(MEMORY_MAPPED, params, Boolean.class);
         Boolean cacheMemoryMaps = lookup(CACHE_MEMORY_MAPS, params, Boolean.class);
+        Boolean sharedReadOnly = lookup(SHARED_READ_ONLY, params, Boolean.class);
         URI namespace = lookup(NAMESPACEP, params, URI.class);
         Charset dbfCharset = lookup(DBFCHARSET, params, Charset.class);
         TimeZone dbfTimeZone = lookup(DBFTIMEZONE, params, TimeZone.class);
@@ -236,6 +250,7 @@ public class ShapefileDataStoreFactory implements FileDataStoreFactorySpi {
             }
             store.setMemoryMapped(useMemoryMappedBuffer);
             store.setBufferCachingEnabled(cacheMemoryMaps);
+            store.setSharedReadOnly(isLocal && sharedReadOnly.booleanValue());
             store.setCharset(dbfCharset);
             store.setTimeZone(dbfTimeZone);
             store.setIndexed(enableIndex);
@@ -34,6 +34,7 @@ import org.geotools.data.shapefile.fid.IndexedFidReader;
 import org.geotools.data.shapefile.shp.ShapeType;
 import org.geotools.data.shapefile.shp.ShapefileReader;
 import org.geotools.data.shapefile.shp.ShapefileReader.Record;
+import org.geotools.feature.simple.RecyclableSimpleFeature;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.geometry.jts.LiteCoordinateSequence;
 import org.geotools.renderer.ScreenMap;
@@ -66,8 +67,16 @@ class ShapefileFeatureReader implements FeatureReader<SimpleFeatureType, SimpleF
 
     int[] dbfindexes;
 
+    /** Flags the attributes read as primitive doubles, see {@link #isDoubleField} */
+    boolean[] doubleFields;
+
     SimpleFeatureBuilder builder;
 
+    /** The feature filled with the values of each record, if recycling is enabled */
+    RecyclableSimpleFeature recycled;
+
+    String fidPrefix;
+
     SimpleFeature nextFeature;
 
     Envelope targetBBox;
@@ -99,46 +108,58 @@ class ShapefileFeatureReader implements FeatureReader<SimpleFeatureType, SimpleF
         idxBuffer = new StringBuffer(schema.getTypeName());
         idxBuffer.append('.');
         idxBaseLen = idxBuffer.length();
+        fidPrefix = idxBuffer.toString();
 
         if (dbf != null) {
             // build the list of dbf indexes we have to read taking into consideration the
             // duplicated dbf field names issue
             List<AttributeDescriptor> atts = schema.getAttributeDescriptors();
             dbfindexes = new int[atts.size()];
+            doubleFields = new boolean[atts.size()];
             DbaseFileHeader head = dbf.getHeader();
             for (int i = 0; i < atts.size(); i++) {
                 AttributeDescriptor att = atts.get(i);
                 if (att instanceof GeometryDescriptor) {
                     dbfindexes[i] = -1;
                 } else {
-                    String attName = att.getLocalName();
-                    int count = 0;
-                    Map<Object, Object> userData = att.getUserData();
-                    if (userData.get(ShapefileDataStore.ORIGINAL_FIELD_NAME) != null) {
-                        attName = (String) userData.get(ShapefileDataStore.ORIGINAL_FIELD_NAME);
-                        count =
-                                (Integer)
-                                        userData.get(
-                                                ShapefileDataStore.ORIGINAL_FIELD_DUPLICITY_COUNT);
-                    }
-
-                    boolean found = false;
-                    for (int j = 0; j < head.getNumFields(); j++) {
-                        if (head.getFieldName(j).equals(attName) && count-- <= 0) {
-                            dbfindexes[i] = j;
-                            found = true;
-                            break;
-                        }
-                    }
-                    if (!found) {
-                        throw new IOException(
-                                "Could not find attribute " + attName + " (mul count: " + count);
-                    }
+                    dbfindexes[i] = getDbfIndex(att, head);
+                    doubleFields[i] = isDoubleField(att, head, dbfindexes[i]);
                 }
             }
         }
     }
 
+    /**
+     * Returns the index of the dbf field backing the attribute, taking into consideration the
+     * duplicated dbf field names issue
+     */
+    static int getDbfIndex(AttributeDescriptor att, DbaseFileHeader head) throws IOException {
+        String attName = att.getLocalName();
+        int count = 0;
+        Map<Object, Object> userData = att.getUserData();
+        if (userData.get(ShapefileDataStore.ORIGINAL_FIELD_NAME) != null) {
+            attName = (String) userData.get(ShapefileDataStore.ORIGINAL_FIELD_NAME);
+            count = (Integer) userData.get(ShapefileDataStore.ORIGINAL_FIELD_DUPLICITY_COUNT);
+        }
+
+        for (int j = 0; j < head.getNumFields(); j++) {
+            if (head.getFieldName(j).equals(attName) && count-- <= 0) {
+                return j;
+            }
+        }
+        throw new IOException("Could not find attribute " + attName + " (mul count: " + count);
+    }
+
+    /**
+     * Returns true if the attribute is a double backed by a numeric dbf field, whose values can be
+     * read with {@link DbaseFileReader#readDouble(int)}
+     */
+    static boolean isDoubleField(AttributeDescriptor att, DbaseFileHeader head, int index) {
+        char type = head.getFieldType(index);
+        return Double.class.equals(att.getType().getBinding())
+                && (type == 'N' || type == 'n' || type == 'F' || type == 'f');
+    }
+
     @Override
     public SimpleFeatureType getFeatureType() {
         return schema;
@@ -251,20 +272,12 @@ class ShapefileFeatureReader implements FeatureReader<SimpleFeatureType, SimpleF
 
     SimpleFeature buildFeature(int number, Geometry geometry, Row row, Envelope envelope)
             throws IOException {
-        if (dbfindexes != null) {
-            for (int i = 0; i < dbfindexes.length; i++) {
-                if (dbfindexes[i] == -1) {
-                    builder.add(geometry);
-                } else {
-                    builder.add(row.read(dbfindexes[i]));
-                }
-            }
-        } else if (geometry != null) {
-            builder.add(geometry);
+        SimpleFeature feature;
+        if (recycled != null) {
+            feature = recycleFeature(number, geometry, row);
+        } else {
+            feature = createFeature(number, geometry, row);
         }
-        // build the feature id
-        String featureId = buildFeatureId(number);
-        SimpleFeature feature = builder.buildFeature(featureId);
         if (filter != null) {
             // if we should not return the feature, just drop it and continue reading
             if (!filter.evaluate(feature)) {
@@ -289,6 +302,58 @@ class ShapefileFeatureReader implements FeatureReader<SimpleFeatureType, SimpleF
         return feature;
     }
 
+    private SimpleFeature createFeature(int number, Geometry geometry, Row row)
+            throws IOException {
+        if (dbfindexes != null) {
+            for (int i = 0; i < dbfindexes.length; i++) {
+                if (dbfindexes[i] == -1) {
+                    builder.add(geometry);
+                } else {
+                    builder.add(readAttribute(row, i));
+                }
+            }
+        } else if (geometry != null) {
+            builder.add(geometry);
+        }
+        // build the feature id
+        String featureId = buildFeatureId(number);
+        return builder.buildFeature(featureId);
+    }
+
+    private SimpleFeature recycleFeature(int number, Geometry geometry, Row row)
+            throws IOException {
+        if (fidReader == null) {
+            recycled.recycle(fidPrefix, number);
+        } else {
+            recycled.recycle(buildFeatureId(number));
+        }
+        if (dbfindexes != null) {
+            for (int i = 0; i < dbfindexes.length; i++) {
+                if (dbfindexes[i] == -1) {
+                    recycled.set(i, geometry);
+                } else {
+                    recycled.set(i, readAttribute(row, i));
+                }
+            }
+        } else if (geometry != null) {
+            recycled.set(0, geometry);
+        }
+        return recycled;
+    }
+
+    /** Reads the value of a dbf attribute, doubles are parsed as primitives and boxed only once */
+    private Object readAttribute(Row row, int i) throws IOException {
+        int index = dbfindexes[i];
+        if (doubleFields[i]) {
+            double value = row.readDouble(index);
+            if (Double.isNaN(value) && row.isNull(index)) {
+                return null;
+            }
+            return value;
+        }
+        return row.read(index);
+    }
+
     protected String buildFeatureId(int number) throws IOException {
         if (fidReader == null) {
             idxBuffer.delete(idxBaseLen, idxBuffer.length());
@@ -363,6 +428,16 @@ class ShapefileFeatureReader implements FeatureReader<SimpleFeatureType, SimpleF
         this.screenMap = screenMap;
     }
 
+    /**
+     * Enables feature recycling, the reader will then return the same feature instance for each
+     * record, see {@link org.geotools.factory.Hints#FEATURE_RECYCLE}
+     *
+     * @param recycle true to enable recycling
+     */
+    public void setFeatureRecycling(boolean recycle) {
+        this.recycled = recycle ? new RecyclableSimpleFeature(schema) : null;
+    }
+
     void disableShxUsage() throws IOException {
         this.shp.disableShxUsage();
     }
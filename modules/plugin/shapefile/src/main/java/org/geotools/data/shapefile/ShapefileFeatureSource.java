@@ -47,6 +47,7 @@ import org.geotools.data.FeatureSource;
 import org.geotools.data.PrjFileReader;
 import org.geotools.data.Query;
 import org.geotools.data.ReTypeFeatureReader;
+import org.geotools.data.Transaction;
 import org.geotools.data.shapefile.dbf.DbaseFileHeader;
 import org.geotools.data.shapefile.dbf.DbaseFileReader;
 import org.geotools.data.shapefile.fid.IndexedFidReader;
@@ -59,13 +60,21 @@ import org.geotools.data.shapefile.shp.JTSUtilities;
 import org.geotools.data.shapefile.shp.ShapefileHeader;
 import org.geotools.data.shapefile.shp.ShapefileReader;
 import org.geotools.data.store.ContentEntry;
+import org.geotools.data.store.ContentFeaturePartition;
 import org.geotools.data.store.ContentFeatureSource;
 import org.geotools.factory.Hints;
 import org.geotools.factory.Hints.Key;
 import org.geotools.feature.AttributeTypeBuilder;
 import org.geotools.feature.FeatureTypes;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
 import org.geotools.feature.type.BasicFeatureTypes;
+import org.geotools.feature.visitor.AverageVisitor;
+import org.geotools.feature.visitor.FeatureAttributeVisitor;
+import org.geotools.feature.visitor.MaxVisitor;
+import org.geotools.feature.visitor.MergeableFeatureCalc;
+import org.geotools.feature.visitor.MinVisitor;
+import org.geotools.feature.visitor.SumVisitor;
 import org.geotools.filter.FilterAttributeExtractor;
 import org.geotools.filter.visitor.ExtractBoundsFilterVisitor;
 import org.geotools.geometry.jts.ReferencedEnvelope;
@@ -92,6 +101,7 @@ import org.opengis.filter.spatial.Touches;
 import org.opengis.filter.temporal.TOverlaps;
 import org.opengis.referencing.FactoryException;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.util.ProgressListener;
 
 /**
  * A {@link FeatureSource} for shapefiles based on {@link ContentFeatureSource}
@@ -197,6 +207,7 @@ class ShapefileFeatureSource extends ContentFeatureSource {
         hints.add(Hints.JTS_COORDINATE_SEQUENCE_FACTORY);
         hints.add(Hints.GEOMETRY_DISTANCE);
         hints.add(Hints.SCREENMAP);
+        hints.add(Hints.FEATURE_RECYCLE);
         this.hints = Collections.unmodifiableSet(hints);
     }
 
@@ -307,11 +318,12 @@ class ShapefileFeatureSource extends ContentFeatureSource {
     @Override
     protected FeatureReader<SimpleFeatureType, SimpleFeature> getReaderInternal(Query q)
             throws IOException {
-        SimpleFeatureType resultSchema = getResultSchema(q);
-        SimpleFeatureType readSchema = getReadSchema(q);
-        GeometryFactory geometryFactory = getGeometryFactory(q);
+        Envelope bbox = getTargetBBox(q);
+        return getReaderInternal(q, bbox, getGoodRecords(q, bbox));
+    }
 
-        // grab the target bbox, if any
+    /** Returns the target bbox of the query filter, or an empty envelope if there is none */
+    private Envelope getTargetBBox(Query q) {
         Envelope bbox = new ReferencedEnvelope();
         if (q.getFilter() != null) {
             bbox = (Envelope) q.getFilter().accept(ExtractBoundsFilterVisitor.BOUNDS_VISITOR, bbox);
@@ -319,14 +331,18 @@ class ShapefileFeatureSource extends ContentFeatureSource {
                 bbox = new ReferencedEnvelope();
             }
         }
+        return bbox;
+    }
 
-        // see if we can use indexing to speedup the data access
+    /**
+     * Uses the fid or spatial index, if available, to locate the records to be read. Returns null
+     * if all records are to be read.
+     */
+    private CloseableIterator<Data> getGoodRecords(Query q, Envelope bbox) throws IOException {
         Filter filter = q != null ? q.getFilter() : null;
         IndexManager indexManager = getDataStore().indexManager;
         CloseableIterator<Data> goodRecs = null;
-        if (getDataStore().isFidIndexed()
-                && filter instanceof Id
-                && indexManager.hasFidIndex(false)) {
+        if (isFidIndexUsable(filter)) {
             Id fidFilter = (Id) filter;
             List<Data> records = indexManager.queryFidIndex(fidFilter);
             if (records != null) {
@@ -345,6 +361,36 @@ class ShapefileFeatureSource extends ContentFeatureSource {
                 throw new IOException("Error querying index: " + e.getMessage());
             }
         }
+        return goodRecs;
+    }
+
+    private boolean isFidIndexUsable(Filter filter) {
+        return getDataStore().isFidIndexed()
+                && filter instanceof Id
+                && getDataStore().indexManager.hasFidIndex(false);
+    }
+
+    /**
+     * Builds the reader for the query, reading only the records in goodRecs, or all the records if
+     * goodRecs is null
+     */
+    private FeatureReader<SimpleFeatureType, SimpleFeature> getReaderInternal(
+            Query q, Envelope bbox, CloseableIterator<Data> goodRecs) throws IOException {
+        return getReaderInternal(q, bbox, goodRecs, -1, -1);
+    }
+
+    /**
+     * Builds the reader for the query, reading only the records in goodRecs, or the records between
+     * start and end (exclusive, zero based) if start is not negative, or all the records otherwise
+     */
+    private FeatureReader<SimpleFeatureType, SimpleFeature> getReaderInternal(
+            Query q, Envelope bbox, CloseableIterator<Data> goodRecs, int start, int end)
+            throws IOException {
+        SimpleFeatureType resultSchema = getResultSchema(q);
+        SimpleFeatureType readSchema = getReadSchema(q);
+        GeometryFactory geometryFactory = getGeometryFactory(q);
+        Filter filter = q != null ? q.getFilter() : null;
+
         // do we have anything to read at all? If not don't bother opening all the files
         if (goodRecs != null && !goodRecs.hasNext()) {
             LOGGER.log(
@@ -358,9 +404,7 @@ class ShapefileFeatureSource extends ContentFeatureSource {
 
         // get the .fix file reader, if we have a .fix file
         IndexedFidReader fidReader = null;
-        if (getDataStore().isFidIndexed()
-                && filter instanceof Id
-                && indexManager.hasFidIndex(false)) {
+        if (isFidIndexUsable(filter)) {
             fidReader = new IndexedFidReader(shpFiles);
         }
 
@@ -373,13 +417,17 @@ class ShapefileFeatureSource extends ContentFeatureSource {
                 || (attributes.size() == 1 && readSchema.getGeometryDescriptor() != null)) {
             LOGGER.fine("The DBF file won't be opened since no attributes will be read from it");
         } else {
-            dbfReader = shpManager.openDbfReader(goodRecs != null);
+            dbfReader = shpManager.openDbfReader(goodRecs != null || start >= 0);
         }
         ShapefileFeatureReader reader;
         if (goodRecs != null) {
             reader =
                     new IndexedShapefileFeatureReader(
                             readSchema, shapeReader, dbfReader, fidReader, goodRecs);
+        } else if (start >= 0) {
+            reader =
+                    new RangeShapefileFeatureReader(
+                            readSchema, shapeReader, dbfReader, fidReader, start, end);
         } else {
             reader = new ShapefileFeatureReader(readSchema, shapeReader, dbfReader, fidReader);
         }
@@ -404,6 +452,9 @@ class ShapefileFeatureSource extends ContentFeatureSource {
                 if (Boolean.TRUE.equals(hints.get(Hints.FEATURE_2D))) {
                     shapeReader.setFlatGeometry(true);
                 }
+                if (Boolean.TRUE.equals(hints.get(Hints.FEATURE_RECYCLE))) {
+                    reader.setFeatureRecycling(true);
+                }
             }
         }
 
@@ -415,6 +466,66 @@ class ShapefileFeatureSource extends ContentFeatureSource {
         }
     }
 
+    /**
+     * Splits the records in ranges, using the .shx file to locate them, or splits the records
+     * returned by the spatial index, if the query uses it. Fid queries are not split.
+     */
+    @Override
+    protected List<ContentFeaturePartition> splitInternal(Query q, int partitions)
+            throws IOException {
+        if (isFidIndexUsable(q.getFilter())) {
+            return null;
+        }
+
+        Envelope bbox = getTargetBBox(q);
+        List<ContentFeaturePartition> result = new ArrayList<>(partitions);
+        CloseableIterator<Data> goodRecs = getGoodRecords(q, bbox);
+        if (goodRecs != null) {
+            List<Data> records = new ArrayList<>();
+            try {
+                while (goodRecs.hasNext()) {
+                    records.add(goodRecs.next());
+                }
+            } finally {
+                goodRecs.close();
+            }
+            int size = records.size();
+            for (int i = 0; i < partitions; i++) {
+                int start = (int) ((long) size * i / partitions);
+                int end = (int) ((long) size * (i + 1) / partitions);
+                if (start < end) {
+                    List<Data> range = records.subList(start, end);
+                    result.add(
+                            () ->
+                                    getReaderInternal(
+                                            q,
+                                            bbox,
+                                            new CloseableIteratorWrapper<>(range.iterator())));
+                }
+            }
+        } else {
+            // the partitions are ranges of records, each read sequentially from its first record
+            IndexFile shx = getDataStore().shpManager.openIndexFile();
+            if (shx == null) {
+                return null;
+            }
+            int size;
+            try {
+                size = shx.getRecordCount();
+            } finally {
+                shx.close();
+            }
+            for (int i = 0; i < partitions; i++) {
+                int start = (int) ((long) size * i / partitions);
+                int end = (int) ((long) size * (i + 1) / partitions);
+                if (start < end) {
+                    result.add(() -> getReaderInternal(q, bbox, null, start, end));
+                }
+            }
+        }
+        return result;
+    }
+
     SimpleFeatureType getResultSchema(Query q) {
         if (q.getPropertyNames() == null) {
             return getSchema();
@@ -599,7 +710,162 @@ class ShapefileFeatureSource extends ContentFeatureSource {
     }
 
     @Override
-    protected boolean handleVisitor(Query query, FeatureVisitor visitor) throws IOException {
-        return super.handleVisitor(query, visitor);
+    protected boolean handleVisitor(Query query, FeatureVisitor visitor, ProgressListener progress)
+            throws IOException {
+        // min, max, sum and average of double attributes are computed straight from the dbf
+        if (visitor instanceof MergeableFeatureCalc
+                && visitDoubleField(query, (MergeableFeatureCalc) visitor, progress)) {
+            return true;
+        }
+        // visitors working only on dbf attributes are run on a query that does not decode the
+        // shapes, so that only the dbf fields they need are read
+        if (query.getPropertyNames() == Query.ALL_NAMES
+                && visitor instanceof FeatureAttributeVisitor) {
+            String[] attributes = getDbfAttributes((FeatureAttributeVisitor) visitor);
+            if (attributes != null) {
+                Query attributeQuery = new Query(query);
+                attributeQuery.setPropertyNames(attributes);
+                accepts(attributeQuery, visitor, progress);
+                return true;
+            }
+        }
+        return super.handleVisitor(query, visitor, progress);
+    }
+
+    /**
+     * Runs min, max, sum and average visitors over a double attribute of all the features, reading
+     * the values from the dbf as primitives, without building features. Null, NaN and infinite
+     * values are rare, they are passed to the visitor in a feature, so that they are handled
+     * exactly as in a regular visit.
+     *
+     * @return false if the visitor or the query cannot be handled this way
+     */
+    private boolean visitDoubleField(
+            Query query, MergeableFeatureCalc visitor, ProgressListener progress)
+            throws IOException {
+        Expression expression;
+        if (visitor instanceof MinVisitor) {
+            expression = ((MinVisitor) visitor).getExpression();
+        } else if (visitor instanceof MaxVisitor) {
+            expression = ((MaxVisitor) visitor).getExpression();
+        } else if (visitor instanceof SumVisitor) {
+            expression = ((SumVisitor) visitor).getExpression();
+        } else if (visitor instanceof AverageVisitor) {
+            expression = ((AverageVisitor) visitor).getExpression();
+        } else {
+            return false;
+        }
+        if (!(expression instanceof PropertyName)
+                || !Filter.INCLUDE.equals(query.getFilter())
+                || !query.isMaxFeaturesUnlimited()
+                || query.getStartIndex() != null
+                || getTransaction() != Transaction.AUTO_COMMIT) {
+            return false;
+        }
+        SimpleFeatureType schema = getSchema();
+        Object evaluated = expression.evaluate(schema);
+        if (!(evaluated instanceof AttributeDescriptor)
+                || evaluated instanceof GeometryDescriptor) {
+            return false;
+        }
+        AttributeDescriptor descriptor = (AttributeDescriptor) evaluated;
+
+        DbaseFileReader dbf = getDataStore().shpManager.openDbfReader(false);
+        if (dbf == null) {
+            return false;
+        }
+        try {
+            DbaseFileHeader header = dbf.getHeader();
+            int index = ShapefileFeatureReader.getDbfIndex(descriptor, header);
+            if (!ShapefileFeatureReader.isDoubleField(descriptor, header, index)) {
+                return false;
+            }
+
+            int count = 0;
+            double sum = 0;
+            double min = 0;
+            double max = 0;
+            SimpleFeature special = null;
+            MergeableFeatureCalc specials = visitor.createPartial();
+            float size = header.getNumRecords();
+            float position = 0;
+            progress.started();
+            try {
+                while (dbf.hasNext()) {
+                    if (size > 0) progress.progress(position++ / size);
+                    DbaseFileReader.Row row = dbf.readRow();
+                    if (row.isDeleted()) {
+                        continue;
+                    }
+                    double value = row.readDouble(index);
+                    if (Double.isNaN(value) || Double.isInfinite(value)) {
+                        if (special == null) {
+                            special =
+                                    SimpleFeatureBuilder.build(
+                                            schema, new Object[schema.getAttributeCount()], null);
+                        }
+                        special.setAttribute(
+                                descriptor.getLocalName(), row.isNull(index) ? null : value);
+                        specials.visit(special);
+                        continue;
+                    }
+                    if (count == 0 || Double.compare(value, min) < 0) {
+                        min = value;
+                    }
+                    if (count == 0 || Double.compare(value, max) > 0) {
+                        max = value;
+                    }
+                    sum += value;
+                    count++;
+                }
+            } finally {
+                progress.complete();
+            }
+
+            if (count > 0) {
+                MergeableFeatureCalc partial = visitor.createPartial();
+                if (partial instanceof MinVisitor) {
+                    ((MinVisitor) partial).setValue(min);
+                } else if (partial instanceof MaxVisitor) {
+                    ((MaxVisitor) partial).setValue(max);
+                } else if (partial instanceof SumVisitor) {
+                    ((SumVisitor) partial).setValue(sum);
+                } else {
+                    ((AverageVisitor) partial).setValue(count, sum);
+                }
+                visitor.merge(partial);
+            }
+            visitor.merge(specials);
+            return true;
+        } finally {
+            dbf.close();
+        }
+    }
+
+    /**
+     * Returns the attributes used by the visitor expressions, or null if the visitor uses the
+     * geometry or does not declare any attribute
+     */
+    private String[] getDbfAttributes(FeatureAttributeVisitor visitor) throws IOException {
+        SimpleFeatureType schema = getSchema();
+        FilterAttributeExtractor extractor = new FilterAttributeExtractor(schema);
+        List<Expression> expressions = visitor.getExpressions();
+        if (expressions == null || expressions.isEmpty()) {
+            return null;
+        }
+        for (Expression expression : expressions) {
+            expression.accept(extractor, null);
+        }
+        Set<String> names = extractor.getAttributeNameSet();
+        if (names.isEmpty()) {
+            return null;
+        }
+        for (String name : names) {
+            AttributeDescriptor descriptor = schema.getDescriptor(name);
+            if (descriptor == null || descriptor instanceof GeometryDescriptor) {
+                return null;
+            }
+        }
+        return names.toArray(new String[names.size()]);
     }
 }
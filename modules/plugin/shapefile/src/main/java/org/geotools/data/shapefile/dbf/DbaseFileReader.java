@@ -23,6 +23,7 @@ import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
@@ -76,6 +77,26 @@ public class DbaseFileReader implements FileReader {
             return readObject(offset, column);
         }
 
+        /** @see DbaseFileReader#readDouble(int) */
+        public double readDouble(final int column) throws IOException {
+            return DbaseFileReader.this.readDouble(column);
+        }
+
+        /** @see DbaseFileReader#readLong(int) */
+        public long readLong(final int column) throws IOException {
+            return DbaseFileReader.this.readLong(column);
+        }
+
+        /** @see DbaseFileReader#readInt(int) */
+        public int readInt(final int column) throws IOException {
+            return DbaseFileReader.this.readInt(column);
+        }
+
+        /** @see DbaseFileReader#isNull(int) */
+        public boolean isNull(final int column) throws IOException {
+            return DbaseFileReader.this.isNull(column);
+        }
+
         public String toString() {
             final StringBuffer ret = new StringBuffer("DBF Row - ");
             for (int i = 0; i < header.getNumFields(); i++) {
@@ -109,6 +130,17 @@ public class DbaseFileReader implements FileReader {
 
     int[] fieldOffsets;
 
+    Class[] fieldClasses;
+
+    /** The position in the buffer of the current record, after the deletion flag */
+    int recordStart;
+
+    /** Incremented at each read, used to track which fields of the record are in {@link #bytes} */
+    int recordStamp;
+
+    /** The record stamp of the last copy of each field in {@link #bytes} */
+    int[] loadedFields;
+
     int cnt = 1;
 
     Row row;
@@ -128,6 +160,25 @@ public class DbaseFileReader implements FileReader {
 
     private final long MILLISECS_PER_DAY = 24 * 60 * 60 * 1000;
 
+    /** Outcomes of {@link #parseNumber(byte[], int, int)} */
+    private static final int NUMBER_UNPARSED = 0, NUMBER_LONG = 1, NUMBER_DOUBLE = 2;
+
+    /** Powers of ten exactly representable as doubles */
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /** Value of the last integral number parsed by {@link #parseNumber(byte[], int, int)} */
+    private long parsedLong;
+
+    /** Value of the last decimal number parsed by {@link #parseNumber(byte[], int, int)} */
+    private double parsedDouble;
+
     /**
      * Creates a new instance of DBaseFileReader
      *
@@ -222,9 +273,12 @@ public class DbaseFileReader implements FileReader {
         fieldTypes = new char[header.getNumFields()];
         fieldLengths = new int[header.getNumFields()];
         fieldOffsets = new int[header.getNumFields()];
+        fieldClasses = new Class[header.getNumFields()];
+        loadedFields = new int[header.getNumFields()];
         for (int i = 0, ii = header.getNumFields(); i < ii; i++) {
             fieldTypes[i] = header.getFieldType(i);
             fieldLengths[i] = header.getFieldLength(i);
+            fieldClasses[i] = header.getFieldClass(i);
             if (i > 0) fieldOffsets[i] = fieldOffsets[i - 1] + header.getFieldLength(i - 1);
         }
         bytes = new byte[header.getRecordLength() - 1];
@@ -382,7 +436,6 @@ public class DbaseFileReader implements FileReader {
             return null;
         }
 
-        // retrieve the record length
         final int numFields = header.getNumFields();
 
         for (int j = 0; j < numFields; j++) {
@@ -415,32 +468,140 @@ public class DbaseFileReader implements FileReader {
         cnt++;
     }
 
+    /**
+     * Reads a numeric field of the current record as a double, parsing it straight from the record
+     * bytes without allocating objects. Remember to call {@link #read()} before.
+     *
+     * @param fieldNum The field number to be read (zero based)
+     * @return The value of the field, or {@link Double#NaN} if the field is null or not a number
+     * @throws IOException If an error occurs.
+     */
+    public double readDouble(final int fieldNum) throws IOException {
+        loadField(fieldNum);
+        final int offset = fieldOffsets[fieldNum];
+        if (isNumeric(fieldNum)) {
+            if (bytes[offset] == '*') {
+                return Double.NaN;
+            }
+            final int parsed = parseNumber(bytes, offset, fieldLengths[fieldNum]);
+            if (parsed == NUMBER_LONG) {
+                return parsedLong;
+            } else if (parsed == NUMBER_DOUBLE) {
+                return parsedDouble;
+            }
+        }
+        final Object value = readObject(offset, fieldNum);
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    /**
+     * Reads a numeric field of the current record as a long, parsing it straight from the record
+     * bytes without allocating objects. Decimal values are truncated. Remember to call {@link
+     * #read()} before.
+     *
+     * @param fieldNum The field number to be read (zero based)
+     * @return The value of the field, or 0 if the field is null or not a number, use {@link
+     *     #isNull(int)} to tell the two apart
+     * @throws IOException If an error occurs.
+     */
+    public long readLong(final int fieldNum) throws IOException {
+        loadField(fieldNum);
+        final int offset = fieldOffsets[fieldNum];
+        if (isNumeric(fieldNum)) {
+            if (bytes[offset] == '*') {
+                return 0;
+            }
+            final int parsed = parseNumber(bytes, offset, fieldLengths[fieldNum]);
+            if (parsed == NUMBER_LONG) {
+                return parsedLong;
+            } else if (parsed == NUMBER_DOUBLE) {
+                return (long) parsedDouble;
+            }
+        }
+        final Object value = readObject(offset, fieldNum);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    /**
+     * Same as {@link #readLong(int)}, narrowed to an int.
+     *
+     * @param fieldNum The field number to be read (zero based)
+     * @throws IOException If an error occurs.
+     */
+    public int readInt(final int fieldNum) throws IOException {
+        return (int) readLong(fieldNum);
+    }
+
+    /**
+     * Checks if a field of the current record is null, without allocating objects for numeric
+     * fields. Remember to call {@link #read()} before.
+     *
+     * @param fieldNum The field number to be checked (zero based)
+     * @throws IOException If an error occurs.
+     */
+    public boolean isNull(final int fieldNum) throws IOException {
+        loadField(fieldNum);
+        final int offset = fieldOffsets[fieldNum];
+        if (isNumeric(fieldNum)) {
+            if (bytes[offset] == '*') {
+                return true;
+            }
+            if (parseNumber(bytes, offset, fieldLengths[fieldNum]) != NUMBER_UNPARSED) {
+                return false;
+            }
+        }
+        return readObject(offset, fieldNum) == null;
+    }
+
+    private boolean isNumeric(final int fieldNum) {
+        final char type = fieldTypes[fieldNum];
+        return fieldLengths[fieldNum] > 0
+                && (type == 'N' || type == 'n' || type == 'F' || type == 'f');
+    }
+
     /**
      * Reads the next record into memory. You need to use this directly when reading only a subset
      * of the fields using {@link #readField(int)}.
      *
+     * <p>The record is not copied out of the buffer, the fields are copied on demand when first
+     * accessed, so that the cost of reading a record depends on the fields actually read rather
+     * than on the record length. As a consequence, the fields of a record must be read before
+     * moving to another one.
+     *
      * @throws IOException
      */
     public void read() throws IOException {
-        boolean foundRecord = false;
-        while (!foundRecord) {
-
-            bufferCheck();
-
-            // read the deleted flag
-            final char deleted = (char) buffer.get();
-            row.deleted = deleted == '*';
+        bufferCheck();
 
-            buffer.limit(buffer.position() + header.getRecordLength() - 1);
-            buffer.get(bytes); // SK: There is a side-effect here!!!
-            buffer.limit(buffer.capacity());
+        // read the deleted flag
+        final char deleted = (char) buffer.get();
+        row.deleted = deleted == '*';
 
-            foundRecord = true;
+        // skip the record, the fields will be copied from the buffer on demand
+        if (buffer.remaining() < header.getRecordLength() - 1) {
+            throw new BufferUnderflowException();
         }
+        recordStart = buffer.position();
+        buffer.position(recordStart + header.getRecordLength() - 1);
+        recordStamp++;
 
         cnt++;
     }
 
+    /**
+     * Copies the bytes of a field of the current record in {@link #bytes}, at the field offset, if
+     * not already there.
+     */
+    private void loadField(final int fieldNum) {
+        if (loadedFields[fieldNum] != recordStamp) {
+            final int position = buffer.position();
+            buffer.position(recordStart + fieldOffsets[fieldNum]);
+            buffer.get(bytes, fieldOffsets[fieldNum], fieldLengths[fieldNum]);
+            buffer.position(position);
+            loadedFields[fieldNum] = recordStamp;
+        }
+    }
+
     /**
      * Copy the next entry into the array.
      *
@@ -457,6 +618,7 @@ public class DbaseFileReader implements FileReader {
         final int fieldLen = fieldLengths[fieldNum];
         Object object = null;
         if (fieldLen > 0) {
+            loadField(fieldNum);
             switch (type) {
                     // (L)logical (T,t,F,f,Y,y,N,n)
                 case 'l':
@@ -560,8 +722,26 @@ public class DbaseFileReader implements FileReader {
                     if (bytes[fieldOffset] == '*') {
                         break;
                     } else {
+                        Class clazz = fieldClasses[fieldNum];
+                        // common number formats are parsed without building strings
+                        final int parsed = parseNumber(bytes, fieldOffset, fieldLen);
+                        if (parsed == NUMBER_LONG) {
+                            if (clazz == Integer.class
+                                    && parsedLong >= Integer.MIN_VALUE
+                                    && parsedLong <= Integer.MAX_VALUE) {
+                                object = Integer.valueOf((int) parsedLong);
+                            } else if (clazz == Integer.class || clazz == Long.class) {
+                                object = Long.valueOf(parsedLong);
+                            } else {
+                                object = Double.valueOf(parsedLong);
+                            }
+                            break;
+                        } else if (parsed == NUMBER_DOUBLE) {
+                            object = Double.valueOf(parsedDouble);
+                            break;
+                        }
+
                         final String string = fastParse(bytes, fieldOffset, fieldLen).trim();
-                        Class clazz = header.getFieldClass(fieldNum);
                         if (clazz == Integer.class) {
                             try {
                                 object = Integer.parseInt(string);
@@ -586,6 +766,14 @@ public class DbaseFileReader implements FileReader {
                 case 'f':
                 case 'F':
                     if (bytes[fieldOffset] != '*') {
+                        final int parsed = parseNumber(bytes, fieldOffset, fieldLen);
+                        if (parsed == NUMBER_LONG) {
+                            object = Double.valueOf(parsedLong);
+                            break;
+                        } else if (parsed == NUMBER_DOUBLE) {
+                            object = Double.valueOf(parsedDouble);
+                            break;
+                        }
                         try {
                             object = Double.parseDouble(fastParse(bytes, fieldOffset, fieldLen));
                         } catch (final NumberFormatException e) {
@@ -601,6 +789,76 @@ public class DbaseFileReader implements FileReader {
         return object;
     }
 
+    /**
+     * Parses the most common number formats found in dbf files, an optional sign followed by digits
+     * and an optional decimal point, surrounded by blanks, without allocating objects. Integral
+     * values are stored in {@link #parsedLong}, decimal ones in {@link #parsedDouble}, and are
+     * parsed only when the result is exact, that is, equal to the one of {@link
+     * Long#parseLong(String)} or {@link Double#parseDouble(String)}.
+     *
+     * @return {@link #NUMBER_LONG}, {@link #NUMBER_DOUBLE}, or {@link #NUMBER_UNPARSED} if the
+     *     number has to be parsed by the JDK, or is not a number at all
+     */
+    private int parseNumber(final byte[] bytes, final int fieldOffset, final int fieldLen) {
+        int start = fieldOffset;
+        int end = fieldOffset + fieldLen;
+        // same as String.trim()
+        while (start < end && (bytes[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (bytes[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return NUMBER_UNPARSED;
+        }
+
+        boolean negative = false;
+        if (bytes[start] == '-' || bytes[start] == '+') {
+            negative = bytes[start] == '-';
+            start++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (int i = start; i < end; i++) {
+            final byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                if (mantissa > (Long.MAX_VALUE - 9) / 10) {
+                    return NUMBER_UNPARSED;
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else if (b == '.' && decimals < 0) {
+                decimals = 0;
+            } else {
+                return NUMBER_UNPARSED;
+            }
+        }
+        if (digits == 0) {
+            return NUMBER_UNPARSED;
+        }
+
+        if (decimals < 0) {
+            if (negative && mantissa == 0) {
+                // "-0" parses as a negative zero when the field is a double
+                return NUMBER_UNPARSED;
+            }
+            parsedLong = negative ? -mantissa : mantissa;
+            return NUMBER_LONG;
+        }
+        // both operands are exact, so the division is correctly rounded
+        if (mantissa >= (1L << 53) || decimals >= POWERS_OF_TEN.length) {
+            return NUMBER_UNPARSED;
+        }
+        final double value = mantissa / POWERS_OF_TEN[decimals];
+        parsedDouble = negative ? -value : value;
+        return NUMBER_DOUBLE;
+    }
+
     /**
      * Performs a faster byte[] to String conversion under the assumption the content is represented
      * with one byte per char
@@ -24,6 +24,8 @@ import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A FileChannel that delegates all calls to the underlying FileChannel but for {@link
@@ -40,6 +42,8 @@ public class FileChannelDecorator extends FileChannel implements ReadableByteCha
     private final FileReader reader;
     private final FileWriter writer;
     private boolean closed;
+    /** The cached buffers mapped through this channel, released on close */
+    private final List<MappedByteBuffer> mappings = new ArrayList<MappedByteBuffer>(1);
 
     public FileChannelDecorator(
             FileChannel channel, ShpFiles shapefileFiles, URL url, FileReader requestor) {
@@ -70,7 +74,9 @@ public class FileChannelDecorator extends FileChannel implements ReadableByteCha
 
     public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
         //    	return wrapped.map(mode, position, size)
-        return shapefileFiles.map(wrapped, url, mode, position, size);
+        synchronized (mappings) {
+            return shapefileFiles.map(wrapped, url, mode, position, size, mappings);
+        }
     }
 
     public long position() throws IOException {
@@ -134,6 +140,10 @@ public class FileChannelDecorator extends FileChannel implements ReadableByteCha
         } finally {
             if (!closed) {
                 closed = true;
+                synchronized (mappings) {
+                    shapefileFiles.release(mappings);
+                    mappings.clear();
+                }
                 if (reader != null) {
                     shapefileFiles.unlockRead(url, reader);
                 } else {
@@ -23,7 +23,11 @@ import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.resources.NIOUtilities;
@@ -37,6 +41,10 @@ import org.geotools.util.logging.Logging;
  * buffers. Mapping a file is a synchronized operation, plus by generating light copies the same
  * buffer can be shared by various threads
  *
+ * <p>Buffers can be handed out with a reference count, in that case they are unmapped only after
+ * the last user released them, even if the cache is cleaned in the meantime. Unmapping a buffer
+ * that is still being read would crash the JVM.
+ *
  * @author Andrea Aime - OpenGeo
  */
 class MemoryMapCache {
@@ -46,35 +54,93 @@ class MemoryMapCache {
     SoftValueHashMap<MappingKey, MappedByteBuffer> buffers =
             new SoftValueHashMap<MappingKey, MappedByteBuffer>(0, new BufferCleaner());
 
+    /** Number of open users of each buffer, by identity */
+    Map<MappedByteBuffer, Integer> references = new IdentityHashMap<MappedByteBuffer, Integer>();
+
+    /** Buffers removed from the cache while still in use, they get unmapped on last release */
+    Set<MappedByteBuffer> retired =
+            Collections.newSetFromMap(new IdentityHashMap<MappedByteBuffer, Boolean>());
+
     MappedByteBuffer map(FileChannel wrapped, URL url, MapMode mode, long position, long size)
             throws IOException {
+        return map(wrapped, url, mode, position, size, null);
+    }
+
+    /**
+     * Maps the file, or returns a copy of the cached mapping. If a list of acquired buffers is
+     * provided the shared buffer is added to it and its reference count is increased, the caller
+     * must then {@link #release(MappedByteBuffer)} it once done.
+     */
+    MappedByteBuffer map(
+            FileChannel wrapped,
+            URL url,
+            MapMode mode,
+            long position,
+            long size,
+            List<MappedByteBuffer> acquired)
+            throws IOException {
         if (mode != MapMode.READ_ONLY) {
             return wrapped.map(mode, position, size);
         }
 
         File file = URLs.urlToFile(url).getCanonicalFile();
         MappingKey mk = new MappingKey(file, position, size);
-        MappedByteBuffer buffer = buffers.get(mk);
-        if (buffer == null) {
-            synchronized (this) {
-                buffer = buffers.get(mk);
-                if (buffer == null) {
-                    buffer = wrapped.map(mode, position, size);
-                    buffers.put(mk, buffer);
-                    if (LOGGER.isLoggable(Level.FINE)) {
-                        LOGGER.log(Level.FINE, "Mapping and caching " + file.getAbsolutePath());
-                    }
+        MappedByteBuffer buffer;
+        synchronized (this) {
+            buffer = buffers.get(mk);
+            if (buffer == null) {
+                buffer = wrapped.map(mode, position, size);
+                buffers.put(mk, buffer);
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.log(Level.FINE, "Mapping and caching " + file.getAbsolutePath());
+                }
+            } else {
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.log(Level.FINE, "Using cached map for " + file.getAbsolutePath());
                 }
             }
-        } else {
-            if (LOGGER.isLoggable(Level.FINE)) {
-                LOGGER.log(Level.FINE, "Using cached map for " + file.getAbsolutePath());
+            if (acquired != null) {
+                Integer count = references.get(buffer);
+                references.put(buffer, count == null ? 1 : count + 1);
+                acquired.add(buffer);
             }
         }
 
         return (MappedByteBuffer) buffer.duplicate();
     }
 
+    /**
+     * Releases a buffer acquired with {@link #map(FileChannel, URL, MapMode, long, long, List)}, if
+     * it has been removed from the cache in the meantime and this was the last reference it gets
+     * unmapped
+     */
+    synchronized void release(MappedByteBuffer buffer) {
+        Integer count = references.get(buffer);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            references.put(buffer, count - 1);
+        } else {
+            references.remove(buffer);
+            if (retired.remove(buffer)) {
+                NIOUtilities.clean(buffer, true);
+            }
+        }
+    }
+
+    /** Unmaps a buffer removed from the cache, or defers it if the buffer is still in use */
+    private synchronized void discard(MappedByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        if (references.containsKey(buffer)) {
+            retired.add(buffer);
+        } else {
+            NIOUtilities.clean(buffer, true);
+        }
+    }
+
     /**
      * Cleans up all memory mapped regions for a specified file. It is necessary to call this method
      * before any attempt to open a file for writing on Windows
@@ -89,11 +155,13 @@ class MemoryMapCache {
                 return;
             }
             File file = rawFile.getCanonicalFile();
-            List<MappingKey> keys = new ArrayList<MappingKey>(buffers.keySet());
+            List<MappingKey> keys;
+            synchronized (this) {
+                keys = new ArrayList<MappingKey>(buffers.keySet());
+            }
             for (MappingKey key : keys) {
                 if (key.file.equals(file)) {
-                    MappedByteBuffer buffer = buffers.remove(key);
-                    NIOUtilities.clean(buffer, true);
+                    discard(removeBuffer(key));
                     if (LOGGER.isLoggable(Level.FINE)) {
                         LOGGER.log(Level.FINE, "Removed mapping for " + file.getAbsolutePath());
                     }
@@ -108,16 +176,22 @@ class MemoryMapCache {
     }
 
     void clean() {
-        List<MappingKey> keys = new ArrayList<MappingKey>(buffers.keySet());
+        List<MappingKey> keys;
+        synchronized (this) {
+            keys = new ArrayList<MappingKey>(buffers.keySet());
+        }
         for (MappingKey key : keys) {
-            MappedByteBuffer buffer = buffers.remove(key);
-            NIOUtilities.clean(buffer, true);
+            discard(removeBuffer(key));
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.log(Level.FINE, "Removed mapping for " + key.file.getAbsolutePath());
             }
         }
     }
 
+    private synchronized MappedByteBuffer removeBuffer(MappingKey key) {
+        return buffers.remove(key);
+    }
+
     /** Tracks a memory mapped region of a certain file */
     static class MappingKey {
         File file;
@@ -0,0 +1,213 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.shapefile.files;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A read only view over a {@link FileChannel} shared by all the readers of a {@link ShpFiles} in
+ * shared read only mode. Each view keeps its own position and uses positional reads against the
+ * shared channel, so no file handle is opened and no lock is taken per reader. Memory maps go
+ * through the {@link ShpFiles} cache and are released when the view is closed, the shared channel
+ * is left open.
+ *
+*/
+class SharedFileChannel extends FileChannel {
+
+    private final ShpFiles shpFiles;
+
+    private final ShpFileType type;
+
+    private final URL url;
+
+    /** The shared buffers mapped through this view, released on close */
+    private final List<MappedByteBuffer> mappings = new ArrayList<MappedByteBuffer>(1);
+
+    private long position;
+
+    SharedFileChannel(ShpFiles shpFiles, ShpFileType type, URL url) {
+        this.shpFiles = shpFiles;
+        this.type = type;
+        this.url = url;
+    }
+
+    /**
+     * Returns the shared channel. It is looked up on each access as a thread interrupted during a
+     * read closes it, in that case the {@link ShpFiles} opens a new one.
+     */
+    private FileChannel shared() throws IOException {
+        if (!isOpen()) {
+            throw new ClosedChannelException();
+        }
+        return shpFiles.getSharedChannel(type);
+    }
+
+    /**
+     * Reads from the shared channel. A thread interrupted while reading closes the shared channel
+     * for all the views, making reads running in other threads fail with an {@link
+     * AsynchronousCloseException}, or with a {@link ClosedChannelException} if they picked the
+     * channel before it was closed: those are retried once against the channel reopened by {@link
+     * #shared()}. The exception is propagated if this view is closed, or if the current thread is
+     * the interrupted one ({@link ClosedByInterruptException}).
+     */
+    private int readShared(ByteBuffer dst, long position) throws IOException {
+        try {
+            return shared().read(dst, position);
+        } catch (ClosedChannelException e) {
+            if (!isOpen() || Thread.currentThread().isInterrupted()) {
+                throw e;
+            }
+            return shared().read(dst, position);
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int read = readShared(dst, position);
+        if (read > 0) {
+            position += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        long total = 0;
+        for (int i = offset; i < offset + length; i++) {
+            ByteBuffer dst = dsts[i];
+            if (!dst.hasRemaining()) {
+                continue;
+            }
+            int read = read(dst);
+            if (read < 0) {
+                return total == 0 ? -1 : total;
+            }
+            total += read;
+            if (dst.hasRemaining()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        return readShared(dst, position);
+    }
+
+    @Override
+    public long position() throws IOException {
+        if (!isOpen()) {
+            throw new ClosedChannelException();
+        }
+        return position;
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+        if (!isOpen()) {
+            throw new ClosedChannelException();
+        }
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position " + newPosition);
+        }
+        this.position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return shared().size();
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+        if (mode != MapMode.READ_ONLY) {
+            throw new NonWritableChannelException();
+        }
+        synchronized (mappings) {
+            return shpFiles.map(shared(), url, mode, position, size, mappings);
+        }
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target)
+            throws IOException {
+        return shared().transferTo(position, count, target);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public FileChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public void force(boolean metaData) {
+        // nothing to do, the channel is read only
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) {
+        throw new UnsupportedOperationException("Files opened in shared read only mode");
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) {
+        throw new UnsupportedOperationException("Files opened in shared read only mode");
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+        synchronized (mappings) {
+            shpFiles.releaseShared(mappings);
+            mappings.clear();
+        }
+    }
+}
@@ -40,6 +40,11 @@ public enum ShpFileType {
      * mapservers shptree tool generates
      */
     QIX("qix"),
+    /**
+     * the .hrx file, a packed Hilbert R-tree spatial index of the shapefile, an alternative to the
+     * .qix file that performs better on skewed data
+     */
+    HRX("hrx"),
     /**
      * the .fix file, it contains all the Feature IDs for constant time lookup by fid also so that
      * the fids stay consistent across deletes and adds
@@ -41,10 +41,12 @@ import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -89,6 +91,16 @@ public class ShpFiles {
 
     private boolean memoryMapCacheEnabled;
 
+    /** When true the files are only read, through shared channels and without locking */
+    private volatile boolean sharedReadOnly;
+
+    /** The channels shared by all readers in shared read only mode */
+    private final Map<ShpFileType, FileChannel> sharedChannels =
+            new ConcurrentHashMap<ShpFileType, FileChannel>();
+
+    /** Number of channels open in shared read only mode */
+    private final AtomicInteger sharedReaders = new AtomicInteger();
+
     /**
      * Searches for all the files and adds then to the map of files.
      *
@@ -213,6 +225,12 @@ public class ShpFiles {
             logCurrentLockers(Level.SEVERE);
             lockers.clear(); // so as not to get this log again.
         }
+        if (sharedReaders.get() != 0) {
+            LOGGER.log(
+                    Level.SEVERE,
+                    sharedReaders.get() + " channels are still open in shared read only mode");
+        }
+        closeSharedChannels();
         mapCache.clean();
     }
 
@@ -328,7 +346,7 @@ public class ShpFiles {
      */
     public URL acquireRead(ShpFileType type, FileReader requestor) {
         URL url = urls.get(type);
-        if (url == null) return null;
+        if (url == null || sharedReadOnly) return url;
 
         readWriteLock.readLock().lock();
         Collection<ShpFilesLocker> threadLockers = getCurrentThreadLockers();
@@ -356,6 +374,9 @@ public class ShpFiles {
         if (url == null) {
             return new Result<URL, State>(null, State.NOT_EXIST);
         }
+        if (sharedReadOnly) {
+            return new Result<URL, State>(url, State.GOOD);
+        }
 
         boolean locked = readWriteLock.readLock().tryLock();
         if (!locked) {
@@ -395,6 +416,10 @@ public class ShpFiles {
         if (requestor == null) {
             throw new NullPointerException("requestor cannot be null");
         }
+        if (sharedReadOnly) {
+            // no lock was taken
+            return;
+        }
 
         Collection threadLockers = getCurrentThreadLockers();
         boolean removed = threadLockers.remove(new ShpFilesLocker(url, requestor));
@@ -449,6 +474,7 @@ public class ShpFiles {
         if (url == null) {
             return null;
         }
+        checkWritable();
 
         // we need to give up all read locks before getting the write one
         Collection<ShpFilesLocker> threadLockers = getCurrentThreadLockers();
@@ -480,6 +506,7 @@ public class ShpFiles {
         if (url == null) {
             return new Result<URL, State>(null, State.NOT_EXIST);
         }
+        checkWritable();
 
         Collection<ShpFilesLocker> threadLockers = getCurrentThreadLockers();
         boolean locked = readWriteLock.writeLock().tryLock();
@@ -543,6 +570,13 @@ public class ShpFiles {
         readWriteLock.writeLock().unlock();
     }
 
+    private void checkWritable() {
+        if (sharedReadOnly) {
+            throw new IllegalStateException(
+                    "The shapefile " + getTypeName() + " is open in shared read only mode");
+        }
+    }
+
     /**
      * Returns the list of lockers attached to a given thread, or creates it if missing
      *
@@ -600,7 +634,7 @@ public class ShpFiles {
      * @return
      */
     public boolean isWritable() {
-        if (!isLocal()) {
+        if (!isLocal() || sharedReadOnly) {
             return false;
         }
         return URLs.urlToFile(urls.get(SHP)).canWrite() && URLs.urlToFile(urls.get(DBF)).canWrite();
@@ -741,13 +775,21 @@ public class ShpFiles {
      * will be returned. Otherwise a generic channel will be obtained from the urls input stream.
      *
      * <p>A read lock is obtained when this method is called and released when the channel is
-     * closed.
+     * closed. In shared read only mode no lock is taken, and the returned channel is a view over a
+     * file handle shared with the other readers.
      *
      * @param type the type of file to open the channel to.
      * @param requestor the object requesting the channel
      */
     public ReadableByteChannel getReadChannel(ShpFileType type, FileReader requestor)
             throws IOException {
+        if (sharedReadOnly) {
+            URL url = urls.get(type);
+            // opens the shared channel, or fails if the file is missing
+            getSharedChannel(type);
+            sharedReaders.incrementAndGet();
+            return new SharedFileChannel(this, type, url);
+        }
         URL url = acquireRead(type, requestor);
         ReadableByteChannel channel = null;
         try {
@@ -874,15 +916,113 @@ public class ShpFiles {
      * @return
      * @throws IOException
      */
-    MappedByteBuffer map(FileChannel wrapped, URL url, MapMode mode, long position, long size)
+    MappedByteBuffer map(
+            FileChannel wrapped,
+            URL url,
+            MapMode mode,
+            long position,
+            long size,
+            List<MappedByteBuffer> acquired)
             throws IOException {
-        if (memoryMapCacheEnabled) {
-            return mapCache.map(wrapped, url, mode, position, size);
+        if (memoryMapCacheEnabled || sharedReadOnly) {
+            return mapCache.map(wrapped, url, mode, position, size, acquired);
         } else {
             return wrapped.map(mode, position, size);
         }
     }
 
+    /**
+     * Releases the cached buffers acquired by a channel, allowing them to be unmapped
+     *
+     * @param acquired
+     */
+    void release(List<MappedByteBuffer> acquired) {
+        for (MappedByteBuffer buffer : acquired) {
+            mapCache.release(buffer);
+        }
+    }
+
+    /** Called by the shared read only channels on close */
+    void releaseShared(List<MappedByteBuffer> acquired) {
+        release(acquired);
+        sharedReaders.decrementAndGet();
+    }
+
+    /**
+     * Returns the channel shared among all readers in shared read only mode, opening it if missing,
+     * or if it got closed by a thread interruption
+     */
+    FileChannel getSharedChannel(ShpFileType type) throws IOException {
+        FileChannel channel = sharedChannels.get(type);
+        if (channel == null || !channel.isOpen()) {
+            synchronized (sharedChannels) {
+                channel = sharedChannels.get(type);
+                if (channel == null || !channel.isOpen()) {
+                    URL url = urls.get(type);
+                    if (url == null) {
+                        throw new FileNotFoundException(
+                                "No " + type + " file for " + getTypeName());
+                    }
+                    channel = new RandomAccessFile(URLs.urlToFile(url), "r").getChannel();
+                    sharedChannels.put(type, channel);
+                }
+            }
+        }
+        return channel;
+    }
+
+    private void closeSharedChannels() {
+        synchronized (sharedChannels) {
+            for (FileChannel channel : sharedChannels.values()) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, "Failed to close shared channel", e);
+                }
+            }
+            sharedChannels.clear();
+        }
+    }
+
+    /**
+     * Returns true if the files are open in shared read only mode
+     *
+     * @see #setSharedReadOnly(boolean)
+     */
+    public boolean isSharedReadOnly() {
+        return sharedReadOnly;
+    }
+
+    /**
+     * Enables the shared read only mode, meant for files that are read by many threads and never
+     * modified. In this mode no locks are taken, all read channels share a single file handle per
+     * file using positional reads, and memory maps are cached and shared regardless of {@link
+     * #isMemoryMapCacheEnabled()}, each of them is unmapped only after the last channel using it
+     * got closed. Write access is refused.
+     *
+     * <p>The mode can only be changed while no file is in use.
+     *
+     * @param sharedReadOnly
+     * @throws IllegalStateException if the files are not local, or are in use
+     * @since 20
+     */
+    public void setSharedReadOnly(boolean sharedReadOnly) {
+        if (sharedReadOnly == this.sharedReadOnly) {
+            return;
+        }
+        if (sharedReadOnly && !isLocal()) {
+            throw new IllegalStateException("Shared read only mode requires local files");
+        }
+        if (numberOfLocks() != 0 || sharedReaders.get() != 0) {
+            throw new IllegalStateException(
+                    "Cannot change the sharing mode while the files are in use");
+        }
+        this.sharedReadOnly = sharedReadOnly;
+        if (!sharedReadOnly) {
+            closeSharedChannels();
+        }
+    }
+
     /**
      * Returns the status of the memory map cache. When enabled the memory mapped portions of the
      * files are cached and shared (giving each thread a clone of it)
@@ -0,0 +1,385 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.shapefile.index.rtree;
+
+import com.vividsolutions.jts.geom.Envelope;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import org.geotools.data.CloseableIterator;
+import org.geotools.data.shapefile.index.Data;
+import org.geotools.data.shapefile.index.DataDefinition;
+import org.geotools.data.shapefile.index.TreeException;
+
+/**
+ * A read only, packed Hilbert R-tree stored in a single file, as written by {@link
+ * PackedRTreeWriter}.
+ *
+ * <p>The file is little endian and laid out as a fixed size header followed by the tree levels,
+ * root first. Each level is a flat array of entries and the children of the entry {@code i} are the
+ * entries {@code [i * nodeSize, (i + 1) * nodeSize)} of the level below, so no child pointers are
+ * stored. Inner entries hold a bounding box as four floats, leaf entries add the record number and
+ * the byte offset of the record in the .shp file. Boxes are rounded outwards when narrowed to
+ * floats, the index can return false positives but never misses a record.
+ *
+ * <p>Searches walk the tree one level at a time, reading the matching runs of each level with a
+ * single positional read, and return the records sorted by file offset in batches, so that the
+ * shapefile reader mostly moves forward.
+ *
+ * @since 20
+ */
+public class PackedRTree implements Closeable {
+
+    static final byte[] MAGIC = {'G', 'T', 'H', 'R'};
+
+    static final int VERSION = 1;
+
+    /** magic, version, node size, item count and the tree bounds as four doubles */
+    static final int HEADER_SIZE = 48;
+
+    static final int NODE_ENTRY_SIZE = 16;
+
+    static final int LEAF_ENTRY_SIZE = 24;
+
+    static final int DEFAULT_NODE_SIZE = 16;
+
+    /** Number of leaf hits sorted and returned at a time */
+    static final int MAX_HITS = 32768;
+
+    /** Size of the buffers used to read the levels */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    static final DataDefinition DATA_DEFINITION = new DataDefinition("US-ASCII");
+
+    static {
+        DATA_DEFINITION.addField(Integer.class);
+        DATA_DEFINITION.addField(Long.class);
+    }
+
+    private final RandomAccessFile raf;
+
+    private final FileChannel channel;
+
+    private final int nodeSize;
+
+    private final int size;
+
+    private final Envelope bounds;
+
+    /** Entry count of each level, leaves first */
+    private final int[] levelCounts;
+
+    /** File position of each level, leaves first */
+    private final long[] levelOffsets;
+
+    /**
+     * Opens the packed R-tree stored in the specified file
+     *
+     * @param file
+     * @throws IOException if the file cannot be read or is not a packed R-tree
+     */
+    public PackedRTree(File file) throws IOException {
+        this.raf = new RandomAccessFile(file, "r");
+        this.channel = raf.getChannel();
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            read(header, 0);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(MAGIC, magic)) {
+                throw new IOException(file + " is not a packed R-tree index");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported packed R-tree version " + version);
+            }
+            this.nodeSize = header.getInt();
+            this.size = header.getInt();
+            double minX = header.getDouble();
+            double minY = header.getDouble();
+            double maxX = header.getDouble();
+            double maxY = header.getDouble();
+            this.bounds = minX <= maxX ? new Envelope(minX, maxX, minY, maxY) : new Envelope();
+            if (nodeSize < 2 || size < 0) {
+                throw new IOException("Invalid packed R-tree header in " + file);
+            }
+            this.levelCounts = levelCounts(size, nodeSize);
+            this.levelOffsets = levelOffsets(levelCounts);
+            long expected = levelOffsets[0] + (long) levelCounts[0] * LEAF_ENTRY_SIZE;
+            if (channel.size() < expected) {
+                throw new EOFException("Truncated packed R-tree index " + file);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the entry count of each level of a tree holding the specified number of items,
+     * starting from the leaves
+     */
+    static int[] levelCounts(int items, int nodeSize) {
+        int[] counts = new int[] {items};
+        int count = items;
+        while (count > 1) {
+            count = (count + nodeSize - 1) / nodeSize;
+            counts = Arrays.copyOf(counts, counts.length + 1);
+            counts[counts.length - 1] = count;
+        }
+        return counts;
+    }
+
+    /** Returns the file position of each level, starting from the leaves */
+    static long[] levelOffsets(int[] counts) {
+        long[] offsets = new long[counts.length];
+        long offset = HEADER_SIZE;
+        for (int level = counts.length - 1; level > 0; level--) {
+            offsets[level] = offset;
+            offset += (long) counts[level] * NODE_ENTRY_SIZE;
+        }
+        offsets[0] = offset;
+        return offsets;
+    }
+
+    /** The bounds of all the indexed records */
+    public Envelope getBounds() {
+        return bounds;
+    }
+
+    /** The number of indexed records */
+    public int getSize() {
+        return size;
+    }
+
+    /** The maximum number of children of each node */
+    public int getNodeSize() {
+        return nodeSize;
+    }
+
+    /**
+     * Searches the records whose bounding box intersects the specified envelope. The returned
+     * {@link Data} hold the one based record number and the offset of the record in the .shp
+     * file, like the ones returned by the quadtree. Closing the iterator also closes this tree.
+     *
+     * @param bbox
+     * @throws IOException
+     */
+    public CloseableIterator<Data> search(Envelope bbox) throws IOException {
+        int top = levelCounts.length - 1;
+        Ranges ranges = new Ranges();
+        if (size > 0) {
+            ranges.add(0, levelCounts[top]);
+        }
+        ByteBuffer buffer =
+                ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (int level = top; level > 0 && ranges.size > 0; level--) {
+            ranges = searchLevel(level, ranges, bbox, buffer);
+        }
+        return new SearchIterator(ranges, bbox, buffer);
+    }
+
+    /**
+     * Reads the entries of the given ranges in the specified inner level and returns the ranges of
+     * the children, in the level below, of the entries intersecting the bbox
+     */
+    private Ranges searchLevel(int level, Ranges ranges, Envelope bbox, ByteBuffer buffer)
+            throws IOException {
+        Ranges children = new Ranges();
+        int childCount = levelCounts[level - 1];
+        int chunk = buffer.capacity() / NODE_ENTRY_SIZE;
+        for (int r = 0; r < ranges.size; r++) {
+            int start = ranges.starts[r];
+            int end = ranges.ends[r];
+            while (start < end) {
+                int count = Math.min(end - start, chunk);
+                buffer.clear().limit(count * NODE_ENTRY_SIZE);
+                read(buffer, levelOffsets[level] + (long) start * NODE_ENTRY_SIZE);
+                for (int i = 0; i < count; i++) {
+                    if (intersects(buffer, bbox)) {
+                        long first = (long) (start + i) * nodeSize;
+                        children.add((int) first, (int) Math.min(first + nodeSize, childCount));
+                    }
+                }
+                start += count;
+            }
+        }
+        return children;
+    }
+
+    /** Reads the next box in the buffer and checks if it intersects the bbox */
+    static boolean intersects(ByteBuffer buffer, Envelope bbox) {
+        float minX = buffer.getFloat();
+        float minY = buffer.getFloat();
+        float maxX = buffer.getFloat();
+        float maxY = buffer.getFloat();
+        // written so that NaN boxes (null shapes) never match
+        return minX <= bbox.getMaxX()
+                && maxX >= bbox.getMinX()
+                && minY <= bbox.getMaxY()
+                && maxY >= bbox.getMinY();
+    }
+
+    private void read(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of the packed R-tree index");
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    public void close() throws IOException {
+        raf.close();
+    }
+
+    /**
+     * A sorted list of entry ranges. Ranges closer than a node are merged, reading a few extra
+     * entries is cheaper than an extra read, and does not alter the results since an entry
+     * intersecting the bbox is a match regardless of how it was reached.
+     */
+    class Ranges {
+        int[] starts = new int[16];
+
+        int[] ends = new int[16];
+
+        int size;
+
+        void add(int start, int end) {
+            if (size > 0 && start - ends[size - 1] <= nodeSize) {
+                ends[size - 1] = Math.max(end, ends[size - 1]);
+                return;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+    }
+
+    /** Scans the leaf ranges, returning the hits sorted by file offset, a batch at a time */
+    class SearchIterator implements CloseableIterator<Data> {
+
+        Ranges ranges;
+
+        Envelope bbox;
+
+        ByteBuffer buffer;
+
+        int range;
+
+        int position;
+
+        /** record number in the upper 32 bits, offset in the lower ones */
+        long[] hits = new long[64];
+
+        int hitCount;
+
+        int hitIndex;
+
+        boolean closed;
+
+        SearchIterator(Ranges ranges, Envelope bbox, ByteBuffer buffer) {
+            this.ranges = ranges;
+            this.bbox = bbox;
+            this.buffer = buffer;
+            if (ranges.size > 0) {
+                this.position = ranges.starts[0];
+            }
+        }
+
+        public boolean hasNext() {
+            if (closed) {
+                throw new IllegalStateException("Iterator has been closed!");
+            }
+            if (hitIndex < hitCount) {
+                return true;
+            }
+            try {
+                fill();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return hitIndex < hitCount;
+        }
+
+        private void fill() throws IOException {
+            hitCount = 0;
+            hitIndex = 0;
+            int chunk = buffer.capacity() / LEAF_ENTRY_SIZE;
+            while (hitCount < MAX_HITS && range < ranges.size) {
+                int end = ranges.ends[range];
+                int count = Math.min(end - position, chunk);
+                buffer.clear().limit(count * LEAF_ENTRY_SIZE);
+                read(buffer, levelOffsets[0] + (long) position * LEAF_ENTRY_SIZE);
+                for (int i = 0; i < count; i++) {
+                    boolean match = intersects(buffer, bbox);
+                    int recno = buffer.getInt();
+                    int offset = buffer.getInt();
+                    if (match) {
+                        if (hitCount == hits.length) {
+                            hits = Arrays.copyOf(hits, hitCount * 2);
+                        }
+                        hits[hitCount++] = ((long) recno << 32) | (offset & 0xFFFFFFFFL);
+                    }
+                }
+                position += count;
+                if (position >= end && ++range < ranges.size) {
+                    position = ranges.starts[range];
+                }
+            }
+            // records are stored in file order, sorting by number sorts by offset
+            Arrays.sort(hits, 0, hitCount);
+        }
+
+        public Data next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements available");
+            }
+            long hit = hits[hitIndex++];
+            try {
+                Data data = new Data(DATA_DEFINITION);
+                data.addValue((int) (hit >>> 32) + 1);
+                data.addValue(Long.valueOf(hit & 0xFFFFFFFFL));
+                return data;
+            } catch (TreeException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        public void close() throws IOException {
+            closed = true;
+            PackedRTree.this.close();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.shapefile.index.rtree;
+
+import static org.geotools.data.shapefile.index.rtree.PackedRTree.HEADER_SIZE;
+import static org.geotools.data.shapefile.index.rtree.PackedRTree.LEAF_ENTRY_SIZE;
+import static org.geotools.data.shapefile.index.rtree.PackedRTree.NODE_ENTRY_SIZE;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Builds a {@link PackedRTree}. The records are added in file order, each with its bounding box and
+ * .shp offset, then sorted along a Hilbert curve and packed bottom up into full nodes. The tree is
+ * written with a single sequential pass over the output file.
+ *
+ * <p>Memory usage is about 32 bytes per record, boxes are kept as floats and the sort runs on
+ * primitive keys.
+ *
+ * @since 20
+ */
+public class PackedRTreeWriter {
+
+    /** Side of the grid the box centers are snapped to before computing the Hilbert index */
+    static final int HILBERT_SIDE = 1 << 15;
+
+    private final int nodeSize;
+
+    /** minX, minY, maxX, maxY for each record */
+    private float[] boxes;
+
+    private int[] offsets;
+
+    private int size;
+
+    private float minX = Float.POSITIVE_INFINITY;
+
+    private float minY = Float.POSITIVE_INFINITY;
+
+    private float maxX = Float.NEGATIVE_INFINITY;
+
+    private float maxY = Float.NEGATIVE_INFINITY;
+
+    public PackedRTreeWriter(int expectedSize) {
+        this(expectedSize, PackedRTree.DEFAULT_NODE_SIZE);
+    }
+
+    /**
+     * @param expectedSize the expected number of records, used to size the buffers
+     * @param nodeSize the maximum number of children of each node
+     */
+    public PackedRTreeWriter(int expectedSize, int nodeSize) {
+        if (nodeSize < 2) {
+            throw new IllegalArgumentException("Node size must be at least 2: " + nodeSize);
+        }
+        this.nodeSize = nodeSize;
+        int capacity = Math.max(expectedSize, 16);
+        this.boxes = new float[capacity * 4];
+        this.offsets = new int[capacity];
+    }
+
+    /**
+     * Adds the next record. Records are numbered in the order they are added, matching the order
+     * of the shapefile.
+     *
+     * @param offset the record offset in bytes in the .shp file
+     * @param minX
+     * @param minY
+     * @param maxX
+     * @param maxY
+     */
+    public void add(int offset, double minX, double minY, double maxX, double maxY) {
+        if (size == offsets.length) {
+            int capacity = size + (size >> 1);
+            boxes = Arrays.copyOf(boxes, capacity * 4);
+            offsets = Arrays.copyOf(offsets, capacity);
+        }
+        float fMinX = floor(minX);
+        float fMinY = floor(minY);
+        float fMaxX = ceil(maxX);
+        float fMaxY = ceil(maxY);
+        int base = size * 4;
+        boxes[base] = fMinX;
+        boxes[base + 1] = fMinY;
+        boxes[base + 2] = fMaxX;
+        boxes[base + 3] = fMaxY;
+        offsets[size++] = offset;
+        // comparisons skip the NaN boxes of null shapes
+        if (fMinX < this.minX) this.minX = fMinX;
+        if (fMinY < this.minY) this.minY = fMinY;
+        if (fMaxX > this.maxX) this.maxX = fMaxX;
+        if (fMaxY > this.maxY) this.maxY = fMaxY;
+    }
+
+    /**
+     * Adds a record without geometry, it will never be returned by a search
+     *
+     * @param offset the record offset in bytes in the .shp file
+     */
+    public void addNull(int offset) {
+        add(offset, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+    }
+
+    /** The number of records added so far */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Sorts the records and writes the tree to the specified file
+     *
+     * @param file
+     * @throws IOException
+     */
+    public void write(File file) throws IOException {
+        // sort the records along the Hilbert curve, record number in the lower bits
+        long[] keys = new long[size];
+        double width = maxX - minX;
+        double height = maxY - minY;
+        for (int i = 0; i < size; i++) {
+            int base = i * 4;
+            double cx = (boxes[base] + boxes[base + 2]) / 2;
+            double cy = (boxes[base + 1] + boxes[base + 3]) / 2;
+            int x = width > 0 ? (int) ((cx - minX) / width * (HILBERT_SIDE - 1)) : 0;
+            int y = height > 0 ? (int) ((cy - minY) / height * (HILBERT_SIDE - 1)) : 0;
+            keys[i] = ((long) hilbert(x, y) << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        // build the inner levels bottom up, each entry is the union of its children
+        int[] counts = PackedRTree.levelCounts(size, nodeSize);
+        float[][] levels = new float[counts.length][];
+        for (int level = 1; level < counts.length; level++) {
+            levels[level] = new float[counts[level] * 4];
+            for (int i = 0; i < levels[level].length; i += 4) {
+                // start from an empty box
+                levels[level][i] = levels[level][i + 1] = Float.POSITIVE_INFINITY;
+                levels[level][i + 2] = levels[level][i + 3] = Float.NEGATIVE_INFINITY;
+            }
+            for (int i = 0; i < counts[level - 1]; i++) {
+                int child = level == 1 ? (int) keys[i] * 4 : i * 4;
+                float[] source = level == 1 ? boxes : levels[level - 1];
+                union(levels[level], (i / nodeSize) * 4, source, child);
+            }
+        }
+
+        try (FileOutputStream fos = new FileOutputStream(file);
+                FileChannel channel = fos.getChannel()) {
+            ByteBuffer buffer =
+                    ByteBuffer.allocateDirect(PackedRTree.BUFFER_SIZE)
+                            .order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(PackedRTree.MAGIC);
+            buffer.putInt(PackedRTree.VERSION);
+            buffer.putInt(nodeSize);
+            buffer.putInt(size);
+            // no bounds if there are no records, or only null shapes
+            boolean empty = !(minX <= maxX);
+            buffer.putDouble(empty ? 0 : minX);
+            buffer.putDouble(empty ? 0 : minY);
+            buffer.putDouble(empty ? -1 : maxX);
+            buffer.putDouble(empty ? -1 : maxY);
+            assert buffer.position() == HEADER_SIZE;
+
+            for (int level = counts.length - 1; level > 0; level--) {
+                float[] entries = levels[level];
+                for (int i = 0; i < counts[level]; i++) {
+                    ensureRemaining(channel, buffer, NODE_ENTRY_SIZE);
+                    putBox(buffer, entries, i * 4);
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                ensureRemaining(channel, buffer, LEAF_ENTRY_SIZE);
+                int recno = (int) keys[i];
+                putBox(buffer, boxes, recno * 4);
+                buffer.putInt(recno);
+                buffer.putInt(offsets[recno]);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void union(float[] target, int t, float[] source, int s) {
+        if (source[s] < target[t]) target[t] = source[s];
+        if (source[s + 1] < target[t + 1]) target[t + 1] = source[s + 1];
+        if (source[s + 2] > target[t + 2]) target[t + 2] = source[s + 2];
+        if (source[s + 3] > target[t + 3]) target[t + 3] = source[s + 3];
+    }
+
+    private static void putBox(ByteBuffer buffer, float[] boxes, int base) {
+        buffer.putFloat(boxes[base]);
+        buffer.putFloat(boxes[base + 1]);
+        buffer.putFloat(boxes[base + 2]);
+        buffer.putFloat(boxes[base + 3]);
+    }
+
+    private static void ensureRemaining(FileChannel channel, ByteBuffer buffer, int bytes)
+            throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /** Rounds down to the closest float, so that the box can only grow */
+    static float floor(double value) {
+        float f = (float) value;
+        return f > value ? Math.nextDown(f) : f;
+    }
+
+    /** Rounds up to the closest float, so that the box can only grow */
+    static float ceil(double value) {
+        float f = (float) value;
+        return f < value ? Math.nextUp(f) : f;
+    }
+
+    /**
+     * Returns the distance along a Hilbert curve filling a {@link #HILBERT_SIDE} wide square of the
+     * specified cell, fits in 30 bits
+     */
+    static int hilbert(int x, int y) {
+        int d = 0;
+        for (int s = HILBERT_SIDE / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += s * s * ((3 * rx) ^ ry);
+            // rotate the quadrant
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = HILBERT_SIDE - 1 - x;
+                    y = HILBERT_SIDE - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+}
@@ -649,6 +649,24 @@ public class ShapefileReader implements FileReader {
         }
     }
 
+    /**
+     * Moves the reader before the record at the specified position (zero based), so that the next
+     * calls to hasNext/nextRecord read the records sequentially from there. Unlike {@link
+     * #goTo(int)} the .shx file keeps on being used, so sparse shapefiles are still supported.
+     *
+     * @param index The position of the record
+     * @throws UnsupportedOperationException if the .shx file is not available
+     * @since 20
+     */
+    public void goToRecord(int index) throws IOException, UnsupportedOperationException {
+        if (shxReader == null || currentShape == UNKNOWN) {
+            throw new UnsupportedOperationException("The .shx file is not available");
+        }
+        currentShape = index;
+        // hasNext checks the next record number follows this one, and record numbers are one based
+        record.number = index;
+    }
+
     /**
      * Returns the shape at the specified byte distance from the beginning of the file. Mind that:
      *
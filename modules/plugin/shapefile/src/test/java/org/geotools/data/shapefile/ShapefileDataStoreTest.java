@@ -21,6 +21,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -60,6 +61,9 @@ import java.util.Set;
 import java.util.TimeZone;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.geotools.TestData;
 import org.geotools.data.DataStore;
 import org.geotools.data.DataUtilities;
@@ -71,22 +75,30 @@ import org.geotools.data.Query;
 import org.geotools.data.Transaction;
 import org.geotools.data.collection.ListFeatureCollection;
 import org.geotools.data.shapefile.files.ShpFileType;
+import org.geotools.data.shapefile.files.ShpFiles;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureIterator;
 import org.geotools.data.simple.SimpleFeatureSource;
 import org.geotools.data.simple.SimpleFeatureStore;
+import org.geotools.data.store.ContentFeaturePartition;
 import org.geotools.data.store.ContentFeatureSource;
 import org.geotools.factory.CommonFactoryFinder;
 import org.geotools.factory.FactoryRegistryException;
+import org.geotools.factory.Hints;
 import org.geotools.feature.DefaultFeatureCollection;
 import org.geotools.feature.FeatureTypes;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
 import org.geotools.feature.type.BasicFeatureTypes;
+import org.geotools.feature.visitor.AverageVisitor;
+import org.geotools.feature.visitor.MaxVisitor;
+import org.geotools.feature.visitor.MinVisitor;
+import org.geotools.feature.visitor.SumVisitor;
 import org.geotools.filter.IllegalFilterException;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.referencing.CRS;
 import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.geotools.util.NullProgressListener;
 import org.geotools.util.URLs;
 import org.junit.After;
 import org.junit.Test;
@@ -102,6 +114,8 @@ import org.opengis.filter.FilterFactory2;
 import org.opengis.filter.Id;
 import org.opengis.filter.identity.FeatureId;
 import org.opengis.filter.identity.Identifier;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
 import org.opengis.geometry.BoundingBox;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 
@@ -447,6 +461,202 @@ public class ShapefileDataStoreTest extends TestCaseSupport {
         ds2.dispose();
     }
 
+    @Test
+    public void testCreateAndReadHRX() throws Exception {
+        File shpFile = copyShapefiles(STATE_POP);
+        URL url = shpFile.toURI().toURL();
+        File qix = sibling(shpFile, "qix");
+        qix.delete();
+        File hrx = sibling(shpFile, "hrx");
+
+        ShapeFileIndexer indexer = new ShapeFileIndexer();
+        indexer.setShapeFileName(new ShpFiles(shpFile));
+        indexer.setIndexType(ShpFileType.HRX);
+        assertEquals(49, indexer.index(false, new NullProgressListener()));
+        assertTrue(hrx.exists());
+
+        ShapefileDataStore ds = new ShapefileDataStore(url);
+        assertEquals(ShpFileType.HRX, ds.indexManager.getSpatialIndexType());
+        ShapefileDataStore ds2 = new ShapefileDataStore(url);
+        ds2.setIndexed(false);
+
+        ReferencedEnvelope bounds = ds.getFeatureSource().getBounds();
+        double dx = bounds.getWidth() / 4;
+        double dy = bounds.getHeight() / 4;
+        CoordinateReferenceSystem crs = bounds.getCoordinateReferenceSystem();
+        performQueryComparison(
+                ds,
+                ds2,
+                new ReferencedEnvelope(
+                        bounds.getMinX() + dx,
+                        bounds.getMaxX() - dx,
+                        bounds.getMinY() + dy,
+                        bounds.getMaxY() - dy,
+                        crs));
+        performQueryComparison(
+                ds,
+                ds2,
+                new ReferencedEnvelope(
+                        bounds.getMinX(),
+                        bounds.getMinX() + dx,
+                        bounds.getMinY(),
+                        bounds.getMinY() + dy,
+                        crs));
+
+        // the packed r-tree was used, no quadtree got created
+        assertFalse(qix.exists());
+        ds.dispose();
+        ds2.dispose();
+    }
+
+    @Test
+    public void testSharedReadOnly() throws Exception {
+        File shpFile = copyShapefiles(STATE_POP);
+        URL url = shpFile.toURI().toURL();
+        ShapefileDataStore reference = new ShapefileDataStore(url);
+        final List<String> expected = readFids(reference.getFeatureSource());
+        reference.dispose();
+
+        final ShapefileDataStore ds = new ShapefileDataStore(url);
+        ds.setSharedReadOnly(true);
+        assertTrue(ds.isMemoryMapped());
+        final SimpleFeatureSource fs = ds.getFeatureSource();
+        assertFalse(fs instanceof SimpleFeatureStore);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                results.add(executor.submit(() -> readFids(fs)));
+            }
+            for (Future<List<String>> result : results) {
+                assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(0, ds.shpFiles.numberOfLocks());
+        ds.dispose();
+    }
+
+    @Test
+    public void testFeatureRecycling() throws Exception {
+        URL url = TestData.url(STATE_POP);
+        ShapefileDataStore ds = new ShapefileDataStore(url);
+        SimpleFeatureSource fs = ds.getFeatureSource();
+        assertTrue(fs.getSupportedHints().contains(Hints.FEATURE_RECYCLE));
+        List<String> expected = readFids(fs);
+
+        Query query = new Query(ds.getTypeNames()[0]);
+        query.setHints(new Hints(Hints.FEATURE_RECYCLE, Boolean.TRUE));
+        List<String> actual = new ArrayList<>();
+        SimpleFeature previous = null;
+        try (FeatureReader<SimpleFeatureType, SimpleFeature> reader =
+                ds.getFeatureReader(query, Transaction.AUTO_COMMIT)) {
+            while (reader.hasNext()) {
+                SimpleFeature f = reader.next();
+                if (previous != null) {
+                    assertSame(previous, f);
+                }
+                previous = f;
+                actual.add(f.getID() + f.getDefaultGeometry() + f.getAttribute("STATE_NAME"));
+            }
+        }
+        assertEquals(expected, actual);
+        ds.dispose();
+    }
+
+    @Test
+    public void testFeatureRecyclingSorted() throws Exception {
+        URL url = TestData.url(STATE_POP);
+        ShapefileDataStore ds = new ShapefileDataStore(url);
+        SimpleFeatureSource fs = ds.getFeatureSource();
+        FilterFactory ff = CommonFactoryFinder.getFilterFactory(null);
+        SortBy[] sortBy = {ff.sort("STATE_NAME", SortOrder.DESCENDING)};
+
+        Query query = new Query(ds.getTypeNames()[0]);
+        query.setSortBy(sortBy);
+        List<String> expected = new ArrayList<>();
+        for (Object f : fs.getFeatures(query).toArray()) {
+            expected.add((String) ((SimpleFeature) f).getAttribute("STATE_NAME"));
+        }
+
+        // the sorted reader keeps the features, they must not be recycled
+        query.setHints(new Hints(Hints.FEATURE_RECYCLE, Boolean.TRUE));
+        List<SimpleFeature> features = new ArrayList<>();
+        try (FeatureReader<SimpleFeatureType, SimpleFeature> reader =
+                ds.getFeatureReader(query, Transaction.AUTO_COMMIT)) {
+            while (reader.hasNext()) {
+                features.add(reader.next());
+            }
+        }
+        List<String> actual = new ArrayList<>();
+        for (SimpleFeature f : features) {
+            actual.add((String) f.getAttribute("STATE_NAME"));
+        }
+        assertEquals(expected, actual);
+        assertEquals(features.size(), new HashSet<>(features).size());
+
+        // same for the collection copied in memory
+        Object[] array = fs.getFeatures(query).toArray();
+        assertEquals(expected.size(), array.length);
+        for (int i = 0; i < array.length; i++) {
+            assertEquals(expected.get(i), ((SimpleFeature) array[i]).getAttribute("STATE_NAME"));
+        }
+        ds.dispose();
+    }
+
+    @Test
+    public void testSplit() throws Exception {
+        URL url = TestData.url(STATE_POP);
+        ShapefileDataStore ds = new ShapefileDataStore(url);
+        ContentFeatureSource fs = ds.getFeatureSource();
+        FilterFactory2 ff = CommonFactoryFinder.getFilterFactory2(null);
+        Query[] queries = {
+            // read as ranges of records
+            new Query(
+                    ds.getTypeNames()[0],
+                    ff.greater(ff.property("PERSONS"), ff.literal(1000000))),
+            // read through the spatial index
+            new Query(ds.getTypeNames()[0], ff.bbox("the_geom", -100, 25, -80, 45, null))
+        };
+        for (Query query : queries) {
+            List<String> expected = new ArrayList<>();
+            try (FeatureReader<SimpleFeatureType, SimpleFeature> reader = fs.getReader(query)) {
+                while (reader.hasNext()) {
+                    expected.add(reader.next().getID());
+                }
+            }
+            assertTrue(expected.size() > 4);
+
+            List<ContentFeaturePartition> partitions = fs.split(query, 4);
+            assertNotNull(partitions);
+            assertEquals(4, partitions.size());
+            List<String> actual = new ArrayList<>();
+            for (ContentFeaturePartition partition : partitions) {
+                try (FeatureReader<SimpleFeatureType, SimpleFeature> reader =
+                        partition.getReader()) {
+                    while (reader.hasNext()) {
+                        actual.add(reader.next().getID());
+                    }
+                }
+            }
+            assertEquals(expected, actual);
+        }
+        ds.dispose();
+    }
+
+    private List<String> readFids(SimpleFeatureSource fs) throws IOException {
+        List<String> fids = new ArrayList<>();
+        try (SimpleFeatureIterator it = fs.getFeatures().features()) {
+            while (it.hasNext()) {
+                SimpleFeature f = it.next();
+                fids.add(f.getID() + f.getDefaultGeometry() + f.getAttribute("STATE_NAME"));
+            }
+        }
+        return fids;
+    }
+
     @Test
     public void testRemove() throws Exception {
         File shpFile = copyShapefiles(STATE_POP);
@@ -1198,6 +1408,48 @@ public class ShapefileDataStoreTest extends TestCaseSupport {
         s.dispose();
     }
 
+    @Test
+    public void testDoubleVisitors() throws Exception {
+        SimpleFeatureType type = DataUtilities.createType("junk", "a:Point,v:Double");
+        DefaultFeatureCollection features = new DefaultFeatureCollection();
+        SimpleFeatureBuilder build = new SimpleFeatureBuilder(type);
+        for (Double value : new Double[] {3.5, null, -1.25, 10d}) {
+            build.add(new GeometryFactory().createPoint(new Coordinate(1, -1)));
+            build.add(value);
+            features.add(build.buildFeature(null));
+        }
+        File tmpFile = getTempFile();
+        tmpFile.createNewFile();
+        ShapefileDataStore s = new ShapefileDataStore(tmpFile.toURI().toURL());
+        writeFeatures(s, features);
+
+        // the values read as primitive doubles come back as in a regular read
+        List<Object> values = new ArrayList<>();
+        try (SimpleFeatureIterator it = s.getFeatureSource().getFeatures().features()) {
+            while (it.hasNext()) {
+                values.add(it.next().getAttribute("v"));
+            }
+        }
+        assertEquals(Arrays.asList(3.5, null, -1.25, 10d), values);
+
+        // the visitors are run straight on the dbf
+        SimpleFeatureCollection fc = s.getFeatureSource().getFeatures();
+        MinVisitor min = new MinVisitor("v", type);
+        fc.accepts(min, null);
+        assertEquals(-1.25, min.getResult().getValue());
+        MaxVisitor max = new MaxVisitor("v", type);
+        fc.accepts(max, null);
+        assertEquals(10d, max.getResult().getValue());
+        assertEquals(1, max.getNullCount());
+        SumVisitor sum = new SumVisitor("v", type);
+        fc.accepts(sum, null);
+        assertEquals(12.25, sum.getResult().getValue());
+        AverageVisitor average = new AverageVisitor("v", type);
+        fc.accepts(average, null);
+        assertEquals(12.25 / 3, average.getResult().toDouble(), 1e-9);
+        s.dispose();
+    }
+
     // We expect this to fail -- the test shows that unless we enable checking, we may suffer data
     // corruption
     @Test(expected = AssertionError.class)
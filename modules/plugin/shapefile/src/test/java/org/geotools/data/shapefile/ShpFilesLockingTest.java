@@ -23,6 +23,12 @@ import static org.junit.Assert.*;
 
 import java.io.File;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
 import org.geotools.data.shapefile.files.FileWriter;
 import org.geotools.data.shapefile.files.Result;
 import org.geotools.data.shapefile.files.ShpFiles;
@@ -190,6 +196,113 @@ public class ShpFilesLockingTest implements FileWriter {
         shpFiles.dispose();
     }
 
+    @Test
+    public void testSharedReadOnly() throws Throwable {
+        File dir = File.createTempFile("shared", "dir");
+        dir.delete();
+        dir.mkdirs();
+        File shp = new File(dir, "shared.shp");
+        byte[] content = new byte[1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Files.write(shp.toPath(), content);
+
+        ShpFiles shpFiles = new ShpFiles(shp);
+        try {
+            shpFiles.setSharedReadOnly(true);
+            assertTrue(shpFiles.isSharedReadOnly());
+            assertFalse(shpFiles.isWritable());
+
+            // two readers, no locks, independent positions over the same file handle
+            FileChannel c1 = (FileChannel) shpFiles.getReadChannel(SHP, this);
+            FileChannel c2 = (FileChannel) shpFiles.getReadChannel(SHP, this);
+            assertEquals(0, shpFiles.numberOfLocks());
+            ByteBuffer buffer = ByteBuffer.allocate(10);
+            c1.position(100);
+            c1.read(buffer);
+            assertEquals(100, buffer.get(0));
+            buffer.clear();
+            c2.read(buffer);
+            assertEquals(0, buffer.get(0));
+            assertEquals(10, c2.position());
+
+            // maps are shared and stay valid until the last reader closes
+            MappedByteBuffer m1 = c1.map(MapMode.READ_ONLY, 0, c1.size());
+            MappedByteBuffer m2 = c2.map(MapMode.READ_ONLY, 0, c2.size());
+            c1.close();
+            shpFiles.setMemoryMapCacheEnabled(false);
+            assertEquals(5, m2.get(5));
+            assertEquals(5, m1.get(5));
+
+            try {
+                shpFiles.setSharedReadOnly(false);
+                fail("The mode cannot be changed while the files are in use");
+            } catch (IllegalStateException e) {
+                // good
+            }
+            c2.close();
+
+            try {
+                shpFiles.acquireWrite(SHP, this);
+                fail("Writing should not be allowed in shared read only mode");
+            } catch (IllegalStateException e) {
+                // good
+            }
+
+            shpFiles.setSharedReadOnly(false);
+            assertFalse(shpFiles.isSharedReadOnly());
+        } finally {
+            shpFiles.dispose();
+            shp.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testSharedReadOnlyInterrupt() throws Throwable {
+        File dir = File.createTempFile("shared", "dir");
+        dir.delete();
+        dir.mkdirs();
+        File shp = new File(dir, "shared.shp");
+        byte[] content = new byte[1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Files.write(shp.toPath(), content);
+
+        ShpFiles shpFiles = new ShpFiles(shp);
+        try {
+            shpFiles.setSharedReadOnly(true);
+            FileChannel c1 = (FileChannel) shpFiles.getReadChannel(SHP, this);
+            FileChannel c2 = (FileChannel) shpFiles.getReadChannel(SHP, this);
+            ByteBuffer buffer = ByteBuffer.allocate(10);
+
+            // the interrupted thread gets the exception, and closes the shared channel
+            Thread.currentThread().interrupt();
+            try {
+                c1.read(buffer);
+                fail("The read should have been interrupted");
+            } catch (ClosedByInterruptException e) {
+                // good
+            } finally {
+                Thread.interrupted();
+            }
+
+            // the other views keep reading from a reopened channel
+            buffer.clear();
+            c2.position(100);
+            assertEquals(10, c2.read(buffer));
+            assertEquals(100, buffer.get(0));
+            c1.close();
+            c2.close();
+        } finally {
+            shpFiles.dispose();
+            shp.delete();
+            dir.delete();
+        }
+    }
+
     public String id() {
         return getClass().getName();
     }
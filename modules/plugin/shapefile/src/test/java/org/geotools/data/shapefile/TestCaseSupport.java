@@ -104,6 +104,8 @@ public class TestCaseSupport {
             dieDieDIE(sibling(targetFile, "fix"));
             // R-Tree index
             dieDieDIE(sibling(targetFile, "grx"));
+            // Packed Hilbert R-Tree index
+            dieDieDIE(sibling(targetFile, "hrx"));
             dieDieDIE(sibling(targetFile, "prj"));
             dieDieDIE(sibling(targetFile, "shp.xml"));
 
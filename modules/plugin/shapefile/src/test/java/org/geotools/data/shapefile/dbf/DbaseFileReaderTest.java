@@ -18,8 +18,11 @@ package org.geotools.data.shapefile.dbf;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
@@ -60,4 +63,87 @@ public class DbaseFileReaderTest {
         assertThat(records.get(98289L), nullValue());
         assertThat(records.get(98245L), nullValue()); // this fails with 0.0
     }
+
+    @Test
+    public void testPrimitiveAccessors() throws Exception {
+        InputStream dbf =
+                this.getClass()
+                        .getResourceAsStream(
+                                "/org/geotools/data/shapefile/test-data/dbase-file-reader/nulls.dbf");
+        DbaseFileReader dbfReader =
+                new DbaseFileReader(Channels.newChannel(dbf), false, StandardCharsets.UTF_8);
+
+        Map<Long, Double> records = new HashMap<>();
+        Map<Long, Boolean> nulls = new HashMap<>();
+        while (dbfReader.hasNext()) {
+            dbfReader.read();
+            long id = dbfReader.readLong(0);
+            records.put(id, dbfReader.readDouble(1));
+            nulls.put(id, dbfReader.isNull(1));
+        }
+        dbfReader.close();
+        dbf.close();
+
+        assertThat(records.get(98586L), is(5.21));
+        assertThat(records.get(98538L), is(0.0));
+        assertThat(records.get(98289L), is(Double.NaN));
+        assertThat(records.get(98245L), is(Double.NaN));
+        assertThat(nulls.get(98586L), is(false));
+        assertThat(nulls.get(98538L), is(false));
+        assertThat(nulls.get(98289L), is(true));
+        assertThat(nulls.get(98245L), is(true));
+    }
+
+    @Test
+    public void testNumberParsing() throws Exception {
+        String[][] values = {
+            {"12", "1.5"},
+            {"-0", "-0"},
+            {"+7", "-0.000"},
+            {"1e5", "1e3"},
+            {"12.5", "0.1"},
+            {"", ""},
+            {"abc", "***"},
+            {"123456789", "12345678.123"}
+        };
+        Object[][] expected = {
+            {12, 1.5},
+            {0, -0d},
+            {7, -0d},
+            {100000d, 1000d},
+            {12.5, 0.1},
+            {null, null},
+            {null, null},
+            {123456789, 12345678.123}
+        };
+
+        DbaseFileHeader header = new DbaseFileHeader();
+        header.addColumn("INTS", 'N', 9, 0);
+        header.addColumn("REALS", 'N', 12, 3);
+        header.setNumRecords(values.length);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        header.writeHeader(Channels.newChannel(out));
+        for (String[] record : values) {
+            out.write(' ');
+            out.write(String.format("%9s%12s", record[0], record[1]).getBytes("US-ASCII"));
+        }
+        out.write(0x1A);
+
+        DbaseFileReader dbfReader =
+                new DbaseFileReader(
+                        Channels.newChannel(new ByteArrayInputStream(out.toByteArray())),
+                        false,
+                        StandardCharsets.US_ASCII);
+        for (Object[] record : expected) {
+            dbfReader.read();
+            for (int i = 0; i < record.length; i++) {
+                assertEquals(record[i], dbfReader.readField(i));
+                assertEquals(record[i] == null, dbfReader.isNull(i));
+                double expectedDouble =
+                        record[i] == null ? Double.NaN : ((Number) record[i]).doubleValue();
+                assertEquals(expectedDouble, dbfReader.readDouble(i), 0d);
+            }
+        }
+        dbfReader.close();
+    }
 }
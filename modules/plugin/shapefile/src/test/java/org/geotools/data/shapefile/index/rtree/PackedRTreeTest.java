@@ -0,0 +1,151 @@
+/*
+ *    GeoTools - The Open Source Java GIS Toolkit
+ *    http://geotools.org
+ *
+ *    (C) 2018, Open Source Geospatial Foundation (OSGeo)
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotools.data.shapefile.index.rtree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.vividsolutions.jts.geom.Envelope;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.geotools.data.CloseableIterator;
+import org.geotools.data.shapefile.index.Data;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PackedRTreeTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSearchMatchesScan() throws Exception {
+        // skewed data, a third of the boxes are packed around the origin. Ordinates are floats so
+        // that the index boxes are exact and there are no false positives
+        Random random = new Random(42);
+        int size = 20000;
+        Envelope[] boxes = new Envelope[size];
+        PackedRTreeWriter writer = new PackedRTreeWriter(size);
+        for (int i = 0; i < size; i++) {
+            if (i % 97 == 5) {
+                writer.addNull(i * 100);
+                continue;
+            }
+            float x, y;
+            if (i % 3 == 0) {
+                x = (float) (random.nextGaussian() / 100);
+                y = (float) (random.nextGaussian() / 100);
+            } else {
+                x = random.nextFloat() * 360 - 180;
+                y = random.nextFloat() * 180 - 90;
+            }
+            float side = random.nextFloat() / 2;
+            boxes[i] = new Envelope(x, x + side, y, y + side);
+            writer.add(i * 100, x, y, x + side, y + side);
+        }
+        File file = folder.newFile("test.hrx");
+        writer.write(file);
+
+        for (int q = 0; q < 20; q++) {
+            double x = random.nextDouble() * 360 - 180;
+            double y = random.nextDouble() * 180 - 90;
+            double side = random.nextDouble() * (q % 2 == 0 ? 1 : 100);
+            Envelope bbox =
+                    q % 5 == 0
+                            ? new Envelope(-0.01, 0.01, -0.01, 0.01)
+                            : new Envelope(x, x + side, y, y + side);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (boxes[i] != null && boxes[i].intersects(bbox)) {
+                    expected.add(i + 1);
+                }
+            }
+
+            List<Integer> records = search(file, bbox);
+            assertEquals(expected, records);
+        }
+    }
+
+    @Test
+    public void testFileOrder() throws Exception {
+        // a 10x10 grid of boxes, the Hilbert order differs from the file one
+        PackedRTreeWriter writer = new PackedRTreeWriter(10, 2);
+        for (int i = 0; i < 100; i++) {
+            writer.add(i * 10, i % 10, i / 10, i % 10 + 0.5, i / 10 + 0.5);
+        }
+        File file = folder.newFile("order.hrx");
+        writer.write(file);
+
+        PackedRTree tree = new PackedRTree(file);
+        assertEquals(100, tree.getSize());
+        assertEquals(new Envelope(0, 9.5, 0, 9.5), tree.getBounds());
+        CloseableIterator<Data> it = tree.search(new Envelope(2, 6, 2, 6));
+        long lastOffset = -1;
+        int count = 0;
+        try {
+            while (it.hasNext()) {
+                Data data = it.next();
+                int recno = (Integer) data.getValue(0);
+                long offset = (Long) data.getValue(1);
+                assertEquals((recno - 1) * 10, offset);
+                assertTrue(offset > lastOffset);
+                lastOffset = offset;
+                count++;
+            }
+        } finally {
+            it.close();
+        }
+        assertEquals(25, count);
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        File file = folder.newFile("empty.hrx");
+        new PackedRTreeWriter(0).write(file);
+        PackedRTree tree = new PackedRTree(file);
+        assertEquals(0, tree.getSize());
+        assertTrue(tree.getBounds().isNull());
+        CloseableIterator<Data> it = tree.search(new Envelope(0, 1, 0, 1));
+        assertFalse(it.hasNext());
+        it.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotATree() throws Exception {
+        File file = folder.newFile("invalid.hrx");
+        Files.write(file.toPath(), new byte[PackedRTree.HEADER_SIZE]);
+        new PackedRTree(file);
+    }
+
+    private List<Integer> search(File file, Envelope bbox) throws IOException {
+        List<Integer> records = new ArrayList<>();
+        CloseableIterator<Data> it = new PackedRTree(file).search(bbox);
+        try {
+            while (it.hasNext()) {
+                records.add((Integer) it.next().getValue(0));
+            }
+        } finally {
+            it.close();
+        }
+        return records;
+    }
+}
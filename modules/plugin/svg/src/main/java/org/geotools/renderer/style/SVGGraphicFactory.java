@@ -351,6 +351,24 @@ public class SVGGraphicFactory implements Factory, ExternalGraphicFactory, Graph
         public void paintIcon(Component c, Graphics g, int x, int y) {
             svg.paint((Graphics2D) g, width, height, x, y);
         }
+
+        /**
+         * Icons painting the same cached SVG at the same size are equal, this allows caching their
+         * rasters (see {@link RasterSymbolCache})
+         */
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(svg) * 31 + width) * 31 + height;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof SVGIcon)) {
+                return false;
+            }
+            SVGIcon other = (SVGIcon) obj;
+            return svg == other.svg && width == other.width && height == other.height;
+        }
     }
 
     protected static class RenderableSVG {